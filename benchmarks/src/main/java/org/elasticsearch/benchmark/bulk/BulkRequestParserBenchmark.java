@@ -0,0 +1,124 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.bulk;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemsByShard;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the body of a bulk request of small documents is parsed into its items, either from a single array or from
+ * the pages that the HTTP layer receives it in, and how fast the parsed items are grouped into the items of the shard level requests
+ * like the coordinating node does once it resolved the target index.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BulkRequestParserBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int docCount;
+
+    @Param({ "false", "true" })
+    private boolean paged;
+
+    @Param({ "16384" })
+    private int pageSize;
+
+    @Param({ "1", "16" })
+    private int numberOfShards;
+
+    private BytesReference data;
+
+    private IndexMetadata indexMetadata;
+
+    private List<DocWriteRequest<?>> requests;
+
+    @Setup
+    public void setup() throws IOException {
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < docCount; i++) {
+            if (i % 4 == 0) {
+                body.append("{\"index\":{\"_index\":\"logs\",\"_id\":\"").append(i).append("\"}}\n");
+            } else {
+                body.append("{\"create\":{\"_index\":\"logs\",\"routing\":\"").append(i % 16).append("\"}}\n");
+            }
+            body.append("{\"@timestamp\":").append(1600000000000L + i)
+                .append(",\"message\":\"GET /search?q=").append(i).append(" HTTP/1.1\",\"status\":200,\"bytes\":").append(i * 7)
+                .append("}\n");
+        }
+        final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        if (paged) {
+            final List<BytesReference> pages = new ArrayList<>();
+            for (int from = 0; from < bytes.length; from += pageSize) {
+                pages.add(new BytesArray(bytes, from, Math.min(pageSize, bytes.length - from)));
+            }
+            data = CompositeBytesReference.of(pages.toArray(new BytesReference[0]));
+        } else {
+            data = new BytesArray(bytes);
+        }
+        indexMetadata = IndexMetadata.builder("logs")
+            .settings(Settings.builder().put("index.version.created", Version.CURRENT))
+            .numberOfShards(numberOfShards)
+            .numberOfReplicas(0)
+            .build();
+        requests = parse().requests();
+    }
+
+    @Benchmark
+    public BulkRequest parse() throws IOException {
+        return new BulkRequest().add(data, null, XContentType.JSON);
+    }
+
+    @Benchmark
+    public void groupByShard(Blackhole bh) {
+        groupByShard(requests, bh);
+    }
+
+    @Benchmark
+    public void parseAndGroupByShard(Blackhole bh) throws IOException {
+        groupByShard(parse().requests(), bh);
+    }
+
+    private void groupByShard(List<DocWriteRequest<?>> requests, Blackhole bh) {
+        final BulkItemsByShard itemsByShard = new BulkItemsByShard(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            final DocWriteRequest<?> request = requests.get(i);
+            itemsByShard.assign(i, indexMetadata, request.id(), request.routing());
+        }
+        itemsByShard.forEachShardRequest(requests, 0, (shardId, items) -> bh.consume(items));
+    }
+}
@@ -8,15 +8,22 @@
 package org.elasticsearch.benchmark.routing.allocation;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -30,6 +37,7 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
 import java.util.Collections;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 @Fork(3)
@@ -96,14 +104,29 @@ public class AllocationBenchmark {
             "       10|     10|        2|    50",
             "      100|      1|        2|    50",
             "      100|      3|        2|    50",
-            "      100|     10|        2|    50" }
+            "      100|     10|        2|    50",
+
+            // 50k shards
+            "     1000|     25|        1|   100",
+            "     5000|      5|        1|   200" }
     )
     public String indicesShardsReplicasNodes = "10|1|0|1";
 
+    // whether the balancer only weighs nodes by their shard counts, or also by the write load, search load and disk usage of their
+    // shards, which are skewed: a tenth of the indices receives most of the load
+    @Param({ "shard_count", "load" })
+    public String balance = "shard_count";
+
+    // whether the allocator skips the can remain decisions of the nodes whose shards didn't change since the previous reroute
+    @Param({ "false", "true" })
+    public boolean incrementalReroute = false;
+
     public int numTags = 2;
 
     private AllocationService strategy;
     private ClusterState initialClusterState;
+    // the allocated cluster state with an additional unassigned index
+    private ClusterState clusterStateWithNewIndex;
 
     @Setup
     public void setUp() throws Exception {
@@ -114,9 +137,13 @@ public class AllocationBenchmark {
         int numReplicas = toInt(params[2]);
         int numNodes = toInt(params[3]);
 
-        strategy = Allocators.createAllocationService(
-            Settings.builder().put("cluster.routing.allocation.awareness.attributes", "tag").build()
-        );
+        Settings.Builder settings = Settings.builder().put("cluster.routing.allocation.awareness.attributes", "tag")
+            .put(BalancedShardsAllocator.INCREMENTAL_REROUTE_SETTING.getKey(), incrementalReroute);
+        if (balance.equals("load")) {
+            settings.put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), 0.4f)
+                .put(BalancedShardsAllocator.SEARCH_LOAD_BALANCE_FACTOR_SETTING.getKey(), 0.2f)
+                .put(BalancedShardsAllocator.DISK_USAGE_BALANCE_FACTOR_SETTING.getKey(), 0.2f);
+        }
 
         Metadata.Builder mb = Metadata.builder();
         for (int i = 1; i <= numIndices; i++) {
@@ -133,6 +160,8 @@ public class AllocationBenchmark {
             rb.addAsNew(metadata.index("test_" + i));
         }
         RoutingTable routingTable = rb.build();
+        ClusterInfo clusterInfo = balance.equals("load") ? randomClusterInfo(routingTable) : ClusterInfo.EMPTY;
+        strategy = Allocators.createAllocationService(settings.build(), () -> clusterInfo);
         DiscoveryNodes.Builder nb = DiscoveryNodes.builder();
         for (int i = 1; i <= numNodes; i++) {
             nb.add(Allocators.newNode("node" + i, Collections.singletonMap("tag", "tag_" + (i % numTags))));
@@ -142,6 +171,48 @@ public class AllocationBenchmark {
             .routingTable(routingTable)
             .nodes(nb)
             .build();
+
+        ClusterState allocatedClusterState = measureAllocation();
+        while (allocatedClusterState.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING).isEmpty() == false) {
+            allocatedClusterState = strategy.applyStartedShards(
+                allocatedClusterState,
+                allocatedClusterState.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING)
+            );
+        }
+        Metadata metadataWithNewIndex = Metadata.builder(allocatedClusterState.metadata())
+            .put(
+                IndexMetadata.builder("new_index")
+                    .settings(Settings.builder().put("index.version.created", Version.CURRENT))
+                    .numberOfShards(numShards)
+                    .numberOfReplicas(numReplicas)
+            )
+            .build();
+        clusterStateWithNewIndex = ClusterState.builder(allocatedClusterState)
+            .metadata(metadataWithNewIndex)
+            .routingTable(
+                RoutingTable.builder(allocatedClusterState.routingTable()).addAsNew(metadataWithNewIndex.index("new_index")).build()
+            )
+            .build();
+    }
+
+    private static ClusterInfo randomClusterInfo(RoutingTable routingTable) {
+        Random random = new Random(0);
+        ImmutableOpenMap.Builder<String, Long> shardSizes = ImmutableOpenMap.builder();
+        ImmutableOpenMap.Builder<ShardId, Double> writeLoads = ImmutableOpenMap.builder();
+        ImmutableOpenMap.Builder<ShardId, Double> searchLoads = ImmutableOpenMap.builder();
+        for (IndexRoutingTable indexRoutingTable : routingTable) {
+            boolean hot = random.nextInt(10) == 0;
+            for (IndexShardRoutingTable shardRoutingTable : indexRoutingTable) {
+                long size = (hot ? 10_000_000_000L : 100_000_000L) + random.nextInt(100_000_000);
+                for (ShardRouting shard : shardRoutingTable) {
+                    shardSizes.put(ClusterInfo.shardIdentifierFromRouting(shard), size);
+                }
+                writeLoads.put(shardRoutingTable.shardId(), hot ? 1 + random.nextDouble() * 4 : random.nextDouble() * 0.1);
+                searchLoads.put(shardRoutingTable.shardId(), hot ? random.nextDouble() * 2 : random.nextDouble() * 0.5);
+            }
+        }
+        return new ClusterInfo(ImmutableOpenMap.of(), ImmutableOpenMap.of(), shardSizes.build(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), ImmutableOpenMap.of(), writeLoads.build(), searchLoads.build());
     }
 
     private int toInt(String v) {
@@ -160,4 +231,13 @@ public class AllocationBenchmark {
         }
         return clusterState;
     }
+
+    /**
+     * Measures the reroute that follows the creation of an index in a cluster whose shards are all started, which is the common case
+     * in large clusters and in which the shards of most nodes don't change.
+     */
+    @Benchmark
+    public ClusterState measureRerouteAfterIndexCreation() {
+        return strategy.reroute(clusterStateWithNewIndex, "index created");
+    }
 }
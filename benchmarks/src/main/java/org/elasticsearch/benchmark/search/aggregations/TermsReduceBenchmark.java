@@ -109,6 +109,10 @@ public class TermsReduceBenchmark {
         @Param({ "1", "10", "100" })
         int cardinalityFactor;
 
+        // streaming reduces only apply to terms aggregations without sub-aggregations
+        @Param({ "true", "false" })
+        boolean withNested;
+
         List<InternalAggregations> aggsList;
 
         @Setup
@@ -121,7 +125,7 @@ public class TermsReduceBenchmark {
                 dict[i] = new BytesRef(Long.toString(rand.nextLong()));
             }
             for (int i = 0; i < numShards; i++) {
-                aggsList.add(InternalAggregations.from(Collections.singletonList(newTerms(rand, dict, true))));
+                aggsList.add(InternalAggregations.from(Collections.singletonList(newTerms(rand, dict, withNested))));
             }
         }
 
@@ -172,6 +176,9 @@ public class TermsReduceBenchmark {
     @Param({ "32", "512" })
     private int bufferSize;
 
+    @Param({ "false", "true" })
+    private boolean streamingReduce;
+
     @Benchmark
     public SearchPhaseController.ReducedQueryPhase reduceAggs(TermsList candidateList) throws Exception {
         List<QuerySearchResult> shards = new ArrayList<>();
@@ -196,6 +203,7 @@ public class TermsReduceBenchmark {
         SearchRequest request = new SearchRequest();
         request.source(new SearchSourceBuilder().size(0).aggregation(AggregationBuilders.terms("test")));
         request.setBatchedReduceSize(bufferSize);
+        request.setStreamingReduce(streamingReduce);
         ExecutorService executor = Executors.newFixedThreadPool(1);
         QueryPhaseResultConsumer consumer = new QueryPhaseResultConsumer(
             request,
@@ -0,0 +1,119 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.common.cache;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link Cache} and {@link TinyLfuCache} when many threads access a skewed set of keys, like the
+ * request cache or the field data cache do. The hits and misses of each run are reported as secondary results, so that the hit
+ * rates of both caches can be compared too.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(64)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class CacheBenchmark {
+
+    private static final int NUMBER_OF_KEYS = 1 << 20;
+
+    @Param({ "lru", "tiny_lfu" })
+    private String type;
+
+    @Param({ "10000" })
+    private int maximumWeight;
+
+    // higher values make a smaller set of keys account for most accesses
+    @Param({ "3" })
+    private double skew;
+
+    private Cache<Integer, Integer> cache;
+
+    private int[] keys;
+
+    @Setup
+    public void setup() {
+        cache = CacheBuilder.<Integer, Integer>builder().setMaximumWeight(maximumWeight).setTinyLfu(type.equals("tiny_lfu")).build();
+        Random random = new Random(42);
+        keys = new int[NUMBER_OF_KEYS];
+        int keySpace = maximumWeight * 10;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (int) (keySpace * Math.pow(random.nextDouble(), skew));
+        }
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ThreadState {
+        private int index;
+
+        public long hits;
+        public long misses;
+
+        @Setup
+        public void setup() {
+            index = (int) Thread.currentThread().getId() * 7919;
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            hits = 0;
+            misses = 0;
+        }
+
+        int nextKey(int[] keys) {
+            return keys[index++ & (keys.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public Integer get(ThreadState state) {
+        Integer value = cache.get(state.nextKey(keys));
+        if (value == null) {
+            state.misses++;
+        } else {
+            state.hits++;
+        }
+        return value;
+    }
+
+    @Benchmark
+    public Integer computeIfAbsent(ThreadState state) throws ExecutionException {
+        state.hits++;
+        return cache.computeIfAbsent(state.nextKey(keys), key -> {
+            // the loader runs on the calling thread
+            state.hits--;
+            state.misses++;
+            return key;
+        });
+    }
+}
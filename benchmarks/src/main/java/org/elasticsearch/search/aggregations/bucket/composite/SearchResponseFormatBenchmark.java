@@ -0,0 +1,136 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations.bucket.composite;
+
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.action.search.ColumnarSearchResponseWriter;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.metrics.InternalMax;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of rendering large search responses, a page of hits with docvalue fields or a composite aggregation with many
+ * buckets, as JSON, as SMILE and in the binary columnar format of {@link ColumnarSearchResponseWriter}. This benchmark lives in the
+ * package of the composite aggregation so that it can build its buckets.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class SearchResponseFormatBenchmark {
+
+    @Param({ "hits", "composite" })
+    private String response;
+
+    @Param({ "json", "smile", "columnar" })
+    private String format;
+
+    // the number of hits or of composite buckets
+    @Param({ "10000", "50000" })
+    private int size;
+
+    private SearchResponse searchResponse;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        SearchHit[] hits;
+        InternalAggregations aggregations = null;
+        if (response.equals("hits")) {
+            SearchShardTarget shard = new SearchShardTarget("node", new ShardId("index", "_na_", 0), null, OriginalIndices.NONE);
+            hits = new SearchHit[size];
+            for (int i = 0; i < size; i++) {
+                Map<String, DocumentField> fields = new HashMap<>();
+                fields.put("timestamp", new DocumentField("timestamp", List.of(1600000000000L + random.nextInt(1_000_000))));
+                fields.put("bytes", new DocumentField("bytes", List.of(random.nextDouble() * 10000)));
+                fields.put("host", new DocumentField("host", List.of("host-" + random.nextInt(100))));
+                fields.put("tags", new DocumentField("tags", List.of("tag-" + random.nextInt(10), "tag-" + random.nextInt(10))));
+                hits[i] = new SearchHit(i, Integer.toString(i), fields, Map.of());
+                hits[i].score(random.nextFloat());
+                hits[i].shard(shard);
+            }
+        } else {
+            hits = new SearchHit[0];
+            List<String> sourceNames = List.of("host", "timestamp");
+            List<DocValueFormat> formats = List.of(DocValueFormat.RAW, DocValueFormat.RAW);
+            int[] reverseMuls = new int[] { 1, 1 };
+            List<InternalComposite.InternalBucket> buckets = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                CompositeKey key = new CompositeKey(new BytesRef("host-" + (i / 100)), 1600000000000L + (i % 100) * 60000L);
+                InternalAggregations subAggs = InternalAggregations.from(
+                    List.of(new InternalMax("max_bytes", random.nextDouble() * 10000, DocValueFormat.RAW, null)));
+                long docCount = 1 + random.nextInt(1000);
+                buckets.add(new InternalComposite.InternalBucket(sourceNames, formats, key, reverseMuls, docCount, subAggs));
+            }
+            CompositeKey afterKey = buckets.get(buckets.size() - 1).getRawKey();
+            aggregations = InternalAggregations.from(List.of(
+                new InternalComposite("composite", size, sourceNames, formats, buckets, afterKey, reverseMuls, false, null)));
+        }
+        SearchHits searchHits = new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), Float.NaN);
+        InternalSearchResponse internalResponse = new InternalSearchResponse(searchHits, aggregations, null, null, false, null, 1);
+        searchResponse = new SearchResponse(internalResponse, null, 1, 1, 0, 10, ShardSearchFailure.EMPTY_ARRAY,
+            SearchResponse.Clusters.EMPTY);
+    }
+
+    @Benchmark
+    public BytesReference render() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        switch (format) {
+            case "json":
+            case "smile":
+                XContentType xContentType = format.equals("json") ? XContentType.JSON : XContentType.SMILE;
+                try (XContentBuilder builder = new XContentBuilder(xContentType.xContent(), out)) {
+                    searchResponse.toXContent(builder, ToXContent.EMPTY_PARAMS);
+                }
+                break;
+            case "columnar":
+                ColumnarSearchResponseWriter.writeTo(searchResponse, out);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown format [" + format + "]");
+        }
+        return out.bytes();
+    }
+}
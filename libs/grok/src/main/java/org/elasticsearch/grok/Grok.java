@@ -57,6 +57,7 @@ public final class Grok {
 
     private final Map<String, String> patternBank;
     private final boolean namedCaptures;
+    private final String expression;
     private final Regex compiledExpression;
     private final MatcherWatchdog matcherWatchdog;
     private final List<GrokCaptureConfig> captureConfig;
@@ -85,7 +86,7 @@ public final class Grok {
             forbidCircularReferences(name, new ArrayList<>(), pattern);
         }
 
-        String expression = toRegex(grokPattern);
+        this.expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE,
             message -> logCallBack.accept(message));
@@ -247,11 +248,25 @@ public final class Grok {
      * @throws RuntimeException if there was a timeout
      */
     public boolean match(byte[] utf8Bytes, int offset, int length, GrokCaptureExtracter extracter) {
+        Matcher matcher = search(utf8Bytes, offset, length, length);
+        if (matcher == null) {
+            return false;
+        }
+        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
+        return true;
+    }
+
+    /**
+     * Searches for the first match that starts at or before {@code range}.
+     * @return the matcher positioned on the match, or {@code null} if there was no match
+     * @throws RuntimeException if there was a timeout
+     */
+    Matcher search(byte[] utf8Bytes, int offset, int length, int range) {
         Matcher matcher = compiledExpression.matcher(utf8Bytes, offset, offset + length);
         int result;
         try {
             matcherWatchdog.register(matcher);
-            result = matcher.search(offset, length, Option.DEFAULT);
+            result = matcher.search(offset, range, Option.DEFAULT);
         } finally {
             matcherWatchdog.unregister(matcher);
         }
@@ -260,10 +275,16 @@ public final class Grok {
                 matcherWatchdog.maxExecutionTimeInMillis() + "] ms");
         }
         if (result == Matcher.FAILED) {
-            return false;
+            return null;
         }
-        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
-        return true;
+        return matcher;
+    }
+
+    /**
+     * The regular expression that the grok pattern was converted into.
+     */
+    String expression() {
+        return expression;
     }
 
     /**
@@ -0,0 +1,446 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.joni.Matcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Matches text against a list of alternative grok patterns and returns the same captures as a single {@link Grok} that
+ * combines the patterns with {@code |}: the match that starts first wins, and on a tie the earlier pattern wins.
+ * <p>
+ * Each pattern is compiled on its own, together with the longest literal that every text it matches must contain. Patterns
+ * whose literal is missing from a text are skipped without running their regular expression, and a pattern that matches at
+ * the start of the text ends the search. The number of times each pattern was skipped, attempted and won, and the time spent
+ * running it, are tracked so that expensive patterns can be identified.
+ */
+public final class MultiPatternGrok {
+
+    private final Grok[] groks;
+    private final byte[][] requiredLiterals;
+    private final List<PatternStats> stats;
+
+    /**
+     * @param patternBank the pattern definitions that the patterns may refer to
+     * @param grokPatterns the alternative patterns, in order of preference
+     * @param matchIndexField if not {@code null}, each pattern is captured as {@code matchIndexField.<index of the pattern>}
+     * @param matcherWatchdog the watchdog that interrupts long running matches
+     * @param logCallBack receives the warnings that are emitted while matching
+     */
+    public MultiPatternGrok(Map<String, String> patternBank, List<String> grokPatterns, String matchIndexField,
+                            MatcherWatchdog matcherWatchdog, Consumer<String> logCallBack) {
+        this.groks = new Grok[grokPatterns.size()];
+        this.requiredLiterals = new byte[grokPatterns.size()][];
+        List<PatternStats> stats = new ArrayList<>(grokPatterns.size());
+        for (int i = 0; i < grokPatterns.size(); i++) {
+            String grokPattern = grokPatterns.get(i);
+            if (matchIndexField != null) {
+                grokPattern = "(?<" + matchIndexField + "." + i + ">" + grokPattern + ")";
+            }
+            groks[i] = new Grok(patternBank, grokPattern, matcherWatchdog, logCallBack);
+            String requiredLiteral = requiredLiteral(groks[i].expression());
+            requiredLiterals[i] = requiredLiteral == null ? null : requiredLiteral.getBytes(StandardCharsets.UTF_8);
+            stats.add(new PatternStats(grokPatterns.get(i)));
+        }
+        this.stats = List.copyOf(stats);
+    }
+
+    /**
+     * Checks whether any of the patterns matches the text.
+     *
+     * @return true if one of the patterns matches the text, false otherwise
+     * @throws RuntimeException if there was a timeout
+     */
+    public boolean match(String text) {
+        return search(text.getBytes(StandardCharsets.UTF_8), new Matcher[1]) >= 0;
+    }
+
+    /**
+     * Matches and returns the named captures of the pattern that matched.
+     *
+     * @param text the text to match and extract values from.
+     * @return a map containing field names and their respective coerced values that matched or null if no pattern matched
+     * @throws RuntimeException if there was a timeout
+     */
+    public Map<String, Object> captures(String text) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        Matcher[] matcher = new Matcher[1];
+        int index = search(utf8Bytes, matcher);
+        if (index < 0) {
+            return null;
+        }
+        GrokCaptureExtracter.MapExtracter extracter = new GrokCaptureExtracter.MapExtracter(groks[index].captureConfig());
+        extracter.extract(utf8Bytes, 0, matcher[0].getEagerRegion());
+        return extracter.result();
+    }
+
+    /**
+     * The statistics of each of the patterns, in the order of the patterns.
+     */
+    public List<PatternStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the index of the pattern that matches first, and puts the matcher positioned on its match in {@code bestMatcher},
+     * or returns -1 if no pattern matches.
+     */
+    private int search(byte[] utf8Bytes, Matcher[] bestMatcher) {
+        int best = -1;
+        int range = utf8Bytes.length;
+        for (int i = 0; i < groks.length; i++) {
+            PatternStats patternStats = stats.get(i);
+            if (requiredLiterals[i] != null && contains(utf8Bytes, requiredLiterals[i]) == false) {
+                patternStats.skipped.increment();
+                continue;
+            }
+            long startTimeInNanos = System.nanoTime();
+            Matcher matcher;
+            try {
+                // a later pattern only wins if its match starts before the best match so far
+                matcher = groks[i].search(utf8Bytes, 0, utf8Bytes.length, range);
+            } finally {
+                patternStats.attempts.increment();
+                patternStats.timeInNanos.add(System.nanoTime() - startTimeInNanos);
+            }
+            if (matcher != null && (best == -1 || matcher.getBegin() < bestMatcher[0].getBegin())) {
+                best = i;
+                bestMatcher[0] = matcher;
+                range = matcher.getBegin();
+                if (range == 0) {
+                    break;
+                }
+            }
+        }
+        if (best >= 0) {
+            stats.get(best).matches.increment();
+        }
+        return best;
+    }
+
+    private static boolean contains(byte[] text, byte[] literal) {
+        int last = text.length - literal.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < literal.length; j++) {
+                if (text[i + j] != literal[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the longest literal that every text that the regular expression matches must contain, or {@code null} if none
+     * was found. Only the parts of the expression that are outside of alternations and of optional groups or characters are
+     * considered, and expressions that change the matching options, for instance to ignore case, have no required literal.
+     */
+    static String requiredLiteral(String regex) {
+        LiteralScanner scanner = new LiteralScanner(regex);
+        List<String> literals = scanner.scanSequence();
+        if (scanner.unsupported) {
+            return null;
+        }
+        String longest = null;
+        for (String literal : literals) {
+            if (longest == null || literal.length() > longest.length()) {
+                longest = literal;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Statistics about one of the patterns.
+     */
+    public static final class PatternStats {
+        private final String pattern;
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder timeInNanos = new LongAdder();
+
+        private PatternStats(String pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * The grok pattern.
+         */
+        public String pattern() {
+            return pattern;
+        }
+
+        /**
+         * The number of texts that the pattern was not run on, because they lack a literal that the pattern requires.
+         */
+        public long skipped() {
+            return skipped.sum();
+        }
+
+        /**
+         * The number of texts that the pattern was run on.
+         */
+        public long attempts() {
+            return attempts.sum();
+        }
+
+        /**
+         * The number of texts that the pattern produced the captures for.
+         */
+        public long matches() {
+            return matches.sum();
+        }
+
+        /**
+         * The total time spent running the pattern.
+         */
+        public long timeInNanos() {
+            return timeInNanos.sum();
+        }
+    }
+
+    /**
+     * Collects the literals that a regular expression requires, see {@link #requiredLiteral(String)}.
+     */
+    private static final class LiteralScanner {
+        private static final int NO_QUANTIFIER = 0;
+        private static final int OPTIONAL = 1;
+        private static final int REPEATED = 2;
+
+        private final String regex;
+        private int pos;
+        private boolean unsupported;
+
+        private LiteralScanner(String regex) {
+            this.regex = regex;
+        }
+
+        /**
+         * Scans up to the closing parenthesis of the current group or the end of the expression.
+         */
+        private List<String> scanSequence() {
+            List<String> literals = new ArrayList<>();
+            StringBuilder run = new StringBuilder();
+            boolean alternation = false;
+            while (pos < regex.length() && regex.charAt(pos) != ')') {
+                char c = regex.charAt(pos++);
+                switch (c) {
+                    case '\\':
+                        if (pos == regex.length()) {
+                            break;
+                        }
+                        char escaped = regex.charAt(pos++);
+                        if (Character.isLetterOrDigit(escaped)) {
+                            // character types, anchors, back references and escaped characters
+                            skipEscape(escaped);
+                            flush(run, literals);
+                            quantifier();
+                        } else {
+                            appendLiteral(escaped, run, literals);
+                        }
+                        break;
+                    case '[':
+                        skipCharacterClass();
+                        flush(run, literals);
+                        quantifier();
+                        break;
+                    case '(':
+                        flush(run, literals);
+                        List<String> group = scanGroup();
+                        if (quantifier() != OPTIONAL) {
+                            literals.addAll(group);
+                        }
+                        break;
+                    case '|':
+                        alternation = true;
+                        flush(run, literals);
+                        break;
+                    case '.':
+                    case '^':
+                    case '$':
+                    case '?':
+                    case '*':
+                    case '+':
+                        flush(run, literals);
+                        quantifier();
+                        break;
+                    default:
+                        appendLiteral(c, run, literals);
+                        break;
+                }
+            }
+            flush(run, literals);
+            return alternation ? List.of() : literals;
+        }
+
+        /**
+         * Scans a group, starting right after its opening parenthesis and ending right after its closing parenthesis.
+         */
+        private List<String> scanGroup() {
+            boolean opaque = false;
+            if (regex.startsWith("?", pos)) {
+                if (regex.startsWith("?:", pos) || regex.startsWith("?>", pos)) {
+                    pos += 2;
+                } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)
+                    || regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                    // look arounds do not consume any text
+                    opaque = true;
+                    pos += 2;
+                } else if (regex.startsWith("?<", pos) || regex.startsWith("?'", pos)) {
+                    char end = regex.charAt(pos + 1) == '<' ? '>' : '\'';
+                    int nameEnd = regex.indexOf(end, pos + 2);
+                    pos = nameEnd == -1 ? regex.length() : nameEnd + 1;
+                } else if (regex.startsWith("?#", pos)) {
+                    int commentEnd = regex.indexOf(')', pos);
+                    pos = commentEnd == -1 ? regex.length() : commentEnd + 1;
+                    return List.of();
+                } else {
+                    // options, such as case insensitivity, change how literals match
+                    unsupported = true;
+                    pos++;
+                }
+            }
+            List<String> literals = scanSequence();
+            if (pos < regex.length()) {
+                pos++;
+            }
+            return opaque ? List.of() : literals;
+        }
+
+        private void appendLiteral(char c, StringBuilder run, List<String> literals) {
+            run.append(c);
+            int quantifier = quantifier();
+            if (quantifier == OPTIONAL) {
+                run.setLength(run.length() - 1);
+                flush(run, literals);
+            } else if (quantifier == REPEATED) {
+                flush(run, literals);
+            }
+        }
+
+        /**
+         * Consumes the quantifier at the current position, if any, and returns whether the quantified atom is optional or
+         * repeated.
+         */
+        private int quantifier() {
+            if (pos == regex.length()) {
+                return NO_QUANTIFIER;
+            }
+            int quantifier;
+            char c = regex.charAt(pos);
+            if (c == '?' || c == '*') {
+                quantifier = OPTIONAL;
+                pos++;
+            } else if (c == '+') {
+                quantifier = REPEATED;
+                pos++;
+            } else if (c == '{') {
+                int end = regex.indexOf('}', pos);
+                if (end == -1 || isInterval(regex.substring(pos + 1, end)) == false) {
+                    // not an interval, so the brace is a literal
+                    return NO_QUANTIFIER;
+                }
+                String min = regex.substring(pos + 1, end).split(",", -1)[0];
+                quantifier = min.isEmpty() || Integer.parseInt(min) == 0 ? OPTIONAL : REPEATED;
+                pos = end + 1;
+            } else {
+                return NO_QUANTIFIER;
+            }
+            // lazy and possessive quantifiers
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+            return quantifier;
+        }
+
+        private static boolean isInterval(String interval) {
+            if (interval.isEmpty() || interval.length() > 10) {
+                return false;
+            }
+            int commas = 0;
+            for (int i = 0; i < interval.length(); i++) {
+                char c = interval.charAt(i);
+                if (c == ',') {
+                    commas++;
+                } else if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return commas <= 1 && interval.equals(",") == false;
+        }
+
+        /**
+         * Skips the rest of an escape sequence whose first character is a letter or a digit.
+         */
+        private void skipEscape(char escaped) {
+            if (escaped == 'C' || escaped == 'M') {
+                unsupported = true;
+            } else if (escaped == 'c') {
+                pos = Math.min(pos + 1, regex.length());
+            } else if (escaped == 'x' || escaped == 'u' || Character.isDigit(escaped)) {
+                int maxLength = escaped == 'x' ? 2 : escaped == 'u' ? 4 : 3;
+                for (int i = 0; i < maxLength && pos < regex.length() && Character.digit(regex.charAt(pos), 16) != -1; i++) {
+                    pos++;
+                }
+            }
+            if (pos < regex.length()) {
+                char next = regex.charAt(pos);
+                // named properties, code points and back references
+                if (next == '{' && (escaped == 'p' || escaped == 'P' || escaped == 'x')) {
+                    skipTo('}');
+                } else if ((next == '<' || next == '\'') && (escaped == 'k' || escaped == 'g')) {
+                    skipTo(next == '<' ? '>' : '\'');
+                }
+            }
+        }
+
+        private void skipTo(char end) {
+            int index = regex.indexOf(end, pos + 1);
+            pos = index == -1 ? regex.length() : index + 1;
+        }
+
+        /**
+         * Skips a character class, starting right after its opening bracket and ending right after its closing bracket.
+         */
+        private void skipCharacterClass() {
+            if (pos < regex.length() && regex.charAt(pos) == '^') {
+                pos++;
+            }
+            if (pos < regex.length() && regex.charAt(pos) == ']') {
+                pos++;
+            }
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == '[') {
+                    skipCharacterClass();
+                } else if (c == ']') {
+                    return;
+                }
+            }
+        }
+
+        private static void flush(StringBuilder run, List<String> literals) {
+            if (run.length() > 0) {
+                literals.add(run.toString());
+                run.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MultiPatternGrokTests extends ESTestCase {
+
+    public void testRequiredLiteral() {
+        assertThat(MultiPatternGrok.requiredLiteral("foo"), equalTo("foo"));
+        assertThat(MultiPatternGrok.requiredLiteral("GET (?<path>\\S+) HTTP"), equalTo(" HTTP"));
+        assertThat(MultiPatternGrok.requiredLiteral("\\[(?<ts>[^\\]]+)\\] ERROR"), equalTo("] ERROR"));
+        assertThat(MultiPatternGrok.requiredLiteral("(?:abc(?<x>defg))"), equalTo("defg"));
+        assertThat(MultiPatternGrok.requiredLiteral("(?:foo)?bar"), equalTo("bar"));
+        assertThat(MultiPatternGrok.requiredLiteral("(?:foooo)+bar"), equalTo("foooo"));
+        assertThat(MultiPatternGrok.requiredLiteral("ab?cd"), equalTo("cd"));
+        assertThat(MultiPatternGrok.requiredLiteral("x{2}yz"), equalTo("yz"));
+        assertThat(MultiPatternGrok.requiredLiteral("\\d+ ms"), equalTo(" ms"));
+        assertThat(MultiPatternGrok.requiredLiteral("\\p{Alpha}+:"), equalTo(":"));
+        assertThat(MultiPatternGrok.requiredLiteral("(?=foo)ba"), equalTo("ba"));
+        assertThat(MultiPatternGrok.requiredLiteral("a{x"), equalTo("a{x"));
+        assertThat(MultiPatternGrok.requiredLiteral("foo|bar"), nullValue());
+        assertThat(MultiPatternGrok.requiredLiteral("(?:foo|bar)"), nullValue());
+        assertThat(MultiPatternGrok.requiredLiteral("(?i)error"), nullValue());
+        assertThat(MultiPatternGrok.requiredLiteral("\\w+"), nullValue());
+    }
+
+    public void testMatchesLikeAlternation() {
+        List<String> patterns = List.of("b%{WORD:x}", "a%{WORD:y}", "%{WORD:z} bar");
+        MultiPatternGrok grok = new MultiPatternGrok(Grok.BUILTIN_PATTERNS, patterns, null, MatcherWatchdog.noop(), logger::warn);
+        Grok alternation = new Grok(Grok.BUILTIN_PATTERNS, "(?:b%{WORD:x})|(?:a%{WORD:y})|(?:%{WORD:z} bar)", logger::warn);
+        for (String text : List.of("zab1 b2", "b1 a2", "foo bar", "bar foo", "", "a", "ba", "zzz")) {
+            assertThat(text, grok.captures(text), equalTo(alternation.captures(text)));
+            assertThat(text, grok.match(text), equalTo(alternation.match(text)));
+        }
+    }
+
+    public void testMatchIndexField() {
+        List<String> patterns = List.of("%{NUMBER:n} ms", "user=%{WORD:u}");
+        MultiPatternGrok grok = new MultiPatternGrok(Grok.BUILTIN_PATTERNS, patterns, "_match", MatcherWatchdog.noop(), logger::warn);
+        assertThat(grok.captures("user=bob"), equalTo(Map.of("_match.1", "user=bob", "u", "bob")));
+        assertThat(grok.captures("took 12 ms"), equalTo(Map.of("_match.0", "12 ms", "n", "12")));
+    }
+
+    public void testSkipsPatternsWithoutRequiredLiteral() {
+        List<String> patterns = List.of("%{NUMBER:n} ms", "user=%{WORD:u}");
+        MultiPatternGrok grok = new MultiPatternGrok(Grok.BUILTIN_PATTERNS, patterns, null, MatcherWatchdog.noop(), logger::warn);
+        assertThat(grok.captures("user=bob"), equalTo(Map.of("u", "bob")));
+        assertThat(grok.captures("took 12 ms"), equalTo(Map.of("n", "12")));
+        assertThat(grok.captures("nothing"), nullValue());
+
+        MultiPatternGrok.PatternStats first = grok.stats().get(0);
+        assertThat(first.pattern(), equalTo("%{NUMBER:n} ms"));
+        assertThat(first.skipped(), equalTo(2L));
+        assertThat(first.attempts(), equalTo(1L));
+        assertThat(first.matches(), equalTo(1L));
+
+        MultiPatternGrok.PatternStats second = grok.stats().get(1);
+        assertThat(second.pattern(), equalTo("user=%{WORD:u}"));
+        assertThat(second.skipped(), equalTo(2L));
+        assertThat(second.attempts(), equalTo(1L));
+        assertThat(second.matches(), equalTo(1L));
+    }
+}
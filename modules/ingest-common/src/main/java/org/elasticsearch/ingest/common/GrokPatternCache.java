@@ -0,0 +1,132 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.ingest.common;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.CacheLoader;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.grok.MultiPatternGrok;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A node local cache of the compiled patterns of the grok processors, so that the pipelines on the node that use the same
+ * patterns share the compiled regular expressions and compiling a pipeline again, for instance because another pipeline
+ * changed, does not compile its patterns again.
+ */
+public final class GrokPatternCache {
+
+    private final Cache<CacheKey, MultiPatternGrok> cache;
+
+    GrokPatternCache(long maxSize) {
+        this.cache = CacheBuilder.<CacheKey, MultiPatternGrok>builder().setMaximumWeight(maxSize).build();
+    }
+
+    /**
+     * Returns the compiled patterns for the given configuration, compiling them with the loader if they are not cached.
+     */
+    MultiPatternGrok computeIfAbsent(Map<String, String> patternDefinitions, List<String> patterns, boolean traceMatch,
+                                     CacheLoader<CacheKey, MultiPatternGrok> loader) throws Exception {
+        try {
+            return cache.computeIfAbsent(new CacheKey(patternDefinitions, patterns, traceMatch), loader);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    int count() {
+        return cache.count();
+    }
+
+    /**
+     * Returns the statistics of the cached patterns, keyed by pattern and summed over the processors that use the same pattern.
+     */
+    Map<String, PatternStats> stats() {
+        Map<String, PatternStats> stats = new TreeMap<>();
+        for (MultiPatternGrok grok : cache.values()) {
+            for (MultiPatternGrok.PatternStats patternStats : grok.stats()) {
+                stats.merge(patternStats.pattern(), new PatternStats(patternStats.skipped(), patternStats.attempts(),
+                    patternStats.matches(), patternStats.timeInNanos()), PatternStats::add);
+            }
+        }
+        return stats;
+    }
+
+    static final class CacheKey {
+
+        private final Map<String, String> patternDefinitions;
+        private final List<String> patterns;
+        private final boolean traceMatch;
+
+        private CacheKey(Map<String, String> patternDefinitions, List<String> patterns, boolean traceMatch) {
+            this.patternDefinitions = new HashMap<>(patternDefinitions);
+            this.patterns = new ArrayList<>(patterns);
+            this.traceMatch = traceMatch;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return traceMatch == cacheKey.traceMatch && patternDefinitions.equals(cacheKey.patternDefinitions)
+                && patterns.equals(cacheKey.patterns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(patternDefinitions, patterns, traceMatch);
+        }
+    }
+
+    /**
+     * The statistics of a pattern, see {@link MultiPatternGrok.PatternStats}.
+     */
+    static final class PatternStats implements Writeable {
+
+        final long skipped;
+        final long attempts;
+        final long matches;
+        final long timeInNanos;
+
+        PatternStats(long skipped, long attempts, long matches, long timeInNanos) {
+            this.skipped = skipped;
+            this.attempts = attempts;
+            this.matches = matches;
+            this.timeInNanos = timeInNanos;
+        }
+
+        PatternStats(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(skipped);
+            out.writeVLong(attempts);
+            out.writeVLong(matches);
+            out.writeVLong(timeInNanos);
+        }
+
+        PatternStats add(PatternStats other) {
+            return new PatternStats(skipped + other.skipped, attempts + other.attempts, matches + other.matches,
+                timeInNanos + other.timeInNanos);
+        }
+    }
+}
@@ -10,8 +10,10 @@ package org.elasticsearch.ingest.common;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.grok.Grok;
 import org.elasticsearch.grok.MatcherWatchdog;
+import org.elasticsearch.grok.MultiPatternGrok;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
 import org.elasticsearch.ingest.IngestDocument;
@@ -31,21 +33,24 @@ public final class GrokProcessor extends AbstractProcessor {
 
     private final String matchField;
     private final List<String> matchPatterns;
-    private final Grok grok;
+    private final MultiPatternGrok grok;
     private final boolean traceMatch;
     private final boolean ignoreMissing;
 
     GrokProcessor(String tag, String description, Map<String, String> patternBank, List<String> matchPatterns, String matchField,
                   boolean traceMatch, boolean ignoreMissing, MatcherWatchdog matcherWatchdog) {
+        this(tag, description, compile(patternBank, matchPatterns, traceMatch, matcherWatchdog), matchPatterns, matchField,
+            traceMatch, ignoreMissing);
+    }
+
+    private GrokProcessor(String tag, String description, MultiPatternGrok grok, List<String> matchPatterns, String matchField,
+                          boolean traceMatch, boolean ignoreMissing) {
         super(tag, description);
         this.matchField = matchField;
         this.matchPatterns = matchPatterns;
-        this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::debug);
+        this.grok = grok;
         this.traceMatch = traceMatch;
         this.ignoreMissing = ignoreMissing;
-        // Joni warnings are only emitted on an attempt to match, and the warning emitted for every call to match which is too verbose
-        // so here we emit a warning (if there is one) to the logfile at warn level on construction / processor creation.
-        new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::warn).match("___nomatch___");
     }
 
     @Override
@@ -84,7 +89,7 @@ public final class GrokProcessor extends AbstractProcessor {
         return TYPE;
     }
 
-    Grok getGrok() {
+    MultiPatternGrok getGrok() {
         return grok;
     }
 
@@ -100,6 +105,18 @@ public final class GrokProcessor extends AbstractProcessor {
         return matchPatterns;
     }
 
+    /**
+     * Compiles the patterns, each on its own so that they can be skipped when the text lacks a literal that they require.
+     */
+    static MultiPatternGrok compile(Map<String, String> patternBank, List<String> matchPatterns, boolean traceMatch,
+                                    MatcherWatchdog matcherWatchdog) {
+        // Joni warnings are only emitted on an attempt to match, and the warning emitted for every call to match which is too verbose
+        // so here we emit a warning (if there is one) to the logfile at warn level on construction / processor creation.
+        new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::warn).match("___nomatch___");
+        String matchIndexField = traceMatch && matchPatterns.size() > 1 ? PATTERN_MATCH_KEY : null;
+        return new MultiPatternGrok(patternBank, matchPatterns, matchIndexField, matcherWatchdog, logger::debug);
+    }
+
     static String combinePatterns(List<String> patterns, boolean traceMatch) {
         String combinedPattern;
         if (patterns.size() > 1) {
@@ -129,10 +146,16 @@ public final class GrokProcessor extends AbstractProcessor {
 
         private final Map<String, String> builtinPatterns;
         private final MatcherWatchdog matcherWatchdog;
+        private final GrokPatternCache patternCache;
 
         public Factory(Map<String, String> builtinPatterns, MatcherWatchdog matcherWatchdog) {
+            this(builtinPatterns, matcherWatchdog, new GrokPatternCache(IngestCommonPlugin.GROK_CACHE_SIZE.get(Settings.EMPTY)));
+        }
+
+        Factory(Map<String, String> builtinPatterns, MatcherWatchdog matcherWatchdog, GrokPatternCache patternCache) {
             this.builtinPatterns = builtinPatterns;
             this.matcherWatchdog = matcherWatchdog;
+            this.patternCache = patternCache;
         }
 
         @Override
@@ -153,8 +176,9 @@ public final class GrokProcessor extends AbstractProcessor {
             }
 
             try {
-                return new GrokProcessor(processorTag, description, patternBank, matchPatterns, matchField, traceMatch, ignoreMissing,
-                    matcherWatchdog);
+                MultiPatternGrok grok = patternCache.computeIfAbsent(customPatternBank == null ? Map.of() : customPatternBank,
+                    matchPatterns, traceMatch, key -> compile(patternBank, matchPatterns, traceMatch, matcherWatchdog));
+                return new GrokProcessor(processorTag, description, grok, matchPatterns, matchField, traceMatch, ignoreMissing);
             } catch (Exception e) {
                 throw newConfigurationException(TYPE, processorTag, "patterns",
                     "Invalid regex pattern found in: " + matchPatterns + ". " + e.getMessage());
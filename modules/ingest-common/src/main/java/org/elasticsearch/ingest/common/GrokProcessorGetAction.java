@@ -7,6 +7,7 @@
  */
 package org.elasticsearch.ingest.common;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionRequestValidationException;
@@ -18,6 +19,7 @@ import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.grok.Grok;
@@ -31,6 +33,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.elasticsearch.rest.RestRequest.Method.GET;
 
@@ -46,14 +49,21 @@ public class GrokProcessorGetAction extends ActionType<GrokProcessorGetAction.Re
     public static class Request extends ActionRequest {
 
         private final boolean sorted;
+        private final boolean stats;
 
         public Request(boolean sorted) {
+            this(sorted, false);
+        }
+
+        public Request(boolean sorted, boolean stats) {
             this.sorted = sorted;
+            this.stats = stats;
         }
 
         Request(StreamInput in) throws IOException {
             super(in);
             this.sorted = in.readBoolean();
+            this.stats = in.getVersion().onOrAfter(Version.V_8_0_0) && in.readBoolean();
         }
 
         @Override
@@ -65,34 +75,72 @@ public class GrokProcessorGetAction extends ActionType<GrokProcessorGetAction.Re
         public void writeTo(StreamOutput out) throws IOException {
             super.writeTo(out);
             out.writeBoolean(sorted);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeBoolean(stats);
+            }
         }
 
         public boolean sorted() {
             return sorted;
         }
+
+        /**
+         * Whether the response should include the statistics of the patterns of the grok processors on the node.
+         */
+        public boolean stats() {
+            return stats;
+        }
     }
 
     public static class Response extends ActionResponse implements ToXContentObject {
         private final Map<String, String> grokPatterns;
+        private final Map<String, GrokPatternCache.PatternStats> patternStats;
 
         Response(Map<String, String> grokPatterns) {
+            this(grokPatterns, null);
+        }
+
+        Response(Map<String, String> grokPatterns, Map<String, GrokPatternCache.PatternStats> patternStats) {
             this.grokPatterns = grokPatterns;
+            this.patternStats = patternStats;
         }
 
         Response(StreamInput in) throws IOException {
             super(in);
             grokPatterns = in.readMap(StreamInput::readString, StreamInput::readString);
+            if (in.getVersion().onOrAfter(Version.V_8_0_0) && in.readBoolean()) {
+                patternStats = in.readMap(StreamInput::readString, GrokPatternCache.PatternStats::new);
+            } else {
+                patternStats = null;
+            }
         }
 
         public Map<String, String> getGrokPatterns() {
             return grokPatterns;
         }
 
+        Map<String, GrokPatternCache.PatternStats> getPatternStats() {
+            return patternStats;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.startObject();
             builder.field("patterns");
             builder.map(grokPatterns);
+            if (patternStats != null) {
+                builder.startObject("pattern_stats");
+                for (Map.Entry<String, GrokPatternCache.PatternStats> entry : patternStats.entrySet()) {
+                    GrokPatternCache.PatternStats stats = entry.getValue();
+                    builder.startObject(entry.getKey());
+                    builder.field("skipped", stats.skipped);
+                    builder.field("attempts", stats.attempts);
+                    builder.field("matches", stats.matches);
+                    builder.humanReadableField("time_in_nanos", "time", new TimeValue(stats.timeInNanos, TimeUnit.NANOSECONDS));
+                    builder.endObject();
+                }
+                builder.endObject();
+            }
             builder.endObject();
             return builder;
         }
@@ -100,6 +148,12 @@ public class GrokProcessorGetAction extends ActionType<GrokProcessorGetAction.Re
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             out.writeMap(grokPatterns, StreamOutput::writeString, StreamOutput::writeString);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeBoolean(patternStats != null);
+                if (patternStats != null) {
+                    out.writeMap(patternStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+                }
+            }
         }
     }
 
@@ -107,23 +161,32 @@ public class GrokProcessorGetAction extends ActionType<GrokProcessorGetAction.Re
 
         private final Map<String, String> grokPatterns;
         private final Map<String, String> sortedGrokPatterns;
+        private final GrokPatternCache patternCache;
 
         @Inject
-        public TransportAction(TransportService transportService, ActionFilters actionFilters) {
-            this(transportService, actionFilters, Grok.BUILTIN_PATTERNS);
+        public TransportAction(TransportService transportService, ActionFilters actionFilters, GrokPatternCache patternCache) {
+            this(transportService, actionFilters, Grok.BUILTIN_PATTERNS, patternCache);
         }
 
         // visible for testing
         TransportAction(TransportService transportService, ActionFilters actionFilters, Map<String, String> grokPatterns) {
+            this(transportService, actionFilters, grokPatterns, new GrokPatternCache(0));
+        }
+
+        // visible for testing
+        TransportAction(TransportService transportService, ActionFilters actionFilters, Map<String, String> grokPatterns,
+                        GrokPatternCache patternCache) {
             super(NAME, transportService, actionFilters, Request::new);
             this.grokPatterns = grokPatterns;
             this.sortedGrokPatterns = new TreeMap<>(this.grokPatterns);
+            this.patternCache = patternCache;
         }
 
         @Override
         protected void doExecute(Task task, Request request, ActionListener<Response> listener) {
             try {
-                listener.onResponse(new Response(request.sorted() ? sortedGrokPatterns : grokPatterns));
+                listener.onResponse(new Response(request.sorted() ? sortedGrokPatterns : grokPatterns,
+                    request.stats() ? patternCache.stats() : null));
             } catch (Exception e) {
                 listener.onFailure(e);
             }
@@ -145,7 +208,8 @@ public class GrokProcessorGetAction extends ActionType<GrokProcessorGetAction.Re
         @Override
         protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) {
             boolean sorted = request.paramAsBoolean("s", false);
-            Request grokPatternsRequest = new Request(sorted);
+            boolean stats = request.paramAsBoolean("stats", false);
+            Request grokPatternsRequest = new Request(sorted, stats);
             return channel -> client.executeLocally(INSTANCE, grokPatternsRequest, new RestToXContentListener<>(channel));
         }
     }
@@ -18,7 +18,9 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class GrokProcessorFactoryTests extends ESTestCase {
 
@@ -108,4 +110,27 @@ public class GrokProcessorFactoryTests extends ESTestCase {
         assertThat(e.getMessage(),
             equalTo("[patterns] Invalid regex pattern found in: [%{MY_PATTERN:name}!]. premature end of char-class"));
     }
+
+    public void testSharesCompiledPatterns() throws Exception {
+        GrokPatternCache patternCache = new GrokPatternCache(10);
+        GrokProcessor.Factory factory = new GrokProcessor.Factory(Collections.emptyMap(), MatcherWatchdog.noop(), patternCache);
+        GrokProcessor first = factory.create(null, null, null, config("(?<foo>\\w+)", false));
+        GrokProcessor second = factory.create(null, null, null, config("(?<foo>\\w+)", false));
+        assertThat(second.getGrok(), sameInstance(first.getGrok()));
+        assertThat(patternCache.count(), equalTo(1));
+
+        GrokProcessor traced = factory.create(null, null, null, config("(?<foo>\\w+)", true));
+        assertThat(traced.getGrok(), not(sameInstance(first.getGrok())));
+        GrokProcessor other = factory.create(null, null, null, config("(?<bar>\\w+)", false));
+        assertThat(other.getGrok(), not(sameInstance(first.getGrok())));
+        assertThat(patternCache.count(), equalTo(3));
+    }
+
+    private static Map<String, Object> config(String pattern, boolean traceMatch) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("field", "_field");
+        config.put("patterns", Collections.singletonList(pattern));
+        config.put("trace_match", traceMatch);
+        return config;
+    }
 }
@@ -17,15 +17,19 @@ import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.grok.MatcherWatchdog;
+import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.IsNull.notNullValue;
@@ -103,4 +107,39 @@ public class GrokProcessorGetActionTests extends ESTestCase {
             assertThat(patterns.get("PATTERN2"), equalTo("foo2"));
         }
     }
+
+    @SuppressWarnings("unchecked")
+    public void testResponseWithPatternStats() throws Exception {
+        GrokPatternCache patternCache = new GrokPatternCache(10);
+        GrokProcessor.Factory factory = new GrokProcessor.Factory(Collections.emptyMap(), MatcherWatchdog.noop(), patternCache);
+        Map<String, Object> config = new HashMap<>();
+        config.put("field", "_field");
+        config.put("patterns", List.of("(?<n>\\d+) ms", "user=(?<u>\\w+)"));
+        GrokProcessor processor = factory.create(null, null, null, config);
+        processor.execute(RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>(Map.of("_field", "took 12 ms"))));
+
+        GrokProcessorGetAction.TransportAction transportAction = new GrokProcessorGetAction.TransportAction(
+            mock(TransportService.class), mock(ActionFilters.class), TEST_PATTERNS, patternCache);
+        GrokProcessorGetAction.Response[] receivedResponse = new GrokProcessorGetAction.Response[1];
+        transportAction.doExecute(null, new GrokProcessorGetAction.Request(false, true), ActionListener.wrap(
+            response -> receivedResponse[0] = response, e -> fail()));
+        GrokProcessorGetAction.Response response = receivedResponse[0];
+        assertThat(response.getPatternStats().keySet(), containsInAnyOrder("(?<n>\\d+) ms", "user=(?<u>\\w+)"));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        GrokProcessorGetAction.Response otherResponse = new GrokProcessorGetAction.Response(out.bytes().streamInput());
+        assertThat(otherResponse.getPatternStats().keySet(), equalTo(response.getPatternStats().keySet()));
+
+        try (XContentBuilder builder = JsonXContent.contentBuilder()) {
+            otherResponse.toXContent(builder, ToXContent.EMPTY_PARAMS);
+            Map<String, Object> converted = XContentHelper.convertToMap(BytesReference.bytes(builder), false, builder.contentType()).v2();
+            Map<String, Map<String, Object>> stats = (Map<String, Map<String, Object>>) converted.get("pattern_stats");
+            assertThat(stats.get("(?<n>\\d+) ms").get("skipped"), equalTo(0));
+            assertThat(stats.get("(?<n>\\d+) ms").get("attempts"), equalTo(1));
+            assertThat(stats.get("(?<n>\\d+) ms").get("matches"), equalTo(1));
+            assertThat(stats.get("user=(?<u>\\w+)").get("skipped"), equalTo(1));
+            assertThat(stats.get("user=(?<u>\\w+)").get("attempts"), equalTo(0));
+        }
+    }
 }
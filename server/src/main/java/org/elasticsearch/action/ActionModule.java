@@ -386,6 +386,7 @@ import org.elasticsearch.usage.UsageService;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -438,7 +439,14 @@ public class ActionModule extends AbstractModule {
         Set<RestHeaderDefinition> headers = Stream.concat(
             actionPlugins.stream().flatMap(p -> p.getRestHeaders().stream()),
             Stream.of(new RestHeaderDefinition(Task.X_OPAQUE_ID, false))
-        ).collect(Collectors.toSet());
+        ).collect(Collectors.toCollection(HashSet::new));
+        // the fair queues of the thread pool can only classify tasks by a header if it is copied to the thread context
+        final Set<String> headerNames = headers.stream().map(RestHeaderDefinition::getName).collect(Collectors.toSet());
+        for (String fairQueueHeader : threadPool.getFairQueueHeaders()) {
+            if (headerNames.contains(fairQueueHeader) == false) {
+                headers.add(new RestHeaderDefinition(fairQueueHeader, false));
+            }
+        }
         UnaryOperator<RestHandler> restWrapper = null;
         for (ActionPlugin plugin : actionPlugins) {
             UnaryOperator<RestHandler> newRestWrapper = plugin.getRestHandlerWrapper(threadPool.getThreadContext());
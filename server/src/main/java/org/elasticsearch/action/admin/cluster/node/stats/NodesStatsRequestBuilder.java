@@ -151,6 +151,14 @@ public class NodesStatsRequestBuilder
         return this;
     }
 
+    /**
+     * Should the time spent loading the metadata and creating the indices and shards of the node be returned
+     */
+    public NodesStatsRequestBuilder setStartup(boolean startup) {
+        addOrRemoveMetric(startup, NodesStatsRequest.Metric.STARTUP);
+        return this;
+    }
+
     /**
      * Helper method for adding metrics to a request
      */
@@ -0,0 +1,116 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.routing.OperationRouting;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Groups the items of a bulk request by the shard they target. The items of each shard are counted while they are assigned, so that
+ * the items of each shard level request are then collected directly into an array of the right size.
+ */
+public final class BulkItemsByShard {
+
+    private final Map<Index, ShardItems[]> itemsByIndex = new HashMap<>();
+    private final ShardItems[] itemsBySlot;
+
+    public BulkItemsByShard(int numItems) {
+        this.itemsBySlot = new ShardItems[numItems];
+    }
+
+    /**
+     * Assigns the item in the given slot of the bulk request to the shard of the given index that its id and routing resolve to.
+     */
+    public void assign(int slot, IndexMetadata indexMetadata, @Nullable String id, @Nullable String routing) {
+        final int shardId = OperationRouting.generateShardId(indexMetadata, id, routing);
+        final ShardItems[] indexItems = itemsByIndex.computeIfAbsent(indexMetadata.getIndex(),
+            index -> new ShardItems[indexMetadata.getNumberOfShards()]);
+        if (indexItems[shardId] == null) {
+            indexItems[shardId] = new ShardItems(new ShardId(indexMetadata.getIndex(), shardId));
+        }
+        indexItems[shardId].count++;
+        itemsBySlot[slot] = indexItems[shardId];
+    }
+
+    /**
+     * Whether no item was assigned to a shard.
+     */
+    public boolean isEmpty() {
+        return itemsByIndex.isEmpty();
+    }
+
+    /**
+     * Collects the assigned items of the given requests into the items of their shard level requests, which keep the order of the
+     * slots, and passes them to the given consumer. The items of a shard are split into chunks of at most {@code chunkSize} items as
+     * described in {@link TransportBulkAction#splitIntoChunks}, each of which is passed to the consumer on its own.
+     */
+    public void forEachShardRequest(List<DocWriteRequest<?>> requests, int chunkSize, BiConsumer<ShardId, BulkItemRequest[]> consumer) {
+        assert requests.size() == itemsBySlot.length : "expected [" + itemsBySlot.length + "] requests but got [" + requests.size() + "]";
+        for (int i = 0; i < itemsBySlot.length; i++) {
+            if (itemsBySlot[i] != null) {
+                itemsBySlot[i].add(new BulkItemRequest(i, requests.get(i)));
+            }
+        }
+        for (ShardItems[] indexItems : itemsByIndex.values()) {
+            for (ShardItems shardItems : indexItems) {
+                if (shardItems == null) {
+                    continue;
+                }
+                for (BulkItemRequest[] items : shardItems.splitIntoChunks(chunkSize)) {
+                    consumer.accept(shardItems.shardId, items);
+                }
+            }
+        }
+    }
+
+    /**
+     * The items of a bulk request that target the same shard, collected into an array of the size of the shard level request.
+     */
+    private static final class ShardItems {
+        private final ShardId shardId;
+        private int count;
+        private BulkItemRequest[] items;
+        private int size;
+
+        ShardItems(ShardId shardId) {
+            this.shardId = shardId;
+        }
+
+        void add(BulkItemRequest item) {
+            if (items == null) {
+                items = new BulkItemRequest[count];
+            }
+            items[size++] = item;
+        }
+
+        List<BulkItemRequest[]> splitIntoChunks(int chunkSize) {
+            assert size == count : "expected [" + count + "] items but got [" + size + "]";
+            if (chunkSize <= 0 || size <= chunkSize) {
+                return Collections.singletonList(items);
+            }
+            final List<BulkItemRequest[]> chunks = new ArrayList<>();
+            for (List<BulkItemRequest> chunk : TransportBulkAction.splitIntoChunks(Arrays.asList(items), chunkSize)) {
+                chunks.add(chunk.toArray(new BulkItemRequest[chunk.size()]));
+            }
+            return chunks;
+        }
+    }
+}
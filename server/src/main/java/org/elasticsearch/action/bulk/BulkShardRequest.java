@@ -15,12 +15,17 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.ReplicatedWriteRequest;
 import org.elasticsearch.action.support.replication.ReplicationRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -29,18 +34,52 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
     private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(BulkShardRequest.class);
 
     private final BulkItemRequest[] items;
+    // the sources of the items that reference the bytes of the transport message that this request was read from, which are released
+    // once this request isn't referenced anymore
+    private final List<ReleasableBytesReference> releasableSources;
+    private final AbstractRefCounted refCounted = new AbstractRefCounted("bulk-shard-request") {
+        @Override
+        protected void closeInternal() {
+            Releasables.close(releasableSources);
+        }
+    };
 
     public BulkShardRequest(StreamInput in) throws IOException {
         super(in);
         items = in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+        releasableSources = releasableSources(items);
     }
 
     public BulkShardRequest(ShardId shardId, RefreshPolicy refreshPolicy, BulkItemRequest[] items) {
         super(shardId);
         this.items = items;
+        this.releasableSources = List.of();
         setRefreshPolicy(refreshPolicy);
     }
 
+    private static List<ReleasableBytesReference> releasableSources(BulkItemRequest[] items) {
+        final List<ReleasableBytesReference> sources = new ArrayList<>();
+        for (BulkItemRequest item : items) {
+            if (item == null) {
+                continue;
+            }
+            final DocWriteRequest<?> request = item.request();
+            if (request instanceof IndexRequest) {
+                addReleasableSource((IndexRequest) request, sources);
+            } else if (request instanceof UpdateRequest) {
+                addReleasableSource(((UpdateRequest) request).doc(), sources);
+                addReleasableSource(((UpdateRequest) request).upsertRequest(), sources);
+            }
+        }
+        return sources;
+    }
+
+    private static void addReleasableSource(IndexRequest request, List<ReleasableBytesReference> sources) {
+        if (request != null && request.source() instanceof ReleasableBytesReference) {
+            sources.add((ReleasableBytesReference) request.source());
+        }
+    }
+
     public long totalSizeInBytes() {
         long totalSizeInBytes = 0;
         for (int i = 0; i < items.length; i++) {
@@ -143,6 +182,21 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
         }
     }
 
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return refCounted.decRef();
+    }
+
     @Override
     public long ramBytesUsed() {
         return SHALLOW_SIZE + Stream.of(items).mapToLong(Accountable::ramBytesUsed).sum();
@@ -28,6 +28,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.ingest.IngestActionForwarder;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.update.TransportUpdateAction;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
@@ -45,6 +46,7 @@ import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.Index;
@@ -63,6 +65,7 @@ import org.elasticsearch.threadpool.ThreadPool.Names;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -99,6 +102,16 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
     private static final String DROPPED_ITEM_WITH_AUTO_GENERATED_ID = "auto-generated";
     private final IndexingPressure indexingPressure;
     private final SystemIndices systemIndices;
+    private volatile int shardRequestChunkSize;
+
+    /**
+     * The maximum number of items of a shard level bulk request. Larger shard level requests are split into chunks that are executed
+     * concurrently, so that the replicas already apply the operations of one chunk while the primary still processes the others.
+     * Operations on the same document always end up in the same chunk, so they are applied in order. Requests that ask for a refresh
+     * are never split. Defaults to {@code 0} which means that shard level requests are never split.
+     */
+    public static final Setting<Integer> SHARD_REQUEST_CHUNK_SIZE_SETTING =
+        Setting.intSetting("action.bulk.shard_request_chunk_size", 0, 0, Setting.Property.Dynamic, Setting.Property.NodeScope);
 
     @Inject
     public TransportBulkAction(ThreadPool threadPool, TransportService transportService,
@@ -125,9 +138,45 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.indexingPressure = indexingPressure;
         this.systemIndices = systemIndices;
+        this.shardRequestChunkSize = SHARD_REQUEST_CHUNK_SIZE_SETTING.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SHARD_REQUEST_CHUNK_SIZE_SETTING, this::setShardRequestChunkSize);
         clusterService.addStateApplier(this.ingestForwarder);
     }
 
+    private void setShardRequestChunkSize(int shardRequestChunkSize) {
+        this.shardRequestChunkSize = shardRequestChunkSize;
+    }
+
+    /**
+     * Splits the items of a shard level bulk request into chunks of at most {@code chunkSize} items, or returns them as a single chunk
+     * if {@code chunkSize} is {@code 0}. All the items on the same document are put into the chunk of the first of them, even if this
+     * makes the chunk larger, so that the order of the operations on a document does not depend on the order the chunks are executed.
+     */
+    static List<List<BulkItemRequest>> splitIntoChunks(List<BulkItemRequest> requests, int chunkSize) {
+        if (chunkSize <= 0 || requests.size() <= chunkSize) {
+            return Collections.singletonList(requests);
+        }
+        final List<List<BulkItemRequest>> chunks = new ArrayList<>();
+        final Map<String, List<BulkItemRequest>> chunksById = new HashMap<>();
+        List<BulkItemRequest> currentChunk = null;
+        for (BulkItemRequest request : requests) {
+            final String id = request.request().id();
+            List<BulkItemRequest> chunk = id == null ? null : chunksById.get(id);
+            if (chunk == null) {
+                if (currentChunk == null || currentChunk.size() >= chunkSize) {
+                    currentChunk = new ArrayList<>(chunkSize);
+                    chunks.add(currentChunk);
+                }
+                chunk = currentChunk;
+                if (id != null) {
+                    chunksById.put(id, chunk);
+                }
+            }
+            chunk.add(request);
+        }
+        return chunks;
+    }
+
     /**
      * Retrieves the {@link IndexRequest} from the provided {@link DocWriteRequest} for index or upsert actions.  Upserts are
      * modeled as {@link IndexRequest} inside the {@link UpdateRequest}. Ignores {@link org.elasticsearch.action.delete.DeleteRequest}'s
@@ -411,8 +460,8 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
             }
             final ConcreteIndices concreteIndices = new ConcreteIndices(clusterState, indexNameExpressionResolver);
             Metadata metadata = clusterState.metadata();
-            // Group the requests by ShardId -> Operations mapping
-            Map<ShardId, List<BulkItemRequest>> requestsByShard = new HashMap<>();
+            // Group the requests by shard
+            final BulkItemsByShard itemsByShard = new BulkItemsByShard(bulkRequest.requests.size());
             for (int i = 0; i < bulkRequest.requests.size(); i++) {
                 DocWriteRequest<?> docWriteRequest = bulkRequest.requests.get(i);
                 //the request can only be null because we set it to null in the previous step, so it gets ignored
@@ -439,13 +488,13 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                         throw new IllegalArgumentException("only write ops with an op_type of create are allowed in data streams");
                     }
 
+                    final IndexMetadata indexMetadata = metadata.getIndexSafe(concreteIndex);
                     switch (docWriteRequest.opType()) {
                         case CREATE:
                         case INDEX:
                             prohibitAppendWritesInBackingIndices(docWriteRequest, metadata);
                             prohibitCustomRoutingOnDataStream(docWriteRequest, metadata);
                             IndexRequest indexRequest = (IndexRequest) docWriteRequest;
-                            final IndexMetadata indexMetadata = metadata.index(concreteIndex);
                             MappingMetadata mappingMd = indexMetadata.mapping();
                             Version indexCreated = indexMetadata.getCreationVersion();
                             indexRequest.resolveRouting(metadata);
@@ -464,10 +513,7 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                             break;
                         default: throw new AssertionError("request type not supported: [" + docWriteRequest.opType() + "]");
                     }
-                    ShardId shardId = clusterService.operationRouting().indexShards(clusterState, concreteIndex.getName(),
-                            docWriteRequest.id(), docWriteRequest.routing()).shardId();
-                    List<BulkItemRequest> shardRequests = requestsByShard.computeIfAbsent(shardId, shard -> new ArrayList<>());
-                    shardRequests.add(new BulkItemRequest(i, docWriteRequest));
+                    itemsByShard.assign(i, indexMetadata, docWriteRequest.id(), docWriteRequest.routing());
                 } catch (ElasticsearchParseException | IllegalArgumentException | RoutingMissingException e) {
                     BulkItemResponse.Failure failure = new BulkItemResponse.Failure(concreteIndex.getName(),
                         docWriteRequest.id(), e);
@@ -478,25 +524,29 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                 }
             }
 
-            if (requestsByShard.isEmpty()) {
+            if (itemsByShard.isEmpty()) {
                 listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]),
                     buildTookInMillis(startTimeNanos)));
                 return;
             }
 
-            final AtomicInteger counter = new AtomicInteger(requestsByShard.size());
             String nodeId = clusterService.localNode().getId();
-            for (Map.Entry<ShardId, List<BulkItemRequest>> entry : requestsByShard.entrySet()) {
-                final ShardId shardId = entry.getKey();
-                final List<BulkItemRequest> requests = entry.getValue();
-                BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(),
-                        requests.toArray(new BulkItemRequest[requests.size()]));
+            // every chunk would refresh the shard, or wait for a refresh, on its own
+            final int chunkSize = bulkRequest.getRefreshPolicy() == WriteRequest.RefreshPolicy.NONE ? shardRequestChunkSize : 0;
+            final List<BulkShardRequest> bulkShardRequests = new ArrayList<>();
+            itemsByShard.forEachShardRequest(bulkRequest.requests, chunkSize, (shardId, items) -> {
+                BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(), items);
                 bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
                 bulkShardRequest.timeout(bulkRequest.timeout());
                 bulkShardRequest.routedBasedOnClusterVersion(clusterState.version());
                 if (task != null) {
                     bulkShardRequest.setParentTask(nodeId, task.getId());
                 }
+                bulkShardRequests.add(bulkShardRequest);
+            });
+
+            final AtomicInteger counter = new AtomicInteger(bulkShardRequests.size());
+            for (BulkShardRequest bulkShardRequest : bulkShardRequests) {
                 client.executeLocally(TransportShardBulkAction.TYPE, bulkShardRequest, new ActionListener<>() {
                     @Override
                     public void onResponse(BulkShardResponse bulkShardResponse) {
@@ -515,7 +565,7 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                     @Override
                     public void onFailure(Exception e) {
                         // create failures for all relevant requests
-                        for (BulkItemRequest request : requests) {
+                        for (BulkItemRequest request : bulkShardRequest.items()) {
                             final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
                             DocWriteRequest<?> docWriteRequest = request.request();
                             responses.set(request.id(), new BulkItemResponse(request.id(), docWriteRequest.opType(),
@@ -123,7 +123,13 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
         }
         id = in.readOptionalString();
         routing = in.readOptionalString();
-        source = in.readBytesReference();
+        if (shardId == null) {
+            source = in.readBytesReference();
+        } else {
+            // requests that are read as part of a BulkShardRequest reference the bytes of the transport message instead of copying
+            // them, these bytes are released by the BulkShardRequest
+            source = in.readReleasableBytesReference();
+        }
         opType = OpType.fromId(in.readByte());
         version = in.readLong();
         versionType = VersionType.fromValue(in.readByte());
@@ -19,11 +19,14 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContextBuilder;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.StreamingTermsReducer;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.query.QuerySearchResult;
 
@@ -32,7 +35,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -48,6 +55,11 @@ import static org.elasticsearch.action.search.SearchPhaseController.setShardInde
  * in the {@link CircuitBreaker#REQUEST} circuit breaker. Before any partial or final reduce, the memory
  * needed to reduce the aggregations is estimated and a {@link CircuitBreakingException} is thrown if it
  * exceeds the maximum memory allowed in this breaker.
+ * When {@link SearchRequest#isStreamingReduce()} is set, the top level <code>terms</code> aggregations of the
+ * shard results of each partial reduce are merged one at a time into {@link StreamingTermsReducer}s rather than
+ * being reduced as trees of buckets. Partial reduces still run every {@link SearchRequest#getBatchedReduceSize()}
+ * results, and the other aggregations are reduced as usual. The reducers allocate their memory with the
+ * circuit breaking {@link BigArrays} of the reduce context, so it is accounted in the request circuit breaker.
  */
 public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhaseResult> implements Releasable {
     private static final Logger logger = LogManager.getLogger(QueryPhaseResultConsumer.class);
@@ -63,6 +75,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
     private final boolean hasTopDocs;
     private final boolean hasAggs;
     private final boolean performFinalReduce;
+    private final boolean streamingReduce;
+    private final BigArrays streamingBigArrays;
 
     private final PendingMerges pendingMerges;
     private final Consumer<Exception> onPartialMergeFailure;
@@ -93,6 +107,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         SearchSourceBuilder source = request.source();
         this.hasTopDocs = source == null || source.size() != 0;
         this.hasAggs = source != null && source.aggregations() != null;
+        this.streamingReduce = hasAggs && request.isStreamingReduce();
+        this.streamingBigArrays = streamingReduce ? aggReduceContextBuilder.forPartialReduction().bigArrays().withCircuitBreaking() : null;
         int batchReduceSize = (hasAggs || hasTopDocs) ? Math.min(request.getBatchedReduceSize(), expectedResultSize)  : expectedResultSize;
         this.pendingMerges = new PendingMerges(batchReduceSize, request.resolveTrackTotalHitsUpTo());
     }
@@ -182,7 +198,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
                 aggsList.add(lastMerge.reducedAggs);
             }
             for (QuerySearchResult result : toConsume) {
-                aggsList.add(result.consumeAggs());
+                InternalAggregations aggs = result.consumeAggs();
+                aggsList.add(streamingReduce ? pendingMerges.stream(aggs, aggsList) : aggs);
             }
             newAggs = InternalAggregations.topLevelReduce(aggsList, aggReduceContextBuilder.forPartialReduction());
         } else {
@@ -196,7 +213,14 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             SearchShardTarget target = result.getSearchShardTarget();
             processedShards.add(new SearchShard(target.getClusterAlias(), target.getShardId()));
         }
-        progressListener.notifyPartialReduce(processedShards, topDocsStats.getTotalHits(), newAggs, numReducePhases);
+        if (streamingReduce && progressListener != SearchProgressListener.NOOP) {
+            List<InternalAggregation> partialAggs = newAggs.copyResults();
+            partialAggs.addAll(pendingMerges.buildStreamed());
+            progressListener.notifyPartialReduce(processedShards, topDocsStats.getTotalHits(),
+                InternalAggregations.from(partialAggs), numReducePhases);
+        } else {
+            progressListener.notifyPartialReduce(processedShards, topDocsStats.getTotalHits(), newAggs, numReducePhases);
+        }
         // we leave the results un-serialized because serializing is slow but we compute the serialized
         // size as an estimate of the memory used by the newly reduced aggregations.
         long serializedSize = hasAggs ? DelayableWriteable.getSerializedSize(newAggs) : 0;
@@ -211,6 +235,10 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         private final int batchReduceSize;
         private final List<QuerySearchResult> buffer = new ArrayList<>();
         private final List<SearchShard> emptyResults = new ArrayList<>();
+        // the reducers of the streamed aggregations and the names of the aggregations that cannot be streamed,
+        // only accessed by the running merge task and the final reduce
+        private final Map<String, StreamingTermsReducer<?, ?>> streamingReducers = new HashMap<>();
+        private final Set<String> notStreamable = new HashSet<>();
         // the memory that is accounted in the circuit breaker for this consumer
         private volatile long circuitBreakerBytes;
         // the memory that is currently used in the buffer
@@ -234,6 +262,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         @Override
         public synchronized void close() {
             assert hasPendingMerges() == false : "cannot close with partial reduce in-flight";
+            Releasables.close(streamingReducers.values());
+            streamingReducers.clear();
             if (hasFailure()) {
                 assert circuitBreakerBytes == 0;
                 return;
@@ -463,11 +493,57 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             if (mergeResult != null) {
                 aggsList.add(mergeResult.reducedAggs);
             }
+            if (streamingReducers.isEmpty() == false) {
+                aggsList.add(InternalAggregations.from(buildStreamed()));
+                Releasables.close(streamingReducers.values());
+                streamingReducers.clear();
+            }
             for (QuerySearchResult result : buffer) {
                 aggsList.add(result.consumeAggs());
             }
             return aggsList;
         }
+
+        /**
+         * Merges the top level aggregations of a shard result that can be streamed into their {@link StreamingTermsReducer}
+         * and returns the other ones. The aggregation of a reducer that cannot merge an aggregation anymore is added to
+         * {@code aggsList} so that it gets reduced with the aggregations that are not streamed.
+         */
+        InternalAggregations stream(InternalAggregations aggs, List<InternalAggregations> aggsList) {
+            List<InternalAggregation> notStreamed = new ArrayList<>();
+            for (InternalAggregation agg : aggs.copyResults()) {
+                String name = agg.getName();
+                if (notStreamable.contains(name)) {
+                    notStreamed.add(agg);
+                    continue;
+                }
+                StreamingTermsReducer<?, ?> reducer = streamingReducers.get(name);
+                if (reducer == null) {
+                    reducer = StreamingTermsReducer.create(agg, streamingBigArrays);
+                    if (reducer != null) {
+                        streamingReducers.put(name, reducer);
+                    } else {
+                        notStreamable.add(name);
+                        notStreamed.add(agg);
+                    }
+                } else if (reducer.accept(agg) == false) {
+                    try (StreamingTermsReducer<?, ?> toRemove = streamingReducers.remove(name)) {
+                        aggsList.add(InternalAggregations.from(Collections.singletonList(toRemove.build())));
+                    }
+                    notStreamable.add(name);
+                    notStreamed.add(agg);
+                }
+            }
+            return InternalAggregations.from(notStreamed);
+        }
+
+        List<InternalAggregation> buildStreamed() {
+            List<InternalAggregation> aggs = new ArrayList<>(streamingReducers.size());
+            for (StreamingTermsReducer<?, ?> reducer : streamingReducers.values()) {
+                aggs.add(reducer.build());
+            }
+            return aggs;
+        }
     }
 
     private static class MergeResult {
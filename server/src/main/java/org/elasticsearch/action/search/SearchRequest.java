@@ -85,6 +85,8 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
 
     private int batchedReduceSize = DEFAULT_BATCHED_REDUCE_SIZE;
 
+    private boolean streamingReduce = false;
+
     private int maxConcurrentShardRequests = 0;
 
     private Integer preFilterShardSize;
@@ -171,6 +173,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                           boolean finalReduce) {
         this.allowPartialSearchResults = searchRequest.allowPartialSearchResults;
         this.batchedReduceSize = searchRequest.batchedReduceSize;
+        this.streamingReduce = searchRequest.streamingReduce;
         this.ccsMinimizeRoundtrips = searchRequest.ccsMinimizeRoundtrips;
         this.indices = indices;
         this.indicesOptions = searchRequest.indicesOptions;
@@ -230,6 +233,9 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         } else {
             minCompatibleShardNode = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            streamingReduce = in.readBoolean();
+        }
     }
 
     @Override
@@ -263,6 +269,9 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                 Version.writeVersion(minCompatibleShardNode, out);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeBoolean(streamingReduce);
+        }
     }
 
     @Override
@@ -582,6 +591,24 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
         return batchedReduceSize;
     }
 
+    /**
+     * Sets whether the coordinating node should merge the top level <code>terms</code> aggregations of shard results into compact
+     * accumulators as the results arrive, rather than building intermediate aggregation trees every {@link #getBatchedReduceSize()}
+     * results. Buckets that can no longer make it to the top of the aggregation are pruned continuously and accounted for in the
+     * doc count error. Defaults to <code>false</code>.
+     */
+    public void setStreamingReduce(boolean streamingReduce) {
+        this.streamingReduce = streamingReduce;
+    }
+
+    /**
+     * Returns whether the top level <code>terms</code> aggregations of shard results should be merged into compact accumulators as the
+     * results arrive on the coordinating node.
+     */
+    public boolean isStreamingReduce() {
+        return streamingReduce;
+    }
+
     /**
      * Returns the number of shard requests that should be executed concurrently on a single node. This value should be used as a
      * protection mechanism to reduce the number of shard requests fired per high level search request. Searches that hit the entire
@@ -729,6 +756,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                 Objects.equals(requestCache, that.requestCache)  &&
                 Objects.equals(scroll, that.scroll) &&
                 Objects.equals(batchedReduceSize, that.batchedReduceSize) &&
+                streamingReduce == that.streamingReduce &&
                 Objects.equals(maxConcurrentShardRequests, that.maxConcurrentShardRequests) &&
                 Objects.equals(preFilterShardSize, that.preFilterShardSize) &&
                 Objects.equals(indicesOptions, that.indicesOptions) &&
@@ -742,7 +770,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
     @Override
     public int hashCode() {
         return Objects.hash(searchType, Arrays.hashCode(indices), routing, preference, source, requestCache,
-                scroll, indicesOptions, batchedReduceSize, maxConcurrentShardRequests, preFilterShardSize,
+                scroll, indicesOptions, batchedReduceSize, streamingReduce, maxConcurrentShardRequests, preFilterShardSize,
                 allowPartialSearchResults, localClusterAlias, absoluteStartMillis, ccsMinimizeRoundtrips, minCompatibleShardNode);
     }
 
@@ -758,6 +786,7 @@ public class SearchRequest extends ActionRequest implements IndicesRequest.Repla
                 ", scroll=" + scroll +
                 ", maxConcurrentShardRequests=" + maxConcurrentShardRequests +
                 ", batchedReduceSize=" + batchedReduceSize +
+                ", streamingReduce=" + streamingReduce +
                 ", preFilterShardSize=" + preFilterShardSize +
                 ", allowPartialSearchResults=" + allowPartialSearchResults +
                 ", localClusterAlias=" + localClusterAlias +
@@ -565,6 +565,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Sets whether the top level <code>terms</code> aggregations of shard results should be merged into compact accumulators as the
+     * results arrive on the coordinating node. Defaults to <code>false</code>.
+     */
+    public SearchRequestBuilder setStreamingReduce(boolean streamingReduce) {
+        this.request.setStreamingReduce(streamingReduce);
+        return this;
+    }
+
     /**
      * Sets the number of shard requests that should be executed concurrently on a single node. This value should be used as a
      * protection mechanism to reduce the number of shard requests fired per high level search request. Searches that hit the entire
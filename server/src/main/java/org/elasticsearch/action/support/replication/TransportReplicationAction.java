@@ -274,8 +274,10 @@ public abstract class TransportReplicationAction<
 
     private void handleOperationRequest(final Request request, final TransportChannel channel, Task task) {
         Releasable releasable = checkOperationLimits(request);
-        ActionListener<Response> listener =
-            ActionListener.runBefore(new ChannelActionListener<>(channel, actionName, request), releasable::close);
+        // the request may reference the bytes of the transport message, which must not be released before the request is done
+        request.incRef();
+        ActionListener<Response> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, actionName, request), releasable::close), request::decRef);
         runReroutePhase(task, request, listener, false);
     }
 
@@ -286,8 +288,10 @@ public abstract class TransportReplicationAction<
     protected void handlePrimaryRequest(final ConcreteShardRequest<Request> request, final TransportChannel channel, final Task task) {
         Releasable releasable = checkPrimaryLimits(request.getRequest(), request.sentFromLocalReroute(),
             request.localRerouteInitiatedByNodeClient());
-        ActionListener<Response> listener =
-            ActionListener.runBefore(new ChannelActionListener<>(channel, transportPrimaryAction, request), releasable::close);
+        request.incRef();
+        ActionListener<Response> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, transportPrimaryAction, request), releasable::close),
+            request::decRef);
 
         try {
             new AsyncPrimaryAction(request, listener, (ReplicationTask) task).run();
@@ -510,8 +514,10 @@ public abstract class TransportReplicationAction<
     protected void handleReplicaRequest(final ConcreteReplicaRequest<ReplicaRequest> replicaRequest, final TransportChannel channel,
                                         final Task task) {
         Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
-        ActionListener<ReplicaResponse> listener =
-            ActionListener.runBefore(new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest), releasable::close);
+        replicaRequest.incRef();
+        ActionListener<ReplicaResponse> listener = ActionListener.runAfter(
+            ActionListener.runBefore(new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest), releasable::close),
+            replicaRequest::decRef);
 
         try {
             new AsyncReplicaAction(replicaRequest, listener, (ReplicationTask) task).run();
@@ -1156,6 +1162,21 @@ public abstract class TransportReplicationAction<
             return "[" + request.getDescription() + "] for aID [" + targetAllocationID + "] and term [" + primaryTerm + "]";
         }
 
+        @Override
+        public void incRef() {
+            request.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return request.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return request.decRef();
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             // If sentFromLocalReroute is marked true, then this request should just be looped back through
@@ -31,11 +31,13 @@ import java.util.Optional;
  * ClusterInfo is an object representing a map of nodes to {@link DiskUsage}
  * and a map of shard ids to shard sizes, see
  * <code>InternalClusterInfoService.shardIdentifierFromRouting(String)</code>
- * for the key used in the shardSizes map
+ * for the key used in the shardSizes map, as well as the observed write and
+ * search load of each shard
  */
 public class ClusterInfo implements ToXContentFragment, Writeable {
 
     public static final Version DATA_SET_SIZE_SIZE_VERSION = Version.V_7_13_0;
+    public static final Version SHARD_LOADS_VERSION = Version.V_8_0_0;
 
     private final ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage;
     private final ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage;
@@ -44,12 +46,28 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     public static final ClusterInfo EMPTY = new ClusterInfo();
     final ImmutableOpenMap<ShardRouting, String> routingToDataPath;
     final ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace;
+    final ImmutableOpenMap<ShardId, Double> shardWriteLoads;
+    final ImmutableOpenMap<ShardId, Double> shardSearchLoads;
 
     protected ClusterInfo() {
        this(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(),
            ImmutableOpenMap.of());
     }
 
+    /**
+     * Creates a new ClusterInfo instance without shard loads.
+     *
+     * @see #ClusterInfo(ImmutableOpenMap, ImmutableOpenMap, ImmutableOpenMap, ImmutableOpenMap, ImmutableOpenMap, ImmutableOpenMap,
+     *      ImmutableOpenMap, ImmutableOpenMap)
+     */
+    public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
+                       ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
+                       ImmutableOpenMap<ShardId, Long> shardDataSetSizes, ImmutableOpenMap<ShardRouting, String> routingToDataPath,
+                       ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace) {
+        this(leastAvailableSpaceUsage, mostAvailableSpaceUsage, shardSizes, shardDataSetSizes, routingToDataPath, reservedSpace,
+            ImmutableOpenMap.of(), ImmutableOpenMap.of());
+    }
+
     /**
      * Creates a new ClusterInfo instance.
      *
@@ -59,18 +77,23 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
      * @param shardDataSetSizes a shard id to data set size in bytes mapping per shard
      * @param routingToDataPath the shard routing to datapath mapping
      * @param reservedSpace reserved space per shard broken down by node and data path
+     * @param shardWriteLoads a shard id to write load mapping, the average number of threads that indexed into a copy of the shard
+     * @param shardSearchLoads a shard id to search load mapping, the average number of threads that searched a copy of the shard
      * @see #shardIdentifierFromRouting
      */
     public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
                        ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
                        ImmutableOpenMap<ShardId, Long> shardDataSetSizes, ImmutableOpenMap<ShardRouting, String> routingToDataPath,
-                       ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace) {
+                       ImmutableOpenMap<NodeAndPath, ReservedSpace> reservedSpace, ImmutableOpenMap<ShardId, Double> shardWriteLoads,
+                       ImmutableOpenMap<ShardId, Double> shardSearchLoads) {
         this.leastAvailableSpaceUsage = leastAvailableSpaceUsage;
         this.shardSizes = shardSizes;
         this.shardDataSetSizes = shardDataSetSizes;
         this.mostAvailableSpaceUsage = mostAvailableSpaceUsage;
         this.routingToDataPath = routingToDataPath;
         this.reservedSpace = reservedSpace;
+        this.shardWriteLoads = shardWriteLoads;
+        this.shardSearchLoads = shardSearchLoads;
     }
 
     public ClusterInfo(StreamInput in) throws IOException {
@@ -90,6 +113,15 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         } else {
             reservedSpaceMap = Map.of();
         }
+        Map<ShardId, Double> writeLoadMap;
+        Map<ShardId, Double> searchLoadMap;
+        if (in.getVersion().onOrAfter(SHARD_LOADS_VERSION)) {
+            writeLoadMap = in.readMap(ShardId::new, StreamInput::readDouble);
+            searchLoadMap = in.readMap(ShardId::new, StreamInput::readDouble);
+        } else {
+            writeLoadMap = Map.of();
+            searchLoadMap = Map.of();
+        }
 
         ImmutableOpenMap.Builder<String, DiskUsage> leastBuilder = ImmutableOpenMap.builder();
         this.leastAvailableSpaceUsage = leastBuilder.putAll(leastMap).build();
@@ -103,6 +135,10 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         this.routingToDataPath = routingBuilder.putAll(routingMap).build();
         ImmutableOpenMap.Builder<NodeAndPath, ReservedSpace> reservedSpaceBuilder = ImmutableOpenMap.builder();
         this.reservedSpace = reservedSpaceBuilder.putAll(reservedSpaceMap).build();
+        ImmutableOpenMap.Builder<ShardId, Double> writeLoadBuilder = ImmutableOpenMap.builder();
+        this.shardWriteLoads = writeLoadBuilder.putAll(writeLoadMap).build();
+        ImmutableOpenMap.Builder<ShardId, Double> searchLoadBuilder = ImmutableOpenMap.builder();
+        this.shardSearchLoads = searchLoadBuilder.putAll(searchLoadMap).build();
     }
 
     @Override
@@ -121,6 +157,10 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         if (out.getVersion().onOrAfter(StoreStats.RESERVED_BYTES_VERSION)) {
             out.writeMap(this.reservedSpace);
         }
+        if (out.getVersion().onOrAfter(SHARD_LOADS_VERSION)) {
+            out.writeMap(this.shardWriteLoads, (o, s) -> s.writeTo(o), StreamOutput::writeDouble);
+            out.writeMap(this.shardSearchLoads, (o, s) -> s.writeTo(o), StreamOutput::writeDouble);
+        }
     }
 
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
@@ -173,6 +213,18 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
             }
         }
         builder.endArray(); // end "reserved_sizes"
+        builder.startObject("shard_write_loads"); {
+            for (ObjectObjectCursor<ShardId, Double> c : this.shardWriteLoads) {
+                builder.field(c.key.toString(), c.value);
+            }
+        }
+        builder.endObject(); // end "shard_write_loads"
+        builder.startObject("shard_search_loads"); {
+            for (ObjectObjectCursor<ShardId, Double> c : this.shardSearchLoads) {
+                builder.field(c.key.toString(), c.value);
+            }
+        }
+        builder.endObject(); // end "shard_search_loads"
         return builder;
     }
 
@@ -217,6 +269,23 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     public Optional<Long> getShardDataSetSize(ShardId shardId) {
         return Optional.ofNullable(shardDataSetSizes.get(shardId));
     }
+
+    /**
+     * Returns the write load of the given shard, the average number of threads that indexed into the most loaded copy of the shard
+     * since the previous refresh of the cluster info, or <code>defaultValue</code> if that metric is not available.
+     */
+    public double getShardWriteLoad(ShardId shardId, double defaultValue) {
+        return shardWriteLoads.getOrDefault(shardId, defaultValue);
+    }
+
+    /**
+     * Returns the search load of the given shard, the average number of threads that searched the most loaded copy of the shard
+     * since the previous refresh of the cluster info, or <code>defaultValue</code> if that metric is not available.
+     */
+    public double getShardSearchLoad(ShardId shardId, double defaultValue) {
+        return shardSearchLoads.getOrDefault(shardId, defaultValue);
+    }
+
     /**
      * Returns the reserved space for each shard on the given node/path pair
      */
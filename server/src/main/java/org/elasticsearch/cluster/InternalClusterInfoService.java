@@ -35,6 +35,8 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.monitor.fs.FsInfo;
@@ -58,7 +60,9 @@ import java.util.function.Consumer;
  * ClusterInfoUpdateJob if a node has been added.
  *
  * Every time the timer runs, gathers information about the disk usage and
- * shard sizes across the cluster.
+ * shard sizes across the cluster. The write and search loads of the shards are
+ * derived from the indexing and search times of the shards that grew since the
+ * previous run.
  */
 public class InternalClusterInfoService implements ClusterInfoService, ClusterStateListener {
 
@@ -78,6 +82,9 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
     private volatile ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsages;
     private volatile ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages;
     private volatile IndicesStatsSummary indicesStatsSummary;
+    private volatile CachedClusterInfo cachedClusterInfo;
+    // the indexing and search times of the shard copies at the previous refresh, by allocation id, only accessed by the current refresh
+    private Map<String, ShardLoadSample> shardLoadSamples = Map.of();
 
     private final ThreadPool threadPool;
     private final Client client;
@@ -199,6 +206,8 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
             final IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest();
             indicesStatsRequest.clear();
             indicesStatsRequest.store(true);
+            indicesStatsRequest.indexing(true);
+            indicesStatsRequest.search(true);
             indicesStatsRequest.indicesOptions(IndicesOptions.STRICT_EXPAND_OPEN_CLOSED_HIDDEN);
             indicesStatsRequest.timeout(fetchTimeout);
             client.admin().indices().stats(indicesStatsRequest, ActionListener.runAfter(new ActionListener<>() {
@@ -241,10 +250,17 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
                             = ImmutableOpenMap.builder();
                     reservedSpaceBuilders.forEach((nodeAndPath, builder) -> rsrvdSpace.put(nodeAndPath, builder.build()));
 
+                    final ImmutableOpenMap.Builder<ShardId, Double> shardWriteLoadBuilder = ImmutableOpenMap.builder();
+                    final ImmutableOpenMap.Builder<ShardId, Double> shardSearchLoadBuilder = ImmutableOpenMap.builder();
+                    final Map<String, ShardLoadSample> newShardLoadSamples = new HashMap<>();
+                    buildShardLoads(stats, threadPool.relativeTimeInMillis(), shardLoadSamples, newShardLoadSamples,
+                        shardWriteLoadBuilder, shardSearchLoadBuilder);
+                    shardLoadSamples = newShardLoadSamples;
+
                     indicesStatsSummary = new IndicesStatsSummary(
                         shardSizeByIdentifierBuilder.build(), shardDataSetSizeBuilder.build(),
                         dataPathByShardRoutingBuilder.build(),
-                        rsrvdSpace.build());
+                        rsrvdSpace.build(), shardWriteLoadBuilder.build(), shardSearchLoadBuilder.build());
                 }
 
                 @Override
@@ -255,6 +271,7 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
                         logger.warn("failed to retrieve indices stats", e);
                     }
                     indicesStatsSummary = IndicesStatsSummary.EMPTY;
+                    shardLoadSamples = Map.of();
                 }
             }, this::onStatsProcessed));
         }
@@ -358,9 +375,21 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
     @Override
     public ClusterInfo getClusterInfo() {
         final IndicesStatsSummary indicesStatsSummary = this.indicesStatsSummary; // single volatile read
-        return new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages,
+        final ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsages = this.leastAvailableSpaceUsages;
+        final ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages = this.mostAvailableSpaceUsages;
+        // returns the same instance until the next refresh, so that the allocator can tell whether the cluster info changed
+        final CachedClusterInfo cachedClusterInfo = this.cachedClusterInfo;
+        if (cachedClusterInfo != null
+            && cachedClusterInfo.isFor(leastAvailableSpaceUsages, mostAvailableSpaceUsages, indicesStatsSummary)) {
+            return cachedClusterInfo.clusterInfo;
+        }
+        final ClusterInfo clusterInfo = new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages,
             indicesStatsSummary.shardSizes, indicesStatsSummary.shardDataSetSizes,
-            indicesStatsSummary.shardRoutingToDataPath, indicesStatsSummary.reservedSpace);
+            indicesStatsSummary.shardRoutingToDataPath, indicesStatsSummary.reservedSpace,
+            indicesStatsSummary.shardWriteLoads, indicesStatsSummary.shardSearchLoads);
+        this.cachedClusterInfo = new CachedClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages, indicesStatsSummary,
+            clusterInfo);
+        return clusterInfo;
     }
 
     // allow tests to adjust the node stats on receipt
@@ -414,6 +443,44 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         }
     }
 
+    /**
+     * Computes the write and search loads of the shards from the growth of their indexing and search times since the previous sample of
+     * each shard copy. Copies without a previous sample, for instance because they just started, don't have a load yet. The load of a
+     * shard is the load of its most loaded copy.
+     */
+    static void buildShardLoads(ShardStats[] stats, long nowInMillis, Map<String, ShardLoadSample> previousSamples,
+                                Map<String, ShardLoadSample> newSamples, ImmutableOpenMap.Builder<ShardId, Double> shardWriteLoads,
+                                ImmutableOpenMap.Builder<ShardId, Double> shardSearchLoads) {
+        for (ShardStats s : stats) {
+            final ShardRouting shardRouting = s.getShardRouting();
+            final IndexingStats indexingStats = s.getStats().getIndexing();
+            final SearchStats searchStats = s.getStats().getSearch();
+            if (shardRouting.allocationId() == null || indexingStats == null || searchStats == null) {
+                continue;
+            }
+            final String allocationId = shardRouting.allocationId().getId();
+            final ShardLoadSample sample = new ShardLoadSample(nowInMillis, indexingStats.getTotal().getIndexTime().millis(),
+                searchStats.getTotal().getQueryTimeInMillis() + searchStats.getTotal().getFetchTimeInMillis());
+            newSamples.put(allocationId, sample);
+
+            final ShardLoadSample previous = previousSamples.get(allocationId);
+            if (previous == null || sample.timestampMillis <= previous.timestampMillis
+                || sample.indexTimeMillis < previous.indexTimeMillis || sample.searchTimeMillis < previous.searchTimeMillis) {
+                continue;
+            }
+            final double elapsed = sample.timestampMillis - previous.timestampMillis;
+            final double writeLoad = (sample.indexTimeMillis - previous.indexTimeMillis) / elapsed;
+            final double searchLoad = (sample.searchTimeMillis - previous.searchTimeMillis) / elapsed;
+            logger.trace("shard: {} write load: {} search load: {}", shardRouting, writeLoad, searchLoad);
+            if (writeLoad > shardWriteLoads.getOrDefault(shardRouting.shardId(), -1d)) {
+                shardWriteLoads.put(shardRouting.shardId(), writeLoad);
+            }
+            if (searchLoad > shardSearchLoads.getOrDefault(shardRouting.shardId(), -1d)) {
+                shardSearchLoads.put(shardRouting.shardId(), searchLoad);
+            }
+        }
+    }
+
     static void fillDiskUsagePerNode(List<NodeStats> nodeStatsArray,
             ImmutableOpenMap.Builder<String, DiskUsage> newLeastAvailableUsages,
             ImmutableOpenMap.Builder<String, DiskUsage> newMostAvailableUsages) {
@@ -472,24 +539,71 @@ public class InternalClusterInfoService implements ClusterInfoService, ClusterSt
         }
     }
 
+    /**
+     * The cumulative indexing and search times of a shard copy at a point in time.
+     */
+    static final class ShardLoadSample {
+        final long timestampMillis;
+        final long indexTimeMillis;
+        final long searchTimeMillis;
+
+        ShardLoadSample(long timestampMillis, long indexTimeMillis, long searchTimeMillis) {
+            this.timestampMillis = timestampMillis;
+            this.indexTimeMillis = indexTimeMillis;
+            this.searchTimeMillis = searchTimeMillis;
+        }
+    }
+
     private static class IndicesStatsSummary {
-        static final IndicesStatsSummary EMPTY
-            = new IndicesStatsSummary(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
+        static final IndicesStatsSummary EMPTY = new IndicesStatsSummary(ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
 
         final ImmutableOpenMap<String, Long> shardSizes;
         final ImmutableOpenMap<ShardId, Long> shardDataSetSizes;
         final ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath;
         final ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace;
+        final ImmutableOpenMap<ShardId, Double> shardWriteLoads;
+        final ImmutableOpenMap<ShardId, Double> shardSearchLoads;
 
         IndicesStatsSummary(ImmutableOpenMap<String, Long> shardSizes,
                             ImmutableOpenMap<ShardId, Long> shardDataSetSizes,
                             ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath,
-                            ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace) {
+                            ImmutableOpenMap<ClusterInfo.NodeAndPath, ClusterInfo.ReservedSpace> reservedSpace,
+                            ImmutableOpenMap<ShardId, Double> shardWriteLoads,
+                            ImmutableOpenMap<ShardId, Double> shardSearchLoads) {
             this.shardSizes = shardSizes;
             this.shardDataSetSizes = shardDataSetSizes;
             this.shardRoutingToDataPath = shardRoutingToDataPath;
             this.reservedSpace = reservedSpace;
+            this.shardWriteLoads = shardWriteLoads;
+            this.shardSearchLoads = shardSearchLoads;
         }
     }
 
+
+    /**
+     * The {@link ClusterInfo} that was last built from the given stats.
+     */
+    private static final class CachedClusterInfo {
+        private final ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsages;
+        private final ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages;
+        private final IndicesStatsSummary indicesStatsSummary;
+        private final ClusterInfo clusterInfo;
+
+        private CachedClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsages,
+                                  ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages,
+                                  IndicesStatsSummary indicesStatsSummary, ClusterInfo clusterInfo) {
+            this.leastAvailableSpaceUsages = leastAvailableSpaceUsages;
+            this.mostAvailableSpaceUsages = mostAvailableSpaceUsages;
+            this.indicesStatsSummary = indicesStatsSummary;
+            this.clusterInfo = clusterInfo;
+        }
+
+        private boolean isFor(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsages,
+                              ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages, IndicesStatsSummary indicesStatsSummary) {
+            return this.leastAvailableSpaceUsages == leastAvailableSpaceUsages
+                && this.mostAvailableSpaceUsages == mostAvailableSpaceUsages
+                && this.indicesStatsSummary == indicesStatsSummary;
+        }
+    }
 }
@@ -19,7 +19,9 @@ import org.elasticsearch.cluster.Diff;
 import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -29,7 +31,16 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.TransportChannel;
@@ -40,13 +51,17 @@ import org.elasticsearch.transport.TransportResponseHandler;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public class PublicationTransportHandler {
 
@@ -54,10 +69,25 @@ public class PublicationTransportHandler {
 
     public static final String PUBLISH_STATE_ACTION_NAME = "internal:cluster/coordination/publish_state";
     public static final String COMMIT_STATE_ACTION_NAME = "internal:cluster/coordination/commit_state";
+    public static final String PUBLISH_STATE_CHUNK_ACTION_NAME = "internal:cluster/coordination/publish_state_chunk";
+
+    // the version as of which the cluster states that are larger than the chunk size are sent in chunks
+    static final Version CHUNKED_PUBLICATION_VERSION = Version.V_8_0_0;
+
+    /**
+     * The size above which the serialized cluster states, or diffs, are sent in chunks. The chunks are sent one after the other with
+     * the {@link #PUBLISH_STATE_CHUNK_ACTION_NAME} action and the receiving node buffers them until it receives the last one, so that
+     * the large messages don't block the state channel. Set to {@code 0} to disable chunking.
+     */
+    public static final Setting<ByteSizeValue> PUBLISH_CHUNK_SIZE_SETTING = Setting.byteSizeSetting("cluster.publish.chunk_size",
+        new ByteSizeValue(8, ByteSizeUnit.MB), ByteSizeValue.ZERO, new ByteSizeValue(Integer.MAX_VALUE), Setting.Property.NodeScope);
 
     private final TransportService transportService;
+    private final CircuitBreakerService circuitBreakerService;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest;
+    private final int chunkSize;
+    private final TimeValue publishTimeout;
 
     private final AtomicReference<ClusterState> lastSeenClusterState = new AtomicReference<>();
 
@@ -71,21 +101,32 @@ public class PublicationTransportHandler {
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
+    // the stats of the cluster states that this node published to each node while it was the master, by node id
+    private final Map<String, NodePublicationStatsTracker> nodePublicationStats = ConcurrentCollections.newConcurrentMap();
+    // the chunks of the cluster states that this node is receiving in chunks, by publication
+    private final Map<PendingPublicationKey, PendingPublication> pendingPublications = new HashMap<>();
     // -> no need to put a timeout on the options here, because we want the response to eventually be received
     //  and not log an error if it arrives after the timeout
     private static final TransportRequestOptions STATE_REQUEST_OPTIONS =
             TransportRequestOptions.of(null, TransportRequestOptions.Type.STATE);
 
-    public PublicationTransportHandler(TransportService transportService, NamedWriteableRegistry namedWriteableRegistry,
+    public PublicationTransportHandler(Settings settings, TransportService transportService,
+                                       CircuitBreakerService circuitBreakerService, NamedWriteableRegistry namedWriteableRegistry,
                                        Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest,
                                        BiConsumer<ApplyCommitRequest, ActionListener<Void>> handleApplyCommit) {
         this.transportService = transportService;
+        this.circuitBreakerService = circuitBreakerService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.handlePublishRequest = handlePublishRequest;
+        this.chunkSize = Math.toIntExact(PUBLISH_CHUNK_SIZE_SETTING.get(settings).getBytes());
+        this.publishTimeout = Coordinator.PUBLISH_TIMEOUT_SETTING.get(settings);
 
         transportService.registerRequestHandler(PUBLISH_STATE_ACTION_NAME, ThreadPool.Names.GENERIC, false, false,
             BytesTransportRequest::new, (request, channel, task) -> channel.sendResponse(handleIncomingPublishRequest(request)));
 
+        transportService.registerRequestHandler(PUBLISH_STATE_CHUNK_ACTION_NAME, ThreadPool.Names.GENERIC, false, false,
+            PublishStateChunkRequest::new, (request, channel, task) -> channel.sendResponse(handleIncomingPublishChunk(request)));
+
         transportService.registerRequestHandler(COMMIT_STATE_ACTION_NAME, ThreadPool.Names.GENERIC, false, false,
             ApplyCommitRequest::new,
             (request, channel, task) -> handleApplyCommit.accept(request, transportCommitCallback(channel)));
@@ -116,21 +157,106 @@ public class PublicationTransportHandler {
     }
 
     public PublishClusterStateStats stats() {
+        final Map<String, PublishClusterStateStats.NodePublicationStats> publicationStats = new HashMap<>();
+        nodePublicationStats.forEach((nodeId, tracker) -> publicationStats.put(nodeId, tracker.stats()));
         return new PublishClusterStateStats(
             fullClusterStateReceivedCount.get(),
             incompatibleClusterStateDiffReceivedCount.get(),
-            compatibleClusterStateDiffReceivedCount.get());
+            compatibleClusterStateDiffReceivedCount.get(),
+            publicationStats);
     }
 
-    private PublishWithJoinResponse handleIncomingPublishRequest(BytesTransportRequest request) throws IOException {
-        final Compressor compressor = CompressorFactory.compressor(request.bytes());
-        StreamInput in = request.bytes().streamInput();
+    /**
+     * Buffers the given chunk of a cluster state until the last chunk is received, and then handles the whole state. The buffered
+     * chunks are accounted in the in-flight requests circuit breaker, and are released once the state is handled, if a chunk is
+     * rejected, if the same master starts another publication, or if the publication doesn't complete within the publish timeout.
+     */
+    // package-private for testing
+    TransportResponse handleIncomingPublishChunk(PublishStateChunkRequest request) throws IOException {
+        final PendingPublication publication = addPendingChunk(request);
+        if (publication == null) {
+            return TransportResponse.Empty.INSTANCE;
+        }
+        try {
+            return handleIncomingPublishRequest(publication.bytes(), request.streamVersion());
+        } finally {
+            publication.close();
+        }
+    }
+
+    /**
+     * Adds the given chunk to its pending publication, and returns the publication if the chunk completes it.
+     */
+    private PendingPublication addPendingChunk(PublishStateChunkRequest request) {
+        final PendingPublicationKey key = new PendingPublicationKey(request);
+        synchronized (pendingPublications) {
+            PendingPublication publication = pendingPublications.get(key);
+            if (request.getChunkIndex() == 0) {
+                // the publications of a master are sequential, so a new one means that the previous ones are abandoned
+                releasePendingPublications(pendingKey -> pendingKey.sourceNodeId.equals(key.sourceNodeId));
+                publication = new PendingPublication(request.getChunkCount());
+                pendingPublications.put(key, publication);
+                publication.timeout = transportService.getThreadPool().schedule(() -> {
+                    synchronized (pendingPublications) {
+                        releasePendingPublications(key::equals);
+                    }
+                }, publishTimeout, ThreadPool.Names.GENERIC);
+            } else if (publication == null || publication.chunks.size() != request.getChunkIndex()) {
+                releasePendingPublications(key::equals);
+                throw new IllegalStateException("received chunk [" + request.getChunkIndex() + "] of [" + request.getChunkCount()
+                    + "] of cluster state version [" + key.version + "] with uuid [" + key.stateUUID + "] from ["
+                    + request.getSourceNode() + "] without the chunks that precede it");
+            }
+            try {
+                publication.add(request);
+            } catch (Exception e) {
+                releasePendingPublications(key::equals);
+                throw e;
+            }
+            if (publication.chunks.size() < publication.chunkCount) {
+                return null;
+            }
+            pendingPublications.remove(key);
+            publication.timeout.cancel();
+            return publication;
+        }
+    }
+
+    private void releasePendingPublications(Predicate<PendingPublicationKey> predicate) {
+        assert Thread.holdsLock(pendingPublications);
+        pendingPublications.entrySet().removeIf(entry -> {
+            if (predicate.test(entry.getKey())) {
+                logger.debug("releasing the [{}] chunks received of cluster state version [{}] with uuid [{}] from [{}]",
+                    entry.getValue().chunks.size(), entry.getKey().version, entry.getKey().stateUUID, entry.getKey().sourceNodeId);
+                entry.getValue().timeout.cancel();
+                entry.getValue().close();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    // package-private for testing
+    int pendingPublicationChunks() {
+        synchronized (pendingPublications) {
+            return pendingPublications.values().stream().mapToInt(publication -> publication.chunks.size()).sum();
+        }
+    }
+
+    // package-private for testing
+    PublishWithJoinResponse handleIncomingPublishRequest(BytesTransportRequest request) throws IOException {
+        return handleIncomingPublishRequest(request.bytes(), request.version());
+    }
+
+    private PublishWithJoinResponse handleIncomingPublishRequest(BytesReference bytes, Version version) throws IOException {
+        final Compressor compressor = CompressorFactory.compressor(bytes);
+        StreamInput in = bytes.streamInput();
         try {
             if (compressor != null) {
                 in = new InputStreamStreamInput(compressor.threadLocalInputStream(in));
             }
             in = new NamedWriteableAwareStreamInput(in, namedWriteableRegistry);
-            in.setVersion(request.version());
+            in.setVersion(version);
             // If true we received full cluster state - otherwise diffs
             if (in.readBoolean()) {
                 final ClusterState incomingState;
@@ -142,8 +268,7 @@ public class PublicationTransportHandler {
                     throw e;
                 }
                 fullClusterStateReceivedCount.incrementAndGet();
-                logger.debug("received full cluster state version [{}] with size [{}]", incomingState.version(),
-                    request.bytes().length());
+                logger.debug("received full cluster state version [{}] with size [{}]", incomingState.version(), bytes.length());
                 final PublishWithJoinResponse response = acceptState(incomingState);
                 lastSeenClusterState.set(incomingState);
                 return response;
@@ -171,7 +296,7 @@ public class PublicationTransportHandler {
                     }
                     compatibleClusterStateDiffReceivedCount.incrementAndGet();
                     logger.debug("received diff cluster state version [{}] with uuid [{}], diff size [{}]",
-                        incomingState.version(), incomingState.stateUUID(), request.bytes().length());
+                        incomingState.version(), incomingState.stateUUID(), bytes.length());
                     final PublishWithJoinResponse response = acceptState(incomingState);
                     lastSeenClusterState.compareAndSet(lastSeen, incomingState);
                     return response;
@@ -197,6 +322,7 @@ public class PublicationTransportHandler {
 
     public PublicationContext newPublicationContext(ClusterChangedEvent clusterChangedEvent) {
         final PublicationContext publicationContext = new PublicationContext(clusterChangedEvent);
+        nodePublicationStats.keySet().removeIf(nodeId -> clusterChangedEvent.state().nodes().nodeExists(nodeId) == false);
 
         // Build the serializations we expect to need now, early in the process, so that an error during serialization fails the publication
         // straight away. This isn't watertight since we send diffs on a best-effort basis and may fall back to sending a full state (and
@@ -205,7 +331,8 @@ public class PublicationTransportHandler {
         return publicationContext;
     }
 
-    private static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
+    // package-private for testing
+    static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
         final BytesStreamOutput bStream = new BytesStreamOutput();
         try (StreamOutput stream = new OutputStreamStreamOutput(CompressorFactory.COMPRESSOR.threadLocalOutputStream(bStream))) {
             stream.setVersion(nodeVersion);
@@ -228,6 +355,108 @@ public class PublicationTransportHandler {
         return bStream.bytes();
     }
 
+    /**
+     * Splits a serialized cluster state in chunks of the given size, or returns it as a single chunk if the chunk size is {@code 0}.
+     */
+    static List<BytesReference> splitIntoChunks(BytesReference bytes, int chunkSize) {
+        if (chunkSize <= 0 || bytes.length() <= chunkSize) {
+            return List.of(bytes);
+        }
+        final List<BytesReference> chunks = new ArrayList<>();
+        for (int from = 0; from < bytes.length(); from += chunkSize) {
+            chunks.add(bytes.slice(from, Math.min(chunkSize, bytes.length() - from)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Identifies the publication that a chunk belongs to.
+     */
+    private static final class PendingPublicationKey {
+        private final String sourceNodeId;
+        private final long term;
+        private final long version;
+        private final String stateUUID;
+
+        PendingPublicationKey(PublishStateChunkRequest request) {
+            this.sourceNodeId = request.getSourceNode().getId();
+            this.term = request.getTerm();
+            this.version = request.getVersion();
+            this.stateUUID = request.getStateUUID();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PendingPublicationKey that = (PendingPublicationKey) o;
+            return term == that.term && version == that.version && sourceNodeId.equals(that.sourceNodeId)
+                && stateUUID.equals(that.stateUUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceNodeId, term, version, stateUUID);
+        }
+    }
+
+    /**
+     * The chunks of a cluster state that were received so far, which are retained and accounted in the in-flight requests circuit
+     * breaker until they are closed.
+     */
+    private final class PendingPublication implements Releasable {
+        private final int chunkCount;
+        private final List<PublishStateChunkRequest> chunks = new ArrayList<>();
+        private long accountedBytes;
+        private Scheduler.ScheduledCancellable timeout;
+
+        PendingPublication(int chunkCount) {
+            this.chunkCount = chunkCount;
+        }
+
+        void add(PublishStateChunkRequest chunk) {
+            final int length = chunk.bytes().length();
+            circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS)
+                .addEstimateBytesAndMaybeBreak(length, "<publish_state_chunk>");
+            accountedBytes += length;
+            chunk.incRef();
+            chunks.add(chunk);
+        }
+
+        BytesReference bytes() {
+            return CompositeBytesReference.of(chunks.stream().map(PublishStateChunkRequest::bytes).toArray(BytesReference[]::new));
+        }
+
+        @Override
+        public void close() {
+            circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS).addWithoutBreaking(-accountedBytes);
+            accountedBytes = 0;
+            for (PublishStateChunkRequest chunk : chunks) {
+                chunk.decRef();
+            }
+            chunks.clear();
+        }
+    }
+
+    private static final class NodePublicationStatsTracker {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong chunkCount = new AtomicLong();
+        private final AtomicLong sizeInBytes = new AtomicLong();
+        private final AtomicLong timeInMillis = new AtomicLong();
+
+        void onPublished(int chunks, int size, long tookInMillis) {
+            count.incrementAndGet();
+            chunkCount.addAndGet(chunks);
+            sizeInBytes.addAndGet(size);
+            timeInMillis.addAndGet(tookInMillis);
+        }
+
+        PublishClusterStateStats.NodePublicationStats stats() {
+            return new PublishClusterStateStats.NodePublicationStats(count.get(), chunkCount.get(), sizeInBytes.get(),
+                timeInMillis.get());
+        }
+    }
+
     /**
      * Publishing a cluster state typically involves sending the same cluster state (or diff) to every node, so the work of diffing,
      * serializing, and compressing the state can be done once and the results shared across publish requests. The
@@ -365,12 +594,19 @@ public class PublicationTransportHandler {
         private void sendClusterState(DiscoveryNode destination, BytesReference bytes, boolean retryWithFullClusterStateOnFailure,
                                       ActionListener<PublishWithJoinResponse> listener) {
             try {
-                final BytesTransportRequest request = new BytesTransportRequest(bytes, destination.getVersion());
+                final long startTimeMillis = transportService.getThreadPool().relativeTimeInMillis();
+                final List<BytesReference> chunks = destination.getVersion().onOrAfter(CHUNKED_PUBLICATION_VERSION)
+                    ? splitIntoChunks(bytes, chunkSize) : List.of(bytes);
+                final Runnable onCompletion = () -> nodePublicationStats.computeIfAbsent(destination.getId(),
+                    nodeId -> new NodePublicationStatsTracker()).onPublished(chunks.size(), bytes.length(),
+                    transportService.getThreadPool().relativeTimeInMillis() - startTimeMillis);
                 final Consumer<TransportException> transportExceptionHandler = exp -> {
                     if (retryWithFullClusterStateOnFailure && exp.unwrapCause() instanceof IncompatibleClusterStateVersionException) {
+                        // the full cluster state that is sent instead completes this publication, and is the one that is counted
                         logger.debug("resending full cluster state to node {} reason {}", destination, exp.getDetailedMessage());
                         sendFullClusterState(destination, listener);
                     } else {
+                        onCompletion.run();
                         logger.debug(() -> new ParameterizedMessage("failed to send cluster state to {}", destination), exp);
                         listener.onFailure(exp);
                     }
@@ -385,6 +621,7 @@ public class PublicationTransportHandler {
 
                         @Override
                         public void handleResponse(PublishWithJoinResponse response) {
+                            onCompletion.run();
                             listener.onResponse(response);
                         }
 
@@ -398,12 +635,59 @@ public class PublicationTransportHandler {
                             return ThreadPool.Names.GENERIC;
                         }
                     };
-                transportService.sendRequest(destination, PUBLISH_STATE_ACTION_NAME, request, STATE_REQUEST_OPTIONS, responseHandler);
+                if (chunks.size() == 1) {
+                    final BytesTransportRequest request = new BytesTransportRequest(bytes, destination.getVersion());
+                    transportService.sendRequest(destination, PUBLISH_STATE_ACTION_NAME, request, STATE_REQUEST_OPTIONS,
+                        responseHandler);
+                } else {
+                    logger.trace("sending cluster state version [{}] to [{}] in [{}] chunks", newState.version(), destination,
+                        chunks.size());
+                    sendChunks(destination, chunks, 0, transportExceptionHandler, responseHandler);
+                }
             } catch (Exception e) {
                 logger.warn(() -> new ParameterizedMessage("error sending cluster state to {}", destination), e);
                 listener.onFailure(e);
             }
         }
+
+        /**
+         * Sends the chunks of a cluster state one after the other, starting with the one at the given index. The response to the last
+         * chunk is handled by the given response handler.
+         */
+        private void sendChunks(DiscoveryNode destination, List<BytesReference> chunks, int index,
+                                Consumer<TransportException> transportExceptionHandler,
+                                TransportResponseHandler<PublishWithJoinResponse> responseHandler) {
+            final PublishStateChunkRequest request = new PublishStateChunkRequest(transportService.getLocalNode(), newState.term(),
+                newState.version(), newState.stateUUID(), index, chunks.size(), chunks.get(index), destination.getVersion());
+            if (request.isLastChunk()) {
+                transportService.sendRequest(destination, PUBLISH_STATE_CHUNK_ACTION_NAME, request, STATE_REQUEST_OPTIONS,
+                    responseHandler);
+                return;
+            }
+            transportService.sendRequest(destination, PUBLISH_STATE_CHUNK_ACTION_NAME, request, STATE_REQUEST_OPTIONS,
+                new TransportResponseHandler<TransportResponse.Empty>() {
+
+                    @Override
+                    public TransportResponse.Empty read(StreamInput in) {
+                        return TransportResponse.Empty.INSTANCE;
+                    }
+
+                    @Override
+                    public void handleResponse(TransportResponse.Empty response) {
+                        sendChunks(destination, chunks, index + 1, transportExceptionHandler, responseHandler);
+                    }
+
+                    @Override
+                    public void handleException(TransportException exp) {
+                        transportExceptionHandler.accept(exp);
+                    }
+
+                    @Override
+                    public String executor() {
+                        return ThreadPool.Names.GENERIC;
+                    }
+                });
+        }
     }
 
 }
@@ -8,13 +8,20 @@
 
 package org.elasticsearch.cluster.coordination;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Class encapsulating stats about the PublishClusterStateAction
@@ -24,6 +31,7 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
     private final long fullClusterStateReceivedCount;
     private final long incompatibleClusterStateDiffReceivedCount;
     private final long compatibleClusterStateDiffReceivedCount;
+    private final Map<String, NodePublicationStats> nodePublicationStats;
 
     /**
      * @param fullClusterStateReceivedCount the number of times this node has received a full copy of the cluster state from the master.
@@ -33,15 +41,31 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
     public PublishClusterStateStats(long fullClusterStateReceivedCount,
                                     long incompatibleClusterStateDiffReceivedCount,
                                     long compatibleClusterStateDiffReceivedCount) {
+        this(fullClusterStateReceivedCount, incompatibleClusterStateDiffReceivedCount, compatibleClusterStateDiffReceivedCount, Map.of());
+    }
+
+    /**
+     * @param nodePublicationStats the stats of the cluster states that this node published to each node of the cluster, by node id.
+     */
+    public PublishClusterStateStats(long fullClusterStateReceivedCount,
+                                    long incompatibleClusterStateDiffReceivedCount,
+                                    long compatibleClusterStateDiffReceivedCount,
+                                    Map<String, NodePublicationStats> nodePublicationStats) {
         this.fullClusterStateReceivedCount = fullClusterStateReceivedCount;
         this.incompatibleClusterStateDiffReceivedCount = incompatibleClusterStateDiffReceivedCount;
         this.compatibleClusterStateDiffReceivedCount = compatibleClusterStateDiffReceivedCount;
+        this.nodePublicationStats = nodePublicationStats;
     }
 
     public PublishClusterStateStats(StreamInput in) throws IOException {
         fullClusterStateReceivedCount = in.readVLong();
         incompatibleClusterStateDiffReceivedCount = in.readVLong();
         compatibleClusterStateDiffReceivedCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            nodePublicationStats = in.readMap(StreamInput::readString, NodePublicationStats::new);
+        } else {
+            nodePublicationStats = Map.of();
+        }
     }
 
     @Override
@@ -49,6 +73,9 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
         out.writeVLong(fullClusterStateReceivedCount);
         out.writeVLong(incompatibleClusterStateDiffReceivedCount);
         out.writeVLong(compatibleClusterStateDiffReceivedCount);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeMap(nodePublicationStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        }
     }
 
     @Override
@@ -58,6 +85,13 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
             builder.field("full_states", fullClusterStateReceivedCount);
             builder.field("incompatible_diffs", incompatibleClusterStateDiffReceivedCount);
             builder.field("compatible_diffs", compatibleClusterStateDiffReceivedCount);
+            builder.startObject("nodes");
+            for (Map.Entry<String, NodePublicationStats> entry : new TreeMap<>(nodePublicationStats).entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
         }
         builder.endObject();
         return builder;
@@ -69,6 +103,8 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
 
     public long getCompatibleClusterStateDiffReceivedCount() { return compatibleClusterStateDiffReceivedCount; }
 
+    public Map<String, NodePublicationStats> getNodePublicationStats() { return nodePublicationStats; }
+
     @Override
     public String toString() {
         return "PublishClusterStateStats(full=" + fullClusterStateReceivedCount
@@ -76,4 +112,88 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
             + ", compatible=" + compatibleClusterStateDiffReceivedCount
             + ")";
     }
+
+    /**
+     * Stats about the cluster states that the master published to a node, measured on the master from sending each cluster state until
+     * the node acknowledged it, including all its chunks.
+     */
+    public static class NodePublicationStats implements Writeable, ToXContentFragment {
+
+        private final long count;
+        private final long chunkCount;
+        private final long sizeInBytes;
+        private final long timeInMillis;
+
+        public NodePublicationStats(long count, long chunkCount, long sizeInBytes, long timeInMillis) {
+            this.count = count;
+            this.chunkCount = chunkCount;
+            this.sizeInBytes = sizeInBytes;
+            this.timeInMillis = timeInMillis;
+        }
+
+        public NodePublicationStats(StreamInput in) throws IOException {
+            count = in.readVLong();
+            chunkCount = in.readVLong();
+            sizeInBytes = in.readVLong();
+            timeInMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(chunkCount);
+            out.writeVLong(sizeInBytes);
+            out.writeVLong(timeInMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("count", count);
+            builder.field("chunks", chunkCount);
+            builder.humanReadableField("size_in_bytes", "size", new ByteSizeValue(sizeInBytes));
+            builder.humanReadableField("time_in_millis", "time", new TimeValue(timeInMillis));
+            return builder;
+        }
+
+        /**
+         * The number of cluster states, or diffs, that were published to the node.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The number of messages that the cluster states were sent in, which is larger than the number of cluster states if some of
+         * them were split in chunks.
+         */
+        public long getChunkCount() {
+            return chunkCount;
+        }
+
+        public long getSizeInBytes() {
+            return sizeInBytes;
+        }
+
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            NodePublicationStats that = (NodePublicationStats) o;
+            return count == that.count && chunkCount == that.chunkCount && sizeInBytes == that.sizeInBytes
+                && timeInMillis == that.timeInMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, chunkCount, sizeInBytes, timeInMillis);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.concurrent.RefCounted;
+
+import java.io.IOException;
+
+/**
+ * A master node sends the serialized cluster states, or diffs, that are larger than the publication chunk size to its peers as a
+ * sequence of these requests. Each chunk carries the term, version and uuid of the state it belongs to and its position in the
+ * sequence, so that the receiving node can tell the chunks of concurrent or abandoned publications apart. The response to the
+ * last chunk is the {@link PublishWithJoinResponse} to the whole state, the other chunks are acknowledged with an empty response.
+ */
+public class PublishStateChunkRequest extends TermVersionRequest implements RefCounted {
+
+    private final String stateUUID;
+    private final int chunkIndex;
+    private final int chunkCount;
+    private final ReleasableBytesReference bytes;
+    private final Version streamVersion;
+
+    public PublishStateChunkRequest(DiscoveryNode sourceNode, long term, long version, String stateUUID, int chunkIndex,
+                                    int chunkCount, BytesReference bytes, Version streamVersion) {
+        super(sourceNode, term, version);
+        assert 0 <= chunkIndex && chunkIndex < chunkCount : chunkIndex + " of " + chunkCount;
+        this.stateUUID = stateUUID;
+        this.chunkIndex = chunkIndex;
+        this.chunkCount = chunkCount;
+        this.bytes = ReleasableBytesReference.wrap(bytes);
+        this.streamVersion = streamVersion;
+    }
+
+    public PublishStateChunkRequest(StreamInput in) throws IOException {
+        super(in);
+        stateUUID = in.readString();
+        chunkIndex = in.readVInt();
+        chunkCount = in.readVInt();
+        bytes = in.readReleasableBytesReference();
+        streamVersion = in.getVersion();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(stateUUID);
+        out.writeVInt(chunkIndex);
+        out.writeVInt(chunkCount);
+        out.writeBytesReference(bytes);
+    }
+
+    public String getStateUUID() {
+        return stateUUID;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public boolean isLastChunk() {
+        return chunkIndex == chunkCount - 1;
+    }
+
+    public BytesReference bytes() {
+        return bytes;
+    }
+
+    /**
+     * The version of the stream that the chunk was sent on, which is the version the cluster state was serialized with.
+     */
+    public Version streamVersion() {
+        return streamVersion;
+    }
+
+    @Override
+    public void incRef() {
+        bytes.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return bytes.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return bytes.decRef();
+    }
+
+    @Override
+    public String toString() {
+        return "PublishStateChunkRequest{" +
+            "term=" + term +
+            ", version=" + version +
+            ", stateUUID=" + stateUUID +
+            ", chunk=" + chunkIndex + "/" + chunkCount +
+            ", sourceNode=" + sourceNode +
+            '}';
+    }
+}
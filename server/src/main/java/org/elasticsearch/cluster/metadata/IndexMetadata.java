@@ -560,6 +560,47 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         return null;
     }
 
+    /**
+     * Returns a copy of this index metadata whose mapping is the given one, which must be equal to the current mapping. Used to share a
+     * single instance of the mappings that many indices have in common, see {@link Metadata.Builder#build()}.
+     */
+    IndexMetadata withMappingMetadata(MappingMetadata mapping) {
+        assert mapping.equals(mapping()) : "mapping [" + mapping.source() + "] differs from [" + mapping().source() + "]";
+        if (mapping() == mapping) {
+            return this;
+        }
+        final ImmutableOpenMap.Builder<String, MappingMetadata> newMappings = ImmutableOpenMap.builder(mappings.size());
+        for (ObjectObjectCursor<String, MappingMetadata> cursor : mappings) {
+            newMappings.put(cursor.key, mapping);
+        }
+        return new IndexMetadata(
+            index,
+            version,
+            mappingVersion,
+            settingsVersion,
+            aliasesVersion,
+            primaryTerms,
+            state,
+            numberOfShards,
+            numberOfReplicas,
+            settings,
+            newMappings.build(),
+            aliases,
+            customData,
+            inSyncAllocationIds,
+            requireFilters,
+            initialRecoveryFilters,
+            includeFilters,
+            excludeFilters,
+            indexCreatedVersion,
+            routingNumShards,
+            routingPartitionSize,
+            waitForActiveShards,
+            rolloverInfos,
+            isSystem,
+            timestampRange);
+    }
+
     public static final String INDEX_RESIZE_SOURCE_UUID_KEY = "index.resize.source.uuid";
     public static final String INDEX_RESIZE_SOURCE_NAME_KEY = "index.resize.source.name";
     public static final Setting<String> INDEX_RESIZE_SOURCE_UUID = Setting.simpleString(INDEX_RESIZE_SOURCE_UUID_KEY);
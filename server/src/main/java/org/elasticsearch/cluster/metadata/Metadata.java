@@ -1396,6 +1396,8 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
             //    while these datastructures aren't even used.
             // 2) The aliasAndIndexLookup can be updated instead of rebuilding it all the time.
 
+            dedupeMappings();
+
             final Set<String> allIndices = new HashSet<>(indices.size());
             final List<String> visibleIndices = new ArrayList<>();
             final List<String> allOpenIndices = new ArrayList<>();
@@ -1494,6 +1496,28 @@ public class Metadata implements Iterable<IndexMetadata>, Diffable<Metadata>, To
                 allOpenIndicesArray, visibleOpenIndicesArray, allClosedIndicesArray, visibleClosedIndicesArray, indicesLookup);
         }
 
+        /**
+         * Makes the indices that have equal mappings share a single instance of them. The backing indices of a data stream usually all
+         * get their mappings from the same template, so without this each of them would hold its own copy of the same mappings. Mappings
+         * are looked up by the checksum of their content, and the instances with the same checksum are compared byte by byte.
+         */
+        private void dedupeMappings() {
+            final Map<MappingMetadata, MappingMetadata> uniqueMappings = new HashMap<>();
+            final List<IndexMetadata> dedupedIndices = new ArrayList<>();
+            for (ObjectCursor<IndexMetadata> cursor : indices.values()) {
+                final MappingMetadata mapping = cursor.value.mapping();
+                if (mapping != null) {
+                    final MappingMetadata uniqueMapping = uniqueMappings.putIfAbsent(mapping, mapping);
+                    if (uniqueMapping != null && uniqueMapping != mapping) {
+                        dedupedIndices.add(cursor.value.withMappingMetadata(uniqueMapping));
+                    }
+                }
+            }
+            for (IndexMetadata indexMetadata : dedupedIndices) {
+                indices.put(indexMetadata.getIndex().getName(), indexMetadata);
+            }
+        }
+
         private SortedMap<String, IndexAbstraction> buildIndicesLookup() {
             SortedMap<String, IndexAbstraction> indicesLookup = new TreeMap<>();
             Map<String, DataStream> indexToDataStreamLookup = new HashMap<>();
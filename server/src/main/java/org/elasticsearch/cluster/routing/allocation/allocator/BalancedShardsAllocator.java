@@ -12,8 +12,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -30,6 +33,8 @@ import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision.Type;
 import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -37,6 +42,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.gateway.PriorityComparator;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -59,12 +65,22 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
  * for shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.index</code> - The <b>index balance</b> defines a factor to the number
  * of {@link org.elasticsearch.cluster.routing.ShardRouting}s per index allocated on a specific node</li>
+ * <li><code>cluster.routing.allocation.balance.write_load</code> - The <b>write load balance</b> defines a factor to the
+ * indexing load of the shards allocated on a {@link RoutingNode}</li>
+ * <li><code>cluster.routing.allocation.balance.search_load</code> - The <b>search load balance</b> defines a factor to the
+ * search load of the shards allocated on a {@link RoutingNode}</li>
+ * <li><code>cluster.routing.allocation.balance.disk_usage</code> - The <b>disk usage balance</b> defines a factor to the
+ * size of the shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
  * </ul>
  * <p>
  * These parameters are combined in a {@link WeightFunction} that allows calculation of node weights which
  * are used to re-balance shards based on global as well as per-index factors.
+ * <p>
+ * With <code>cluster.routing.allocation.incremental_reroute</code> enabled, the allocator remembers the nodes on which all shards
+ * could remain at the end of each allocation round, see {@link RemainDecisions}, so that the next round only asks the deciders
+ * whether the shards can remain on the nodes that are affected by the changes since.
  */
 public class BalancedShardsAllocator implements ShardsAllocator {
 
@@ -74,12 +90,23 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Setting.floatSetting("cluster.routing.allocation.balance.index", 0.55f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> SHARD_BALANCE_FACTOR_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.shard", 0.45f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> WRITE_LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.write_load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> SEARCH_LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.search_load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> DISK_USAGE_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.disk_usage", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> THRESHOLD_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.threshold", 1.0f, 0.0f,
             Property.Dynamic, Property.NodeScope);
+    public static final Setting<Boolean> INCREMENTAL_REROUTE_SETTING =
+        Setting.boolSetting("cluster.routing.allocation.incremental_reroute", false, Property.Dynamic, Property.NodeScope);
 
     private volatile WeightFunction weightFunction;
     private volatile float threshold;
+    private volatile boolean incrementalReroute;
+    // the outcome of the can remain decisions of the previous allocation round, if incremental reroutes are enabled
+    private volatile RemainDecisions remainDecisions;
 
     public BalancedShardsAllocator(Settings settings) {
         this(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
@@ -87,20 +114,31 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
-        setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
+        setWeightFunction(settings);
         setThreshold(THRESHOLD_SETTING.get(settings));
-        clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(this::setWeightFunction, List.of(INDEX_BALANCE_FACTOR_SETTING,
+            SHARD_BALANCE_FACTOR_SETTING, WRITE_LOAD_BALANCE_FACTOR_SETTING, SEARCH_LOAD_BALANCE_FACTOR_SETTING,
+            DISK_USAGE_BALANCE_FACTOR_SETTING));
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
+        setIncrementalReroute(INCREMENTAL_REROUTE_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(INCREMENTAL_REROUTE_SETTING, this::setIncrementalReroute);
     }
 
-    private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+    private void setWeightFunction(Settings settings) {
+        weightFunction = new WeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings),
+            WRITE_LOAD_BALANCE_FACTOR_SETTING.get(settings), SEARCH_LOAD_BALANCE_FACTOR_SETTING.get(settings),
+            DISK_USAGE_BALANCE_FACTOR_SETTING.get(settings));
     }
 
     private void setThreshold(float threshold) {
         this.threshold = threshold;
     }
 
+    private void setIncrementalReroute(boolean incrementalReroute) {
+        this.incrementalReroute = incrementalReroute;
+        this.remainDecisions = null;
+    }
+
     @Override
     public void allocate(RoutingAllocation allocation) {
         if (allocation.routingNodes().size() == 0) {
@@ -109,8 +147,15 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         }
         final Balancer balancer = new Balancer(logger, allocation, weightFunction, threshold);
         balancer.allocateUnassigned();
-        balancer.moveShards();
-        balancer.balance();
+        if (incrementalReroute && allocation.debugDecision() == false) {
+            final RemainDecisions previous = remainDecisions;
+            balancer.moveShards(previous != null && previous.isValid(allocation) ? previous : RemainDecisions.EMPTY);
+            balancer.balance();
+            remainDecisions = balancer.remainDecisions();
+        } else {
+            balancer.moveShards();
+            balancer.balance();
+        }
     }
 
     @Override
@@ -168,13 +213,37 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         return weightFunction.shardBalance;
     }
 
+    /**
+     * Returns the write load related weight factor.
+     */
+    public float getWriteLoadBalance() {
+        return weightFunction.writeLoadBalance;
+    }
+
+    /**
+     * Returns the search load related weight factor.
+     */
+    public float getSearchLoadBalance() {
+        return weightFunction.searchLoadBalance;
+    }
+
+    /**
+     * Returns the disk usage related weight factor.
+     */
+    public float getDiskUsageBalance() {
+        return weightFunction.diskUsageBalance;
+    }
+
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
-     * Currently this function has 3 properties:
+     * Currently this function has 5 properties:
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>write load balance</code> - balance property over the write load per cluster</li>
+     * <li><code>search load balance</code> - balance property over the search load per cluster</li>
+     * <li><code>disk usage balance</code> - balance property over the disk usage per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative
@@ -190,31 +259,148 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <li>
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>load</sub>(node) = writeLoadBalance * (node.writeLoad() - avgWriteLoadPerNode) / avgWriteLoadPerShard</code>,
+     * and likewise for the search load and the disk usage
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)
+     * + weight<sub>load</sub>(node)</code>
+     * <p>
+     * The loads are divided by the average load of a shard so that moving a shard with an average load changes the weight of a
+     * node as much as moving a shard changes its shard count, which keeps the meaning of the threshold. The loads come from the
+     * {@link org.elasticsearch.cluster.ClusterInfo} and shards without a known load count as unloaded.
+     * </p>
      */
     private static class WeightFunction {
 
         private final float indexBalance;
         private final float shardBalance;
+        private final float writeLoadBalance;
+        private final float searchLoadBalance;
+        private final float diskUsageBalance;
         private final float theta0;
         private final float theta1;
+        private final float theta2;
+        private final float theta3;
+        private final float theta4;
 
-        WeightFunction(float indexBalance, float shardBalance) {
-            float sum = indexBalance + shardBalance;
+        WeightFunction(float indexBalance, float shardBalance, float writeLoadBalance, float searchLoadBalance,
+                       float diskUsageBalance) {
+            float sum = indexBalance + shardBalance + writeLoadBalance + searchLoadBalance + diskUsageBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             theta0 = shardBalance / sum;
             theta1 = indexBalance / sum;
+            theta2 = writeLoadBalance / sum;
+            theta3 = searchLoadBalance / sum;
+            theta4 = diskUsageBalance / sum;
             this.indexBalance = indexBalance;
             this.shardBalance = shardBalance;
+            this.writeLoadBalance = writeLoadBalance;
+            this.searchLoadBalance = searchLoadBalance;
+            this.diskUsageBalance = diskUsageBalance;
+        }
+
+        /**
+         * Whether the weights depend on the loads of the shards, which must then be tracked by the model.
+         */
+        boolean usesLoads() {
+            return theta2 > 0.0f || theta3 > 0.0f || theta4 > 0.0f;
         }
 
         float weight(Balancer balancer, ModelNode node, String index) {
             final float weightShard = node.numShards() - balancer.avgShardsPerNode();
             final float weightIndex = node.numShards(index) - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+            float weight = theta0 * weightShard + theta1 * weightIndex;
+            if (usesLoads()) {
+                final ShardLoads loads = balancer.loads;
+                weight += theta2 * ShardLoads.normalize(node.writeLoad() - loads.avgWriteLoadPerNode, loads.avgWriteLoadPerShard);
+                weight += theta3 * ShardLoads.normalize(node.searchLoad() - loads.avgSearchLoadPerNode, loads.avgSearchLoadPerShard);
+                weight += theta4 * ShardLoads.normalize(node.diskUsage() - loads.avgDiskUsagePerNode, loads.avgDiskUsagePerShard);
+            }
+            return weight;
+        }
+
+        /**
+         * The change of the weights of the nodes that a shard is moved between, for shards of the same index.
+         */
+        float shardWeight(Balancer balancer, ShardRouting shard) {
+            float weight = theta0 + theta1;
+            if (usesLoads()) {
+                final ShardLoads loads = balancer.loads;
+                weight += theta2 * ShardLoads.normalize(loads.writeLoad(shard), loads.avgWriteLoadPerShard);
+                weight += theta3 * ShardLoads.normalize(loads.searchLoad(shard), loads.avgSearchLoadPerShard);
+                weight += theta4 * ShardLoads.normalize(loads.diskUsage(shard), loads.avgDiskUsagePerShard);
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * The loads of the shards of the cluster, read from the {@link ClusterInfo}, and their averages per node and per shard copy.
+     */
+    static final class ShardLoads {
+        private final ClusterInfo clusterInfo;
+        private final double avgWriteLoadPerNode;
+        private final double avgWriteLoadPerShard;
+        private final double avgSearchLoadPerNode;
+        private final double avgSearchLoadPerShard;
+        private final double avgDiskUsagePerNode;
+        private final double avgDiskUsagePerShard;
+
+        ShardLoads(ClusterInfo clusterInfo, Metadata metadata, RoutingNodes routingNodes) {
+            this.clusterInfo = clusterInfo;
+            double totalWriteLoad = 0;
+            double totalSearchLoad = 0;
+            int totalShards = 0;
+            for (IndexMetadata indexMetadata : metadata) {
+                final int copies = indexMetadata.getNumberOfReplicas() + 1;
+                for (int id = 0; id < indexMetadata.getNumberOfShards(); id++) {
+                    final ShardId shardId = new ShardId(indexMetadata.getIndex(), id);
+                    totalWriteLoad += copies * clusterInfo.getShardWriteLoad(shardId, 0.0d);
+                    totalSearchLoad += copies * clusterInfo.getShardSearchLoad(shardId, 0.0d);
+                }
+                totalShards += copies * indexMetadata.getNumberOfShards();
+            }
+            // only the sizes of the assigned shards are known
+            double totalDiskUsage = 0;
+            int assignedShards = 0;
+            for (RoutingNode routingNode : routingNodes) {
+                for (ShardRouting shard : routingNode) {
+                    if (shard.state() != RELOCATING) {
+                        totalDiskUsage += diskUsage(shard);
+                        assignedShards++;
+                    }
+                }
+            }
+            final int numNodes = Math.max(1, routingNodes.size());
+            avgWriteLoadPerNode = totalWriteLoad / numNodes;
+            avgWriteLoadPerShard = totalWriteLoad / Math.max(1, totalShards);
+            avgSearchLoadPerNode = totalSearchLoad / numNodes;
+            avgSearchLoadPerShard = totalSearchLoad / Math.max(1, totalShards);
+            avgDiskUsagePerNode = totalDiskUsage / numNodes;
+            avgDiskUsagePerShard = totalDiskUsage / Math.max(1, assignedShards);
+        }
+
+        double writeLoad(ShardRouting shard) {
+            return clusterInfo.getShardWriteLoad(shard.shardId(), 0.0d);
+        }
+
+        double searchLoad(ShardRouting shard) {
+            return clusterInfo.getShardSearchLoad(shard.shardId(), 0.0d);
+        }
+
+        double diskUsage(ShardRouting shard) {
+            return clusterInfo.getShardSize(shard, 0L);
+        }
+
+        /**
+         * Expresses a load as a number of shards with an average load, or returns {@code 0} if no shard has a load.
+         */
+        static float normalize(double load, double avgLoadPerShard) {
+            return avgLoadPerShard > 0.0d ? (float) (load / avgLoadPerShard) : 0.0f;
         }
     }
 
@@ -232,6 +418,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final Metadata metadata;
         private final float avgShardsPerNode;
         private final NodeSorter sorter;
+        // the loads of the shards, only tracked if the weight function uses them
+        private final ShardLoads loads;
+        // the shards of the nodes on which all shards can remain, as of the moveShards step, if tracked for incremental reroutes
+        private Map<String, RemainDecisions.NodeShards> remainingNodeShards;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
             this.logger = logger;
@@ -241,6 +431,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             this.routingNodes = allocation.routingNodes();
             this.metadata = allocation.metadata();
             avgShardsPerNode = ((float) metadata.getTotalNumberOfShards()) / routingNodes.size();
+            loads = weight.usesLoads() ? new ShardLoads(allocation.clusterInfo(), metadata, routingNodes) : null;
             nodes = Collections.unmodifiableMap(buildModelFromAssigned());
             sorter = newNodeSorter();
         }
@@ -521,7 +712,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                              */
                             logger.trace("Couldn't find shard to relocate from node [{}] to node [{}]",
                                 maxNode.getNodeId(), minNode.getNodeId());
-                        } else if (tryRelocateShard(minNode, maxNode, index)) {
+                        } else if (tryRelocateShard(minNode, maxNode, index, delta)) {
                             /*
                              * TODO we could be a bit smarter here, we don't need to fully sort necessarily
                              * we could just find the place to insert linearly but the win might be minor
@@ -619,12 +810,41 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          * {@link ShardRoutingState#INITIALIZING}.
          */
         public void moveShards() {
+            moveShards(null);
+        }
+
+        /**
+         * Moves the shards that can't remain on their nodes, like {@link #moveShards()}, but trusts the given decisions of the previous
+         * allocation round for the nodes whose shards didn't change since, and tracks the decisions of this round for the next one.
+         */
+        void moveShards(@Nullable RemainDecisions previous) {
+            final Set<String> unchangedNodes = new HashSet<>();
+            if (previous != null) {
+                remainingNodeShards = new HashMap<>();
+                for (RoutingNode routingNode : routingNodes) {
+                    RemainDecisions.NodeShards nodeShards = previous.getNodeShards(routingNode.nodeId());
+                    if (nodeShards != null && nodeShards.matches(routingNode, routingNodes, metadata)) {
+                        unchangedNodes.add(routingNode.nodeId());
+                    } else {
+                        nodeShards = RemainDecisions.NodeShards.of(routingNode, routingNodes, metadata);
+                    }
+                    remainingNodeShards.put(routingNode.nodeId(), nodeShards);
+                }
+                logger.trace("skipping can remain decisions on [{}] unchanged nodes", unchangedNodes.size());
+            }
             // Iterate over the started shards interleaving between nodes, and check if they can remain. In the presence of throttling
             // shard movements, the goal of this iteration order is to achieve a fairer movement of shards from the nodes that are
             // offloading the shards.
             for (Iterator<ShardRouting> it = allocation.routingNodes().nodeInterleavedShardIterator(); it.hasNext(); ) {
                 ShardRouting shardRouting = it.next();
+                if (unchangedNodes.contains(shardRouting.currentNodeId())) {
+                    // all shards of the node could remain on it in the previous round, and nothing they depend on changed since
+                    continue;
+                }
                 final MoveDecision moveDecision = decideMove(shardRouting);
+                if (remainingNodeShards != null && moveDecision.isDecisionTaken() && moveDecision.canRemain() == false) {
+                    remainingNodeShards.remove(shardRouting.currentNodeId());
+                }
                 if (moveDecision.isDecisionTaken() && moveDecision.forceMove()) {
                     final ModelNode sourceNode = nodes.get(shardRouting.currentNodeId());
                     final ModelNode targetNode = nodes.get(moveDecision.getTargetNode().getId());
@@ -633,6 +853,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                         allocation.clusterInfo().getShardSize(shardRouting,
                                                               ShardRouting.UNAVAILABLE_EXPECTED_SHARD_SIZE), allocation.changes());
                     targetNode.addShard(relocatingShards.v2());
+                    // the shards of the target node need to be checked again now that it has another shard
+                    unchangedNodes.remove(targetNode.getNodeId());
                     if (logger.isTraceEnabled()) {
                         logger.trace("Moved shard [{}] to node [{}]", shardRouting, targetNode.getRoutingNode());
                     }
@@ -642,6 +864,22 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             }
         }
 
+        /**
+         * Returns the decisions of the {@link #moveShards(RemainDecisions)} step of this round, limited to the nodes whose shards didn't
+         * change since, to be used by the next round.
+         */
+        RemainDecisions remainDecisions() {
+            assert remainingNodeShards != null : "can remain decisions are not tracked";
+            final Map<String, RemainDecisions.NodeShards> shardsByNode = new HashMap<>();
+            for (Map.Entry<String, RemainDecisions.NodeShards> entry : remainingNodeShards.entrySet()) {
+                final RoutingNode routingNode = routingNodes.node(entry.getKey());
+                if (routingNode != null && entry.getValue().matches(routingNode, routingNodes, metadata)) {
+                    shardsByNode.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return new RemainDecisions(allocation, shardsByNode);
+        }
+
         /**
          * Makes a decision on whether to move a started shard to another node.  The following rules apply
          * to the {@link MoveDecision} return object:
@@ -720,7 +958,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = new HashMap<>();
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, loads);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -955,17 +1193,24 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
         /**
          * Tries to find a relocation from the max node to the minimal node for an arbitrary shard of the given index on the
-         * balance model. Iff this method returns a <code>true</code> the relocation has already been executed on the
-         * simulation model as well as on the cluster.
+         * balance model. Only shards that reduce the given weight delta between the two nodes are relocated. Iff this method
+         * returns a <code>true</code> the relocation has already been executed on the simulation model as well as on the cluster.
          */
-        private boolean tryRelocateShard(ModelNode minNode, ModelNode maxNode, String idx) {
+        private boolean tryRelocateShard(ModelNode minNode, ModelNode maxNode, String idx, float delta) {
             final ModelIndex index = maxNode.getIndex(idx);
             if (index != null) {
                 logger.trace("Try relocating shard of [{}] from [{}] to [{}]", idx, maxNode.getNodeId(), minNode.getNodeId());
+                // moving a shard lowers the weight of the max node and raises the weight of the min node by its weight, so the
+                // delta only shrinks if the weight of the shard is below it, and shrinks the most if it is half of it
+                final Comparator<ShardRouting> order = weight.usesLoads()
+                    ? Comparator.<ShardRouting>comparingDouble(shard -> Math.abs(delta / 2 - weight.shardWeight(this, shard)))
+                        .thenComparing(BY_DESCENDING_SHARD_ID)
+                    : BY_DESCENDING_SHARD_ID;
                 final Iterable<ShardRouting> shardRoutings = StreamSupport.stream(index.spliterator(), false)
                     .filter(ShardRouting::started) // cannot rebalance unassigned, initializing or relocating shards anyway
                     .filter(maxNode::containsShard)
-                    .sorted(BY_DESCENDING_SHARD_ID) // check in descending order of shard id so that the decision is deterministic
+                    .filter(shard -> weight.usesLoads() == false || weight.shardWeight(this, shard) < delta)
+                    .sorted(order) // the order of shards of the same weight is deterministic
                     ::iterator;
 
                 final AllocationDeciders deciders = allocation.deciders();
@@ -1004,13 +1249,123 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     }
 
+    /**
+     * The nodes on which all started shards could remain at the end of an allocation round, along with the shards of these nodes.
+     * The next round doesn't ask the deciders again whether the shards of a node can remain on it if the node still has the same
+     * shards, the copies of these shards are the same and the settings of their indices are the same. This assumes that the can
+     * remain decisions only depend on these, on the cluster info, and on the nodes, the settings and the customs of the cluster, so
+     * the decisions are only reused if all of these are the same as well.
+     */
+    static final class RemainDecisions {
+
+        static final RemainDecisions EMPTY = new RemainDecisions(null, null, null, null, null, Map.of());
+
+        private final DiscoveryNodes nodes;
+        private final ClusterInfo clusterInfo;
+        private final Settings settings;
+        private final ImmutableOpenMap<String, Metadata.Custom> metadataCustoms;
+        private final ImmutableOpenMap<String, ClusterState.Custom> customs;
+        private final Map<String, NodeShards> shardsByNode;
+
+        RemainDecisions(RoutingAllocation allocation, Map<String, NodeShards> shardsByNode) {
+            this(allocation.nodes(), allocation.clusterInfo(), allocation.metadata().settings(), allocation.metadata().customs(),
+                allocation.getCustoms(), shardsByNode);
+        }
+
+        private RemainDecisions(DiscoveryNodes nodes, ClusterInfo clusterInfo, Settings settings,
+                                ImmutableOpenMap<String, Metadata.Custom> metadataCustoms,
+                                ImmutableOpenMap<String, ClusterState.Custom> customs, Map<String, NodeShards> shardsByNode) {
+            this.nodes = nodes;
+            this.clusterInfo = clusterInfo;
+            this.settings = settings;
+            this.metadataCustoms = metadataCustoms;
+            this.customs = customs;
+            this.shardsByNode = shardsByNode;
+        }
+
+        /**
+         * Whether these decisions can be reused by the given allocation, which is only the case if the inputs of the deciders that
+         * apply to all nodes are the same.
+         */
+        boolean isValid(RoutingAllocation allocation) {
+            // the nodes and the cluster info are only replaced when they change, the rest is rebuilt with every cluster state update
+            return nodes == allocation.nodes()
+                && clusterInfo == allocation.clusterInfo()
+                && settings.equals(allocation.metadata().settings())
+                && metadataCustoms.equals(allocation.metadata().customs())
+                && customs.equals(allocation.getCustoms());
+        }
+
+        @Nullable
+        NodeShards getNodeShards(String nodeId) {
+            return shardsByNode.get(nodeId);
+        }
+
+        /**
+         * The shards of a node, the copies of these shards and the settings of their indices.
+         */
+        static final class NodeShards {
+            private final Set<ShardRouting> shards;
+            private final Map<ShardId, List<ShardRouting>> copies;
+            private final Map<String, Settings> indexSettings;
+
+            private NodeShards(Set<ShardRouting> shards, Map<ShardId, List<ShardRouting>> copies, Map<String, Settings> indexSettings) {
+                this.shards = shards;
+                this.copies = copies;
+                this.indexSettings = indexSettings;
+            }
+
+            static NodeShards of(RoutingNode routingNode, RoutingNodes routingNodes, Metadata metadata) {
+                final Set<ShardRouting> shards = new HashSet<>(routingNode.size());
+                final Map<ShardId, List<ShardRouting>> copies = new HashMap<>(routingNode.size());
+                final Map<String, Settings> indexSettings = new HashMap<>();
+                for (ShardRouting shard : routingNode) {
+                    shards.add(shard);
+                    copies.put(shard.shardId(), new ArrayList<>(routingNodes.assignedShards(shard.shardId())));
+                    final IndexMetadata indexMetadata = metadata.getIndexSafe(shard.index());
+                    indexSettings.put(shard.getIndexName(), indexMetadata.getSettings());
+                }
+                return new NodeShards(shards, copies, indexSettings);
+            }
+
+            boolean matches(RoutingNode routingNode, RoutingNodes routingNodes, Metadata metadata) {
+                if (routingNode.size() != shards.size()) {
+                    return false;
+                }
+                for (ShardRouting shard : routingNode) {
+                    if (shards.contains(shard) == false) {
+                        return false;
+                    }
+                }
+                for (Map.Entry<ShardId, List<ShardRouting>> entry : copies.entrySet()) {
+                    if (routingNodes.assignedShards(entry.getKey()).equals(entry.getValue()) == false) {
+                        return false;
+                    }
+                }
+                for (Map.Entry<String, Settings> entry : indexSettings.entrySet()) {
+                    final IndexMetadata indexMetadata = metadata.index(entry.getKey());
+                    if (indexMetadata == null || indexMetadata.getSettings().equals(entry.getValue()) == false) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
         private final RoutingNode routingNode;
+        @Nullable
+        private final ShardLoads loads;
+        private double writeLoad = 0;
+        private double searchLoad = 0;
+        private double diskUsage = 0;
 
-        ModelNode(RoutingNode routingNode) {
+        ModelNode(RoutingNode routingNode, @Nullable ShardLoads loads) {
             this.routingNode = routingNode;
+            this.loads = loads;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -1034,6 +1389,18 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return index == null ? 0 : index.numShards();
         }
 
+        public double writeLoad() {
+            return writeLoad;
+        }
+
+        public double searchLoad() {
+            return searchLoad;
+        }
+
+        public double diskUsage() {
+            return diskUsage;
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -1050,6 +1417,11 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             }
             index.addShard(shard);
             numShards++;
+            if (loads != null) {
+                writeLoad += loads.writeLoad(shard);
+                searchLoad += loads.searchLoad(shard);
+                diskUsage += loads.diskUsage(shard);
+            }
         }
 
         public void removeShard(ShardRouting shard) {
@@ -1061,6 +1433,11 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
             }
             numShards--;
+            if (loads != null) {
+                writeLoad -= loads.writeLoad(shard);
+                searchLoad -= loads.searchLoad(shard);
+                diskUsage -= loads.diskUsage(shard);
+            }
         }
 
         @Override
@@ -53,6 +53,9 @@ import java.util.function.ToLongBiFunction;
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
+ * <p>
+ * A cache that is built with {@link CacheBuilder#setTinyLfu(boolean)} delegates all operations to a {@link TinyLfuCache}
+ * instead, and does not allocate the segments and the LRU list described above.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -87,8 +90,32 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the cache that all operations are delegated to, if this cache was built with a TinyLFU eviction policy
+    private final TinyLfuCache<K, V> tinyLfuCache;
+
     // use CacheBuilder to construct
     Cache() {
+        this(null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Cache(TinyLfuCache<K, V> tinyLfuCache) {
+        this.tinyLfuCache = tinyLfuCache;
+        if (tinyLfuCache == null) {
+            segments = new CacheSegment[NUMBER_OF_SEGMENTS];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = new CacheSegment<>();
+            }
+            lruLock = new ReleasableLock(new ReentrantLock());
+        } else {
+            segments = null;
+            lruLock = null;
+        }
+    }
+
+    // pkg-private for testing
+    TinyLfuCache<K, V> getTinyLfuCache() {
+        return tinyLfuCache;
     }
 
     void setExpireAfterAccessNanos(long expireAfterAccessNanos) {
@@ -326,20 +353,13 @@ public class Cache<K, V> {
     }
 
     public static final int NUMBER_OF_SEGMENTS = 256;
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private final CacheSegment<K, V>[] segments = new CacheSegment[NUMBER_OF_SEGMENTS];
-
-    {
-        for (int i = 0; i < segments.length; i++) {
-            segments[i] = new CacheSegment<>();
-        }
-    }
+    private final CacheSegment<K, V>[] segments;
 
     Entry<K, V> head;
     Entry<K, V> tail;
 
     // lock protecting mutations to the LRU list
-    private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
+    private final ReleasableLock lruLock;
 
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
@@ -348,6 +368,9 @@ public class Cache<K, V> {
      * @return the value to which the specified key is mapped, or null if this map contains no mapping for the key
      */
     public V get(K key) {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.get(key);
+        }
         return get(key, now(), e -> {});
     }
 
@@ -377,6 +400,9 @@ public class Cache<K, V> {
      * @throws ExecutionException thrown if loader throws an exception or returns a null value
      */
     public V computeIfAbsent(K key, CacheLoader<K, V> loader) throws ExecutionException {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.computeIfAbsent(key, loader);
+        }
         long now = now();
         // we have to eagerly evict expired entries or our putIfAbsent call below will fail
         V value = get(key, now, e -> {
@@ -459,6 +485,10 @@ public class Cache<K, V> {
      * @param value value to be associated with the specified key
      */
     public void put(K key, V value) {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.put(key, value);
+            return;
+        }
         long now = now();
         put(key, value, now);
     }
@@ -501,6 +531,10 @@ public class Cache<K, V> {
      * @param key the key whose mapping is to be invalidated from the cache
      */
     public void invalidate(K key) {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.invalidate(key);
+            return;
+        }
         CacheSegment<K, V> segment = getCacheSegment(key);
         segment.remove(key, invalidationConsumer);
     }
@@ -514,6 +548,10 @@ public class Cache<K, V> {
      * @param value the expected value that should be associated with the key
      */
     public void invalidate(K key, V value) {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.invalidate(key, value);
+            return;
+        }
         CacheSegment<K, V> segment = getCacheSegment(key);
         segment.remove(key, value, invalidationConsumer);
     }
@@ -523,6 +561,10 @@ public class Cache<K, V> {
      * {@link org.elasticsearch.common.cache.RemovalNotification.RemovalReason} INVALIDATED.
      */
     public void invalidateAll() {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.invalidateAll();
+            return;
+        }
         Entry<K, V> h;
 
         boolean[] haveSegmentLock = new boolean[NUMBER_OF_SEGMENTS];
@@ -560,6 +602,10 @@ public class Cache<K, V> {
      * Force any outstanding size-based and time-based evictions to occur
      */
     public void refresh() {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.refresh();
+            return;
+        }
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
             evict(now);
@@ -572,6 +618,9 @@ public class Cache<K, V> {
      * @return the number of entries in the cache
      */
     public int count() {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.count();
+        }
         return count;
     }
 
@@ -581,6 +630,9 @@ public class Cache<K, V> {
      * @return the weight of the entries in the cache
      */
     public long weight() {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.weight();
+        }
         return weight;
     }
 
@@ -592,6 +644,9 @@ public class Cache<K, V> {
      * @return an LRU-ordered {@link Iterable} over the keys in the cache
      */
     public Iterable<K> keys() {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.keys();
+        }
         return () -> new Iterator<K>() {
             private CacheIterator iterator = new CacheIterator(head);
 
@@ -620,6 +675,9 @@ public class Cache<K, V> {
      * @return an LRU-ordered {@link Iterable} over the values in the cache
      */
     public Iterable<V> values() {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.values();
+        }
         return () -> new Iterator<V>() {
             private CacheIterator iterator = new CacheIterator(head);
 
@@ -649,6 +707,10 @@ public class Cache<K, V> {
      * @param consumer the {@link Consumer}
      */
     public void forEach(BiConsumer<K, V> consumer) {
+        if (tinyLfuCache != null) {
+            tinyLfuCache.forEach(consumer);
+            return;
+        }
         for (CacheSegment<K, V> segment : segments) {
             try (ReleasableLock ignored = segment.readLock.acquire()) {
                 for (CompletableFuture<Entry<K, V>> future : segment.map.values()) {
@@ -707,6 +769,9 @@ public class Cache<K, V> {
      * @return the current cache statistics
      */
     public CacheStats stats() {
+        if (tinyLfuCache != null) {
+            return tinyLfuCache.stats();
+        }
         long hits = 0;
         long misses = 0;
         long evictions = 0;
@@ -19,6 +19,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean tinyLfu = false;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -79,7 +80,38 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether the cache delegates to a {@link TinyLfuCache} rather than using its own LRU list. Reads of a {@link TinyLfuCache}
+     * never block on its eviction policy, and its eviction policy takes into account how frequently entries are accessed, not only
+     * how recently.
+     *
+     * @param tinyLfu Whether the cache delegates to a {@link TinyLfuCache}. Defaults to {@code false}.
+     */
+    public CacheBuilder<K, V> setTinyLfu(boolean tinyLfu) {
+        this.tinyLfu = tinyLfu;
+        return this;
+    }
+
     public Cache<K, V> build() {
+        if (tinyLfu) {
+            TinyLfuCache<K, V> cache = new TinyLfuCache<>();
+            if (maximumWeight != -1) {
+                cache.setMaximumWeight(maximumWeight);
+            }
+            if (expireAfterAccessNanos != -1) {
+                cache.setExpireAfterAccessNanos(expireAfterAccessNanos);
+            }
+            if (expireAfterWriteNanos != -1) {
+                cache.setExpireAfterWriteNanos(expireAfterWriteNanos);
+            }
+            if (weigher != null) {
+                cache.setWeigher(weigher);
+            }
+            if (removalListener != null) {
+                cache.setRemovalListener(removalListener);
+            }
+            return new Cache<>(cache);
+        }
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
             cache.setMaximumWeight(maximumWeight);
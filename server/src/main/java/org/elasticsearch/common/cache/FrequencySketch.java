@@ -0,0 +1,116 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+/**
+ * Estimates how often keys were accessed recently, this is what {@link TinyLfuCache} uses to decide whether a new entry is worth
+ * evicting an existing one.
+ * <p>
+ * This is a count-min sketch with four hash functions and 4-bit counters, so that estimated frequencies are capped at
+ * {@link #MAX_FREQUENCY}. A counter is packed into each nibble of a long, and the four counters of a key are picked in the same
+ * group of four nibbles of four different longs. All counters are halved once the number of increments reaches ten times the
+ * number of longs of the table, which progressively forgets old accesses.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MIN_TABLE_SIZE = 8;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch() {
+        ensureCapacity(MIN_TABLE_SIZE);
+    }
+
+    /**
+     * Grows the sketch so that it can accurately track the frequency of <code>expectedSize</code> keys. Growing the sketch resets
+     * all frequencies.
+     */
+    void ensureCapacity(long expectedSize) {
+        int size = (int) Math.min(Math.max(expectedSize, MIN_TABLE_SIZE), MAX_TABLE_SIZE);
+        if (table != null && table.length >= size) {
+            return;
+        }
+        table = new long[1 << -Integer.numberOfLeadingZeros(size - 1)];
+        tableMask = table.length - 1;
+        sampleSize = 10 * table.length;
+        additions = 0;
+    }
+
+    /**
+     * Returns the estimated number of recent accesses to the key with the given hash code, between 0 and {@link #MAX_FREQUENCY}.
+     */
+    int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            int counter = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, counter);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the key with the given hash code.
+     */
+    void increment(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int truncated = 0;
+        for (int i = 0; i < table.length; i++) {
+            truncated += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // every key has four counters, so this removes the additions that halving odd counters lost
+        additions = (additions >>> 1) - (truncated >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int hashCode) {
+        int h = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
@@ -0,0 +1,718 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A concurrent cache whose reads never block on its eviction policy, and whose eviction policy is frequency-aware.
+ * <p>
+ * {@link Cache} promotes an entry in its LRU list on every hit, which requires a lock that all readers contend on. This cache
+ * instead records hits into striped, lossy read buffers. The buffers are drained into the eviction policy by whichever thread
+ * acquires the eviction lock without waiting for it, either when a buffer is full or on the next write. Reads are dropped when
+ * a buffer is full, this only makes the eviction policy slightly less accurate. Writes (insertions, replacements and
+ * invalidations) are applied to the eviction policy under the eviction lock, like for {@link Cache}.
+ * <p>
+ * The eviction policy is W-TinyLFU, as described in "TinyLFU: A Highly Efficient Cache Admission Policy" by Einziger, Friedman
+ * and Manes. New entries enter a small LRU window that holds 1% of the maximum weight. Entries that are evicted from the window
+ * become candidates for the main space, a segmented LRU made of a probation segment and of a protected segment that holds 80% of
+ * the main space. Entries get promoted from probation to protected when they are accessed. When the cache exceeds its maximum
+ * weight, a candidate is only admitted if it was accessed more often than the least recently used entry of the probation segment,
+ * according to a {@link FrequencySketch} of recent accesses. Otherwise the candidate is evicted. This means that one-off accesses,
+ * like the ones of a scan, cannot flush frequently accessed entries out of the cache.
+ * <p>
+ * Time-based evictions only consider the least recently used entry of each segment. Evictions only occur when the eviction policy
+ * is maintained (meaning after a write, or when read buffers get drained) or on an explicit call to {@link #refresh()}.
+ * <p>
+ * {@link Cache} delegates to this implementation when it is built with {@link CacheBuilder#setTinyLfu(boolean)}, the methods of
+ * this class have the same contract as the ones of {@link Cache}.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public class TinyLfuCache<K, V> {
+
+    // the share of the maximum weight that the admission window holds, in percents
+    private static final int WINDOW_PERCENTAGE = 1;
+
+    // the share of the main space that the protected segment holds, in percents
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private long expireAfterAccessNanos = -1;
+    private long expireAfterWriteNanos = -1;
+    private long maximumWeight = -1;
+    private long windowMaximumWeight = -1;
+    private long protectedMaximumWeight = -1;
+    private ToLongBiFunction<K, V> weigher = (k, v) -> 1;
+    private RemovalListener<K, V> removalListener = notification -> {
+    };
+
+    private final ConcurrentHashMap<K, CompletableFuture<Node<K, V>>> map = new ConcurrentHashMap<>();
+
+    private final ReadBuffer<K, V> readBuffer = new ReadBuffer<>();
+
+    // lock protecting the eviction policy, and the consistency between the map and the eviction policy
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final Consumer<Node<K, V>> onAccess = this::onAccess;
+    private long windowWeight = 0;
+    private long protectedWeight = 0;
+
+    // the number of entries and the weight of the cache, only updated under the eviction lock
+    private volatile int count = 0;
+    private volatile long weight = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // use CacheBuilder to construct
+    TinyLfuCache() {
+    }
+
+    void setExpireAfterAccessNanos(long expireAfterAccessNanos) {
+        if (expireAfterAccessNanos <= 0) {
+            throw new IllegalArgumentException("expireAfterAccessNanos <= 0");
+        }
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+    }
+
+    void setExpireAfterWriteNanos(long expireAfterWriteNanos) {
+        if (expireAfterWriteNanos <= 0) {
+            throw new IllegalArgumentException("expireAfterWriteNanos <= 0");
+        }
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight < 0");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximumWeight = Math.max(1, maximumWeight * WINDOW_PERCENTAGE / 100);
+        this.protectedMaximumWeight = Math.max(0, maximumWeight - windowMaximumWeight) * PROTECTED_PERCENTAGE / 100;
+    }
+
+    void setWeigher(ToLongBiFunction<K, V> weigher) {
+        Objects.requireNonNull(weigher);
+        this.weigher = weigher;
+    }
+
+    void setRemovalListener(RemovalListener<K, V> removalListener) {
+        Objects.requireNonNull(removalListener);
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * The relative time used to track time-based evictions.
+     *
+     * @return the current relative time
+     */
+    protected long now() {
+        // System.nanoTime takes non-negligible time, so we only use it if we need it
+        return expireAfterAccessNanos != -1 || expireAfterWriteNanos != -1 ? System.nanoTime() : 0;
+    }
+
+    // the segment of the eviction policy that holds a node
+    enum QueueType {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long weight;
+        final long writeTime;
+        final CompletableFuture<Node<K, V>> future;
+        volatile long accessTime;
+        // the fields below are guarded by the eviction lock, queue is null if the node is not part of the eviction policy
+        QueueType queue;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long weight, long writeTime, CompletableFuture<Node<K, V>> future) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = this.accessTime = writeTime;
+            this.future = future;
+        }
+    }
+
+    /**
+     * A doubly-linked list of nodes in access order, from the least recently used to the most recently used node.
+     */
+    private static final class AccessOrderDeque<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+
+        void addLast(Node<K, V> node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Striped, lossy ring buffers of the nodes that were read and whose accesses still need to be applied to the eviction policy.
+     * Threads pick a stripe based on their id and claim a slot with a compare-and-set. Reads are dropped when the stripe is full or
+     * when another thread claimed the slot concurrently. The buffers are drained under the eviction lock.
+     */
+    static final class ReadBuffer<K, V> {
+        static final int NUMBER_OF_STRIPES = 32;
+        static final int STRIPE_SIZE = 16;
+        // the counters of a stripe are spread over a cache line to avoid false sharing between stripes
+        private static final int PADDING = 8;
+
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(NUMBER_OF_STRIPES * STRIPE_SIZE);
+        private final AtomicLongArray writeCounters = new AtomicLongArray(NUMBER_OF_STRIPES * PADDING);
+        private final AtomicLongArray readCounters = new AtomicLongArray(NUMBER_OF_STRIPES * PADDING);
+
+        /**
+         * Records a read of the given node.
+         *
+         * @return true if the stripe of the current thread is full, meaning that the buffer should be drained
+         */
+        boolean offer(Node<K, V> node) {
+            int stripe = stripe();
+            int counter = stripe * PADDING;
+            long tail = writeCounters.get(counter);
+            long size = tail - readCounters.get(counter);
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounters.compareAndSet(counter, tail, tail + 1)) {
+                buffer.lazySet(stripe * STRIPE_SIZE + (int) (tail & (STRIPE_SIZE - 1)), node);
+                return size + 1 >= STRIPE_SIZE;
+            }
+            return false;
+        }
+
+        /**
+         * Drains all recorded reads into the given consumer, must be called under the eviction lock.
+         */
+        void drainTo(Consumer<Node<K, V>> consumer) {
+            for (int stripe = 0; stripe < NUMBER_OF_STRIPES; stripe++) {
+                int counter = stripe * PADDING;
+                long head = readCounters.get(counter);
+                long tail = writeCounters.get(counter);
+                for (; head < tail; head++) {
+                    int index = stripe * STRIPE_SIZE + (int) (head & (STRIPE_SIZE - 1));
+                    Node<K, V> node = buffer.get(index);
+                    if (node == null) {
+                        // the slot was claimed but the node is not visible yet, it will be drained next time
+                        break;
+                    }
+                    buffer.lazySet(index, null);
+                    consumer.accept(node);
+                }
+                readCounters.lazySet(counter, head);
+            }
+        }
+
+        private static int stripe() {
+            long id = Thread.currentThread().getId();
+            int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            return (hash >>> 16) & (NUMBER_OF_STRIPES - 1);
+        }
+    }
+
+    public V get(K key) {
+        return get(key, now(), false);
+    }
+
+    private V get(K key, long now, boolean evictIfExpired) {
+        CompletableFuture<Node<K, V>> future = map.get(key);
+        if (future == null) {
+            misses.increment();
+            return null;
+        }
+        Node<K, V> node;
+        try {
+            node = future.get();
+        } catch (ExecutionException e) {
+            misses.increment();
+            return null;
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        if (isExpired(node, now)) {
+            misses.increment();
+            if (evictIfExpired) {
+                evictionLock.lock();
+                try {
+                    if (node.queue != null) {
+                        evictEntry(node);
+                    }
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        hits.increment();
+        afterRead(node, now);
+        return node.value;
+    }
+
+    public V computeIfAbsent(K key, CacheLoader<K, V> loader) throws ExecutionException {
+        long now = now();
+        // we have to eagerly evict expired entries or our putIfAbsent call below would return them
+        V value = get(key, now, true);
+        if (value != null) {
+            return value;
+        }
+        // the thread that wins the race to put its future into the map loads the value, without holding any lock so that loading
+        // keys that depend on each other can't deadlock; other threads wait for the result of that future, including its failure
+        CompletableFuture<Node<K, V>> future = new CompletableFuture<>();
+        CompletableFuture<Node<K, V>> existing = map.putIfAbsent(key, future);
+        if (existing != null) {
+            Node<K, V> node;
+            try {
+                node = existing.get();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            afterRead(node, now);
+            return node.value;
+        }
+        V loaded;
+        try {
+            loaded = loader.load(key);
+        } catch (Exception e) {
+            map.remove(key, future);
+            future.completeExceptionally(e);
+            throw new ExecutionException(e);
+        }
+        if (loaded == null) {
+            NullPointerException npe = new NullPointerException("loader returned a null value");
+            map.remove(key, future);
+            future.completeExceptionally(npe);
+            throw new ExecutionException(npe);
+        }
+        Node<K, V> node = new Node<>(key, loaded, weigher.applyAsLong(key, loaded), now, future);
+        future.complete(node);
+        evictionLock.lock();
+        try {
+            // the key might have been invalidated or replaced while the value was loading
+            if (map.get(key) == future) {
+                addNode(node);
+            }
+            maintenance(now);
+        } finally {
+            evictionLock.unlock();
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        long now = now();
+        CompletableFuture<Node<K, V>> future = new CompletableFuture<>();
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsLong(key, value), now, future);
+        future.complete(node);
+        Node<K, V> replaced;
+        evictionLock.lock();
+        try {
+            replaced = completedNode(map.put(key, future));
+            if (replaced != null) {
+                removeNode(replaced);
+            }
+            addNode(node);
+            maintenance(now);
+        } finally {
+            evictionLock.unlock();
+        }
+        if (replaced != null) {
+            removalListener.onRemoval(new RemovalNotification<>(replaced.key, replaced.value, RemovalNotification.RemovalReason.REPLACED));
+        }
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> invalidated = null;
+        evictionLock.lock();
+        try {
+            CompletableFuture<Node<K, V>> future = map.remove(key);
+            if (future != null) {
+                evictions.increment();
+                invalidated = completedNode(future);
+                if (invalidated != null) {
+                    removeNode(invalidated);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (invalidated != null) {
+            removalListener.onRemoval(
+                new RemovalNotification<>(invalidated.key, invalidated.value, RemovalNotification.RemovalReason.INVALIDATED));
+        }
+    }
+
+    public void invalidate(K key, V value) {
+        Node<K, V> invalidated = null;
+        evictionLock.lock();
+        try {
+            CompletableFuture<Node<K, V>> future = map.get(key);
+            Node<K, V> node = completedNode(future);
+            if (node != null && Objects.equals(value, node.value) && map.remove(key, future)) {
+                evictions.increment();
+                removeNode(node);
+                invalidated = node;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (invalidated != null) {
+            removalListener.onRemoval(
+                new RemovalNotification<>(invalidated.key, invalidated.value, RemovalNotification.RemovalReason.INVALIDATED));
+        }
+    }
+
+    public void invalidateAll() {
+        List<Node<K, V>> invalidated = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            // discard pending reads, they would only hold references to the invalidated nodes
+            readBuffer.drainTo(node -> {});
+            map.clear();
+            for (AccessOrderDeque<K, V> deque : List.of(window, probation, protectedSegment)) {
+                while (deque.head != null) {
+                    Node<K, V> node = deque.head;
+                    deque.remove(node);
+                    node.queue = null;
+                    invalidated.add(node);
+                }
+            }
+            windowWeight = 0;
+            protectedWeight = 0;
+            count = 0;
+            weight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+        for (Node<K, V> node : invalidated) {
+            removalListener.onRemoval(new RemovalNotification<>(node.key, node.value, RemovalNotification.RemovalReason.INVALIDATED));
+        }
+    }
+
+    public void refresh() {
+        long now = now();
+        evictionLock.lock();
+        try {
+            maintenance(now);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * The keys in the cache, in no particular order. Iteration is weakly consistent: it never fails because of concurrent mutations
+     * and may or may not reflect them. Removing a key through the iterator invalidates its entry.
+     *
+     * @return an {@link Iterable} over the keys in the cache
+     */
+    public Iterable<K> keys() {
+        return () -> new NodeIterator<K>(node -> node.key);
+    }
+
+    /**
+     * The values in the cache, in no particular order. Iteration is weakly consistent: it never fails because of concurrent
+     * mutations and may or may not reflect them. Removing a value through the iterator invalidates its entry.
+     *
+     * @return an {@link Iterable} over the values in the cache
+     */
+    public Iterable<V> values() {
+        return () -> new NodeIterator<V>(node -> node.value);
+    }
+
+    public void forEach(BiConsumer<K, V> consumer) {
+        for (CompletableFuture<Node<K, V>> future : map.values()) {
+            Node<K, V> node = completedNode(future);
+            if (node != null) {
+                consumer.accept(node.key, node.value);
+            }
+        }
+    }
+
+    public Cache.CacheStats stats() {
+        return new Cache.CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private class NodeIterator<T> implements Iterator<T> {
+        private final Iterator<CompletableFuture<Node<K, V>>> iterator = map.values().iterator();
+        private final Function<Node<K, V>, T> function;
+        private Node<K, V> current;
+        private Node<K, V> next;
+
+        NodeIterator(Function<Node<K, V>, T> function) {
+            this.function = function;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                next = completedNode(iterator.next());
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = null;
+            return function.apply(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException("next() must be called before remove()");
+            }
+            invalidate(current.key, current.value);
+            current = null;
+        }
+    }
+
+    private static <K, V> Node<K, V> completedNode(CompletableFuture<Node<K, V>> future) {
+        if (future != null && future.isDone() && future.isCompletedExceptionally() == false) {
+            return future.join();
+        }
+        return null;
+    }
+
+    private void afterRead(Node<K, V> node, long now) {
+        node.accessTime = now;
+        if (readBuffer.offer(node) && evictionLock.tryLock()) {
+            // readers never wait for the eviction lock, if another thread holds it then it will drain the buffer
+            try {
+                maintenance(now);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance(long now) {
+        assert evictionLock.isHeldByCurrentThread();
+        readBuffer.drainTo(onAccess);
+        expire(now);
+        if (maximumWeight != -1) {
+            evictFromMain(evictFromWindow());
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        assert evictionLock.isHeldByCurrentThread();
+        if (node.queue == null) {
+            // the node was removed after it was read
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = QueueType.PROTECTED;
+                protectedSegment.addLast(node);
+                protectedWeight += node.weight;
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                protectedSegment.moveToLast(node);
+                break;
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (maximumWeight != -1 && protectedWeight > protectedMaximumWeight && protectedSegment.head != null) {
+            Node<K, V> node = protectedSegment.head;
+            protectedSegment.remove(node);
+            protectedWeight -= node.weight;
+            node.queue = QueueType.PROBATION;
+            probation.addLast(node);
+        }
+    }
+
+    private void addNode(Node<K, V> node) {
+        assert evictionLock.isHeldByCurrentThread();
+        assert node.queue == null;
+        node.queue = QueueType.WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        weight += node.weight;
+        count++;
+        sketch.ensureCapacity(count);
+        sketch.increment(node.key.hashCode());
+    }
+
+    private void removeNode(Node<K, V> node) {
+        assert evictionLock.isHeldByCurrentThread();
+        if (node.queue == null) {
+            return;
+        }
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedWeight -= node.weight;
+                break;
+        }
+        node.queue = null;
+        weight -= node.weight;
+        count--;
+    }
+
+    private void evictEntry(Node<K, V> node) {
+        assert evictionLock.isHeldByCurrentThread();
+        removeNode(node);
+        if (map.remove(node.key, node.future)) {
+            evictions.increment();
+        }
+        removalListener.onRemoval(new RemovalNotification<>(node.key, node.value, RemovalNotification.RemovalReason.EVICTED));
+    }
+
+    private void expire(long now) {
+        if (expireAfterAccessNanos == -1 && expireAfterWriteNanos == -1) {
+            return;
+        }
+        for (AccessOrderDeque<K, V> deque : List.of(window, probation, protectedSegment)) {
+            while (deque.head != null && isExpired(deque.head, now)) {
+                evictEntry(deque.head);
+            }
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return (expireAfterAccessNanos != -1 && now - node.accessTime > expireAfterAccessNanos) ||
+            (expireAfterWriteNanos != -1 && now - node.writeTime > expireAfterWriteNanos);
+    }
+
+    /**
+     * Moves the least recently used entries of the window to the probation segment until the window fits its maximum weight.
+     *
+     * @return the first entry that was moved, the moved entries are the most recently used entries of the probation segment
+     */
+    private Node<K, V> evictFromWindow() {
+        Node<K, V> first = null;
+        while (windowWeight > windowMaximumWeight && window.head != null) {
+            Node<K, V> node = window.head;
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queue = QueueType.PROBATION;
+            probation.addLast(node);
+            if (first == null) {
+                first = node;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Evicts entries until the cache fits its maximum weight, by making candidates that were just moved from the window compete
+     * with the least recently used entries of the probation segment (the victims).
+     */
+    private void evictFromMain(Node<K, V> candidate) {
+        Node<K, V> victim = probation.head;
+        while (weight > maximumWeight) {
+            if (victim == null && candidate == null) {
+                // the probation segment is empty, fall back to the protected segment and then to the window
+                Node<K, V> node = protectedSegment.head != null ? protectedSegment.head : window.head;
+                if (node == null) {
+                    break;
+                }
+                evictEntry(node);
+            } else if (victim == null || victim == candidate) {
+                // all victims were evicted, so candidates are evicted in LRU order
+                Node<K, V> next = candidate.next;
+                evictEntry(candidate);
+                victim = candidate = next;
+            } else if (candidate == null) {
+                Node<K, V> next = victim.next;
+                evictEntry(victim);
+                victim = next;
+            } else if (candidate.weight > maximumWeight || admit(candidate, victim) == false) {
+                Node<K, V> next = candidate.next;
+                evictEntry(candidate);
+                candidate = next;
+            } else {
+                Node<K, V> next = victim.next;
+                evictEntry(victim);
+                victim = next;
+            }
+        }
+    }
+
+    private boolean admit(Node<K, V> candidate, Node<K, V> victim) {
+        return sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode());
+    }
+}
@@ -20,6 +20,9 @@ public class CompressorFactory {
 
     public static final Compressor COMPRESSOR = new DeflateCompressor();
 
+    // only used to compress transport messages, it is not detected by #compressor(BytesReference)
+    public static final Compressor LZ4_COMPRESSOR = new Lz4Compressor();
+
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
     }
@@ -0,0 +1,525 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 compression algorithm. LZ4 compresses less than DEFLATE but is several times
+ * faster, both to compress and to decompress, which makes it a better fit when CPU rather than bandwidth is the bottleneck.
+ * <p>
+ * Data is split into independent blocks of at most {@link #BLOCK_SIZE} bytes. Each block is framed with its uncompressed length and
+ * its compressed length as big-endian integers, followed by the block in the LZ4 block format. Blocks that do not compress are stored
+ * as-is, which is signalled by a compressed length equal to the uncompressed length. The stream ends with an uncompressed length of
+ * zero.
+ */
+public class Lz4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams, see DeflateCompressor
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+
+    /**
+     * The maximum number of uncompressed bytes in a block. This is the size of a recycled page so that the transport layer can
+     * decompress blocks into pages.
+     */
+    public static final int BLOCK_SIZE = 16 * 1024;
+
+    /**
+     * The size of the header of a block: its uncompressed length and its compressed length.
+     */
+    public static final int BLOCK_HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private static final int MIN_MATCH = 4;
+    // the last literals of a block are never part of a match
+    private static final int LAST_LITERALS = 5;
+    // the last match must start at least this many bytes before the end of a block
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int HASH_LOG = 12;
+    // after 2^SKIP_STRENGTH consecutive misses, the search for matches starts skipping bytes
+    private static final int SKIP_STRENGTH = 6;
+    private static final int RUN_MASK = 0x0F;
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int headerLength() {
+        return HEADER.length;
+    }
+
+    /**
+     * Returns the maximum length of the compressed form of <code>length</code> bytes.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    // Buffers that are reused by the streams of a thread, a fresh instance is used when streams are nested
+    private static final class Buffers implements Releasable {
+        final byte[] block = new byte[BLOCK_SIZE];
+        final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        final int[] hashTable = new int[1 << HASH_LOG];
+        boolean inUse;
+
+        @Override
+        public void close() {
+            assert inUse;
+            inUse = false;
+        }
+    }
+
+    private static final ThreadLocal<Buffers> buffersRef = ThreadLocal.withInitial(Buffers::new);
+
+    private static Buffers threadLocalBuffers() {
+        Buffers buffers = buffersRef.get();
+        if (buffers.inUse) {
+            buffers = new Buffers();
+        }
+        buffers.inUse = true;
+        return buffers;
+    }
+
+    @Override
+    public InputStream threadLocalInputStream(InputStream in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = 0;
+        while (len < headerBytes.length) {
+            final int read = in.read(headerBytes, len, headerBytes.length - len);
+            if (read == -1) {
+                break;
+            }
+            len += read;
+        }
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new Lz4InputStream(in, threadLocalBuffers());
+    }
+
+    @Override
+    public OutputStream threadLocalOutputStream(OutputStream out) throws IOException {
+        out.write(HEADER);
+        return new Lz4OutputStream(out, threadLocalBuffers());
+    }
+
+    private static final ThreadLocal<BytesStreamOutput> baos = ThreadLocal.withInitial(BytesStreamOutput::new);
+
+    @Override
+    public BytesReference uncompress(BytesReference bytesReference) throws IOException {
+        final BytesStreamOutput buffer = baos.get();
+        try (InputStream in = threadLocalInputStream(bytesReference.streamInput())) {
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                buffer.write(bytes, 0, read);
+            }
+        }
+        final BytesReference res = buffer.copyBytes();
+        buffer.reset();
+        return res;
+    }
+
+    @Override
+    public BytesReference compress(BytesReference bytesReference) throws IOException {
+        final BytesStreamOutput buffer = baos.get();
+        try (OutputStream out = threadLocalOutputStream(buffer)) {
+            bytesReference.writeTo(out);
+        }
+        final BytesReference res = buffer.copyBytes();
+        buffer.reset();
+        return res;
+    }
+
+    /**
+     * Compresses <code>srcLen</code> bytes of <code>src</code> into <code>dest</code> using the LZ4 block format, and returns the
+     * number of bytes written. <code>dest</code> must have room for {@link #maxCompressedLength(int)} bytes.
+     */
+    static int compressBlock(byte[] src, final int srcOff, final int srcLen, byte[] dest, final int destOff, int[] hashTable) {
+        final int srcEnd = srcOff + srcLen;
+        int dOff = destOff;
+        int anchor = srcOff;
+        if (srcLen > MF_LIMIT) {
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            final int mfLimit = srcEnd - MF_LIMIT;
+            Arrays.fill(hashTable, -1);
+            int sOff = srcOff;
+            int searchCount = 1 << SKIP_STRENGTH;
+            while (sOff < mfLimit) {
+                final int sequence = readInt(src, sOff);
+                final int hash = hash(sequence);
+                final int ref = hashTable[hash];
+                hashTable[hash] = sOff;
+                if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    sOff += searchCount++ >>> SKIP_STRENGTH;
+                    continue;
+                }
+                searchCount = 1 << SKIP_STRENGTH;
+
+                // extend the match backwards, then forwards
+                int matchStart = sOff;
+                int refStart = ref;
+                while (matchStart > anchor && refStart > srcOff && src[matchStart - 1] == src[refStart - 1]) {
+                    matchStart--;
+                    refStart--;
+                }
+                int matchEnd = sOff + MIN_MATCH;
+                int refEnd = ref + MIN_MATCH;
+                while (matchEnd < matchLimit && src[matchEnd] == src[refEnd]) {
+                    matchEnd++;
+                    refEnd++;
+                }
+
+                dOff = writeSequence(src, anchor, matchStart - anchor, matchStart - refStart, matchEnd - matchStart, dest, dOff);
+                sOff = matchEnd;
+                anchor = sOff;
+            }
+        }
+
+        // the remaining bytes are written as literals
+        final int literalLength = srcEnd - anchor;
+        final int token = dOff++;
+        if (literalLength >= RUN_MASK) {
+            dest[token] = (byte) (RUN_MASK << 4);
+            dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+        } else {
+            dest[token] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, anchor, dest, dOff, literalLength);
+        return dOff + literalLength - destOff;
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset, int matchLength,
+                                     byte[] dest, int dOff) {
+        final int token = dOff++;
+        int tokenValue;
+        if (literalLength >= RUN_MASK) {
+            tokenValue = RUN_MASK << 4;
+            dOff = writeLength(literalLength - RUN_MASK, dest, dOff);
+        } else {
+            tokenValue = literalLength << 4;
+        }
+        System.arraycopy(src, literalOff, dest, dOff, literalLength);
+        dOff += literalLength;
+        dest[dOff++] = (byte) offset;
+        dest[dOff++] = (byte) (offset >>> 8);
+        final int matchLengthValue = matchLength - MIN_MATCH;
+        if (matchLengthValue >= RUN_MASK) {
+            tokenValue |= RUN_MASK;
+            dOff = writeLength(matchLengthValue - RUN_MASK, dest, dOff);
+        } else {
+            tokenValue |= matchLengthValue;
+        }
+        dest[token] = (byte) tokenValue;
+        return dOff;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dOff) {
+        while (length >= 0xFF) {
+            dest[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    /**
+     * Decompresses the <code>srcLen</code> bytes of <code>src</code>, which must be a block in the LZ4 block format, into exactly
+     * <code>destLen</code> bytes of <code>dest</code>.
+     *
+     * @throws IOException if the block is corrupt or does not decompress to <code>destLen</code> bytes
+     */
+    public static void decompressBlock(byte[] src, final int srcOff, final int srcLen, byte[] dest, final int destOff, final int destLen)
+        throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + destLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+        while (true) {
+            if (sOff >= srcEnd) {
+                throw new IOException("Corrupt LZ4 block: unexpected end of block");
+            }
+            final int token = src[sOff++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of block");
+                    }
+                    b = src[sOff++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            if (literalLength > srcEnd - sOff || literalLength > destEnd - dOff) {
+                throw new IOException("Corrupt LZ4 block: literals exceed the block");
+            }
+            System.arraycopy(src, sOff, dest, dOff, literalLength);
+            sOff += literalLength;
+            dOff += literalLength;
+            if (sOff == srcEnd) {
+                // the last sequence has no match
+                break;
+            }
+
+            if (srcEnd - sOff < 2) {
+                throw new IOException("Corrupt LZ4 block: unexpected end of block");
+            }
+            final int offset = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+            sOff += 2;
+            if (offset == 0 || offset > dOff - destOff) {
+                throw new IOException("Corrupt LZ4 block: invalid match offset [" + offset + "]");
+            }
+
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of block");
+                    }
+                    b = src[sOff++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > destEnd - dOff) {
+                throw new IOException("Corrupt LZ4 block: match exceeds the block");
+            }
+            final int matchOff = dOff - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dest, matchOff, dest, dOff, matchLength);
+            } else {
+                // overlapping copy, which repeats the last offset bytes
+                for (int i = 0; i < matchLength; i++) {
+                    dest[dOff + i] = dest[matchOff + i];
+                }
+            }
+            dOff += matchLength;
+        }
+        if (dOff != destEnd) {
+            throw new IOException("Corrupt LZ4 block: expected [" + destLen + "] bytes but got [" + (dOff - destOff) + "]");
+        }
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+            | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Reads a big-endian integer such as the lengths of a block header.
+     */
+    public static int readBlockLength(byte[] bytes, int offset) {
+        return readInt(bytes, offset);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static final class Lz4OutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final Buffers buffers;
+        private final byte[] blockHeader = new byte[BLOCK_HEADER_LENGTH];
+        private int position;
+        private boolean closed;
+
+        Lz4OutputStream(OutputStream out, Buffers buffers) {
+            this.out = out;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == BLOCK_SIZE) {
+                writeBlock();
+            }
+            buffers.block[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (position == BLOCK_SIZE) {
+                    writeBlock();
+                }
+                final int toCopy = Math.min(len, BLOCK_SIZE - position);
+                System.arraycopy(b, off, buffers.block, position, toCopy);
+                position += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        private void writeBlock() throws IOException {
+            if (position == 0) {
+                return;
+            }
+            final int compressedLength = compressBlock(buffers.block, 0, position, buffers.compressed, 0, buffers.hashTable);
+            writeInt(blockHeader, 0, position);
+            if (compressedLength < position) {
+                writeInt(blockHeader, Integer.BYTES, compressedLength);
+                out.write(blockHeader);
+                out.write(buffers.compressed, 0, compressedLength);
+            } else {
+                writeInt(blockHeader, Integer.BYTES, position);
+                out.write(blockHeader);
+                out.write(buffers.block, 0, position);
+            }
+            position = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeBlock();
+                // the end of the stream is marked with an empty block
+                writeInt(blockHeader, 0, 0);
+                out.write(blockHeader, 0, Integer.BYTES);
+                out.close();
+            } finally {
+                buffers.close();
+            }
+        }
+    }
+
+    private static final class Lz4InputStream extends InputStream {
+
+        private final InputStream in;
+        private final Buffers buffers;
+        private final byte[] blockHeader = new byte[BLOCK_HEADER_LENGTH];
+        private int position;
+        private int limit;
+        private boolean eos;
+        private boolean closed;
+
+        Lz4InputStream(InputStream in, Buffers buffers) {
+            this.in = in;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && readBlock() == false) {
+                return -1;
+            }
+            return buffers.block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == limit && readBlock() == false) {
+                return -1;
+            }
+            final int toCopy = Math.min(len, limit - position);
+            System.arraycopy(buffers.block, position, b, off, toCopy);
+            position += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        private boolean readBlock() throws IOException {
+            if (eos) {
+                return false;
+            }
+            readFully(blockHeader, 0, Integer.BYTES);
+            final int uncompressedLength = readInt(blockHeader, 0);
+            if (uncompressedLength == 0) {
+                eos = true;
+                return false;
+            }
+            if (uncompressedLength < 0 || uncompressedLength > BLOCK_SIZE) {
+                throw new IOException("Corrupt LZ4 stream: invalid block length [" + uncompressedLength + "]");
+            }
+            readFully(blockHeader, Integer.BYTES, Integer.BYTES);
+            final int compressedLength = readInt(blockHeader, Integer.BYTES);
+            if (compressedLength <= 0 || compressedLength > uncompressedLength) {
+                throw new IOException("Corrupt LZ4 stream: invalid compressed block length [" + compressedLength + "]");
+            }
+            if (compressedLength == uncompressedLength) {
+                readFully(buffers.block, 0, uncompressedLength);
+            } else {
+                readFully(buffers.compressed, 0, compressedLength);
+                decompressBlock(buffers.compressed, 0, compressedLength, buffers.block, 0, uncompressedLength);
+            }
+            position = 0;
+            limit = uncompressedLength;
+            return true;
+        }
+
+        private void readFully(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int read = in.read(b, off, len);
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of LZ4 stream");
+                }
+                off += read;
+                len -= read;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                in.close();
+            } finally {
+                buffers.close();
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.IndicesRequestCache;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.indices.ShardLimitValidator;
 
 import java.util.Collections;
@@ -123,9 +124,11 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
             IndexSettings.INDEX_GC_DELETES_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_SETTING,
+            IndexSettings.INDEX_VERSION_MAP_PAGED_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
             IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING,
+            IndicesSegmentCountCache.INDEX_SEGMENT_COUNT_CACHE_ENABLED_SETTING,
             UnassignedInfo.INDEX_DELAYED_NODE_LEFT_TIMEOUT_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_REBALANCE_ENABLE_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_ALLOCATION_ENABLE_SETTING,
@@ -35,6 +35,13 @@ abstract class AbstractHash extends AbstractPagedHashMap {
         return ids.set(index, id + 1) - 1;
     }
 
+    /**
+     * Returns the memory used by the arrays that back this hash.
+     */
+    public long ramBytesUsed() {
+        return ids.ramBytesUsed();
+    }
+
     @Override
     protected void resize(long capacity) {
         ids = bigArrays.resize(ids, capacity);
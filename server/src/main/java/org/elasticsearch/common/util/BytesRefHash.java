@@ -87,6 +87,34 @@ public final class BytesRefHash extends AbstractHash {
         return find(key, key.hashCode());
     }
 
+    /**
+     * Get the id associated with <code>key</code> like {@link #find(BytesRef, int)}, but compares the keys in place rather than
+     * reading them into a shared {@link BytesRef}. Concurrent calls are therefore safe as long as the hash is not modified.
+     */
+    public long findConcurrently(BytesRef key, int code) {
+        final int hash = rehash(code);
+        final long slot = slot(hash, mask);
+        for (long index = slot; ; index = nextSlot(index, mask)) {
+            final long id = id(index);
+            if (id == -1L || (hashes.get(id) == hash && keyEquals(id, key))) {
+                return id;
+            }
+        }
+    }
+
+    private boolean keyEquals(long id, BytesRef key) {
+        final long startOffset = startOffsets.get(id);
+        if (startOffsets.get(id + 1) - startOffset != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (bytes.get(startOffset + i) != key.bytes[key.offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private long set(BytesRef key, int code, long id) {
         assert rehash(key.hashCode()) == code;
         assert size < maxSize;
@@ -158,6 +186,11 @@ public final class BytesRefHash extends AbstractHash {
         reset(code, id);
     }
 
+    @Override
+    public long ramBytesUsed() {
+        return super.ramBytesUsed() + startOffsets.ramBytesUsed() + bytes.ramBytesUsed() + hashes.ramBytesUsed();
+    }
+
     @Override
     public void close() {
         try (Releasable releasable = Releasables.wrap(bytes, hashes, startOffsets)) {
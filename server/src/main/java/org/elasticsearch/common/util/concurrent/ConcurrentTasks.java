@@ -0,0 +1,77 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a list of tasks concurrently and waits for them to complete.
+ */
+public final class ConcurrentTasks {
+
+    private ConcurrentTasks() {}
+
+    /**
+     * Runs the given tasks on up to {@code parallelism} threads and returns once they are all complete. The calling thread is one of
+     * these threads, and the other ones are forked to the given executor. The calling thread only waits for the tasks that other threads
+     * already started: the tasks that are still queued once it is done with its own tasks are run by the calling thread. This means
+     * that the tasks also complete if the executor rejects the forked threads or only runs them later, for instance in tests that use
+     * a deterministic executor, and that the tasks are all run by the calling thread if {@code parallelism} is {@code 1}.
+     * <p>
+     * A task that throws an exception does not prevent the other tasks from running, the first exception is rethrown once all tasks are
+     * complete, with the exceptions of the other failed tasks added as suppressed exceptions.
+     */
+    public static void run(Executor executor, int parallelism, List<? extends Runnable> tasks) {
+        final Queue<Runnable> queue = ConcurrentCollections.newQueue();
+        queue.addAll(tasks);
+        final CountDownLatch completed = new CountDownLatch(tasks.size());
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failure.accumulateAndGet(e, (first, next) -> {
+                        if (first == null) {
+                            return next;
+                        }
+                        first.addSuppressed(next);
+                        return first;
+                    });
+                } finally {
+                    completed.countDown();
+                }
+            }
+        };
+        final int threads = Math.min(parallelism, tasks.size());
+        for (int i = 1; i < threads; i++) {
+            try {
+                executor.execute(worker);
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread runs the tasks that the forked threads would have run
+                break;
+            }
+        }
+        worker.run();
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for tasks to complete", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.Node;
 
 import java.util.List;
@@ -29,6 +30,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class EsExecutors {
 
@@ -86,6 +88,20 @@ public class EsExecutors {
         }
     }
 
+    /**
+     * Creates a fixed executor whose bounded queue hands out the tasks in weighted fair queuing order of their classes, and rejects the
+     * tasks of the busiest classes once the tasks are late, see {@link FairBlockingQueue}. The execution time of the tasks is tracked
+     * like with {@link #newFixed} with {@code trackEWMA} enabled.
+     */
+    public static EsThreadPoolExecutor newFairFixed(String name, int size, int queueCapacity, ThreadFactory threadFactory,
+                                                    ThreadContext contextHolder, Supplier<String> classifier, TimeValue targetDelay,
+                                                    TimeValue interval) {
+        final FairBlockingQueue fairQueue = new FairBlockingQueue(classifier, targetDelay.nanos(), interval.nanos());
+        final BlockingQueue<Runnable> queue = queueCapacity < 0 ? fairQueue : new SizeBlockingQueue<>(fairQueue, queueCapacity);
+        return new EWMATrackingEsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS,
+            queue, TimedRunnable::new, threadFactory, new EsAbortPolicy(), contextHolder);
+    }
+
     /**
      * Checks if the runnable arose from asynchronous submission of a task to an executor. If an uncaught exception was thrown
      * during the execution of this task, we need to inspect this runnable and see if it is an error that should be propagated
@@ -224,6 +240,58 @@ public class EsExecutors {
 
     }
 
+    /**
+     * Returns whether the JVM supports virtual threads, which is the case as of Java 21.
+     */
+    public static boolean virtualThreadsSupported() {
+        return EsVirtualThreadFactory.VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Returns a thread factory that creates virtual threads, which are named like the threads of
+     * {@link #daemonThreadFactory(String)}. Virtual threads don't hold on to a platform thread while they are blocked on I/O, so
+     * pools of virtual threads can scale with the concurrency of blocking I/O rather than with the number of platform threads.
+     *
+     * @throws IllegalStateException if the JVM doesn't support virtual threads, see {@link #virtualThreadsSupported()}
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        if (virtualThreadsSupported() == false) {
+            throw new IllegalStateException("virtual threads are not supported by this JVM, they require Java 21 or later");
+        }
+        return new EsVirtualThreadFactory(namePrefix);
+    }
+
+    static class EsVirtualThreadFactory implements ThreadFactory {
+
+        // Elasticsearch still runs on JVMs without virtual threads, so their factory is looked up reflectively
+        static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+
+        EsVirtualThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        private static ThreadFactory lookupVirtualThreadFactory() {
+            try {
+                final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | SecurityException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            // virtual threads are always daemon threads
+            Thread t = VIRTUAL_THREAD_FACTORY.newThread(r);
+            t.setName(namePrefix + "[T#" + threadNumber.getAndIncrement() + "]");
+            return t;
+        }
+
+    }
+
     /**
      * Cannot instantiate.
      */
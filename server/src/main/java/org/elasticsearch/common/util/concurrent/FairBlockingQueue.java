@@ -0,0 +1,384 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * An unbounded blocking queue of tasks that are classified by the thread that submits them, for instance by the value of a request
+ * header, and that are taken in weighted fair queuing order rather than in FIFO order: each class gets an equal share of the execution
+ * time of the threads that take the tasks, so that a class that submits expensive tasks can't delay the tasks of the other classes.
+ * <p>
+ * The queue tracks the exponentially weighted moving average of the execution time of the tasks of each class, which is measured as the
+ * time between a thread taking a task and coming back for the next one, and gives each task a virtual finish time that is the virtual
+ * finish time of the previous task of its class, or the current virtual time if it is later, plus the average execution time of its
+ * class. Tasks are taken by increasing virtual finish time and the virtual time is the finish time of the last task taken, which is
+ * known as self-clocked fair queuing.
+ * <p>
+ * The queue also adapts to the latency of the tasks, like the CoDel algorithm: once the tasks have waited longer than a target delay in
+ * the queue for a whole interval, it rejects the tasks of the classes that have at least their fair share of the queued tasks until a
+ * task waits less than the target delay again. It is meant to be wrapped in a {@link SizeBlockingQueue} that bounds its size and
+ * supports forcing the execution of tasks.
+ */
+public final class FairBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    // the average of the execution time of the tasks of a class, and of all tasks, is exponentially weighted like in
+    // EWMATrackingEsThreadPoolExecutor
+    static final double COST_EWMA_ALPHA = 0.3;
+    // the number of idle classes whose execution time is remembered
+    static final int MAX_IDLE_CLASSES = 1000;
+
+    private final Supplier<String> classifier;
+    private final long targetDelayNanos;
+    private final long intervalNanos;
+    private final LongSupplier relativeNanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>(Comparator.comparingDouble((Entry e) -> e.finish)
+        .thenComparingLong(e -> e.sequence));
+    private final Map<String, TaskClass> classes = new HashMap<>();
+    private final ExponentiallyWeightedMovingAverage cost = new ExponentiallyWeightedMovingAverage(COST_EWMA_ALPHA, 0);
+    // the task that each thread took last, to measure its execution time when the thread comes back for the next one
+    private final ThreadLocal<Entry> running = new ThreadLocal<>();
+    private double virtualTime;
+    private long sequence;
+    private int activeClasses;
+    // the time at which the delay of the tasks will have been above the target for a whole interval, or 0 if it is below the target
+    private long firstAboveTimeNanos;
+    private boolean dropping;
+
+    /**
+     * @param classifier       returns the class of the task that the calling thread submits, {@code null} for the default class
+     * @param targetDelayNanos the delay in the queue above which the tasks are considered late
+     * @param intervalNanos    how long the tasks must be late before tasks get rejected
+     */
+    public FairBlockingQueue(Supplier<String> classifier, long targetDelayNanos, long intervalNanos) {
+        this(classifier, targetDelayNanos, intervalNanos, System::nanoTime);
+    }
+
+    FairBlockingQueue(Supplier<String> classifier, long targetDelayNanos, long intervalNanos, LongSupplier relativeNanoTime) {
+        this.classifier = classifier;
+        this.targetDelayNanos = targetDelayNanos;
+        this.intervalNanos = intervalNanos;
+        this.relativeNanoTime = relativeNanoTime;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        return enqueue(task, false);
+    }
+
+    @Override
+    public void put(Runnable task) {
+        // used to force the execution of tasks, which are never rejected
+        enqueue(task, true);
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+        return offer(task);
+    }
+
+    private boolean enqueue(Runnable task, boolean force) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        final String key = classifier.get();
+        lock.lock();
+        try {
+            final TaskClass taskClass = classes.computeIfAbsent(key == null ? "" : key, TaskClass::new);
+            if (force == false && dropping && taskClass.queued > 0 && (long) taskClass.queued * activeClasses >= entries.size()) {
+                // the class has at least its fair share of the queued tasks
+                return false;
+            }
+            if (taskClass.queued++ == 0) {
+                activeClasses++;
+            }
+            final double start = Math.max(virtualTime, taskClass.lastFinish);
+            taskClass.lastFinish = start + taskClass.cost.getAverage();
+            entries.add(new Entry(task, taskClass, taskClass.lastFinish, sequence++, relativeNanoTime.getAsLong()));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        final long now = relativeNanoTime.getAsLong();
+        onTaskCompleted(now);
+        lock.lock();
+        try {
+            return dequeue(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        onTaskCompleted(relativeNanoTime.getAsLong());
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue(relativeNanoTime.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        onTaskCompleted(relativeNanoTime.getAsLong());
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue(relativeNanoTime.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable dequeue(long now) {
+        assert lock.isHeldByCurrentThread();
+        final Entry entry = entries.poll();
+        if (entry == null) {
+            return null;
+        }
+        virtualTime = entry.finish;
+        onRemoved(entry.taskClass);
+        final long delay = now - entry.enqueuedNanos;
+        if (delay < targetDelayNanos || entries.isEmpty()) {
+            firstAboveTimeNanos = 0;
+            dropping = false;
+        } else if (firstAboveTimeNanos == 0) {
+            firstAboveTimeNanos = now + intervalNanos;
+        } else if (now >= firstAboveTimeNanos) {
+            dropping = true;
+        }
+        final Runnable task = entry.task;
+        entry.task = null;
+        entry.startNanos = now;
+        running.set(entry);
+        return task;
+    }
+
+    /**
+     * Records the execution time of the task that the calling thread took last, if any.
+     */
+    private void onTaskCompleted(long now) {
+        final Entry entry = running.get();
+        if (entry != null) {
+            running.remove();
+            final long executionNanos = Math.max(now - entry.startNanos, 0);
+            entry.taskClass.cost.addValue(executionNanos);
+            cost.addValue(executionNanos);
+        }
+    }
+
+    private void onRemoved(TaskClass taskClass) {
+        assert lock.isHeldByCurrentThread();
+        if (--taskClass.queued == 0) {
+            activeClasses--;
+            removeIfIdle(taskClass);
+        }
+    }
+
+    private void removeIfIdle(TaskClass taskClass) {
+        assert taskClass.queued == 0;
+        if (classes.size() - activeClasses > MAX_IDLE_CLASSES) {
+            classes.remove(taskClass.key);
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            final Entry entry = entries.peek();
+            return entry == null ? null : entry.task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+                final Entry entry = it.next();
+                if (entry.task == o) {
+                    it.remove();
+                    onRemoved(entry.taskClass);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> tasks = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Entry entry : entries) {
+                tasks.add(entry.task);
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Iterator<Runnable> it = tasks.iterator();
+        return new Iterator<>() {
+            Runnable current;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                current = it.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                FairBlockingQueue.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && entries.isEmpty() == false) {
+                final Entry entry = entries.poll();
+                onRemoved(entry.taskClass);
+                c.add(entry.task);
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the average execution time of the tasks of the given class in nanoseconds, or {@code -1} if the class isn't tracked.
+     */
+    public double getTaskClassCost(String key) {
+        lock.lock();
+        try {
+            final TaskClass taskClass = classes.get(key);
+            return taskClass == null ? -1 : taskClass.cost.getAverage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether tasks are being rejected because they waited longer than the target delay in the queue for a whole interval.
+     */
+    public boolean isDropping() {
+        lock.lock();
+        try {
+            return dropping;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class TaskClass {
+        private final String key;
+        // new classes start from the average execution time of all tasks
+        private final ExponentiallyWeightedMovingAverage cost = new ExponentiallyWeightedMovingAverage(COST_EWMA_ALPHA,
+            FairBlockingQueue.this.cost.getAverage());
+        private double lastFinish;
+        private int queued;
+
+        private TaskClass(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Entry {
+        private Runnable task;
+        private final TaskClass taskClass;
+        private final double finish;
+        private final long sequence;
+        private final long enqueuedNanos;
+        private long startNanos;
+
+        private Entry(Runnable task, TaskClass taskClass, double finish, long sequence, long enqueuedNanos) {
+            this.task = task;
+            this.taskClass = taskClass;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
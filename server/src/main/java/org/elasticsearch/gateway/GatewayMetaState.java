@@ -31,6 +31,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
@@ -76,6 +77,7 @@ public class GatewayMetaState implements Closeable {
 
     // Set by calling start()
     private final SetOnce<PersistedState> persistedState = new SetOnce<>();
+    private volatile long metadataLoadTimeInMillis;
 
     public PersistedState getPersistedState() {
         final PersistedState persistedState = this.persistedState.get();
@@ -87,6 +89,13 @@ public class GatewayMetaState implements Closeable {
         return getPersistedState().getLastAcceptedState().metadata();
     }
 
+    /**
+     * Returns how long it took to load the persisted metadata when this node started, in milliseconds.
+     */
+    public long getMetadataLoadTimeInMillis() {
+        return metadataLoadTimeInMillis;
+    }
+
     public void start(Settings settings, TransportService transportService, ClusterService clusterService,
                       MetaStateService metaStateService, IndexMetadataVerifier indexMetadataVerifier,
                       MetadataUpgrader metadataUpgrader, PersistedClusterStateService persistedClusterStateService) {
@@ -94,7 +103,11 @@ public class GatewayMetaState implements Closeable {
 
         if (DiscoveryNode.isMasterNode(settings) || DiscoveryNode.canContainData(settings)) {
             try {
-                final PersistedClusterStateService.OnDiskState onDiskState = persistedClusterStateService.loadOnDiskState();
+                final long startTimeNanos = System.nanoTime();
+                // parsing the metadata of thousands of indices takes a while, so it is done on all the processors of the node
+                final PersistedClusterStateService.OnDiskState onDiskState = persistedClusterStateService.loadOnDiskState(
+                    transportService.getThreadPool().generic(), EsExecutors.allocatedProcessors(settings));
+                metadataLoadTimeInMillis = TimeValue.nsecToMSec(System.nanoTime() - startTimeNanos);
 
                 Metadata metadata = onDiskState.metadata;
                 long lastAcceptedVersion = onDiskState.lastAcceptedVersion;
@@ -56,6 +56,8 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.ByteArray;
 import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.ConcurrentTasks;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContent;
@@ -70,6 +72,7 @@ import org.elasticsearch.index.Index;
 import java.io.Closeable;
 import java.io.IOError;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -78,6 +81,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntPredicate;
 import java.util.function.LongSupplier;
@@ -291,13 +295,21 @@ public class PersistedClusterStateService {
      * Loads the available on-disk cluster state. Returns {@link OnDiskState#NO_ON_DISK_STATE} if no such state was found.
      */
     public OnDiskState loadOnDiskState() throws IOException {
+        return loadOnDiskState(EsExecutors.DIRECT_EXECUTOR_SERVICE, 1);
+    }
+
+    /**
+     * Loads the available on-disk cluster state like {@link #loadOnDiskState()}, but parses the metadata of the indices on up to
+     * {@code parallelism} threads, the calling thread and threads of the given executor.
+     */
+    public OnDiskState loadOnDiskState(Executor executor, int parallelism) throws IOException {
         OnDiskState onDiskState = OnDiskState.NO_ON_DISK_STATE;
 
         final Path indexPath = dataPath.resolve(METADATA_DIRECTORY_NAME);
         if (Files.exists(indexPath)) {
             try (Directory directory = createDirectory(indexPath);
                  DirectoryReader directoryReader = DirectoryReader.open(directory)) {
-                onDiskState = loadOnDiskState(dataPath, directoryReader);
+                onDiskState = loadOnDiskState(dataPath, directoryReader, executor, parallelism);
 
                 if (nodeId.equals(onDiskState.nodeId) == false) {
                     throw new IllegalStateException("unexpected node ID in metadata, found [" + onDiskState.nodeId +
@@ -311,7 +323,7 @@ public class PersistedClusterStateService {
         return onDiskState;
     }
 
-    private OnDiskState loadOnDiskState(Path dataPath, DirectoryReader reader) throws IOException {
+    private OnDiskState loadOnDiskState(Path dataPath, DirectoryReader reader, Executor executor, int parallelism) throws IOException {
         final IndexSearcher searcher = new IndexSearcher(reader);
         searcher.setQueryCache(null);
 
@@ -333,17 +345,38 @@ public class PersistedClusterStateService {
         }
 
         logger.trace("got global metadata, now reading index metadata");
+        final List<BytesRef> indexMetadataBytes = new ArrayList<>();
+        consumeFromType(searcher, INDEX_TYPE_NAME, indexMetadataBytes::add);
+
+        // reading the documents is cheap compared to parsing them, especially their mappings, so only the parsing is concurrent
+        final IndexMetadata[] indexMetadatas = new IndexMetadata[indexMetadataBytes.size()];
+        final List<Runnable> parsingTasks = new ArrayList<>(indexMetadataBytes.size());
+        for (int i = 0; i < indexMetadataBytes.size(); i++) {
+            final int slot = i;
+            final BytesRef bytes = indexMetadataBytes.get(i);
+            parsingTasks.add(() -> {
+                try {
+                    indexMetadatas[slot] = IndexMetadata.fromXContent(XContentFactory.xContent(XContentType.SMILE)
+                        .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        try {
+            ConcurrentTasks.run(executor, parallelism, parsingTasks);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
         final Set<String> indexUUIDs = new HashSet<>();
-        consumeFromType(searcher, INDEX_TYPE_NAME, bytes ->
-        {
-            final IndexMetadata indexMetadata = IndexMetadata.fromXContent(XContentFactory.xContent(XContentType.SMILE)
-                .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
+        for (IndexMetadata indexMetadata : indexMetadatas) {
             logger.trace("found index metadata for {}", indexMetadata.getIndex());
             if (indexUUIDs.add(indexMetadata.getIndexUUID()) == false) {
                 throw new IllegalStateException("duplicate metadata found for " + indexMetadata.getIndex() + " in [" + dataPath + "]");
             }
             builder.put(indexMetadata, false);
-        });
+        }
 
         final Map<String, String> userData = reader.getIndexCommit().getUserData();
         logger.trace("loaded metadata [{}] from [{}]", userData, reader.directory());
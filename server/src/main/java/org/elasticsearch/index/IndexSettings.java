@@ -219,6 +219,13 @@ public final class IndexSettings {
         Setting.timeSetting("index.gc_deletes", DEFAULT_GC_DELETES, new TimeValue(-1, TimeUnit.MILLISECONDS),
             Property.Dynamic, Property.IndexScope);
 
+    /**
+     * Whether the engine keeps the versions of the documents that were indexed since the last refresh in paged storage rather than in
+     * on-heap maps, which reduces garbage collection pressure for update heavy indices with long refresh intervals.
+     */
+    public static final Setting<Boolean> INDEX_VERSION_MAP_PAGED_SETTING =
+        Setting.boolSetting("index.version_map.paged", false, Property.IndexScope);
+
     /**
      * Specifies if the index should use soft-delete instead of hard-delete for update/delete operations.
      * Soft-deletes is enabled by default for 7.0 indices and mandatory for 8.0 indices.
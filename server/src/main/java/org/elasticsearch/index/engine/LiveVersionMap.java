@@ -12,7 +12,10 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 
@@ -27,15 +30,18 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
 
-    private static final class VersionLookup {
+    private static final class VersionLookup implements Releasable {
 
         /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
          *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
          *  clear this RAM. */
-        final AtomicLong ramBytesUsed = new AtomicLong();
+        private final AtomicLong ramBytesUsed = new AtomicLong();
 
         private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
         private final Map<BytesRef, VersionValue> map;
+        // if not null the versions are kept in paged storage rather than in the above map
+        @Nullable
+        private final PagedVersionMap pagedMap;
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -55,22 +61,61 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
         private VersionLookup(Map<BytesRef, VersionValue> map) {
             this.map = map;
+            this.pagedMap = null;
+        }
+
+        private VersionLookup(PagedVersionMap pagedMap) {
+            this.map = null;
+            this.pagedMap = pagedMap;
+        }
+
+        static VersionLookup create(@Nullable BigArrays bigArrays, int expectedSize) {
+            if (bigArrays != null) {
+                return new VersionLookup(new PagedVersionMap(bigArrays, expectedSize));
+            }
+            return new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize));
         }
 
         VersionValue get(BytesRef key) {
-            return map.get(key);
+            return pagedMap != null ? pagedMap.get(key) : map.get(key);
         }
 
-        VersionValue put(BytesRef key, VersionValue value) {
-            return map.put(key, value);
+        void put(BytesRef uid, IndexVersionValue version) {
+            if (pagedMap != null) {
+                pagedMap.put(uid, version);
+                return;
+            }
+            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
+            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
+            VersionValue previousValue = map.put(uid, version);
+            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
+            adjustRam(ramAccounting);
+        }
+
+        private void adjustRam(long value) {
+            if (value != 0) {
+                long v = ramBytesUsed.addAndGet(value);
+                assert v >= 0 : "bytes=" + v;
+            }
+        }
+
+        long ramBytesUsed() {
+            return pagedMap != null ? pagedMap.ramBytesUsed() : ramBytesUsed.get();
         }
 
         boolean isEmpty() {
-            return map.isEmpty();
+            return pagedMap != null ? pagedMap.isEmpty() : map.isEmpty();
         }
 
         int size() {
-            return map.size();
+            return pagedMap != null ? pagedMap.size() : map.size();
+        }
+
+        /**
+         * Returns the versions of this lookup, which is a point in time copy if the versions are kept in paged storage.
+         */
+        Map<BytesRef, VersionValue> getAll() {
+            return pagedMap != null ? pagedMap.snapshot() : map;
         }
 
         boolean isUnsafe() {
@@ -81,8 +126,19 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             unsafe = true;
         }
 
-        public VersionValue remove(BytesRef uid) {
-            return map.remove(uid);
+        /**
+         * Removes the given uid and releases the memory that was accounted for it, if any.
+         */
+        void remove(BytesRef uid) {
+            if (pagedMap != null) {
+                pagedMap.remove(uid);
+                return;
+            }
+            VersionValue previousValue = map.remove(uid);
+            if (previousValue != null) {
+                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
+                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
+            }
         }
 
         public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
@@ -90,6 +146,10 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             minDeleteTimestamp.updateAndGet(prev -> Math.min(time, prev));
         }
 
+        @Override
+        public void close() {
+            Releasables.close(pagedMap);
+        }
     }
 
     private static final class Maps {
@@ -105,16 +165,19 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
 
+        // the big arrays to keep the versions in paged storage, or null to keep them in on-heap maps
+        @Nullable
+        final BigArrays bigArrays;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, @Nullable BigArrays bigArrays) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.bigArrays = bigArrays;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()),
-                VersionLookup.EMPTY, false);
+        Maps(@Nullable BigArrays bigArrays) {
+            this(VersionLookup.create(bigArrays, 16), VersionLookup.EMPTY, false, bigArrays);
         }
 
         boolean isSafeAccessMode() {
@@ -132,39 +195,23 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())), current,
-                shouldInheritSafeAccess());
+            return new Maps(VersionLookup.create(bigArrays, current.size()), current, shouldInheritSafeAccess(), bigArrays);
         }
 
         /**
          * builds a new map that invalidates the old map but maintains the current. This should be called in afterRefresh()
          */
         Maps invalidateOldMap() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, bigArrays);
         }
 
-        void put(BytesRef uid, VersionValue version) {
-            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
-            VersionValue previousValue = current.put(uid, version);
-            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
-            adjustRam(ramAccounting);
-        }
-
-        void adjustRam(long value) {
-            if (value != 0) {
-                long v = current.ramBytesUsed.addAndGet(value);
-                assert v >= 0 : "bytes=" + v;
-            }
+        void put(BytesRef uid, IndexVersionValue version) {
+            current.put(uid, version);
         }
 
         void remove(BytesRef uid, DeleteVersionValue deleted) {
-            VersionValue previousValue = current.remove(uid);
+            current.remove(uid);
             current.updateMinDeletedTimestamp(deleted);
-            if (previousValue != null) {
-                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
-            }
             if (old != VersionLookup.EMPTY) {
                 // we also need to remove it from the old map here to make sure we don't read this stale value while
                 // we are in the middle of a refresh. Most of the time the old map is an empty map so we can skip it there.
@@ -180,10 +227,29 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap = new Maps(null);
+
+    @Nullable
+    private final BigArrays bigArrays;
+    // the old lookup of the previous refresh, which is released on the next refresh, see #releaseOnNextRefresh
+    private VersionLookup pendingRelease = VersionLookup.EMPTY;
+
+    LiveVersionMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a version map that keeps the versions of the documents that were indexed since the last refresh in paged storage
+     * allocated from the given big arrays rather than in on-heap maps if the big arrays are not {@code null}. Tombstones are always
+     * kept on heap.
+     */
+    LiveVersionMap(@Nullable BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        this.maps = new Maps(bigArrays);
+    }
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -246,11 +312,24 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // reopen, and so any concurrent indexing requests can still sneak in a few additions to that current map that are in fact
         // reflected in the previous reader.   We don't touch tombstones here: they expire on their own index.gc_deletes timeframe:
 
-        maps = maps.invalidateOldMap();
+        final Maps previousMaps = maps;
+        maps = previousMaps.invalidateOldMap();
+        releaseOnNextRefresh(previousMaps.old);
         assert (unsafeKeysMap = unsafeKeysMap.invalidateOldMap()) != null;
 
     }
 
+    /**
+     * Releases the lookup that was released on the previous refresh, and keeps the given one until the next refresh. Operations that
+     * read the maps right before they were swapped may still look up the old map after the swap, so it is only released once the
+     * next refresh has swapped the maps again and nothing can reach it anymore.
+     */
+    private synchronized void releaseOnNextRefresh(VersionLookup lookup) {
+        final VersionLookup toRelease = pendingRelease;
+        pendingRelease = lookup;
+        toRelease.close();
+    }
+
     /**
      * Returns the live version (add or delete) for this uid.
      */
@@ -404,7 +483,10 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        final Maps previousMaps = maps;
+        maps = new Maps(bigArrays);
+        Releasables.close(previousMaps.current, previousMaps.old, pendingRelease);
+        pendingRelease = VersionLookup.EMPTY;
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip.  Presumably it's fine if our ramBytesUsedTombstones is non-zero after clear since the
@@ -414,7 +496,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     @Override
     public long ramBytesUsed() {
-        return maps.current.ramBytesUsed.get() + ramBytesUsedTombstones.get();
+        return maps.current.ramBytesUsed() + ramBytesUsedTombstones.get();
     }
 
     /**
@@ -422,7 +504,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * don't clear on refresh.
      */
     long ramBytesUsedForRefresh() {
-        return maps.current.ramBytesUsed.get();
+        return maps.current.ramBytesUsed();
     }
 
     /**
@@ -430,7 +512,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * except does not include tombstones because they don't clear on refresh.
      */
     long getRefreshingBytes() {
-        return maps.old.ramBytesUsed.get();
+        return maps.old.ramBytesUsed();
     }
 
     @Override
@@ -443,7 +525,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Returns the current internal versions as a point in time snapshot
      */
     Map<BytesRef, VersionValue> getAllCurrent() {
-        return maps.current.map;
+        return maps.current.getAll();
     }
 
     /** Iterates over all deleted versions, including new ones (not yet exposed via reader) and old ones
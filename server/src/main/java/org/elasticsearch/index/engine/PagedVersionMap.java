@@ -0,0 +1,253 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.ObjectArray;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maps _uid values to their {@link IndexVersionValue}s like the {@link java.util.concurrent.ConcurrentHashMap} used by
+ * {@link LiveVersionMap} by default, but keeps the ids in paged {@link BigArrays} storage instead of one {@link BytesRef}, one
+ * byte array and one hash table entry per id. Only the version values themselves stay on heap, and lookups return them as they
+ * were put so that they do not allocate.
+ * <p>
+ * The map is split into segments that each hold a read/write lock: lookups of a segment run concurrently and only exclude the
+ * writes to the same segment, which rarely contend since they are spread over the segments by id.
+ * <p>
+ * Entries are never physically removed from a segment, removing an id only clears its value so that the slot can be reused if the
+ * id is indexed again. This is fine since the map is dropped on the next refresh anyway.
+ */
+final class PagedVersionMap implements Accountable, Releasable {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    PagedVersionMap(BigArrays bigArrays, int expectedSize) {
+        final long segmentCapacity = Math.max(1, expectedSize / SEGMENTS);
+        boolean success = false;
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = new Segment(bigArrays, segmentCapacity);
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    private Segment segment(BytesRef uid) {
+        // the hash uses the low bits of the hash code, so we pick the segment based on the high ones
+        return segments[uid.hashCode() >>> 28];
+    }
+
+    /**
+     * Returns the version of the given uid, or {@code null} if the uid is not in the map or if the map is closed.
+     */
+    IndexVersionValue get(BytesRef uid) {
+        return segment(uid).get(uid);
+    }
+
+    void put(BytesRef uid, IndexVersionValue value) {
+        segment(uid).put(uid, value);
+    }
+
+    /**
+     * Removes the given uid from the map and returns whether it was in the map.
+     */
+    boolean remove(BytesRef uid) {
+        return segment(uid).remove(uid);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.liveEntries;
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.liveEntries > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the entries of this map into a new on-heap map, used by tests and assertions.
+     */
+    Map<BytesRef, VersionValue> snapshot() {
+        final Map<BytesRef, VersionValue> snapshot = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(snapshot);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = 0;
+        for (Segment segment : segments) {
+            ramBytesUsed += segment.ramBytesUsed;
+        }
+        return ramBytesUsed;
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(segments);
+    }
+
+    private static final class Segment implements Releasable {
+        private final BigArrays bigArrays;
+        private final Lock readLock;
+        private final Lock writeLock;
+        private BytesRefHash ids;
+        private ObjectArray<IndexVersionValue> values;
+        private boolean closed;
+        // the bytes used by the version values, which are not part of the paged storage
+        private long valuesRamBytesUsed;
+        private volatile int liveEntries;
+        private volatile long ramBytesUsed;
+
+        Segment(BigArrays bigArrays, long capacity) {
+            this.bigArrays = bigArrays;
+            final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+            this.readLock = lock.readLock();
+            this.writeLock = lock.writeLock();
+            boolean success = false;
+            try {
+                ids = new BytesRefHash(capacity, bigArrays);
+                values = bigArrays.newObjectArray(capacity);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+            updateRamBytesUsed();
+        }
+
+        IndexVersionValue get(BytesRef uid) {
+            readLock.lock();
+            try {
+                if (closed) {
+                    return null;
+                }
+                final long id = ids.findConcurrently(uid, uid.hashCode());
+                return id < 0 ? null : values.get(id);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void put(BytesRef uid, IndexVersionValue value) {
+            writeLock.lock();
+            try {
+                if (closed) {
+                    // the map was released because the engine was closed, the same as writing to a dropped on-heap map
+                    return;
+                }
+                long id = ids.add(uid);
+                if (id < 0) {
+                    id = -1 - id;
+                } else {
+                    values = bigArrays.grow(values, id + 1);
+                }
+                final IndexVersionValue previous = values.set(id, value);
+                if (previous == null) {
+                    liveEntries++;
+                } else {
+                    valuesRamBytesUsed -= previous.ramBytesUsed();
+                }
+                valuesRamBytesUsed += value.ramBytesUsed();
+                updateRamBytesUsed();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        boolean remove(BytesRef uid) {
+            writeLock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                final long id = ids.find(uid);
+                if (id < 0) {
+                    return false;
+                }
+                final IndexVersionValue previous = values.set(id, null);
+                if (previous == null) {
+                    return false;
+                }
+                liveEntries--;
+                valuesRamBytesUsed -= previous.ramBytesUsed();
+                updateRamBytesUsed();
+                return true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void copyTo(Map<BytesRef, VersionValue> map) {
+            readLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                for (long id = 0; id < ids.size(); id++) {
+                    final IndexVersionValue value = values.get(id);
+                    if (value != null) {
+                        map.put(BytesRef.deepCopyOf(ids.get(id, new BytesRef())), value);
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        private void updateRamBytesUsed() {
+            ramBytesUsed = (ids == null ? 0 : ids.ramBytesUsed()) + (values == null ? 0 : values.ramBytesUsed()) + valuesRamBytesUsed;
+        }
+
+        @Override
+        public void close() {
+            writeLock.lock();
+            try {
+                if (closed == false) {
+                    closed = true;
+                    Releasables.close(ids, values);
+                    ids = null;
+                    values = null;
+                    liveEntries = 0;
+                    valuesRamBytesUsed = 0;
+                    ramBytesUsed = 0;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+}
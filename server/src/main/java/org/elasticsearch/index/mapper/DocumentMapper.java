@@ -9,6 +9,7 @@
 package org.elasticsearch.index.mapper;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.index.IndexSettings;
 
@@ -31,10 +32,19 @@ public class DocumentMapper {
     }
 
     DocumentMapper(DocumentParser documentParser, Mapping mapping) {
+        this(documentParser, mapping, null);
+    }
+
+    /**
+     * @param knownSource the source that the mapping was parsed from, if known. It is used as the source of this mapper if it is equal
+     *                    to the serialized mapping, so that the indices whose mappings are equal share a single copy of their source.
+     */
+    DocumentMapper(DocumentParser documentParser, Mapping mapping, @Nullable CompressedXContent knownSource) {
         this.documentParser = documentParser;
         this.type = mapping.getRoot().name();
         this.mappingLookup = MappingLookup.fromMapping(mapping);
-        this.mappingSource = mapping.toCompressedXContent();
+        final CompressedXContent mappingSource = mapping.toCompressedXContent();
+        this.mappingSource = mappingSource.equals(knownSource) ? knownSource : mappingSource;
     }
 
     public Mapping mapping() {
@@ -129,6 +129,7 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
@@ -297,7 +298,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             final Runnable globalCheckpointSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
             final CircuitBreakerService circuitBreakerService,
-            final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier) throws IOException {
+            final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
+            final @Nullable TranslogSyncCoordinator translogSyncCoordinator) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -313,6 +315,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.indexEventListener = indexEventListener;
         this.threadPool = threadPool;
         this.translogSyncProcessor = createTranslogSyncProcessor(logger, threadPool.getThreadContext(), this::getEngine);
+        this.translogSyncCoordinator = translogSyncCoordinator;
+        this.translogSyncTarget = locations -> getEngine().ensureTranslogSynced(locations);
         this.mapperService = mapperService;
         this.indexCache = indexCache;
         this.internalIndexingStats = new InternalIndexingStats();
@@ -3167,6 +3171,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
+    private final TranslogSyncCoordinator.SyncTarget translogSyncTarget;
 
     private static AsyncIOProcessor<Translog.Location> createTranslogSyncProcessor(Logger logger, ThreadContext threadContext,
                                                                                    Supplier<Engine> engineSupplier) {
@@ -3194,10 +3201,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * one thread blocking on the sync an all others can continue indexing.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
+     * If translog group commits are enabled the sync is instead executed by the sync thread of the shard's data path, together with
+     * the syncs of the other shards on the same data path, see {@link TranslogSyncCoordinator}.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        if (translogSyncCoordinator != null) {
+            translogSyncCoordinator.sync(path.getRootDataPath(), translogSyncTarget, location, syncListener);
+        } else {
+            translogSyncProcessor.put(location, syncListener);
+        }
     }
 
     public void sync() throws IOException {
@@ -0,0 +1,315 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Coordinates the translog syncs of all the shards of a node that live on the same data path. Instead of each shard syncing its
+ * translog on the thread of one of its writers, the sync requests of all shards on a data path are queued to a dedicated thread
+ * that executes them in group commits: the pending requests are drained, deduplicated so that each shard syncs only once up to its
+ * highest requested location, synced back to back and then all listeners are notified. The requests that are queued while a group
+ * commit is running are all processed by the next one. The sync thread may also wait up to {@link #MAX_WAIT_SETTING} for more
+ * requests to be queued before it starts a group commit.
+ * <p>
+ * Java cannot sync several files with a single call, so each shard's translog is still synced on its own. The gain comes from
+ * syncing each shard once per group commit regardless of how many writers wait for it, and from writers never waiting for the
+ * syncs of other shards while holding a write thread.
+ */
+public class TranslogSyncCoordinator implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    /**
+     * Whether the translog syncs of the shards that share a data path are grouped. Disabled by default in which case each shard syncs
+     * its translog on its own.
+     */
+    public static final Setting<Boolean> GROUP_COMMIT_ENABLED_SETTING =
+        Setting.boolSetting("indices.translog.group_commit.enabled", false, Property.NodeScope);
+
+    /**
+     * How long the sync thread of a data path waits for more sync requests to be queued before it syncs the pending ones.
+     */
+    public static final Setting<TimeValue> MAX_WAIT_SETTING = Setting.timeSetting("indices.translog.group_commit.max_wait",
+        TimeValue.ZERO, TimeValue.ZERO, TimeValue.timeValueMillis(100), Property.Dynamic, Property.NodeScope);
+
+    // the number of sync requests that can be pending on a data path before writers block
+    private static final int QUEUE_SIZE = 1024;
+
+    /**
+     * The translog of a shard that can be synced by a group commit.
+     */
+    @FunctionalInterface
+    public interface SyncTarget {
+        /**
+         * Syncs the translog up to the highest of the given locations.
+         */
+        void ensureSynced(Stream<Translog.Location> locations) throws IOException;
+    }
+
+    private final ConcurrentMap<Path, Group> groups = ConcurrentCollections.newConcurrentMap();
+    private final ThreadFactory threadFactory;
+    private final ThreadContext threadContext;
+    private volatile long maxWaitNanos;
+    private volatile boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncTimeInNanos = new LongAdder();
+    private final AtomicLong maxSyncTimeInNanos = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    public TranslogSyncCoordinator(Settings settings, ClusterSettings clusterSettings, ThreadContext threadContext) {
+        this.threadFactory = EsExecutors.daemonThreadFactory(settings, "translog_sync");
+        this.threadContext = threadContext;
+        setMaxWait(MAX_WAIT_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(MAX_WAIT_SETTING, this::setMaxWait);
+    }
+
+    private void setMaxWait(TimeValue maxWait) {
+        this.maxWaitNanos = maxWait.nanos();
+    }
+
+    /**
+     * Syncs the translog of the given target up to the given location in the next group commit of the given data path. The listener
+     * is notified on the sync thread of the data path once the location is synced. The calling thread only blocks if too many sync
+     * requests are already pending on the data path.
+     */
+    public void sync(Path dataPath, SyncTarget target, Translog.Location location, Consumer<Exception> listener) {
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(location, "location must not be null");
+        Objects.requireNonNull(listener, "listener must not be null");
+        if (closed) {
+            listener.accept(new AlreadyClosedException("translog sync coordinator is closed"));
+            return;
+        }
+        final Group group = groups.computeIfAbsent(dataPath, p -> new Group());
+        try {
+            group.add(new SyncRequest(target, location, preserveContext(listener)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.accept(e);
+        }
+        if (closed) {
+            // the group may have been created concurrently with closing the coordinator, in which case it must stop on its own
+            group.close();
+        }
+    }
+
+    public TranslogSyncStats stats() {
+        return new TranslogSyncStats(batches.sum(), requests.sum(), syncs.sum(), syncTimeInNanos.sum(), maxSyncTimeInNanos.get(),
+            maxBatchSize.get());
+    }
+
+    /**
+     * Stops the sync threads once they have processed the requests that are already pending. Requests made after this method is
+     * called are failed with an {@link AlreadyClosedException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        final List<Group> toClose = new ArrayList<>(groups.values());
+        for (Group group : toClose) {
+            group.close();
+        }
+        for (Group group : toClose) {
+            try {
+                group.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Consumer<Exception> preserveContext(Consumer<Exception> consumer) {
+        Supplier<ThreadContext.StoredContext> restorableContext = threadContext.newRestorableContext(false);
+        return e -> {
+            try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                consumer.accept(e);
+            }
+        };
+    }
+
+    private static final class SyncRequest {
+        // the request that tells the sync thread to stop
+        private static final SyncRequest STOP = new SyncRequest(locations -> {}, new Translog.Location(0, 0, 0), e -> {});
+
+        private final SyncTarget target;
+        private final Translog.Location location;
+        private final Consumer<Exception> listener;
+
+        SyncRequest(SyncTarget target, Translog.Location location, Consumer<Exception> listener) {
+            this.target = target;
+            this.location = location;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * The pending sync requests of a data path and the thread that executes them.
+     */
+    private final class Group implements Runnable {
+
+        private final ArrayBlockingQueue<SyncRequest> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        // writers hold the read lock while they queue requests, so that no request is queued after the stop request
+        private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+        private final Thread thread;
+        private boolean stopped;
+        // only accessed by the sync thread
+        private int lastBatchSize = 1;
+
+        Group() {
+            thread = threadFactory.newThread(this);
+            thread.start();
+        }
+
+        void add(SyncRequest request) throws InterruptedException {
+            closeLock.readLock().lock();
+            try {
+                if (stopped) {
+                    request.listener.accept(new AlreadyClosedException("translog sync coordinator is closed"));
+                    return;
+                }
+                queue.put(request);
+            } finally {
+                closeLock.readLock().unlock();
+            }
+        }
+
+        void close() {
+            closeLock.writeLock().lock();
+            try {
+                if (stopped == false) {
+                    stopped = true;
+                    // the sync thread is still running so this only blocks until it drained some pending requests
+                    queue.put(SyncRequest.STOP);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while stopping the translog sync thread", e);
+            } finally {
+                closeLock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            final List<SyncRequest> batch = new ArrayList<>();
+            boolean stop = false;
+            while (stop == false) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch);
+                    awaitBatch(batch);
+                } catch (InterruptedException e) {
+                    // the sync thread is never interrupted on purpose, it is stopped with the stop request
+                    logger.warn("translog sync thread was interrupted", e);
+                }
+                stop = batch.remove(SyncRequest.STOP);
+                if (batch.isEmpty() == false) {
+                    process(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * Waits up to the max wait for more requests to be queued, unless the batch is already as large as the previous one. Waiting
+         * only pays off if concurrent writers have been sharing group commits recently.
+         */
+        private void awaitBatch(List<SyncRequest> batch) throws InterruptedException {
+            final long maxWait = maxWaitNanos;
+            if (maxWait <= 0L) {
+                return;
+            }
+            final int targetBatchSize = Math.max(2, lastBatchSize);
+            final long deadline = System.nanoTime() + maxWait;
+            while (batch.size() < targetBatchSize && batch.contains(SyncRequest.STOP) == false) {
+                final long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0L) {
+                    break;
+                }
+                final SyncRequest next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+                queue.drainTo(batch);
+            }
+        }
+
+        private void process(List<SyncRequest> batch) {
+            final Map<SyncTarget, List<SyncRequest>> requestsByTarget = new IdentityHashMap<>();
+            for (SyncRequest request : batch) {
+                requestsByTarget.computeIfAbsent(request.target, t -> new ArrayList<>()).add(request);
+            }
+            lastBatchSize = batch.size();
+            batches.increment();
+            requests.add(batch.size());
+            syncs.add(requestsByTarget.size());
+            maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+            for (Map.Entry<SyncTarget, List<SyncRequest>> entry : requestsByTarget.entrySet()) {
+                final List<SyncRequest> targetRequests = entry.getValue();
+                Exception failure = null;
+                final long startTime = System.nanoTime();
+                try {
+                    entry.getKey().ensureSynced(targetRequests.stream().map(r -> r.location));
+                } catch (AlreadyClosedException e) {
+                    // that's fine since we already synced everything on engine close
+                } catch (Exception e) {
+                    // only fail the requests of this shard, the other shards of the group commit are not affected
+                    logger.debug("failed to sync translog", e);
+                    failure = e;
+                } finally {
+                    final long syncTime = System.nanoTime() - startTime;
+                    syncTimeInNanos.add(syncTime);
+                    maxSyncTimeInNanos.accumulateAndGet(syncTime, Math::max);
+                }
+                for (SyncRequest request : targetRequests) {
+                    try {
+                        request.listener.accept(failure);
+                    } catch (Exception e) {
+                        logger.warn("failed to notify callback", e);
+                    }
+                }
+            }
+        }
+    }
+}
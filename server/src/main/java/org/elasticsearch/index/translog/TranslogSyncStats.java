@@ -0,0 +1,138 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node level statistics of the {@link TranslogSyncCoordinator}, which groups the translog syncs of the shards that share a data path.
+ */
+public class TranslogSyncStats implements Writeable, ToXContentFragment {
+
+    private final long batches;
+    private final long requests;
+    private final long syncs;
+    private final long syncTimeInNanos;
+    private final long maxSyncTimeInNanos;
+    private final long maxBatchSize;
+
+    public TranslogSyncStats(long batches, long requests, long syncs, long syncTimeInNanos, long maxSyncTimeInNanos,
+                             long maxBatchSize) {
+        this.batches = batches;
+        this.requests = requests;
+        this.syncs = syncs;
+        this.syncTimeInNanos = syncTimeInNanos;
+        this.maxSyncTimeInNanos = maxSyncTimeInNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public TranslogSyncStats(StreamInput in) throws IOException {
+        batches = in.readVLong();
+        requests = in.readVLong();
+        syncs = in.readVLong();
+        syncTimeInNanos = in.readVLong();
+        maxSyncTimeInNanos = in.readVLong();
+        maxBatchSize = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(batches);
+        out.writeVLong(requests);
+        out.writeVLong(syncs);
+        out.writeVLong(syncTimeInNanos);
+        out.writeVLong(maxSyncTimeInNanos);
+        out.writeVLong(maxBatchSize);
+    }
+
+    /**
+     * The number of group commits, each of which syncs all the requests that were pending on a data path.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * The number of sync requests that were processed by group commits.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * The number of translog syncs that were executed by group commits, which is at most one per shard per group commit.
+     */
+    public long getSyncs() {
+        return syncs;
+    }
+
+    /**
+     * The total time spent syncing translogs in group commits.
+     */
+    public TimeValue getSyncTime() {
+        return new TimeValue(syncTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The longest time a single translog sync took in a group commit.
+     */
+    public TimeValue getMaxSyncTime() {
+        return new TimeValue(maxSyncTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The largest number of requests that were processed by a single group commit.
+     */
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("translog_sync");
+        builder.field("batches", batches);
+        builder.field("requests", requests);
+        builder.field("syncs", syncs);
+        builder.humanReadableField("sync_time_in_millis", "sync_time", getSyncTime());
+        builder.humanReadableField("max_sync_time_in_millis", "max_sync_time", getMaxSyncTime());
+        builder.field("max_batch_size", maxBatchSize);
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TranslogSyncStats that = (TranslogSyncStats) o;
+        return batches == that.batches
+            && requests == that.requests
+            && syncs == that.syncs
+            && syncTimeInNanos == that.syncTimeInNanos
+            && maxSyncTimeInNanos == that.maxSyncTimeInNanos
+            && maxBatchSize == that.maxBatchSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(batches, requests, syncs, syncTimeInNanos, maxSyncTimeInNanos, maxBatchSize);
+    }
+}
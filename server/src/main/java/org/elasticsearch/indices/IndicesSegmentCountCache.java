@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalListener;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the number of live documents that a query matches in each segment. Unlike the {@link IndicesRequestCache}, whose entries
+ * are keyed by the reader of the whole shard and become useless on every refresh, the entries of this cache are keyed by the reader
+ * of a single segment, which takes its deletes into account. After a refresh only the new segments, and the segments that got new
+ * deletes, need to be searched again to count the hits of a request, the counts of the other segments are read from this cache.
+ * <p>
+ * The entries of a segment are invalidated when its reader is closed, in addition to the size based eviction of the cache. The cache
+ * can be enabled per index with {@link #INDEX_SEGMENT_COUNT_CACHE_ENABLED_SETTING} and is only used for requests that only count
+ * hits, see {@code TopDocsCollectorContext}.
+ */
+public final class IndicesSegmentCountCache implements RemovalListener<IndicesSegmentCountCache.Key, Integer>, Closeable {
+
+    /**
+     * Whether the hit counts of the segments of an index are cached. Dynamic since it is checked for each search request.
+     */
+    public static final Setting<Boolean> INDEX_SEGMENT_COUNT_CACHE_ENABLED_SETTING =
+        Setting.boolSetting("index.segment_count_cache.enable", false, Property.Dynamic, Property.IndexScope);
+    public static final Setting<ByteSizeValue> INDICES_SEGMENT_COUNT_CACHE_SIZE =
+        Setting.memorySizeSetting("indices.segment_count_cache.size", "1%", Property.NodeScope);
+
+    // the size of a cache entry and of its key, without the query
+    private static final long BASE_RAM_BYTES_USED = 128;
+
+    private final Cache<Key, Integer> cache;
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysByReader = ConcurrentCollections.newConcurrentMap();
+
+    public IndicesSegmentCountCache(Settings settings) {
+        cache = CacheBuilder.<Key, Integer>builder()
+            .setMaximumWeight(INDICES_SEGMENT_COUNT_CACHE_SIZE.get(settings).getBytes())
+            .weigher((k, v) -> k.ramBytesUsed())
+            .removalListener(this)
+            .setTinyLfu(IndicesService.CacheEvictionPolicy.isTinyLfu(settings))
+            .build();
+    }
+
+    /**
+     * Returns the cached number of live documents of the given segment that match the given query, or {@code -1} if it isn't cached.
+     */
+    public int get(Query query, LeafReader reader) {
+        final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return -1;
+        }
+        final Integer count = cache.get(new Key(query, cacheHelper.getKey()));
+        return count == null ? -1 : count;
+    }
+
+    /**
+     * Caches the number of live documents of the given segment that match the given query. Segments whose reader doesn't have a cache
+     * helper, for instance because it changes the live documents, are not cached. The caller must hold a reference on the reader.
+     */
+    public void put(Query query, LeafReader reader, int count) {
+        final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return;
+        }
+        final Key key = new Key(query, cacheHelper.getKey());
+        keysByReader.computeIfAbsent(cacheHelper.getKey(), readerKey -> {
+            // the reader is open since the caller holds a reference on it, so this listener will be notified
+            cacheHelper.addClosedListener(this::onClose);
+            return ConcurrentCollections.newConcurrentSet();
+        }).add(key);
+        cache.put(key, count);
+    }
+
+    private void onClose(IndexReader.CacheKey readerKey) {
+        final Set<Key> keys = keysByReader.remove(readerKey);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, Integer> notification) {
+        final Key key = notification.getKey();
+        final Set<Key> keys = keysByReader.get(key.readerKey);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * The number of cached counts, visible for testing.
+     */
+    int count() {
+        return cache.count();
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+    }
+
+    static final class Key implements Accountable {
+        private final Query query;
+        private final IndexReader.CacheKey readerKey;
+
+        Key(Query query, IndexReader.CacheKey readerKey) {
+            this.query = query;
+            this.readerKey = readerKey;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(query);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return readerKey == key.readerKey && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * query.hashCode() + readerKey.hashCode();
+        }
+    }
+}
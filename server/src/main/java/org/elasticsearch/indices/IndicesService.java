@@ -109,6 +109,8 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
+import org.elasticsearch.index.translog.TranslogSyncStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -172,6 +174,27 @@ public class IndicesService extends AbstractLifecycleComponent
     public static final String INDICES_SHARDS_CLOSED_TIMEOUT = "indices.shards_closed_timeout";
     public static final Setting<TimeValue> INDICES_CACHE_CLEAN_INTERVAL_SETTING =
         Setting.positiveTimeSetting("indices.cache.cleanup_interval", TimeValue.timeValueMinutes(1), Property.NodeScope);
+    /**
+     * The eviction policy of the request cache, of the field data cache and of the segment count cache.
+     */
+    public static final Setting<CacheEvictionPolicy> INDICES_CACHE_EVICTION_POLICY_SETTING =
+        Setting.enumSetting(CacheEvictionPolicy.class, "indices.cache.eviction_policy", CacheEvictionPolicy.LRU, Property.NodeScope);
+
+    public enum CacheEvictionPolicy {
+        /**
+         * Evicts the least recently used entries, see {@link org.elasticsearch.common.cache.Cache}.
+         */
+        LRU,
+        /**
+         * Admits new entries based on how frequently they are accessed, see {@link org.elasticsearch.common.cache.TinyLfuCache}.
+         */
+        TINY_LFU;
+
+        public static boolean isTinyLfu(Settings settings) {
+            return INDICES_CACHE_EVICTION_POLICY_SETTING.get(settings) == TINY_LFU;
+        }
+    }
+
     public static final Setting<Boolean> INDICES_ID_FIELD_DATA_ENABLED_SETTING =
         Setting.boolSetting("indices.id_field_data.enabled", false, Property.Dynamic, Property.NodeScope);
 
@@ -207,10 +230,13 @@ public class IndicesService extends AbstractLifecycleComponent
     private final MapperRegistry mapperRegistry;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, IndexStorePlugin.SnapshotCommitSupplier> snapshotCommitSuppliers;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final IndexingMemoryController indexingMemoryController;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
+    private final IndicesSegmentCountCache indicesSegmentCountCache;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, IndexStorePlugin.DirectoryFactory> directoryFactories;
@@ -258,6 +284,7 @@ public class IndicesService extends AbstractLifecycleComponent
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.indicesRequestCache = new IndicesRequestCache(settings);
         this.indicesQueryCache = new IndicesQueryCache(settings);
+        this.indicesSegmentCountCache = new IndicesSegmentCountCache(settings);
         this.mapperRegistry = mapperRegistry;
         this.namedWriteableRegistry = namedWriteableRegistry;
         indexingMemoryController = new IndexingMemoryController(settings, threadPool,
@@ -295,6 +322,9 @@ public class IndicesService extends AbstractLifecycleComponent
         this.recoveryStateFactories = recoveryStateFactories;
         this.indexFoldersDeletionListeners = new CompositeIndexFoldersDeletionListener(indexFoldersDeletionListeners);
         this.snapshotCommitSuppliers = snapshotCommitSuppliers;
+        this.translogSyncCoordinator = TranslogSyncCoordinator.GROUP_COMMIT_ENABLED_SETTING.get(settings)
+            ? new TranslogSyncCoordinator(settings, clusterService.getClusterSettings(), threadPool.getThreadContext())
+            : null;
         // doClose() is called when shutting down a node, yet there might still be ongoing requests
         // that we need to wait for before closing some resources such as the caches. In order to
         // avoid closing these resources while ongoing requests are still being processed, we use a
@@ -310,7 +340,9 @@ public class IndicesService extends AbstractLifecycleComponent
                             indicesFieldDataCache,
                             cacheCleaner,
                             indicesRequestCache,
-                            indicesQueryCache);
+                            indicesQueryCache,
+                            indicesSegmentCountCache,
+                            translogSyncCoordinator);
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 } finally {
@@ -422,7 +454,10 @@ public class IndicesService extends AbstractLifecycleComponent
             }
         }
 
-        return new NodeIndicesStats(commonStats, statsByShard(this, flags));
+        final TranslogSyncStats translogSyncStats = translogSyncCoordinator != null && flags.isSet(Flag.Translog)
+            ? translogSyncCoordinator.stats()
+            : null;
+        return new NodeIndicesStats(commonStats, statsByShard(this, flags), translogSyncStats);
     }
 
     Map<Index, List<IndexShardStats>> statsByShard(final IndicesService indicesService, final CommonStatsFlags flags) {
@@ -674,7 +709,8 @@ public class IndicesService extends AbstractLifecycleComponent
                 this::isIdFieldDataEnabled,
                 valuesSourceRegistry,
                 indexFoldersDeletionListeners,
-                snapshotCommitSuppliers
+                snapshotCommitSuppliers,
+                translogSyncCoordinator
         );
     }
 
@@ -829,6 +865,10 @@ public class IndicesService extends AbstractLifecycleComponent
         return indicesQueryCache;
     }
 
+    public IndicesSegmentCountCache getIndicesSegmentCountCache() {
+        return indicesSegmentCountCache;
+    }
+
     static class OldShardsStats implements IndexEventListener {
 
         final SearchStats searchStats = new SearchStats();
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.indices;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.stats.CommonStats;
 import org.elasticsearch.action.admin.indices.stats.IndexShardStats;
 import org.elasticsearch.action.admin.indices.stats.ShardStats;
@@ -33,6 +34,7 @@ import org.elasticsearch.index.shard.DocsStats;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncStats;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.search.suggest.completion.CompletionStats;
 
@@ -50,6 +52,8 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
 
     private final CommonStats stats;
     private final Map<Index, List<IndexShardStats>> statsByShard;
+    @Nullable
+    private final TranslogSyncStats translogSyncStats;
 
     public NodeIndicesStats(StreamInput in) throws IOException {
         stats = new CommonStats(in);
@@ -65,10 +69,21 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
             }
             statsByShard.put(index, indexShardStats);
         }
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            translogSyncStats = in.readOptionalWriteable(TranslogSyncStats::new);
+        } else {
+            translogSyncStats = null;
+        }
     }
 
     public NodeIndicesStats(CommonStats oldStats, Map<Index, List<IndexShardStats>> statsByShard) {
+        this(oldStats, statsByShard, null);
+    }
+
+    public NodeIndicesStats(CommonStats oldStats, Map<Index, List<IndexShardStats>> statsByShard,
+                            @Nullable TranslogSyncStats translogSyncStats) {
         this.statsByShard = Objects.requireNonNull(statsByShard);
+        this.translogSyncStats = translogSyncStats;
 
         // make a total common stats from old ones and current ones
         this.stats = oldStats;
@@ -166,6 +181,14 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
         return stats.getBulk();
     }
 
+    /**
+     * The statistics of the translog group commits, or {@code null} if they are disabled.
+     */
+    @Nullable
+    public TranslogSyncStats getTranslogSync() {
+        return translogSyncStats;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         stats.writeTo(out);
@@ -177,6 +200,9 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
                 indexShardStats.writeTo(out);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalWriteable(translogSyncStats);
+        }
     }
 
     @Override
@@ -191,6 +217,9 @@ public class NodeIndicesStats implements Writeable, ToXContentFragment {
         // "node" level
         builder.startObject(Fields.INDICES);
         stats.toXContent(builder, params);
+        if (translogSyncStats != null) {
+            translogSyncStats.toXContent(builder, params);
+        }
 
         if ("indices".equals(level)) {
             Map<Index, CommonStats> indexStats = createStatsByIndex();
@@ -0,0 +1,40 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.cluster;
+
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.node.NodeStartupStats;
+
+/**
+ * Tracks the time that {@link IndicesClusterStateService} spends creating the indices and shards that are allocated to the node.
+ */
+public final class IndexCreationStatsTracker {
+
+    private final CounterMetric indexCount = new CounterMetric();
+    private final CounterMetric indexCreationTimeInMillis = new CounterMetric();
+    private final CounterMetric mappingTimeInMillis = new CounterMetric();
+    private final CounterMetric shardCount = new CounterMetric();
+    private final CounterMetric shardCreationTimeInMillis = new CounterMetric();
+
+    void onIndicesCreated(int count, long creationTimeInMillis, long mappingTimeInMillis) {
+        indexCount.inc(count);
+        indexCreationTimeInMillis.inc(creationTimeInMillis);
+        this.mappingTimeInMillis.inc(mappingTimeInMillis);
+    }
+
+    void onShardCreated(long creationTimeInMillis) {
+        shardCount.inc();
+        shardCreationTimeInMillis.inc(creationTimeInMillis);
+    }
+
+    public NodeStartupStats stats(long metadataLoadTimeInMillis) {
+        return new NodeStartupStats(metadataLoadTimeInMillis, indexCount.count(), indexCreationTimeInMillis.count(),
+            mappingTimeInMillis.count(), shardCount.count(), shardCreationTimeInMillis.count());
+    }
+}
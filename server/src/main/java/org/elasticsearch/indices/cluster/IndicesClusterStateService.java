@@ -36,6 +36,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ConcurrentTasks;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.env.ShardLockObtainFailedException;
 import org.elasticsearch.gateway.GatewayService;
@@ -109,6 +111,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
     private final PrimaryReplicaSyncer primaryReplicaSyncer;
     private final RetentionLeaseSyncer retentionLeaseSyncer;
     private final NodeClient client;
+    private final IndexCreationStatsTracker indexCreationStatsTracker;
+    private final int indexCreationParallelism;
 
     @Inject
     public IndicesClusterStateService(
@@ -124,7 +128,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             final SnapshotShardsService snapshotShardsService,
             final PrimaryReplicaSyncer primaryReplicaSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
-            final NodeClient client) {
+            final NodeClient client,
+            final IndexCreationStatsTracker indexCreationStatsTracker) {
         this(
                 settings,
                 (AllocatedIndices<? extends Shard, ? extends AllocatedIndex<? extends Shard>>) indicesService,
@@ -138,7 +143,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                 snapshotShardsService,
                 primaryReplicaSyncer,
                 retentionLeaseSyncer,
-                client);
+                client,
+                indexCreationStatsTracker);
     }
 
     // for tests
@@ -155,7 +161,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             final SnapshotShardsService snapshotShardsService,
             final PrimaryReplicaSyncer primaryReplicaSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
-            final NodeClient client) {
+            final NodeClient client,
+            final IndexCreationStatsTracker indexCreationStatsTracker) {
         this.settings = settings;
         this.buildInIndexListener = Arrays.asList(peerRecoverySourceService, recoveryTargetService, searchService, snapshotShardsService);
         this.indicesService = indicesService;
@@ -167,6 +174,8 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         this.primaryReplicaSyncer = primaryReplicaSyncer;
         this.retentionLeaseSyncer = retentionLeaseSyncer;
         this.client = client;
+        this.indexCreationStatsTracker = indexCreationStatsTracker;
+        this.indexCreationParallelism = EsExecutors.allocatedProcessors(settings);
     }
 
     @Override
@@ -472,28 +481,51 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             }
         }
 
+        if (indicesToCreate.isEmpty()) {
+            return;
+        }
+
+        final long startTimeNanos = System.nanoTime();
+        final Map<Index, AllocatedIndex<? extends Shard>> createdIndices = new HashMap<>();
         for (Map.Entry<Index, List<ShardRouting>> entry : indicesToCreate.entrySet()) {
             final Index index = entry.getKey();
             final IndexMetadata indexMetadata = state.metadata().index(index);
             logger.debug("[{}] creating index", index);
 
-            AllocatedIndex<? extends Shard> indexService = null;
             try {
-                indexService = indicesService.createIndex(indexMetadata, buildInIndexListener, true);
-                indexService.updateMapping(null, indexMetadata);
+                createdIndices.put(index, indicesService.createIndex(indexMetadata, buildInIndexListener, true));
             } catch (Exception e) {
-                final String failShardReason;
-                if (indexService == null) {
-                    failShardReason = "failed to create index";
-                } else {
-                    failShardReason = "failed to update mapping for index";
-                    indicesService.removeIndex(index, FAILURE, "removing index (mapping update failed)");
-                }
                 for (ShardRouting shardRouting : entry.getValue()) {
-                    sendFailShard(shardRouting, failShardReason, e, state);
+                    sendFailShard(shardRouting, "failed to create index", e, state);
+                }
+            }
+        }
+
+        // parsing the mappings is what takes time when creating many indices, for instance when a node with many shards restarts, so
+        // the mappings of the new indices are parsed concurrently
+        final long mappingStartTimeNanos = System.nanoTime();
+        final Map<Index, Exception> mappingFailures = ConcurrentCollections.newConcurrentMap();
+        final List<Runnable> mappingTasks = new ArrayList<>(createdIndices.size());
+        for (Map.Entry<Index, AllocatedIndex<? extends Shard>> entry : createdIndices.entrySet()) {
+            mappingTasks.add(() -> {
+                try {
+                    entry.getValue().updateMapping(null, state.metadata().index(entry.getKey()));
+                } catch (Exception e) {
+                    mappingFailures.put(entry.getKey(), e);
                 }
+            });
+        }
+        ConcurrentTasks.run(threadPool.generic(), indexCreationParallelism, mappingTasks);
+        final long endTimeNanos = System.nanoTime();
+
+        for (Map.Entry<Index, Exception> entry : mappingFailures.entrySet()) {
+            indicesService.removeIndex(entry.getKey(), FAILURE, "removing index (mapping update failed)");
+            for (ShardRouting shardRouting : indicesToCreate.get(entry.getKey())) {
+                sendFailShard(shardRouting, "failed to update mapping for index", entry.getValue(), state);
             }
         }
+        indexCreationStatsTracker.onIndicesCreated(createdIndices.size(), TimeValue.nsecToMSec(endTimeNanos - startTimeNanos),
+            TimeValue.nsecToMSec(endTimeNanos - mappingStartTimeNanos));
     }
 
     private void updateIndices(ClusterChangedEvent event) {
@@ -574,6 +606,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         }
 
         try {
+            final long startTimeNanos = System.nanoTime();
             final long primaryTerm = state.metadata().index(shardRouting.index()).primaryTerm(shardRouting.id());
             logger.debug("{} creating shard with primary term [{}]", shardRouting.shardId(), primaryTerm);
             indicesService.createShard(
@@ -586,6 +619,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                     retentionLeaseSyncer,
                     nodes.getLocalNode(),
                     sourceNode);
+            indexCreationStatsTracker.onShardCreated(TimeValue.nsecToMSec(System.nanoTime() - startTimeNanos));
         } catch (Exception e) {
             failAndRemoveShard(shardRouting, true, "failed to create shard", e, state);
         }
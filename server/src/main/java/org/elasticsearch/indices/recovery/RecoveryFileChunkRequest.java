@@ -9,6 +9,8 @@
 package org.elasticsearch.indices.recovery;
 
 import org.apache.lucene.util.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -16,10 +18,15 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.transport.ZeroCopyWriteable;
 
 import java.io.IOException;
 
-public final class RecoveryFileChunkRequest extends RecoveryTransportRequest implements RefCounted {
+public final class RecoveryFileChunkRequest extends RecoveryTransportRequest implements RefCounted, ZeroCopyWriteable {
+
+    // as of this version the content of the chunk is written last, so that the transport can send it without copying it
+    static final org.elasticsearch.Version CONTENT_LAST_VERSION = org.elasticsearch.Version.V_8_0_0;
+
     private final boolean lastChunk;
     private final long recoveryId;
     private final ShardId shardId;
@@ -38,13 +45,15 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         position = in.readVLong();
         long length = in.readVLong();
         String checksum = in.readString();
-        content = in.readReleasableBytesReference();
+        final boolean contentLast = in.getVersion().onOrAfter(CONTENT_LAST_VERSION);
+        ReleasableBytesReference content = contentLast ? null : in.readReleasableBytesReference();
         Version writtenBy = Lucene.parseVersionLenient(in.readString(), null);
         assert writtenBy != null;
         metadata = new StoreFileMetadata(name, length, checksum, writtenBy);
         lastChunk = in.readBoolean();
         totalTranslogOps = in.readVInt();
         sourceThrottleTimeInNanos = in.readLong();
+        this.content = contentLast ? in.readReleasableBytesReference() : content;
     }
 
     public RecoveryFileChunkRequest(long recoveryId, final long requestSeqNo, ShardId shardId, StoreFileMetadata metadata, long position,
@@ -95,6 +104,11 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeThin(out).writeTo(out);
+    }
+
+    @Override
+    public BytesReference writeThin(StreamOutput out) throws IOException {
         super.writeTo(out);
         out.writeLong(recoveryId);
         shardId.writeTo(out);
@@ -102,11 +116,19 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         out.writeVLong(position);
         out.writeVLong(metadata.length());
         out.writeString(metadata.checksum());
-        out.writeBytesReference(content);
+        final boolean contentLast = out.getVersion().onOrAfter(CONTENT_LAST_VERSION);
+        if (contentLast == false) {
+            out.writeBytesReference(content);
+        }
         out.writeString(metadata.writtenBy().toString());
         out.writeBoolean(lastChunk);
         out.writeVInt(totalTranslogOps);
         out.writeLong(sourceThrottleTimeInNanos);
+        if (contentLast) {
+            out.writeVInt(content.length());
+            return content;
+        }
+        return BytesArray.EMPTY;
     }
 
     @Override
@@ -343,6 +343,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String VERIFY_INDEX = "verify_index";
         static final String RECOVERED = "recovered";
         static final String RECOVERED_IN_BYTES = "recovered_in_bytes";
+        static final String RECOVERED_PER_SEC = "recovered_per_sec";
+        static final String RECOVERED_PER_SEC_IN_BYTES = "recovered_per_sec_in_bytes";
         static final String CHECK_INDEX_TIME = "check_index_time";
         static final String CHECK_INDEX_TIME_IN_MILLIS = "check_index_time_in_millis";
         static final String LENGTH = "length";
@@ -949,6 +951,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * the average number of bytes recovered per second since the start of the recovery of the files, or {@code 0} if it just started
+         */
+        public synchronized long recoveredBytesPerSecond() {
+            final long time = time();
+            if (time <= 0) {
+                return 0;
+            }
+            return recoveredBytes() * 1000 / time;
+        }
+
         /**
          * total bytes of files to be recovered (potentially not yet done)
          */
@@ -1030,6 +1043,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.REUSED_IN_BYTES, Fields.REUSED, new ByteSizeValue(reusedBytes()));
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recoveredBytes()));
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredBytesPercent()));
+            builder.humanReadableField(Fields.RECOVERED_PER_SEC_IN_BYTES, Fields.RECOVERED_PER_SEC,
+                new ByteSizeValue(recoveredBytesPerSecond()));
             builder.endObject();
 
             builder.startObject(Fields.FILES);
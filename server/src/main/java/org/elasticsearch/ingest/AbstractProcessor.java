@@ -8,17 +8,24 @@
 
 package org.elasticsearch.ingest;
 
+import java.util.function.BiConsumer;
+
 /**
  * An Abstract Processor that holds tag and description information
  * about the processor.
+ *
+ * Processors that extend this class support batch execution, unless they execute asynchronously by overriding
+ * {@link #execute(IngestDocument, BiConsumer)}.
  */
 public abstract class AbstractProcessor implements Processor {
     protected final String tag;
     protected final String description;
+    private final boolean synchronous;
 
     protected AbstractProcessor(String tag, String description) {
         this.tag = tag;
         this.description = description;
+        this.synchronous = isSynchronous(getClass());
     }
 
     @Override
@@ -30,4 +37,17 @@ public abstract class AbstractProcessor implements Processor {
     public String getDescription() {
         return description;
     }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        return synchronous;
+    }
+
+    private static boolean isSynchronous(Class<?> processorClass) {
+        try {
+            return processorClass.getMethod("execute", IngestDocument.class, BiConsumer.class).getDeclaringClass() == Processor.class;
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
 }
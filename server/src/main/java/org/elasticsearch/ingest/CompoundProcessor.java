@@ -35,6 +35,7 @@ public class CompoundProcessor implements Processor {
     private final List<Processor> onFailureProcessors;
     private final List<Tuple<Processor, IngestMetric>> processorsWithMetrics;
     private final LongSupplier relativeTimeProvider;
+    private final boolean supportsBatchExecution;
 
     CompoundProcessor(LongSupplier relativeTimeProvider, Processor... processor) {
         this(false, Arrays.asList(processor), Collections.emptyList(), relativeTimeProvider);
@@ -56,6 +57,8 @@ public class CompoundProcessor implements Processor {
         this.relativeTimeProvider = relativeTimeProvider;
         this.processorsWithMetrics = new ArrayList<>(processors.size());
         processors.forEach(p -> processorsWithMetrics.add(new Tuple<>(p, new IngestMetric())));
+        this.supportsBatchExecution = processors.stream().allMatch(Processor::supportsBatchExecution)
+            && onFailureProcessors.stream().allMatch(Processor::supportsBatchExecution);
     }
 
     List<Tuple<Processor, IngestMetric>> getProcessorsWithMetrics() {
@@ -155,6 +158,72 @@ public class CompoundProcessor implements Processor {
         });
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return supportsBatchExecution;
+    }
+
+    /**
+     * Runs the documents through the processors one processor at a time, so that each processor sees the whole batch of
+     * documents that are still being processed. A document that fails is handed to the on failure processors on its own,
+     * and is not processed any further by this processor afterwards.
+     */
+    @Override
+    public void executeBatch(IngestDocument[] ingestDocuments, Exception[] failures) {
+        assert supportsBatchExecution : "processors must all support batch execution";
+        final int[] slots = new int[ingestDocuments.length];
+        final boolean[] completed = new boolean[ingestDocuments.length];
+        for (Tuple<Processor, IngestMetric> processorWithMetric : processorsWithMetrics) {
+            int count = 0;
+            for (int i = 0; i < ingestDocuments.length; i++) {
+                if (ingestDocuments[i] != null && completed[i] == false) {
+                    slots[count++] = i;
+                }
+            }
+            if (count == 0) {
+                return;
+            }
+            final IngestDocument[] batch = new IngestDocument[count];
+            for (int j = 0; j < count; j++) {
+                batch[j] = ingestDocuments[slots[j]];
+            }
+            final Exception[] batchFailures = new Exception[count];
+            final Processor processor = processorWithMetric.v1();
+            final IngestMetric metric = processorWithMetric.v2();
+            final long startTimeInNanos = relativeTimeProvider.getAsLong();
+            metric.preIngest(count);
+            processor.executeBatch(batch, batchFailures);
+            metric.postIngest(count, relativeTimeProvider.getAsLong() - startTimeInNanos);
+
+            for (int j = 0; j < count; j++) {
+                final int slot = slots[j];
+                final Exception e = batchFailures[j];
+                if (e == null) {
+                    ingestDocuments[slot] = batch[j];
+                    continue;
+                }
+                metric.ingestFailed();
+                if (ignoreFailure) {
+                    continue;
+                }
+                final IngestDocument ingestDocument = ingestDocuments[slot];
+                final IngestProcessorException compoundProcessorException =
+                    newCompoundProcessorException(e, processor, ingestDocument);
+                ingestDocuments[slot] = null;
+                if (onFailureProcessors.isEmpty()) {
+                    failures[slot] = compoundProcessorException;
+                } else {
+                    // the on failure processors all execute synchronously, so the handler has been called once this returns
+                    completed[slot] = true;
+                    executeOnFailureAsync(0, ingestDocument, compoundProcessorException, (result, onFailureException) -> {
+                        ingestDocuments[slot] = result;
+                        failures[slot] = onFailureException;
+                    });
+                }
+            }
+        }
+    }
+
     void executeOnFailureAsync(int currentOnFailureProcessor, IngestDocument ingestDocument, ElasticsearchException exception,
                                BiConsumer<IngestDocument, Exception> handler) {
         if (currentOnFailureProcessor == 0) {
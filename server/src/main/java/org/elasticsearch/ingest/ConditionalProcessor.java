@@ -111,12 +111,76 @@ public class ConditionalProcessor extends AbstractProcessor implements WrappingP
         throw new UnsupportedOperationException("this method should not get executed");
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return processor.supportsBatchExecution();
+    }
+
+    /**
+     * Evaluates the condition for every document of the batch with the same script instance, and then runs the documents
+     * that match it through the wrapped processor as a single batch.
+     */
+    @Override
+    public void executeBatch(IngestDocument[] ingestDocuments, Exception[] failures) {
+        final IngestConditionalScript script;
+        try {
+            script = conditionScript();
+        } catch (Exception e) {
+            for (int i = 0; i < ingestDocuments.length; i++) {
+                ingestDocuments[i] = null;
+                failures[i] = e;
+            }
+            return;
+        }
+
+        final int[] slots = new int[ingestDocuments.length];
+        int count = 0;
+        for (int i = 0; i < ingestDocuments.length; i++) {
+            try {
+                if (evaluate(script, ingestDocuments[i])) {
+                    slots[count++] = i;
+                }
+            } catch (Exception e) {
+                ingestDocuments[i] = null;
+                failures[i] = e;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+
+        final IngestDocument[] batch = new IngestDocument[count];
+        for (int j = 0; j < count; j++) {
+            batch[j] = ingestDocuments[slots[j]];
+        }
+        final Exception[] batchFailures = new Exception[count];
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        metric.preIngest(count);
+        processor.executeBatch(batch, batchFailures);
+        metric.postIngest(count, relativeTimeProvider.getAsLong() - startTimeInNanos);
+        for (int j = 0; j < count; j++) {
+            ingestDocuments[slots[j]] = batch[j];
+            if (batchFailures[j] != null) {
+                metric.ingestFailed();
+                failures[slots[j]] = batchFailures[j];
+            }
+        }
+    }
+
     boolean evaluate(IngestDocument ingestDocument) {
+        return evaluate(conditionScript(), ingestDocument);
+    }
+
+    private IngestConditionalScript conditionScript() {
         IngestConditionalScript script = precompiledConditionScript;
         if (script == null) {
             IngestConditionalScript.Factory factory = scriptService.compile(condition, IngestConditionalScript.CONTEXT);
             script = factory.newInstance(condition.getParams());
         }
+        return script;
+    }
+
+    private static boolean evaluate(IngestConditionalScript script, IngestDocument ingestDocument) {
         return script.execute(new UnmodifiableIngestData(new DynamicMap(ingestDocument.getSourceAndMetadata(), FUNCTIONS)));
     }
 
@@ -774,6 +774,31 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Executes the given pipeline for a batch of documents that are not executing any pipeline yet, see
+     * {@link Processor#executeBatch(IngestDocument[], Exception[])}. Requires the pipeline to support batch execution.
+     *
+     * @param pipeline the pipeline to execute
+     * @param ingestDocuments the documents to execute the pipeline for
+     * @param results receives the result of each document, which is <code>null</code> if it was dropped or failed
+     * @param failures receives the failure of each document that failed
+     */
+    static void executePipeline(Pipeline pipeline, IngestDocument[] ingestDocuments, IngestDocument[] results, Exception[] failures) {
+        assert pipeline.getCompoundProcessor().supportsBatchExecution();
+        for (int i = 0; i < ingestDocuments.length; i++) {
+            final IngestDocument ingestDocument = ingestDocuments[i];
+            assert ingestDocument.executedPipelines.isEmpty();
+            ingestDocument.executedPipelines.add(pipeline.getId());
+            ingestDocument.ingestMetadata.put("pipeline", pipeline.getId());
+            results[i] = ingestDocument;
+        }
+        pipeline.executeBatch(results, failures);
+        for (IngestDocument ingestDocument : ingestDocuments) {
+            ingestDocument.executedPipelines.remove(pipeline.getId());
+            ingestDocument.ingestMetadata.remove("pipeline");
+        }
+    }
+
     /**
      * @return a pipeline stack; all pipelines that are in execution by this document in reverse order
      */
@@ -57,6 +57,25 @@ class IngestMetric {
         ingestCount.inc();
     }
 
+    /**
+     * Call this prior to the ingest action on a batch of things.
+     * @param count The number of things in the batch.
+     */
+    void preIngest(int count) {
+        ingestCurrent.addAndGet(count);
+    }
+
+    /**
+     * Call this after the performing the ingest action on a batch of things, even if the action failed for some of them.
+     * @param count The number of things in the batch.
+     * @param ingestTimeInNanos The time it took to perform the action on the whole batch.
+     */
+    void postIngest(int count, long ingestTimeInNanos) {
+        ingestCurrent.addAndGet(-count);
+        this.ingestTimeInNanos.inc(ingestTimeInNanos);
+        ingestCount.inc(count);
+    }
+
     /**
      * Call this if the ingest action failed.
      */
@@ -441,6 +441,8 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 final AtomicInteger counter = new AtomicInteger(numberOfActionRequests);
+                // requests are grouped by the first pipeline they execute, so that pipelines can process them in batches
+                final Map<String, List<BatchItem>> batches = new HashMap<>();
                 int i = 0;
                 for (DocWriteRequest<?> actionRequest : actionRequests) {
                     IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
@@ -476,15 +478,85 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                         continue;
                     }
 
-                    executePipelines(i, pipelines.iterator(), hasFinalPipeline, indexRequest, onDropped, onFailure, counter,
-                                     onCompletion, originalThread);
+                    batches.computeIfAbsent(pipelines.get(0), k -> new ArrayList<>())
+                        .add(new BatchItem(i, pipelines.iterator(), hasFinalPipeline, indexRequest));
 
                     i++;
                 }
+
+                for (Map.Entry<String, List<BatchItem>> batch : batches.entrySet()) {
+                    executeBatch(batch.getKey(), batch.getValue(), onDropped, onFailure, counter, onCompletion, originalThread);
+                }
             }
         });
     }
 
+    /**
+     * Executes the first pipeline of each of the given requests, which is the same for all of them, processor by processor
+     * for the whole batch if that pipeline supports it, and then executes the remaining pipelines for each request on its own.
+     */
+    private void executeBatch(
+        final String pipelineId,
+        final List<BatchItem> items,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        final PipelineHolder holder = pipelines.get(pipelineId);
+        if (items.size() == 1 || holder == null || holder.pipeline.getProcessors().isEmpty()
+            || holder.pipeline.getCompoundProcessor().supportsBatchExecution() == false) {
+            for (BatchItem item : items) {
+                executePipelines(item.slot, item.pipelines, item.hasFinalPipeline, item.indexRequest, onDropped, onFailure, counter,
+                    onCompletion, originalThread);
+            }
+            return;
+        }
+
+        final Pipeline pipeline = holder.pipeline;
+        final List<BatchItem> batch = new ArrayList<>(items.size());
+        final List<IngestDocument> ingestDocuments = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            item.pipelines.next();
+            try {
+                ingestDocuments.add(newIngestDocument(item.indexRequest));
+                batch.add(item);
+            } catch (Exception e) {
+                onPipelineFailed(item.slot, pipelineId, item.indexRequest, onFailure, counter, onCompletion, originalThread, e);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final long startTimeInNanos = System.nanoTime();
+        totalMetrics.preIngest(batch.size());
+        final IngestDocument[] documents = ingestDocuments.toArray(new IngestDocument[0]);
+        final IngestDocument[] results = new IngestDocument[documents.length];
+        final Exception[] failures = new Exception[documents.length];
+        IngestDocument.executePipeline(pipeline, documents, results, failures);
+        totalMetrics.postIngest(batch.size(), System.nanoTime() - startTimeInNanos);
+
+        for (int j = 0; j < documents.length; j++) {
+            final BatchItem item = batch.get(j);
+            try {
+                final String originalIndex = item.indexRequest.indices()[0];
+                if (failures[j] != null) {
+                    totalMetrics.ingestFailed();
+                } else if (results[j] == null) {
+                    onDropped.accept(item.slot);
+                } else {
+                    updateIndexRequest(item.indexRequest, results[j]);
+                }
+                onPipelineExecuted(item.slot, pipelineId, originalIndex, item.pipelines, item.hasFinalPipeline, item.indexRequest,
+                    onDropped, onFailure, counter, onCompletion, originalThread, failures[j]);
+            } catch (Exception e) {
+                onPipelineFailed(item.slot, pipelineId, item.indexRequest, onFailure, counter, onCompletion, originalThread, e);
+            }
+        }
+    }
+
     private void executePipelines(
         final int slot,
         final Iterator<String> it,
@@ -505,48 +577,77 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             }
             Pipeline pipeline = holder.pipeline;
             String originalIndex = indexRequest.indices()[0];
-            innerExecute(slot, indexRequest, pipeline, onDropped, e -> {
-                if (e != null) {
-                    logger.debug(() -> new ParameterizedMessage("failed to execute pipeline [{}] for document [{}/{}]",
-                        pipelineId, indexRequest.index(), indexRequest.id()), e);
-                    onFailure.accept(slot, e);
-                }
-
-                Iterator<String> newIt = it;
-                boolean newHasFinalPipeline = hasFinalPipeline;
-                String newIndex = indexRequest.indices()[0];
+            innerExecute(slot, indexRequest, pipeline, onDropped, e -> onPipelineExecuted(slot, pipelineId, originalIndex, it,
+                hasFinalPipeline, indexRequest, onDropped, onFailure, counter, onCompletion, originalThread, e));
+        } catch (Exception e) {
+            onPipelineFailed(slot, pipelineId, indexRequest, onFailure, counter, onCompletion, originalThread, e);
+        }
+    }
 
-                if (Objects.equals(originalIndex, newIndex) == false) {
-                    if (hasFinalPipeline && it.hasNext() == false) {
-                        totalMetrics.ingestFailed();
-                        onFailure.accept(slot, new IllegalStateException("final pipeline [" + pipelineId +
-                            "] can't change the target index"));
-                    } else {
-                        indexRequest.isPipelineResolved(false);
-                        resolvePipelines(null, indexRequest, state.metadata());
-                        if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
-                            newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
-                            newHasFinalPipeline = true;
-                        } else {
-                            newIt = Collections.emptyIterator();
-                        }
-                    }
-                }
+    private void onPipelineFailed(
+        final int slot,
+        final String pipelineId,
+        final IndexRequest indexRequest,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread,
+        final Exception e
+    ) {
+        logger.debug(() -> new ParameterizedMessage("failed to execute pipeline [{}] for document [{}/{}]",
+            pipelineId, indexRequest.index(), indexRequest.id()), e);
+        onFailure.accept(slot, e);
+        if (counter.decrementAndGet() == 0) {
+            onCompletion.accept(originalThread, null);
+        }
+        assert counter.get() >= 0;
+    }
 
-                if (newIt.hasNext()) {
-                    executePipelines(slot, newIt, newHasFinalPipeline, indexRequest, onDropped, onFailure, counter, onCompletion,
-                        originalThread);
-                } else {
-                    if (counter.decrementAndGet() == 0) {
-                        onCompletion.accept(originalThread, null);
-                    }
-                    assert counter.get() >= 0;
-                }
-            });
-        } catch (Exception e) {
+    private void onPipelineExecuted(
+        final int slot,
+        final String pipelineId,
+        final String originalIndex,
+        final Iterator<String> it,
+        final boolean hasFinalPipeline,
+        final IndexRequest indexRequest,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread,
+        final Exception e
+    ) {
+        if (e != null) {
             logger.debug(() -> new ParameterizedMessage("failed to execute pipeline [{}] for document [{}/{}]",
                 pipelineId, indexRequest.index(), indexRequest.id()), e);
             onFailure.accept(slot, e);
+        }
+
+        Iterator<String> newIt = it;
+        boolean newHasFinalPipeline = hasFinalPipeline;
+        String newIndex = indexRequest.indices()[0];
+
+        if (Objects.equals(originalIndex, newIndex) == false) {
+            if (hasFinalPipeline && it.hasNext() == false) {
+                totalMetrics.ingestFailed();
+                onFailure.accept(slot, new IllegalStateException("final pipeline [" + pipelineId +
+                    "] can't change the target index"));
+            } else {
+                indexRequest.isPipelineResolved(false);
+                resolvePipelines(null, indexRequest, state.metadata());
+                if (IngestService.NOOP_PIPELINE_NAME.equals(indexRequest.getFinalPipeline()) == false) {
+                    newIt = Collections.singleton(indexRequest.getFinalPipeline()).iterator();
+                    newHasFinalPipeline = true;
+                } else {
+                    newIt = Collections.emptyIterator();
+                }
+            }
+        }
+
+        if (newIt.hasNext()) {
+            executePipelines(slot, newIt, newHasFinalPipeline, indexRequest, onDropped, onFailure, counter, onCompletion,
+                originalThread);
+        } else {
             if (counter.decrementAndGet() == 0) {
                 onCompletion.accept(originalThread, null);
             }
@@ -616,13 +717,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         // the pipeline specific stat holder may not exist and that is fine:
         // (e.g. the pipeline may have been removed while we're ingesting a document
         totalMetrics.preIngest();
-        String index = indexRequest.index();
-        String id = indexRequest.id();
-        String routing = indexRequest.routing();
-        Long version = indexRequest.version();
-        VersionType versionType = indexRequest.versionType();
-        Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
-        IngestDocument ingestDocument = new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
+        IngestDocument ingestDocument = newIngestDocument(indexRequest);
         ingestDocument.executePipeline(pipeline, (result, e) -> {
             long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
             totalMetrics.postIngest(ingestTimeInNanos);
@@ -633,35 +728,49 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 itemDroppedHandler.accept(slot);
                 handler.accept(null);
             } else {
-                Map<IngestDocument.Metadata, Object> metadataMap = ingestDocument.extractMetadata();
-
-                String newIndex = (String) metadataMap.get(IngestDocument.Metadata.INDEX);
-                //it's fine to set all metadata fields all the time, as ingest document holds their starting values
-                //before ingestion, which might also get modified during ingestion.
-                indexRequest.index(newIndex);
-                indexRequest.id((String) metadataMap.get(IngestDocument.Metadata.ID));
-                indexRequest.routing((String) metadataMap.get(IngestDocument.Metadata.ROUTING));
-                indexRequest.version(((Number) metadataMap.get(IngestDocument.Metadata.VERSION)).longValue());
-                if (metadataMap.get(IngestDocument.Metadata.VERSION_TYPE) != null) {
-                    indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.Metadata.VERSION_TYPE)));
-                }
-                if (metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO) != null) {
-                    indexRequest.setIfSeqNo(((Number) metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO)).longValue());
-                }
-                if (metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM) != null) {
-                    indexRequest.setIfPrimaryTerm(((Number) metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM)).longValue());
-                }
-                indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
-                if (metadataMap.get(IngestDocument.Metadata.DYNAMIC_TEMPLATES) != null) {
-                    Map<String, String> mergedDynamicTemplates = new HashMap<>(indexRequest.getDynamicTemplates());
-                    mergedDynamicTemplates.putAll((Map<String, String>) metadataMap.get(IngestDocument.Metadata.DYNAMIC_TEMPLATES));
-                    indexRequest.setDynamicTemplates(mergedDynamicTemplates);
-                }
+                updateIndexRequest(indexRequest, ingestDocument);
                 handler.accept(null);
             }
         });
     }
 
+    private static IngestDocument newIngestDocument(IndexRequest indexRequest) {
+        String index = indexRequest.index();
+        String id = indexRequest.id();
+        String routing = indexRequest.routing();
+        Long version = indexRequest.version();
+        VersionType versionType = indexRequest.versionType();
+        Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
+        return new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
+    }
+
+    private static void updateIndexRequest(IndexRequest indexRequest, IngestDocument ingestDocument) {
+        Map<IngestDocument.Metadata, Object> metadataMap = ingestDocument.extractMetadata();
+
+        String newIndex = (String) metadataMap.get(IngestDocument.Metadata.INDEX);
+        //it's fine to set all metadata fields all the time, as ingest document holds their starting values
+        //before ingestion, which might also get modified during ingestion.
+        indexRequest.index(newIndex);
+        indexRequest.id((String) metadataMap.get(IngestDocument.Metadata.ID));
+        indexRequest.routing((String) metadataMap.get(IngestDocument.Metadata.ROUTING));
+        indexRequest.version(((Number) metadataMap.get(IngestDocument.Metadata.VERSION)).longValue());
+        if (metadataMap.get(IngestDocument.Metadata.VERSION_TYPE) != null) {
+            indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.Metadata.VERSION_TYPE)));
+        }
+        if (metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO) != null) {
+            indexRequest.setIfSeqNo(((Number) metadataMap.get(IngestDocument.Metadata.IF_SEQ_NO)).longValue());
+        }
+        if (metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM) != null) {
+            indexRequest.setIfPrimaryTerm(((Number) metadataMap.get(IngestDocument.Metadata.IF_PRIMARY_TERM)).longValue());
+        }
+        indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
+        if (metadataMap.get(IngestDocument.Metadata.DYNAMIC_TEMPLATES) != null) {
+            Map<String, String> mergedDynamicTemplates = new HashMap<>(indexRequest.getDynamicTemplates());
+            mergedDynamicTemplates.putAll((Map<String, String>) metadataMap.get(IngestDocument.Metadata.DYNAMIC_TEMPLATES));
+            indexRequest.setDynamicTemplates(mergedDynamicTemplates);
+        }
+    }
+
     @Override
     public void applyClusterState(final ClusterChangedEvent event) {
         state = event.state();
@@ -845,4 +954,19 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         }
     }
 
+    private static class BatchItem {
+
+        final int slot;
+        final Iterator<String> pipelines;
+        final boolean hasFinalPipeline;
+        final IndexRequest indexRequest;
+
+        BatchItem(int slot, Iterator<String> pipelines, boolean hasFinalPipeline, IndexRequest indexRequest) {
+            this.slot = slot;
+            this.pipelines = pipelines;
+            this.hasFinalPipeline = hasFinalPipeline;
+            this.indexRequest = indexRequest;
+        }
+    }
+
 }
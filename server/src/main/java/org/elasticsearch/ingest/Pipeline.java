@@ -95,6 +95,24 @@ public final class Pipeline {
         });
     }
 
+    /**
+     * Modifies the data of a batch of documents to be indexed based on the processors this pipeline holds, see
+     * {@link Processor#executeBatch(IngestDocument[], Exception[])}.
+     *
+     * Requires the {@link #getCompoundProcessor() compound processor} of this pipeline to support batch execution.
+     */
+    void executeBatch(IngestDocument[] ingestDocuments, Exception[] failures) {
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        metrics.preIngest(ingestDocuments.length);
+        compoundProcessor.executeBatch(ingestDocuments, failures);
+        metrics.postIngest(ingestDocuments.length, relativeTimeProvider.getAsLong() - startTimeInNanos);
+        for (Exception failure : failures) {
+            if (failure != null) {
+                metrics.ingestFailed();
+            }
+        }
+    }
+
     /**
      * The unique id of this pipeline
      */
@@ -54,6 +54,38 @@ public interface Processor {
      */
     IngestDocument execute(IngestDocument ingestDocument) throws Exception;
 
+    /**
+     * Whether this processor supports {@link #executeBatch(IngestDocument[], Exception[])}. Pipelines that only consist of
+     * processors that support batch execution run the documents of a bulk request processor by processor rather than
+     * document by document.
+     *
+     * Only processors that execute synchronously may return <code>true</code>, which {@link AbstractProcessor} does for
+     * all of its subclasses that do not override {@link #execute(IngestDocument, BiConsumer)}.
+     */
+    default boolean supportsBatchExecution() {
+        return false;
+    }
+
+    /**
+     * Introspect and potentially modify a batch of documents. Each slot of <code>ingestDocuments</code> is replaced with
+     * the result of processing its document, which is <code>null</code> if the document should be dropped or if processing
+     * it failed, in which case the failure is set in the same slot of <code>failures</code>.
+     *
+     * Expert method: only override this method if a processor implementation can share work between the documents of a
+     * batch, otherwise just overwrite {@link #execute(IngestDocument)}. Only called if {@link #supportsBatchExecution()}
+     * returns <code>true</code>.
+     */
+    default void executeBatch(IngestDocument[] ingestDocuments, Exception[] failures) {
+        for (int i = 0; i < ingestDocuments.length; i++) {
+            try {
+                ingestDocuments[i] = execute(ingestDocuments[i]);
+            } catch (Exception e) {
+                ingestDocuments[i] = null;
+                failures[i] = e;
+            }
+        }
+    }
+
     /**
      * Gets the type of a processor
      */
@@ -21,9 +21,11 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsFilter;
 import org.elasticsearch.discovery.Discovery;
+import org.elasticsearch.gateway.GatewayMetaState;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.cluster.IndexCreationStatsTracker;
 import org.elasticsearch.ingest.IngestService;
 import org.elasticsearch.monitor.MonitorService;
 import org.elasticsearch.plugins.PluginsService;
@@ -52,6 +54,8 @@ public class NodeService implements Closeable {
     private final SearchTransportService searchTransportService;
     private final IndexingPressure indexingPressure;
     private final AggregationUsageService aggregationUsageService;
+    private final GatewayMetaState gatewayMetaState;
+    private final IndexCreationStatsTracker indexCreationStatsTracker;
 
     private final Discovery discovery;
 
@@ -61,7 +65,8 @@ public class NodeService implements Closeable {
                 @Nullable HttpServerTransport httpServerTransport, IngestService ingestService, ClusterService clusterService,
                 SettingsFilter settingsFilter, ResponseCollectorService responseCollectorService,
                 SearchTransportService searchTransportService, IndexingPressure indexingPressure,
-                AggregationUsageService aggregationUsageService) {
+                AggregationUsageService aggregationUsageService, GatewayMetaState gatewayMetaState,
+                IndexCreationStatsTracker indexCreationStatsTracker) {
         this.settings = settings;
         this.threadPool = threadPool;
         this.monitorService = monitorService;
@@ -78,6 +83,8 @@ public class NodeService implements Closeable {
         this.searchTransportService = searchTransportService;
         this.indexingPressure = indexingPressure;
         this.aggregationUsageService = aggregationUsageService;
+        this.gatewayMetaState = gatewayMetaState;
+        this.indexCreationStatsTracker = indexCreationStatsTracker;
         clusterService.addStateApplier(ingestService);
     }
 
@@ -101,7 +108,7 @@ public class NodeService implements Closeable {
     public NodeStats stats(CommonStatsFlags indices, boolean os, boolean process, boolean jvm, boolean threadPool,
                            boolean fs, boolean transport, boolean http, boolean circuitBreaker,
                            boolean script, boolean discoveryStats, boolean ingest, boolean adaptiveSelection, boolean scriptCache,
-                           boolean indexingPressure) {
+                           boolean indexingPressure, boolean startup) {
         // for indices stats we want to include previous allocated shards stats as well (it will
         // only be applied to the sensible ones to use, like refresh/merge/flush/indexing stats)
         return new NodeStats(transportService.getLocalNode(), System.currentTimeMillis(),
@@ -118,7 +125,8 @@ public class NodeService implements Closeable {
                 discoveryStats ? discovery.stats() : null,
                 ingest ? ingestService.stats() : null,
                 adaptiveSelection ? responseCollectorService.getAdaptiveStats(searchTransportService.getPendingSearchRequests()) : null,
-                indexingPressure ? this.indexingPressure.stats() : null);
+                indexingPressure ? this.indexingPressure.stats() : null,
+                startup ? indexCreationStatsTracker.stats(gatewayMetaState.getMetadataLoadTimeInMillis()) : null);
     }
 
     public IngestService getIngestService() {
@@ -0,0 +1,147 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.node;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * The time that a node spent loading its persisted metadata when it started, and creating the indices and shards that are allocated to
+ * it. The indices and shards are created whenever they are allocated to the node, but on a node that restarts with many shards the
+ * creation of the shards that it already held dominates these statistics.
+ */
+public class NodeStartupStats implements Writeable, ToXContentFragment {
+
+    private final long metadataLoadTimeInMillis;
+    private final long indexCount;
+    private final long indexCreationTimeInMillis;
+    private final long mappingTimeInMillis;
+    private final long shardCount;
+    private final long shardCreationTimeInMillis;
+
+    public NodeStartupStats(long metadataLoadTimeInMillis, long indexCount, long indexCreationTimeInMillis, long mappingTimeInMillis,
+                            long shardCount, long shardCreationTimeInMillis) {
+        this.metadataLoadTimeInMillis = metadataLoadTimeInMillis;
+        this.indexCount = indexCount;
+        this.indexCreationTimeInMillis = indexCreationTimeInMillis;
+        this.mappingTimeInMillis = mappingTimeInMillis;
+        this.shardCount = shardCount;
+        this.shardCreationTimeInMillis = shardCreationTimeInMillis;
+    }
+
+    public NodeStartupStats(StreamInput in) throws IOException {
+        metadataLoadTimeInMillis = in.readVLong();
+        indexCount = in.readVLong();
+        indexCreationTimeInMillis = in.readVLong();
+        mappingTimeInMillis = in.readVLong();
+        shardCount = in.readVLong();
+        shardCreationTimeInMillis = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(metadataLoadTimeInMillis);
+        out.writeVLong(indexCount);
+        out.writeVLong(indexCreationTimeInMillis);
+        out.writeVLong(mappingTimeInMillis);
+        out.writeVLong(shardCount);
+        out.writeVLong(shardCreationTimeInMillis);
+    }
+
+    /**
+     * The time it took to load the persisted metadata of the node.
+     */
+    public long getMetadataLoadTimeInMillis() {
+        return metadataLoadTimeInMillis;
+    }
+
+    /**
+     * The number of indices that were created on the node.
+     */
+    public long getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * The total time it took to create the indices, including parsing their mappings.
+     */
+    public long getIndexCreationTimeInMillis() {
+        return indexCreationTimeInMillis;
+    }
+
+    /**
+     * The part of the index creation time that was spent parsing the mappings of the new indices, which is done concurrently.
+     */
+    public long getMappingTimeInMillis() {
+        return mappingTimeInMillis;
+    }
+
+    /**
+     * The number of shards that were created on the node.
+     */
+    public long getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * The total time it took to create the shards, not including their recoveries.
+     */
+    public long getShardCreationTimeInMillis() {
+        return shardCreationTimeInMillis;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("startup");
+        builder.startObject("metadata");
+        builder.humanReadableField("load_time_in_millis", "load_time", new TimeValue(metadataLoadTimeInMillis));
+        builder.endObject();
+        builder.startObject("indices");
+        builder.field("count", indexCount);
+        builder.humanReadableField("creation_time_in_millis", "creation_time", new TimeValue(indexCreationTimeInMillis));
+        builder.humanReadableField("mapping_time_in_millis", "mapping_time", new TimeValue(mappingTimeInMillis));
+        builder.endObject();
+        builder.startObject("shards");
+        builder.field("count", shardCount);
+        builder.humanReadableField("creation_time_in_millis", "creation_time", new TimeValue(shardCreationTimeInMillis));
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NodeStartupStats that = (NodeStartupStats) o;
+        return metadataLoadTimeInMillis == that.metadataLoadTimeInMillis
+            && indexCount == that.indexCount
+            && indexCreationTimeInMillis == that.indexCreationTimeInMillis
+            && mappingTimeInMillis == that.mappingTimeInMillis
+            && shardCount == that.shardCount
+            && shardCreationTimeInMillis == that.shardCreationTimeInMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(metadataLoadTimeInMillis, indexCount, indexCreationTimeInMillis, mappingTimeInMillis, shardCount,
+            shardCreationTimeInMillis);
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest.action.search;
+
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.PipelineAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.InternalComposite;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MedianAbsoluteDeviationAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.NumericMetricsAggregation;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.WeightedAvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.pipeline.BucketScriptPipelineAggregationBuilder;
+import org.elasticsearch.search.aggregations.pipeline.BucketSelectorPipelineAggregationBuilder;
+import org.elasticsearch.search.aggregations.pipeline.BucketSortPipelineAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the hits and the composite aggregations of a {@link SearchResponse} in a binary columnar format rather than as
+ * {@link org.elasticsearch.common.xcontent.XContent}, which is what {@code format=columnar} on the search API returns. Instead of one
+ * object per hit and per bucket, the hits and the buckets of each composite aggregation are written as tables, split into batches of
+ * rows, and each batch stores the values of a column next to each other. Batches are self delimited so that clients can decode them
+ * as they are received:
+ * <pre>
+ * response := "ESCR" version:vint took_in_millis:vlong timed_out:boolean total_shards:vint successful_shards:vint
+ *             skipped_shards:vint failed_shards:vint scroll_id:optional_string total_hits:optional(value:vlong relation:byte)
+ *             (true table)* false
+ * table    := name:string (row_count:vint column_count:vint column{column_count})* 0:vint
+ * column   := name:string type:byte value_count:vint{row_count} value*
+ * </pre>
+ * The hits table is named {@code hits} and has the {@code _index}, {@code _id} and {@code _score} columns followed by a column for each
+ * of the {@code fields}, {@code docvalue_fields} and stored fields of the hits. A composite aggregation table has a column for each of
+ * its sources, a {@code _count} column and a column for each single value numeric metric sub-aggregation. Each row can have any number
+ * of values in a column, {@code 0} when the hit has no value for a field. Values are written back to back per column, longs and doubles
+ * on 8 bytes, booleans on 1 byte and strings as their vint length followed by their utf-8 bytes.
+ */
+public final class ColumnarSearchResponseWriter {
+
+    public static final String FORMAT = "columnar";
+    public static final String CONTENT_TYPE = "application/vnd.elasticsearch.columnar";
+
+    static final int VERSION = 1;
+    static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final byte[] MAGIC = "ESCR".getBytes(StandardCharsets.US_ASCII);
+
+    private ColumnarSearchResponseWriter() {}
+
+    /**
+     * The type of the values of a column.
+     */
+    enum ColumnType {
+        LONG((byte) 0) {
+            @Override
+            void writeValue(StreamOutput out, Object value) throws IOException {
+                out.writeLong(((Number) value).longValue());
+            }
+        },
+        DOUBLE((byte) 1) {
+            @Override
+            void writeValue(StreamOutput out, Object value) throws IOException {
+                out.writeDouble(((Number) value).doubleValue());
+            }
+        },
+        BOOLEAN((byte) 2) {
+            @Override
+            void writeValue(StreamOutput out, Object value) throws IOException {
+                out.writeBoolean((Boolean) value);
+            }
+        },
+        STRING((byte) 3) {
+            @Override
+            void writeValue(StreamOutput out, Object value) throws IOException {
+                out.writeBytesRef(value instanceof BytesRef ? (BytesRef) value : new BytesRef(value.toString()));
+            }
+        };
+
+        final byte id;
+
+        ColumnType(byte id) {
+            this.id = id;
+        }
+
+        abstract void writeValue(StreamOutput out, Object value) throws IOException;
+
+        static ColumnType of(String field, Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return LONG;
+            } else if (value instanceof Number) {
+                return DOUBLE;
+            } else if (value instanceof Boolean) {
+                return BOOLEAN;
+            } else if (value instanceof Map || value instanceof List) {
+                throw new IllegalArgumentException("field [" + field + "] has object values which the [" + FORMAT
+                    + "] format doesn't support");
+            }
+            return STRING;
+        }
+
+        /**
+         * The type of a column that has values of both types, {@code null} standing for a column without values so far.
+         */
+        static ColumnType merge(ColumnType a, ColumnType b) {
+            if (a == null || a == b) {
+                return b;
+            } else if (b == null) {
+                return a;
+            } else if ((a == LONG || a == DOUBLE) && (b == LONG || b == DOUBLE)) {
+                return DOUBLE;
+            }
+            return STRING;
+        }
+    }
+
+    /**
+     * The types of the sub-aggregations of composite aggregations that this format supports: single value numeric metrics and the
+     * pipeline aggregations that compute such a metric or select or sort the buckets.
+     */
+    private static final Set<String> SUPPORTED_SUB_AGGREGATIONS = Set.of(
+        AvgAggregationBuilder.NAME,
+        CardinalityAggregationBuilder.NAME,
+        MaxAggregationBuilder.NAME,
+        MedianAbsoluteDeviationAggregationBuilder.NAME,
+        MinAggregationBuilder.NAME,
+        SumAggregationBuilder.NAME,
+        ValueCountAggregationBuilder.NAME,
+        WeightedAvgAggregationBuilder.NAME,
+        BucketScriptPipelineAggregationBuilder.NAME,
+        BucketSelectorPipelineAggregationBuilder.NAME,
+        BucketSortPipelineAggregationBuilder.NAME
+    );
+
+    /**
+     * Checks that the response to a search with the given source can be written in this format, so that searches that can't fail
+     * before they run rather than once their response is rendered.
+     */
+    public static void validate(@Nullable SearchSourceBuilder source) {
+        if (source == null) {
+            return;
+        }
+        if (source.suggest() != null) {
+            throw new IllegalArgumentException("the [" + FORMAT + "] format doesn't support suggestions");
+        }
+        if (source.profile()) {
+            throw new IllegalArgumentException("the [" + FORMAT + "] format doesn't support profiling");
+        }
+        if (source.aggregations() == null) {
+            return;
+        }
+        for (PipelineAggregationBuilder pipeline : source.aggregations().getPipelineAggregatorFactories()) {
+            throw unsupportedAggregation(pipeline.getName(), pipeline.getType());
+        }
+        for (AggregationBuilder aggregation : source.aggregations().getAggregatorFactories()) {
+            if (aggregation instanceof CompositeAggregationBuilder == false) {
+                throw unsupportedAggregation(aggregation.getName(), aggregation.getType());
+            }
+            for (AggregationBuilder sub : aggregation.getSubAggregations()) {
+                if (SUPPORTED_SUB_AGGREGATIONS.contains(sub.getType()) == false) {
+                    throw unsupportedSubAggregation(sub.getName(), sub.getType());
+                }
+            }
+            for (PipelineAggregationBuilder sub : aggregation.getPipelineAggregations()) {
+                if (SUPPORTED_SUB_AGGREGATIONS.contains(sub.getType()) == false) {
+                    throw unsupportedSubAggregation(sub.getName(), sub.getType());
+                }
+            }
+        }
+    }
+
+    private static IllegalArgumentException unsupportedAggregation(String name, String type) {
+        return new IllegalArgumentException("aggregation [" + name + "] of type [" + type + "] isn't supported by the [" + FORMAT
+            + "] format, only [composite] aggregations are");
+    }
+
+    private static IllegalArgumentException unsupportedSubAggregation(String name, String type) {
+        return new IllegalArgumentException("sub-aggregation [" + name + "] of type [" + type + "] isn't supported by the [" + FORMAT
+            + "] format, only single value numeric metrics are");
+    }
+
+    public static void writeTo(SearchResponse response, StreamOutput out) throws IOException {
+        writeTo(response, DEFAULT_BATCH_SIZE, out);
+    }
+
+    static void writeTo(SearchResponse response, int batchSize, StreamOutput out) throws IOException {
+        if (response.getSuggest() != null) {
+            throw new IllegalArgumentException("the [" + FORMAT + "] format doesn't support suggestions");
+        }
+        if (response.getProfileResults() != null && response.getProfileResults().isEmpty() == false) {
+            throw new IllegalArgumentException("the [" + FORMAT + "] format doesn't support profiling");
+        }
+        out.writeBytes(MAGIC);
+        out.writeVInt(VERSION);
+        out.writeVLong(response.getTook().millis());
+        out.writeBoolean(response.isTimedOut());
+        out.writeVInt(response.getTotalShards());
+        out.writeVInt(response.getSuccessfulShards());
+        out.writeVInt(response.getSkippedShards());
+        out.writeVInt(response.getFailedShards());
+        out.writeOptionalString(response.getScrollId());
+        final SearchHits hits = response.getHits();
+        final TotalHits totalHits = hits.getTotalHits();
+        out.writeBoolean(totalHits != null);
+        if (totalHits != null) {
+            out.writeVLong(totalHits.value);
+            out.writeByte((byte) totalHits.relation.ordinal());
+        }
+
+        out.writeBoolean(true);
+        out.writeString("hits");
+        final SearchHit[] searchHits = hits.getHits();
+        for (int from = 0; from < searchHits.length; from += batchSize) {
+            writeHits(searchHits, from, Math.min(searchHits.length, from + batchSize), out);
+        }
+        out.writeVInt(0);
+
+        final Aggregations aggregations = response.getAggregations();
+        if (aggregations != null) {
+            for (Aggregation aggregation : aggregations) {
+                if (aggregation instanceof InternalComposite == false) {
+                    throw unsupportedAggregation(aggregation.getName(), aggregation.getType());
+                }
+                final InternalComposite composite = (InternalComposite) aggregation;
+                final List<InternalComposite.InternalBucket> buckets = composite.getBuckets();
+                out.writeBoolean(true);
+                out.writeString(composite.getName());
+                for (int from = 0; from < buckets.size(); from += batchSize) {
+                    writeBuckets(composite, buckets.subList(from, Math.min(buckets.size(), from + batchSize)), out);
+                }
+                out.writeVInt(0);
+            }
+        }
+        out.writeBoolean(false);
+    }
+
+    private static void writeHits(SearchHit[] hits, int from, int to, StreamOutput out) throws IOException {
+        // the fields of the hits of a batch decide its columns, in the order they are first seen
+        final Map<String, ColumnType> fields = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            for (DocumentField field : hits[i].getFields().values()) {
+                ColumnType type = fields.get(field.getName());
+                for (Object value : field.getValues()) {
+                    type = ColumnType.merge(type, ColumnType.of(field.getName(), value));
+                }
+                fields.put(field.getName(), type);
+            }
+        }
+        out.writeVInt(to - from);
+        out.writeVInt(3 + fields.size());
+
+        writeColumnHeader("_index", ColumnType.STRING, out);
+        for (int i = from; i < to; i++) {
+            out.writeVInt(hits[i].getIndex() == null ? 0 : 1);
+        }
+        for (int i = from; i < to; i++) {
+            if (hits[i].getIndex() != null) {
+                ColumnType.STRING.writeValue(out, hits[i].getIndex());
+            }
+        }
+
+        writeColumnHeader("_id", ColumnType.STRING, out);
+        for (int i = from; i < to; i++) {
+            out.writeVInt(hits[i].getId() == null ? 0 : 1);
+        }
+        for (int i = from; i < to; i++) {
+            if (hits[i].getId() != null) {
+                ColumnType.STRING.writeValue(out, hits[i].getId());
+            }
+        }
+
+        writeColumnHeader("_score", ColumnType.DOUBLE, out);
+        for (int i = from; i < to; i++) {
+            out.writeVInt(Float.isNaN(hits[i].getScore()) ? 0 : 1);
+        }
+        for (int i = from; i < to; i++) {
+            if (Float.isNaN(hits[i].getScore()) == false) {
+                out.writeDouble(hits[i].getScore());
+            }
+        }
+
+        for (Map.Entry<String, ColumnType> entry : fields.entrySet()) {
+            final String name = entry.getKey();
+            final ColumnType type = entry.getValue() == null ? ColumnType.STRING : entry.getValue();
+            writeColumnHeader(name, type, out);
+            for (int i = from; i < to; i++) {
+                final DocumentField field = hits[i].field(name);
+                out.writeVInt(field == null ? 0 : field.getValues().size());
+            }
+            for (int i = from; i < to; i++) {
+                final DocumentField field = hits[i].field(name);
+                if (field != null) {
+                    for (Object value : field.getValues()) {
+                        type.writeValue(out, value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeBuckets(InternalComposite composite, List<InternalComposite.InternalBucket> buckets,
+                                     StreamOutput out) throws IOException {
+        final List<String> sourceNames = composite.getSourceNames();
+        // the sub-aggregations of the first bucket decide the metric columns since all buckets have the same ones
+        final List<String> metrics = new ArrayList<>();
+        for (Aggregation aggregation : buckets.get(0).getAggregations()) {
+            if (aggregation instanceof NumericMetricsAggregation.SingleValue == false) {
+                throw unsupportedSubAggregation(aggregation.getName(), aggregation.getType());
+            }
+            metrics.add(aggregation.getName());
+        }
+        out.writeVInt(buckets.size());
+        out.writeVInt(sourceNames.size() + 1 + metrics.size());
+
+        for (int pos = 0; pos < sourceNames.size(); pos++) {
+            ColumnType type = null;
+            for (InternalComposite.InternalBucket bucket : buckets) {
+                final Object value = bucket.getKeyValue(pos);
+                if (value != null) {
+                    type = ColumnType.merge(type, ColumnType.of(sourceNames.get(pos), value));
+                }
+            }
+            type = type == null ? ColumnType.STRING : type;
+            writeColumnHeader(sourceNames.get(pos), type, out);
+            for (InternalComposite.InternalBucket bucket : buckets) {
+                out.writeVInt(bucket.getKeyValue(pos) == null ? 0 : 1);
+            }
+            for (InternalComposite.InternalBucket bucket : buckets) {
+                final Object value = bucket.getKeyValue(pos);
+                if (value != null) {
+                    type.writeValue(out, value);
+                }
+            }
+        }
+
+        writeColumnHeader("_count", ColumnType.LONG, out);
+        for (int i = 0; i < buckets.size(); i++) {
+            out.writeVInt(1);
+        }
+        for (InternalComposite.InternalBucket bucket : buckets) {
+            out.writeLong(bucket.getDocCount());
+        }
+
+        for (String metric : metrics) {
+            writeColumnHeader(metric, ColumnType.DOUBLE, out);
+            for (int i = 0; i < buckets.size(); i++) {
+                out.writeVInt(1);
+            }
+            for (InternalComposite.InternalBucket bucket : buckets) {
+                final Aggregation aggregation = bucket.getAggregations().get(metric);
+                if (aggregation instanceof NumericMetricsAggregation.SingleValue == false) {
+                    throw new IllegalArgumentException("sub-aggregation [" + metric
+                        + "] isn't a single value numeric metric in all buckets");
+                }
+                out.writeDouble(((NumericMetricsAggregation.SingleValue) aggregation).value());
+            }
+        }
+    }
+
+    private static void writeColumnHeader(String name, ColumnType type, StreamOutput out) throws IOException {
+        out.writeString(name);
+        out.writeByte(type.id);
+    }
+}
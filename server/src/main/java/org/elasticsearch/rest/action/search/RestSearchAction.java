@@ -14,19 +14,25 @@ import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchContextId;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.RestApiVersion;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.logging.DeprecationLogger;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.action.RestActions;
 import org.elasticsearch.rest.action.RestCancellableNodeClient;
+import org.elasticsearch.rest.action.RestResponseListener;
 import org.elasticsearch.rest.action.RestStatusToXContentListener;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchService;
@@ -112,9 +118,14 @@ public class RestSearchAction extends BaseRestHandler {
         request.withContentOrSourceParamParserOrNull(parser ->
             parseSearchRequest(searchRequest, request, parser, client.getNamedWriteableRegistry(), setSize));
 
+        final boolean columnar = ColumnarSearchResponseWriter.FORMAT.equals(request.param("format"));
+        if (columnar) {
+            ColumnarSearchResponseWriter.validate(searchRequest.source());
+        }
         return channel -> {
             RestCancellableNodeClient cancelClient = new RestCancellableNodeClient(client, request.getHttpChannel());
-            cancelClient.execute(SearchAction.INSTANCE, searchRequest, new RestStatusToXContentListener<>(channel));
+            cancelClient.execute(SearchAction.INSTANCE, searchRequest,
+                columnar ? new RestColumnarSearchResponseListener(channel) : new RestStatusToXContentListener<>(channel));
         };
     }
 
@@ -144,6 +155,7 @@ public class RestSearchAction extends BaseRestHandler {
 
         final int batchedReduceSize = request.paramAsInt("batched_reduce_size", searchRequest.getBatchedReduceSize());
         searchRequest.setBatchedReduceSize(batchedReduceSize);
+        searchRequest.setStreamingReduce(request.paramAsBoolean("streaming_reduce", searchRequest.isStreamingReduce()));
         if (request.hasParam("pre_filter_shard_size")) {
             searchRequest.setPreFilterShardSize(request.paramAsInt("pre_filter_shard_size", SearchRequest.DEFAULT_PRE_FILTER_SHARD_SIZE));
         }
@@ -356,6 +368,23 @@ public class RestSearchAction extends BaseRestHandler {
         }
     }
 
+    /**
+     * Sends search responses in the format of the {@link ColumnarSearchResponseWriter}.
+     */
+    static class RestColumnarSearchResponseListener extends RestResponseListener<SearchResponse> {
+
+        RestColumnarSearchResponseListener(RestChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public RestResponse buildResponse(SearchResponse response) throws Exception {
+            final BytesStreamOutput out = channel.bytesOutput();
+            ColumnarSearchResponseWriter.writeTo(response, out);
+            return new BytesRestResponse(response.status(), ColumnarSearchResponseWriter.CONTENT_TYPE, out.bytes());
+        }
+    }
+
     @Override
     protected Set<String> responseParams() {
         return RESPONSE_PARAMS;
@@ -30,6 +30,7 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.search.NestedHelper;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
 import org.elasticsearch.search.collapse.CollapseContext;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -61,6 +62,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.LongSupplier;
 
 final class DefaultSearchContext extends SearchContext {
@@ -81,6 +83,7 @@ final class DefaultSearchContext extends SearchContext {
     private TimeValue timeout;
     // terminate after count
     private int terminateAfter = DEFAULT_TERMINATE_AFTER;
+    private IndicesSegmentCountCache segmentCountCache;
     private List<String> groupStats;
     private boolean explain;
     private boolean version = false; // by default, we don't return versions
@@ -134,7 +137,8 @@ final class DefaultSearchContext extends SearchContext {
                          LongSupplier relativeTimeSupplier,
                          TimeValue timeout,
                          FetchPhase fetchPhase,
-                         boolean lowLevelCancellation) throws IOException {
+                         boolean lowLevelCancellation,
+                         @Nullable Executor concurrentSearchExecutor) throws IOException {
         this.readerContext = readerContext;
         this.request = request;
         this.fetchPhase = fetchPhase;
@@ -148,7 +152,7 @@ final class DefaultSearchContext extends SearchContext {
 
         Engine.Searcher engineSearcher = readerContext.acquireSearcher("search");
         this.searcher = new ContextIndexSearcher(engineSearcher.getIndexReader(), engineSearcher.getSimilarity(),
-            engineSearcher.getQueryCache(), engineSearcher.getQueryCachingPolicy(), lowLevelCancellation);
+            engineSearcher.getQueryCache(), engineSearcher.getQueryCachingPolicy(), lowLevelCancellation, concurrentSearchExecutor);
         releasables.addAll(List.of(engineSearcher, searcher));
 
         this.relativeTimeSupplier = relativeTimeSupplier;
@@ -463,6 +467,16 @@ final class DefaultSearchContext extends SearchContext {
         this.terminateAfter = terminateAfter;
     }
 
+    @Override
+    public IndicesSegmentCountCache segmentCountCache() {
+        return segmentCountCache;
+    }
+
+    @Override
+    public void segmentCountCache(IndicesSegmentCountCache segmentCountCache) {
+        this.segmentCountCache = segmentCountCache;
+    }
+
     @Override
     public SearchContext minimumScore(float minimumScore) {
         this.minimumScore = minimumScore;
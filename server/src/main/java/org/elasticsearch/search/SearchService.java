@@ -61,6 +61,7 @@ import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
@@ -155,6 +156,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     public static final Setting<Boolean> LOW_LEVEL_CANCELLATION_SETTING =
         Setting.boolSetting("search.low_level_cancellation", true, Property.Dynamic, Property.NodeScope);
 
+    /**
+     * Enables searching slices of segments of a shard concurrently on the {@link Names#SEARCH_WORKER} thread pool. Only requests
+     * that collect top hits without aggregations, post filters, scroll, collapsing or profiling take advantage of it.
+     */
+    public static final Setting<Boolean> CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING =
+        Setting.boolSetting("search.concurrent_segment_search.enabled", false, Property.Dynamic, Property.NodeScope);
+
     public static final TimeValue NO_TIMEOUT = timeValueMillis(-1);
     public static final Setting<TimeValue> DEFAULT_SEARCH_TIMEOUT_SETTING =
         Setting.timeSetting("search.default_search_timeout", NO_TIMEOUT, Property.Dynamic, Property.NodeScope);
@@ -195,6 +203,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private volatile boolean lowLevelCancellation;
 
+    private volatile boolean concurrentSegmentSearchEnabled;
+
     private volatile int maxOpenScrollContext;
 
     private final Cancellable keepAliveReaper;
@@ -243,6 +253,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
         lowLevelCancellation = LOW_LEVEL_CANCELLATION_SETTING.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(LOW_LEVEL_CANCELLATION_SETTING, this::setLowLevelCancellation);
+
+        concurrentSegmentSearchEnabled = CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING,
+            this::setConcurrentSegmentSearchEnabled);
     }
 
     private void validateKeepAlives(TimeValue defaultKeepAlive, TimeValue maxKeepAlive) {
@@ -279,6 +293,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.lowLevelCancellation = lowLevelCancellation;
     }
 
+    private void setConcurrentSegmentSearchEnabled(boolean concurrentSegmentSearchEnabled) {
+        this.concurrentSegmentSearchEnabled = concurrentSegmentSearchEnabled;
+    }
+
     @Override
     public void afterIndexRemoved(Index index, IndexSettings indexSettings, IndexRemovalReason reason) {
         // once an index is removed due to deletion or closing, we can just clean up all the pending search context information
@@ -776,7 +794,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             SearchShardTarget shardTarget = new SearchShardTarget(clusterService.localNode().getId(),
                 reader.indexShard().shardId(), request.getClusterAlias(), OriginalIndices.NONE);
             searchContext = new DefaultSearchContext(reader, request, shardTarget,
-                threadPool::relativeTimeInMillis, timeout, fetchPhase, lowLevelCancellation);
+                threadPool::relativeTimeInMillis, timeout, fetchPhase, lowLevelCancellation,
+                concurrentSegmentSearchEnabled ? threadPool.executor(Names.SEARCH_WORKER) : null);
+            if (reader.indexShard().indexSettings().getValue(IndicesSegmentCountCache.INDEX_SEGMENT_COUNT_CACHE_ENABLED_SETTING)) {
+                searchContext.segmentCountCache(indicesService.getIndicesSegmentCountCache());
+            }
             // we clone the query shard context here just for rewriting otherwise we
             // might end up with incorrect state since we are using now() or script services
             // during rewrite and normalized / evaluate templates etc.
@@ -961,6 +983,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                  * delay reading it until the aggs ask for it.
                  */
                 () -> context.query() == null ? new MatchAllDocsQuery() : context.query(),
+                QueryPhase.hasFilterCollector(context),
                 context.getProfilers() == null ? null : context.getProfilers().getAggregationProfiler(),
                 multiBucketConsumerService.create(),
                 () -> new SubSearchContext(context).parsedQuery(context.parsedQuery()).fetchFieldsContext(context.fetchFieldsContext()),
@@ -129,6 +129,13 @@ public class InternalComposite
         return formats;
     }
 
+    /**
+     * The names of the sources, in the order of the values of the bucket keys.
+     */
+    public List<String> getSourceNames() {
+        return sourceNames;
+    }
+
     @Override
     public Map<String, Object> afterKey() {
         if (afterKey != null) {
@@ -323,6 +330,19 @@ public class InternalComposite
             return key;
         }
 
+        /**
+         * The value of the key of the source at the given position, formatted like the values of {@link #getKey()} except
+         * that unformatted {@link BytesRef} values are returned as is rather than as strings. Unlike {@link #getKey()}, this
+         * doesn't build a map so that consumers that read the keys of many buckets don't allocate one per bucket.
+         */
+        public Object getKeyValue(int pos) {
+            final Comparable value = key.get(pos);
+            if (value instanceof BytesRef && formats.get(pos) == DocValueFormat.RAW) {
+                return value;
+            }
+            return formatObject(value, formats.get(pos));
+        }
+
         @Override
         public String getKeyAsString() {
             StringBuilder builder = new StringBuilder();
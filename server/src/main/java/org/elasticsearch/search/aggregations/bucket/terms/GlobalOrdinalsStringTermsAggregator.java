@@ -9,9 +9,13 @@
 package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.PriorityQueue;
@@ -250,14 +254,29 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
      * for each match.This is beneficial for low cardinality fields, because
      * it can reduce the amount of look-ups significantly.
      * <p>
+     * Counts are kept per owning bucket and segment ordinal, so this works
+     * under any parent as long as the number of owning buckets times the
+     * number of ordinals stays small. At the top level, segments that the
+     * top level query matches entirely aren't collected at all. Instead, we
+     * count the documents of each ordinal from the postings of the field.
+     * <p>
      * This is only supported for the standard {@code terms} aggregation and
      * doesn't support {@code significant_terms} so this forces
      * {@link StandardTermsResults}.
      */
     static class LowCardinality extends GlobalOrdinalsStringTermsAggregator {
 
+        private final String fieldToCountFromPostings;
+        private final double mappingCostRatio;
         private LongUnaryOperator mapping;
         private LongArray segmentDocCounts;
+        /**
+         * The number of slots each owning bucket takes in {@link #segmentDocCounts}
+         * for the segment we're collecting.
+         */
+        private long segmentOrdsPerOwningBucket;
+        private int segmentsCounted;
+        private int segmentsCollected;
 
         LowCardinality(
             String name,
@@ -273,6 +292,9 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
             boolean remapGlobalOrds,
             SubAggCollectionMode collectionMode,
             boolean showTermDocCountError,
+            CardinalityUpperBound cardinality,
+            String fieldToCountFromPostings,
+            double mappingCostRatio,
             Map<String, Object> metadata
         ) throws IOException {
             super(
@@ -290,10 +312,12 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
                 remapGlobalOrds,
                 collectionMode,
                 showTermDocCountError,
-                CardinalityUpperBound.ONE,
+                cardinality,
                 metadata
             );
             assert factories == null || factories.countAggregators() == 0;
+            this.fieldToCountFromPostings = fieldToCountFromPostings;
+            this.mappingCostRatio = mappingCostRatio;
             this.segmentDocCounts = context.bigArrays().newLongArray(1, true);
         }
 
@@ -303,42 +327,85 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
                 mapSegmentCountsToGlobalCounts(mapping);
             }
             final SortedSetDocValues segmentOrds = valuesSource.ordinalsValues(ctx);
-            segmentDocCounts = bigArrays().grow(segmentDocCounts, 1 + segmentOrds.getValueCount());
+            segmentOrdsPerOwningBucket = 1 + segmentOrds.getValueCount();
+            segmentDocCounts = bigArrays().grow(segmentDocCounts, segmentOrdsPerOwningBucket);
             assert sub.isNoop();
             final SortedDocValues singleValues = DocValues.unwrapSingleton(segmentOrds);
             mapping = valuesSource.globalOrdinalsMapping(ctx);
-            // Dense mode doesn't support include/exclude so we don't have to check it here.
             if (singleValues != null) {
                 segmentsWithSingleValuedOrds++;
+            } else {
+                segmentsWithMultiValuedOrds++;
+            }
+            if (countFromPostings(ctx, segmentOrds)) {
+                segmentsCounted++;
+                return LeafBucketCollector.NO_OP_COLLECTOR;
+            }
+            segmentsCollected++;
+            // Dense mode doesn't support include/exclude so we don't have to check it here.
+            if (singleValues != null) {
                 return resultStrategy.wrapCollector(new LeafBucketCollectorBase(sub, segmentOrds) {
                     @Override
                     public void collect(int doc, long owningBucketOrd) throws IOException {
-                        assert owningBucketOrd == 0;
                         if (false == singleValues.advanceExact(doc)) {
                             return;
                         }
                         int ord = singleValues.ordValue();
                         int docCount = docCountProvider.getDocCount(doc);
-                        segmentDocCounts.increment(ord + 1, docCount);
+                        segmentDocCounts.increment(segmentSlot(owningBucketOrd, ord), docCount);
                     }
                 });
             }
-            segmentsWithMultiValuedOrds++;
             return resultStrategy.wrapCollector(new LeafBucketCollectorBase(sub, segmentOrds) {
                 @Override
                 public void collect(int doc, long owningBucketOrd) throws IOException {
-                    assert owningBucketOrd == 0;
                     if (false == segmentOrds.advanceExact(doc)) {
                         return;
                     }
                     for (long segmentOrd = segmentOrds.nextOrd(); segmentOrd != NO_MORE_ORDS; segmentOrd = segmentOrds.nextOrd()) {
                         int docCount = docCountProvider.getDocCount(doc);
-                        segmentDocCounts.increment(segmentOrd + 1, docCount);
+                        segmentDocCounts.increment(segmentSlot(owningBucketOrd, segmentOrd), docCount);
                     }
                 }
             });
         }
 
+        /**
+         * Count the documents of each segment ordinal from the postings if the
+         * top level query matches every document in the segment and each
+         * document counts once.
+         */
+        private boolean countFromPostings(LeafReaderContext ctx, SortedSetDocValues segmentOrds) throws IOException {
+            if (fieldToCountFromPostings == null || ctx.reader().hasDeletions() || false == docCountProvider.alwaysOne()) {
+                return false;
+            }
+            FieldInfo info = ctx.reader().getFieldInfos().fieldInfo(fieldToCountFromPostings);
+            if (info == null || info.getIndexOptions() == IndexOptions.NONE) {
+                // The values only live in doc values so we have to collect them.
+                return false;
+            }
+            Terms terms = ctx.reader().terms(fieldToCountFromPostings);
+            if (terms == null) {
+                return segmentOrds.getValueCount() == 0;
+            }
+            TermsEnum postings = terms.iterator();
+            for (long ord = 0; ord < segmentOrds.getValueCount(); ord++) {
+                if (postings.seekExact(segmentOrds.lookupOrd(ord))) {
+                    segmentDocCounts.increment(ord + 1, postings.docFreq());
+                }
+            }
+            return true;
+        }
+
+        private long segmentSlot(long owningBucketOrd, long segmentOrd) {
+            // The first slot of each owning bucket is unused so we do +1 here.
+            long slot = owningBucketOrd * segmentOrdsPerOwningBucket + segmentOrd + 1;
+            if (slot >= segmentDocCounts.size()) {
+                segmentDocCounts = bigArrays().grow(segmentDocCounts, slot + 1);
+            }
+            return slot;
+        }
+
         @Override
         protected void doPostCollection() throws IOException {
             if (mapping != null) {
@@ -347,6 +414,14 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
             }
         }
 
+        @Override
+        public void collectDebugInfo(BiConsumer<String, Object> add) {
+            super.collectDebugInfo(add);
+            add.accept("segments_counted", segmentsCounted);
+            add.accept("segments_collected", segmentsCollected);
+            add.accept("mapping_cost_ratio", mappingCostRatio);
+        }
+
         @Override
         protected void doClose() {
             Releasables.close(resultStrategy, segmentDocCounts, collectionStrategy);
@@ -360,9 +435,10 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
                 if (inc == 0) {
                     continue;
                 }
-                long ord = i - 1; // remember we do +1 when counting
+                long owningBucketOrd = i / segmentOrdsPerOwningBucket;
+                long ord = i % segmentOrdsPerOwningBucket - 1; // remember we do +1 when counting
                 long globalOrd = mapping.applyAsLong(ord);
-                incrementBucketDocCount(collectionStrategy.globalOrdToBucketOrd(0, globalOrd), inc);
+                incrementBucketDocCount(collectionStrategy.globalOrdToBucketOrd(owningBucketOrd, globalOrd), inc);
             }
         }
     }
@@ -402,7 +478,8 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
          */
         abstract void collectGlobalOrd(long owningBucketOrd, int doc, long globalOrd, LeafBucketCollector sub) throws IOException;
         /**
-         * Convert a global ordinal into a bucket ordinal.
+         * Convert a global ordinal into a bucket ordinal, adding the bucket
+         * if it doesn't exist yet.
          */
         abstract long globalOrdToBucketOrd(long owningBucketOrd, long globalOrd);
         /**
@@ -507,7 +584,8 @@ public class GlobalOrdinalsStringTermsAggregator extends AbstractStringTermsAggr
 
         @Override
         long globalOrdToBucketOrd(long owningBucketOrd, long globalOrd) {
-            return bucketOrds.find(owningBucketOrd, globalOrd);
+            long bucketOrd = bucketOrds.add(owningBucketOrd, globalOrd);
+            return bucketOrd < 0 ? -1 - bucketOrd : bucketOrd;
         }
 
         @Override
@@ -0,0 +1,407 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Merges the shard results of a {@link StringTerms} or {@link LongTerms} aggregation that has no sub-aggregations into
+ * hashes and arrays allocated with {@link BigArrays} as the results arrive, rather than materializing a list of buckets on
+ * every partial reduce. {@link #build()} returns the same aggregation as a partial reduce of all the accepted results
+ * would.
+ * <p>
+ * When the aggregation is sorted by descending doc count, the accumulated terms are continuously pruned to the
+ * {@code shard_size} terms with the highest counts, the same way each shard prunes its own results. The counts of the
+ * pruned terms are added to the {@code sum_other_doc_count} and the highest pruned count is added to the doc count error,
+ * since a pruned term that shows up again in a later result may be missing at most that many documents.
+ * <p>
+ * This class is not thread-safe.
+ */
+public abstract class StreamingTermsReducer<A extends InternalMappedTerms<A, B>, B extends InternalTerms.Bucket<B>>
+    implements Releasable {
+
+    /**
+     * Returns a reducer that is initialized with the provided shard aggregation, or {@code null} if aggregations of this
+     * type cannot be merged incrementally.
+     */
+    public static StreamingTermsReducer<?, ?> create(InternalAggregation aggregation, BigArrays bigArrays) {
+        final StreamingTermsReducer<?, ?> reducer;
+        if (aggregation instanceof StringTerms) {
+            reducer = new ForStrings((StringTerms) aggregation, bigArrays);
+        } else if (aggregation instanceof LongTerms) {
+            reducer = new ForLongs((LongTerms) aggregation, bigArrays);
+        } else {
+            return null;
+        }
+        if (reducer.accept(aggregation) == false) {
+            reducer.close();
+            return null;
+        }
+        return reducer;
+    }
+
+    private static boolean hasSubAggregations(InternalTerms<?, ?> terms) {
+        for (InternalTerms.Bucket<?> bucket : terms.getBuckets()) {
+            if (bucket.aggregations.asList().isEmpty() == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected final BigArrays bigArrays;
+    private final Class<A> type;
+    /**
+     * A copy of the first accepted aggregation without buckets that is used to build the reduced aggregation.
+     */
+    protected final A prototype;
+    private final boolean prune;
+    private BucketOrder reduceOrder;
+    private LongArray docCounts;
+    private LongArray docCountErrors;
+    private long sumDocCountError = 0;
+    private long otherDocCount = 0;
+    private int numAggregations = 0;
+
+    private StreamingTermsReducer(Class<A> type, A first, BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        this.type = type;
+        this.prototype = first.create(first.getName(), Collections.emptyList(), first.getReduceOrder(), 0, 0);
+        this.prune = InternalOrder.isCountDesc(first.getOrder());
+        this.reduceOrder = InternalOrder.key(true);
+        boolean success = false;
+        try {
+            docCounts = bigArrays.newLongArray(1, false);
+            docCountErrors = bigArrays.newLongArray(1, false);
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Merges the provided shard aggregation into this reducer. Returns {@code false} without modifying this reducer if the
+     * aggregation cannot be merged, in which case the caller should {@link #build()} this reducer and reduce the result
+     * together with the aggregation.
+     */
+    public boolean accept(InternalAggregation aggregation) {
+        if (aggregation instanceof UnmappedTerms) {
+            // unmapped terms have no buckets, they only count as an additional aggregation to reduce
+            numAggregations++;
+            return true;
+        }
+        if (type.isInstance(aggregation) == false) {
+            return false;
+        }
+        A terms = type.cast(aggregation);
+        if (hasSubAggregations(terms)) {
+            return false;
+        }
+        if (terms.getBuckets().isEmpty() == false && InternalOrder.isKeyOrder(terms.getReduceOrder())) {
+            reduceOrder = InternalOrder.key(InternalOrder.isKeyAsc(terms.getReduceOrder()));
+        }
+        final long thisAggDocCountError = prototype.getDocCountError(terms);
+        if (sumDocCountError != -1) {
+            sumDocCountError = thisAggDocCountError == -1 ? -1 : sumDocCountError + thisAggDocCountError;
+        }
+        otherDocCount += terms.getSumOfOtherDocCounts();
+        for (B bucket : terms.getBuckets()) {
+            // same rules as AbstractInternalTerms#reduceBucket for the error of the buckets that have the term
+            final long bucketDocCountError = bucket.showDocCountError ? bucket.docCountError - thisAggDocCountError : -1;
+            long ord = add(bucket);
+            if (ord < 0) {
+                ord = -1 - ord;
+                docCounts.increment(ord, bucket.getDocCount());
+                long current = docCountErrors.get(ord);
+                if (current != -1) {
+                    docCountErrors.set(ord, bucketDocCountError == -1 ? -1 : current + bucketDocCountError);
+                }
+            } else {
+                docCounts = bigArrays.grow(docCounts, ord + 1);
+                docCountErrors = bigArrays.grow(docCountErrors, ord + 1);
+                docCounts.set(ord, bucket.getDocCount());
+                docCountErrors.set(ord, bucketDocCountError);
+            }
+        }
+        numAggregations++;
+        if (prune && size() > 2L * prototype.getShardSize()) {
+            prune();
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the {@code shard_size} terms with the highest counts.
+     */
+    private void prune() {
+        final int keep = prototype.getShardSize();
+        final int[] ords = sortOrds((ord1, ord2) -> {
+            int cmp = Long.compare(docCounts.get(ord2), docCounts.get(ord1));
+            return cmp != 0 ? cmp : compareKeys(ord1, ord2);
+        });
+        for (int i = keep; i < ords.length; i++) {
+            otherDocCount += docCounts.get(ords[i]);
+        }
+        if (sumDocCountError != -1) {
+            sumDocCountError += docCounts.get(ords[keep]);
+        }
+        LongArray newDocCounts = null;
+        LongArray newDocCountErrors = null;
+        boolean success = false;
+        try {
+            newDocCounts = bigArrays.newLongArray(keep, false);
+            newDocCountErrors = bigArrays.newLongArray(keep, false);
+            for (int i = 0; i < keep; i++) {
+                newDocCounts.set(i, docCounts.get(ords[i]));
+                newDocCountErrors.set(i, docCountErrors.get(ords[i]));
+            }
+            retainKeys(ords, keep);
+            success = true;
+        } finally {
+            if (success) {
+                Releasables.close(docCounts, docCountErrors);
+                docCounts = newDocCounts;
+                docCountErrors = newDocCountErrors;
+            } else {
+                Releasables.close(newDocCounts, newDocCountErrors);
+            }
+        }
+    }
+
+    /**
+     * Builds the aggregation that a partial reduce of all the accepted aggregations would have returned, with buckets
+     * sorted by key.
+     */
+    public A build() {
+        final boolean asc = InternalOrder.isKeyAsc(reduceOrder);
+        final int[] ords = sortOrds((ord1, ord2) -> asc ? compareKeys(ord1, ord2) : compareKeys(ord2, ord1));
+        List<B> buckets = new ArrayList<>(ords.length);
+        for (int ord : ords) {
+            long docCountError = sumDocCountError == -1 ? -1 : docCountErrors.get(ord) + sumDocCountError;
+            buckets.add(buildBucket(ord, docCounts.get(ord), docCountError));
+        }
+        final long docCountError;
+        if (sumDocCountError == -1) {
+            docCountError = -1;
+        } else {
+            docCountError = numAggregations == 1 ? 0 : sumDocCountError;
+        }
+        return prototype.create(prototype.getName(), buckets, reduceOrder, docCountError, otherDocCount);
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(this::closeKeys, docCounts, docCountErrors);
+    }
+
+    private int[] sortOrds(OrdComparator comparator) {
+        final int[] ords = new int[Math.toIntExact(size())];
+        for (int i = 0; i < ords.length; i++) {
+            ords[i] = i;
+        }
+        new IntroSorter() {
+            int pivot;
+
+            @Override
+            protected void swap(int i, int j) {
+                int tmp = ords[i];
+                ords[i] = ords[j];
+                ords[j] = tmp;
+            }
+
+            @Override
+            protected int compare(int i, int j) {
+                return comparator.compare(ords[i], ords[j]);
+            }
+
+            @Override
+            protected void setPivot(int i) {
+                pivot = ords[i];
+            }
+
+            @Override
+            protected int comparePivot(int j) {
+                return comparator.compare(pivot, ords[j]);
+            }
+        }.sort(0, ords.length);
+        return ords;
+    }
+
+    @FunctionalInterface
+    private interface OrdComparator {
+        int compare(long ord1, long ord2);
+    }
+
+    /**
+     * Adds the key of the bucket. Returns its ord if it was not present yet, or {@code -1-ord} if it was.
+     */
+    protected abstract long add(B bucket);
+
+    /**
+     * The number of keys.
+     */
+    protected abstract long size();
+
+    /**
+     * Compares the keys with the provided ords.
+     */
+    protected abstract int compareKeys(long ord1, long ord2);
+
+    /**
+     * Only keeps the first {@code count} keys of {@code ords}, so that the key at {@code ords[i]} gets the ord {@code i}.
+     */
+    protected abstract void retainKeys(int[] ords, int count);
+
+    protected abstract B buildBucket(long ord, long docCount, long docCountError);
+
+    protected abstract void closeKeys();
+
+    private static class ForStrings extends StreamingTermsReducer<StringTerms, StringTerms.Bucket> {
+        private final BytesRef spare1 = new BytesRef();
+        private final BytesRef spare2 = new BytesRef();
+        private BytesRefHash keys;
+
+        ForStrings(StringTerms first, BigArrays bigArrays) {
+            super(StringTerms.class, first, bigArrays);
+            boolean success = false;
+            try {
+                keys = new BytesRefHash(1, bigArrays);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        protected long add(StringTerms.Bucket bucket) {
+            return keys.add(bucket.termBytes);
+        }
+
+        @Override
+        protected long size() {
+            return keys.size();
+        }
+
+        @Override
+        protected int compareKeys(long ord1, long ord2) {
+            return keys.get(ord1, spare1).compareTo(keys.get(ord2, spare2));
+        }
+
+        @Override
+        protected void retainKeys(int[] ords, int count) {
+            BytesRefHash newKeys = new BytesRefHash(count, bigArrays);
+            boolean success = false;
+            try {
+                for (int i = 0; i < count; i++) {
+                    newKeys.add(keys.get(ords[i], spare1));
+                }
+                success = true;
+            } finally {
+                if (success) {
+                    keys.close();
+                    keys = newKeys;
+                } else {
+                    newKeys.close();
+                }
+            }
+        }
+
+        @Override
+        protected StringTerms.Bucket buildBucket(long ord, long docCount, long docCountError) {
+            return new StringTerms.Bucket(BytesRef.deepCopyOf(keys.get(ord, spare1)), docCount, InternalAggregations.EMPTY,
+                prototype.showTermDocCountError, docCountError, prototype.format);
+        }
+
+        @Override
+        protected void closeKeys() {
+            Releasables.close(keys);
+        }
+    }
+
+    private static class ForLongs extends StreamingTermsReducer<LongTerms, LongTerms.Bucket> {
+        private LongHash keys;
+
+        ForLongs(LongTerms first, BigArrays bigArrays) {
+            super(LongTerms.class, first, bigArrays);
+            boolean success = false;
+            try {
+                keys = new LongHash(1, bigArrays);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        protected long add(LongTerms.Bucket bucket) {
+            return keys.add(bucket.term);
+        }
+
+        @Override
+        protected long size() {
+            return keys.size();
+        }
+
+        @Override
+        protected int compareKeys(long ord1, long ord2) {
+            return Long.compare(keys.get(ord1), keys.get(ord2));
+        }
+
+        @Override
+        protected void retainKeys(int[] ords, int count) {
+            LongHash newKeys = new LongHash(count, bigArrays);
+            boolean success = false;
+            try {
+                for (int i = 0; i < count; i++) {
+                    newKeys.add(keys.get(ords[i]));
+                }
+                success = true;
+            } finally {
+                if (success) {
+                    keys.close();
+                    keys = newKeys;
+                } else {
+                    newKeys.close();
+                }
+            }
+        }
+
+        @Override
+        protected LongTerms.Bucket buildBucket(long ord, long docCount, long docCountError) {
+            return new LongTerms.Bucket(keys.get(ord), docCount, InternalAggregations.EMPTY, prototype.showTermDocCountError,
+                docCountError, prototype.format);
+        }
+
+        @Override
+        protected void closeKeys() {
+            Releasables.close(keys);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
@@ -70,6 +71,13 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
      */
     static final long MAX_ORDS_TO_TRY_FILTERS = 1000;
 
+    /**
+     * The maximum number of segment ordinals, summed over all the buckets
+     * that own the aggregation, that we count before mapping them to global
+     * ordinals. Each of them takes a {@code long} while collecting a segment.
+     */
+    static final long MAX_SEGMENT_ORDS_TO_COUNT = 2048;
+
     /**
      * This supplier is used for all the field types that should be aggregated as bytes/strings,
      * including those that need global ordinals
@@ -302,6 +310,29 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
         }
     }
 
+    /**
+     * The field to count the documents of each term from the postings of
+     * segments where the top level query matches all documents, or
+     * {@code null} if we have to collect the documents. We can only do that
+     * at the top level, because a parent decides which bucket owns each
+     * document, if the terms in the index are the values we aggregate, and
+     * if no collector, like {@code terminate_after} or {@code min_score},
+     * drops matching documents before they reach us.
+     */
+    private static String fieldToCountFromPostingsOrNull(
+        AggregationContext context,
+        Aggregator parent,
+        ValuesSourceConfig valuesSourceConfig
+    ) {
+        if (parent != null || false == valuesSourceConfig.alignesWithSearchIndex()) {
+            return null;
+        }
+        if (false == context.query() instanceof MatchAllDocsQuery || context.hasFilterCollector()) {
+            return null;
+        }
+        return valuesSourceConfig.fieldContext().field();
+    }
+
     public enum ExecutionMode {
 
         MAP(new ParseField("map")) {
@@ -395,21 +426,29 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                     }
                 }
 
-                final double ratio = maxOrd / ((double) context.searcher().getIndexReader().numDocs());
+                /*
+                 * Counting segment ordinals trades a global ordinal lookup
+                 * for every collected value against mapping every segment
+                 * ordinal of every owning bucket to a global ordinal once
+                 * per segment. So the cost of the mapping relative to the
+                 * number of documents decides whether it pays off.
+                 */
+                final long owningBucketOrds = cardinality.map(estimate -> estimate);
+                final double mappingCostRatio = owningBucketOrds * maxOrd / ((double) context.searcher().getIndexReader().numDocs());
                 if (factories == AggregatorFactories.EMPTY &&
                         includeExclude == null &&
-                        cardinality == CardinalityUpperBound.ONE &&
+                        owningBucketOrds > 0 &&
                         ordinalsValuesSource.supportsGlobalOrdinalsMapping() &&
                         // we use the static COLLECT_SEGMENT_ORDS to allow tests to force specific optimizations
-                        (COLLECT_SEGMENT_ORDS!= null ? COLLECT_SEGMENT_ORDS.booleanValue() : ratio <= 0.5 && maxOrd <= 2048)) {
+                        (COLLECT_SEGMENT_ORDS != null ? COLLECT_SEGMENT_ORDS.booleanValue()
+                            : mappingCostRatio <= 0.5 && owningBucketOrds * maxOrd <= MAX_SEGMENT_ORDS_TO_COUNT)) {
                     /*
                      * We can use the low cardinality execution mode iff this aggregator:
                      *  - has no sub-aggregator AND
-                     *  - collects from a single bucket AND
                      *  - has a values source that can map from segment to global ordinals
                      *  - At least we reduce the number of global ordinals look-ups by half (ration <= 0.5) AND
-                     *  - the maximum global ordinal is less than 2048 (LOW_CARDINALITY has additional memory usage,
-                     *  which directly linked to maxOrd, so we need to limit).
+                     *  - the maximum global ordinal times the number of owning buckets is less than 2048 (LOW_CARDINALITY
+                     *  has additional memory usage, which directly linked to maxOrd, so we need to limit).
                      */
                     return new GlobalOrdinalsStringTermsAggregator.LowCardinality(
                         name,
@@ -422,9 +461,12 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                         bucketCountThresholds,
                         context,
                         parent,
-                        false,
+                        cardinality != CardinalityUpperBound.ONE,
                         subAggCollectMode,
                         showTermDocCountError,
+                        cardinality,
+                        fieldToCountFromPostingsOrNull(context, parent, valuesSourceConfig),
+                        mappingCostRatio,
                         metadata
                     );
 
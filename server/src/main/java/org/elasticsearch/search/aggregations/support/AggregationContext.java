@@ -244,6 +244,14 @@ public abstract class AggregationContext implements Releasable {
      */
     public abstract boolean isCacheable();
 
+    /**
+     * Can the collector chain of the search filter the documents that match
+     * the {@link #query() top level query}, like {@code terminate_after} and
+     * {@code min_score} do? If so the aggregations don't see every matching
+     * document.
+     */
+    public abstract boolean hasFilterCollector();
+
     /**
      * Implementation of {@linkplain AggregationContext} for production usage
      * that wraps our ubiquitous {@link SearchExecutionContext} and anything else
@@ -256,6 +264,7 @@ public abstract class AggregationContext implements Releasable {
         private final PreallocatedCircuitBreakerService preallocatedBreakerService;
         private final BigArrays bigArrays;
         private final Supplier<Query> topLevelQuery;
+        private final boolean hasFilterCollector;
         private final AggregationProfiler profiler;
         private final MultiBucketConsumer multiBucketConsumer;
         private final Supplier<SubSearchContext> subSearchContextBuilder;
@@ -272,6 +281,7 @@ public abstract class AggregationContext implements Releasable {
             BigArrays bigArrays,
             long bytesToPreallocate,
             Supplier<Query> topLevelQuery,
+            boolean hasFilterCollector,
             @Nullable AggregationProfiler profiler,
             MultiBucketConsumer multiBucketConsumer,
             Supplier<SubSearchContext> subSearchContextBuilder,
@@ -302,6 +312,7 @@ public abstract class AggregationContext implements Releasable {
                 this.bigArrays = bigArrays.withBreakerService(preallocatedBreakerService).withCircuitBreaking();
             }
             this.topLevelQuery = topLevelQuery;
+            this.hasFilterCollector = hasFilterCollector;
             this.profiler = profiler;
             this.multiBucketConsumer = multiBucketConsumer;
             this.subSearchContextBuilder = subSearchContextBuilder;
@@ -466,6 +477,11 @@ public abstract class AggregationContext implements Releasable {
             return context.isCacheable();
         }
 
+        @Override
+        public boolean hasFilterCollector() {
+            return hasFilterCollector;
+        }
+
         @Override
         public void close() {
             /*
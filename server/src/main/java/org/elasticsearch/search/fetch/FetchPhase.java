@@ -61,6 +61,15 @@ import static java.util.Collections.emptyMap;
 public class FetchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * The minimum number of docs to fetch in a segment to read their stored fields sequentially.
+     */
+    static final int MIN_DOCS_FOR_SEQUENTIAL_ACCESS = 10;
+    /**
+     * The maximum average distance between the docs to fetch in a segment to read their stored fields sequentially.
+     */
+    static final int MAX_AVERAGE_GAP_FOR_SEQUENTIAL_ACCESS = 4;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -105,7 +114,6 @@ public class FetchPhase {
         LeafReaderContext currentReaderContext = null;
         LeafNestedDocuments leafNestedDocuments = null;
         CheckedBiConsumer<Integer, FieldsVisitor, IOException> fieldReader = null;
-        boolean hasSequentialDocs = hasSequentialDocs(docs);
         for (int index = 0; index < context.docIdsToLoadSize(); index++) {
             if (context.isCancelled()) {
                 throw new TaskCancelledException("cancelled");
@@ -116,12 +124,13 @@ public class FetchPhase {
                 if (currentReaderIndex != readerIndex) {
                     currentReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
                     currentReaderIndex = readerIndex;
+                    int endOfSegment = endOfSegment(docs, index, currentReaderContext);
                     if (currentReaderContext.reader() instanceof SequentialStoredFieldsLeafReader
-                            && hasSequentialDocs && docs.length >= 10) {
-                        // All the docs to fetch are adjacent but Lucene stored fields are optimized
-                        // for random access and don't optimize for sequential access - except for merging.
-                        // So we do a little hack here and pretend we're going to do merges in order to
-                        // get better sequential access.
+                            && hasDenseDocs(docs, index, endOfSegment)) {
+                        // The docs to fetch in this segment are close to each other, so most stored fields
+                        // blocks hold several of them. But Lucene stored fields are optimized for random access
+                        // and decompress the block again for every doc - except for merging. So we do a little
+                        // hack here and pretend we're going to do merges in order to decompress each block once.
                         SequentialStoredFieldsLeafReader lf = (SequentialStoredFieldsLeafReader) currentReaderContext.reader();
                         fieldReader = lf.getSequentialStoredFieldsReader()::visitDocument;
                     } else {
@@ -432,10 +441,30 @@ public class FetchPhase {
     }
 
     /**
-     * Returns <code>true</code> if the provided <code>docs</code> are
-     * stored sequentially (Dn = Dn-1 + 1).
+     * The index of the first doc after {@code from} in the sorted {@code docs}
+     * that isn't in the segment of {@code ctx}.
      */
-    static boolean hasSequentialDocs(DocIdToIndex[] docs) {
-        return docs.length > 0 && docs[docs.length-1].docId - docs[0].docId == docs.length - 1;
+    static int endOfSegment(DocIdToIndex[] docs, int from, LeafReaderContext ctx) {
+        int end = from;
+        while (end < docs.length && docs[end].docId < ctx.docBase + ctx.reader().maxDoc()) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Whether the sorted docs in {@code docs[from, to)} are dense enough to
+     * read their stored fields sequentially. The sequential reader decompresses
+     * each stored fields block once and keeps it around for the next doc,
+     * which pays off if there are enough docs and they are on average at
+     * most {@link #MAX_AVERAGE_GAP_FOR_SEQUENTIAL_ACCESS} docs apart.
+     */
+    static boolean hasDenseDocs(DocIdToIndex[] docs, int from, int to) {
+        int count = to - from;
+        if (count < MIN_DOCS_FOR_SEQUENTIAL_ACCESS) {
+            return false;
+        }
+        long span = (long) docs[to - 1].docId - docs[from].docId + 1;
+        return span <= (long) count * MAX_AVERAGE_GAP_FOR_SEQUENTIAL_ACCESS;
     }
 }
@@ -16,6 +16,7 @@ import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConjunctionDISI;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
@@ -34,6 +35,8 @@ import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.CombinedBitSet;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.profile.Timer;
@@ -43,11 +46,16 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -63,21 +71,38 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     private QueryProfiler profiler;
     private MutableQueryTimeout cancellable;
 
+    /**
+     * The executor used to search slices of leaves concurrently, or <code>null</code> if all leaves are searched on the calling thread.
+     */
+    @Nullable
+    private final Executor executor;
+    private final LeafSlice[] leafSlices;
+
     public ContextIndexSearcher(IndexReader reader, Similarity similarity,
                                 QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
                                 boolean wrapWithExitableDirectoryReader) throws IOException {
-        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader);
+        this(reader, similarity, queryCache, queryCachingPolicy, wrapWithExitableDirectoryReader, null);
+    }
+
+    public ContextIndexSearcher(IndexReader reader, Similarity similarity,
+                                QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                                boolean wrapWithExitableDirectoryReader, @Nullable Executor executor) throws IOException {
+        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader, executor);
     }
 
     private ContextIndexSearcher(IndexReader reader, Similarity similarity,
                                  QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
                                  MutableQueryTimeout cancellable,
-                                 boolean wrapWithExitableDirectoryReader) throws IOException {
+                                 boolean wrapWithExitableDirectoryReader,
+                                 @Nullable Executor executor) throws IOException {
+        // we don't hand the executor over to the super class, concurrency is handled in #search(Query, CollectorManager)
         super(wrapWithExitableDirectoryReader ? new ExitableDirectoryReader((DirectoryReader) reader, cancellable) : reader);
         setSimilarity(similarity);
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
         this.cancellable = cancellable;
+        this.executor = executor;
+        this.leafSlices = executor == null ? null : slices(leafContexts);
     }
 
     public void setProfiler(QueryProfiler profiler) {
@@ -154,6 +179,87 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    /**
+     * Returns <code>true</code> if {@link #search(Query, CollectorManager)} may search slices of leaves concurrently.
+     * This is only the case if an executor was provided, there is more than one slice to search and profiling is disabled.
+     */
+    public boolean isConcurrentSearchEnabled() {
+        return executor != null && leafSlices.length > 1 && profiler == null;
+    }
+
+    /**
+     * Searches the provided query with one collector per slice of leaves. Slices are searched in parallel on the executor
+     * that was provided when creating this searcher, the calling thread searches the last slice itself. The cancellation and
+     * timeout checks that were registered on this searcher are honored by every slice. If any slice fails, this method waits
+     * for all other slices to complete before rethrowing the first failure so that no slice outlives the search.
+     */
+    @Override
+    public <C extends Collector, T> T search(Query query, CollectorManager<C, T> collectorManager) throws IOException {
+        if (isConcurrentSearchEnabled() == false) {
+            return super.search(query, collectorManager);
+        }
+        final List<C> collectors = new ArrayList<>(leafSlices.length);
+        ScoreMode scoreMode = null;
+        for (int i = 0; i < leafSlices.length; i++) {
+            final C collector = collectorManager.newCollector();
+            collectors.add(collector);
+            if (scoreMode == null) {
+                scoreMode = collector.scoreMode();
+            } else if (scoreMode != collector.scoreMode()) {
+                throw new IllegalStateException("CollectorManager does not always produce collectors with the same score mode");
+            }
+        }
+        final Weight weight = createWeight(rewrite(query), scoreMode, 1);
+        final List<FutureTask<Void>> tasks = new ArrayList<>(leafSlices.length - 1);
+        for (int i = 0; i < leafSlices.length - 1; i++) {
+            final List<LeafReaderContext> leaves = Arrays.asList(leafSlices[i].leaves);
+            final C collector = collectors.get(i);
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                search(leaves, weight, collector);
+                return null;
+            });
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // the executor is saturated, search the slice on the calling thread instead
+                task.run();
+            }
+        }
+        Throwable failure = null;
+        try {
+            search(Arrays.asList(leafSlices[leafSlices.length - 1].leaves), weight, collectors.get(leafSlices.length - 1));
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException(e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else {
+                throw new IllegalStateException("failed to search slice", failure);
+            }
+        }
+        return collectorManager.reduce(collectors);
+    }
+
     @Override
     public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         for (LeafReaderContext ctx : leaves) { // search each subreader
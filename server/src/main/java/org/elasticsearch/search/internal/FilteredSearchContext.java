@@ -18,6 +18,7 @@ import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.SearchExtBuilder;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
@@ -217,6 +218,16 @@ public abstract class FilteredSearchContext extends SearchContext {
         return in.lowLevelCancellation();
     }
 
+    @Override
+    public IndicesSegmentCountCache segmentCountCache() {
+        return in.segmentCountCache();
+    }
+
+    @Override
+    public void segmentCountCache(IndicesSegmentCountCache segmentCountCache) {
+        in.segmentCountCache(segmentCountCache);
+    }
+
     @Override
     public SearchContext minimumScore(float minimumScore) {
         return in.minimumScore(minimumScore);
@@ -21,6 +21,7 @@ import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.RescoreDocIds;
 import org.elasticsearch.search.SearchExtBuilder;
 import org.elasticsearch.search.SearchShardTarget;
@@ -215,6 +216,14 @@ public abstract class SearchContext implements Releasable {
      */
     public abstract boolean lowLevelCancellation();
 
+    /**
+     * The cache of the hit counts of the segments, or {@code null} if hit counts shouldn't be cached for this request.
+     */
+    @Nullable
+    public abstract IndicesSegmentCountCache segmentCountCache();
+
+    public abstract void segmentCountCache(IndicesSegmentCountCache segmentCountCache);
+
     public abstract SearchContext minimumScore(float minimumScore);
 
     public abstract Float minimumScore();
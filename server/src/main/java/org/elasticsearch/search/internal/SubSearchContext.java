@@ -10,6 +10,7 @@ package org.elasticsearch.search.internal;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
 import org.elasticsearch.search.collapse.CollapseContext;
 import org.elasticsearch.search.fetch.FetchSearchResult;
@@ -156,6 +157,11 @@ public class SubSearchContext extends FilteredSearchContext {
         throw new UnsupportedOperationException("Not supported");
     }
 
+    @Override
+    public void segmentCountCache(IndicesSegmentCountCache segmentCountCache) {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
     @Override
     public SearchContext minimumScore(float minimumScore) {
         throw new UnsupportedOperationException("Not supported");
@@ -0,0 +1,83 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
+
+/**
+ * Counts the hits of a query like {@link org.apache.lucene.search.TotalHitCountCollector}, but reads the count of the segments that
+ * were already counted by a previous request from an {@link IndicesSegmentCountCache} instead of collecting them, and caches the count
+ * of the segments that it collects. It must be the only collector of the search since the segments with a cached count are skipped.
+ * <p>
+ * Collectors don't know when the collection of a segment is done, so the count of a segment is cached when the next segment is
+ * collected, and the count of the last segment in {@link #finish()}, which must only be called if the search wasn't interrupted.
+ */
+final class CachingTotalHitCountCollector implements Collector {
+    private final IndicesSegmentCountCache cache;
+    private final Query query;
+    private int totalHits;
+    // the segment that is being collected, and its count so far
+    private LeafReader currentReader;
+    private int currentCount;
+
+    CachingTotalHitCountCollector(IndicesSegmentCountCache cache, Query query) {
+        this.cache = cache;
+        this.query = query;
+    }
+
+    int getTotalHits() {
+        return totalHits;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) {
+        finish();
+        final int count = cache.get(query, context.reader());
+        if (count >= 0) {
+            totalHits += count;
+            throw new CollectionTerminatedException();
+        }
+        currentReader = context.reader();
+        currentCount = 0;
+        return new LeafCollector() {
+            @Override
+            public void setScorer(Scorable scorer) {
+            }
+
+            @Override
+            public void collect(int doc) {
+                currentCount++;
+                totalHits++;
+            }
+        };
+    }
+
+    /**
+     * Caches the count of the segment that was collected last.
+     */
+    void finish() {
+        if (currentReader != null) {
+            cache.put(query, currentReader, currentCount);
+            currentReader = null;
+        }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return ScoreMode.COMPLETE_NO_SCORES;
+    }
+}
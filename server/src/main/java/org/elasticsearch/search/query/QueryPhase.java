@@ -30,6 +30,7 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
 import org.apache.lucene.search.TopFieldCollector;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
@@ -65,6 +66,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -229,6 +231,7 @@ public class QueryPhase {
                 // this collector can filter documents during the collection
                 hasFilterCollector = true;
             }
+            assert hasFilterCollector == hasFilterCollector(searchContext);
 
             CheckedConsumer<List<LeafReaderContext>, IOException> leafSorter = l -> {};
             // try to rewrite numeric or date sort to the optimized distanceFeatureQuery
@@ -283,6 +286,8 @@ public class QueryPhase {
                 // if we are optimizing sort and there are no other collectors
                 if (sortAndFormatsForRewrittenNumericSort != null && collectors.size() == 0 && searchContext.getProfilers() == null) {
                     shouldRescore = searchWithCollectorManager(searchContext, searcher, query, leafSorter, timeoutSet);
+                } else if (sortAndFormatsForRewrittenNumericSort == null && canSearchConcurrently(searchContext, collectors)) {
+                    shouldRescore = searchConcurrently(searchContext, searcher, query, timeoutSet);
                 } else {
                     shouldRescore = searchWithCollector(searchContext, searcher, query, collectors, hasFilterCollector, timeoutSet);
                 }
@@ -425,6 +430,66 @@ public class QueryPhase {
         return false; // no rescoring when sorting by field
     }
 
+    /**
+     * Returns true if the top docs of the provided <code>searchContext</code> can be collected by searching slices of
+     * segments concurrently. This requires that the searcher was created with an executor and that no other collector
+     * (aggregations, post filter, min score, terminate after) needs to see the matching documents in a single thread.
+     */
+    private static boolean canSearchConcurrently(SearchContext searchContext, List<QueryCollectorContext> collectors) {
+        return searchContext.searcher().isConcurrentSearchEnabled()
+            && collectors.isEmpty()
+            && searchContext.getProfilers() == null
+            && searchContext.size() > 0
+            && searchContext.scrollContext() == null
+            && searchContext.collapse() == null
+            && (searchContext.sort() == null || searchContext.trackScores() == false);
+    }
+
+    /*
+     * Searches slices of segments concurrently with one top docs collector per slice, the top docs of
+     * all slices are merged once all slices have been searched. If the search times out, the hits that
+     * were collected by each slice until then are merged instead.
+     */
+    private static boolean searchConcurrently(SearchContext searchContext,
+                                              ContextIndexSearcher searcher,
+                                              Query query,
+                                              boolean timeoutSet) throws IOException {
+        final QuerySearchResult queryResult = searchContext.queryResult();
+        final SortAndFormats sortAndFormats = searchContext.sort();
+        final DocValueFormat[] formats = sortAndFormats == null ? null : sortAndFormats.formats;
+        final CollectorManager<TopDocsCollector<?>, TopDocsAndMaxScore> sharedManager =
+            TopDocsCollectorContext.createTopDocsCollectorManager(searchContext);
+        // collectors are created on the calling thread, before any slice is searched
+        final List<TopDocsCollector<?>> collectors = new ArrayList<>();
+        TopDocsAndMaxScore topDocs;
+        try {
+            topDocs = searcher.search(query, new CollectorManager<TopDocsCollector<?>, TopDocsAndMaxScore>() {
+                @Override
+                public TopDocsCollector<?> newCollector() throws IOException {
+                    final TopDocsCollector<?> collector = sharedManager.newCollector();
+                    collectors.add(collector);
+                    return collector;
+                }
+
+                @Override
+                public TopDocsAndMaxScore reduce(Collection<TopDocsCollector<?>> slices) throws IOException {
+                    return sharedManager.reduce(slices);
+                }
+            });
+        } catch (TimeExceededException e) {
+            assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
+            if (searchContext.request().allowPartialSearchResults() == false) {
+                // Can't rethrow TimeExceededException because not serializable
+                throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
+            }
+            queryResult.searchTimedOut(true);
+            // the searcher waits for all slices before rethrowing, so every collector is done collecting
+            topDocs = sharedManager.reduce(collectors);
+        }
+        queryResult.topDocs(topDocs, formats);
+        return searchContext.rescore().isEmpty() == false;
+    }
+
     private static Query tryRewriteLongSort(SearchContext searchContext, IndexReader reader,
                                             Query query, boolean hasFilterCollector) throws IOException {
         if ((searchContext.from() + searchContext.size()) <= 0) return null;
@@ -515,6 +580,17 @@ public class QueryPhase {
         return rewrittenQuery;
     }
 
+    /**
+     * Whether the collector chain of the query phase contains a collector that can filter
+     * the documents that match the query: {@code terminate_after}, {@code post_filter}
+     * and {@code min_score} add one.
+     */
+    public static boolean hasFilterCollector(SearchContext searchContext) {
+        return searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+            || searchContext.parsedPostFilter() != null
+            || searchContext.minimumScore() != null;
+    }
+
     /**
      * Creates a sorter of {@link LeafReaderContext} that orders leaves depending on the minimum
      * value and the sort order of the provided <code>sortField</code>.
@@ -19,6 +19,7 @@ import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.FieldDoc;
@@ -48,14 +49,17 @@ import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
 import org.elasticsearch.common.lucene.search.function.ScriptScoreQuery;
 import org.elasticsearch.common.util.CachedSupplier;
 import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.collapse.CollapseContext;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -91,6 +95,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         private final Sort sort;
         private final Collector collector;
         private final Supplier<TotalHits> hitCountSupplier;
+        private CachingTotalHitCountCollector cachingCollector;
 
         /**
          * Ctr
@@ -98,12 +103,14 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
          * @param query The query to execute
          * @param trackTotalHitsUpTo True if the total number of hits should be tracked
          * @param hasFilterCollector True if the collector chain contains a filter
+         * @param segmentCountCache The cache of the hit counts of the segments if the hit count is the only thing that is collected
          */
         private EmptyTopDocsCollectorContext(IndexReader reader,
                                              Query query,
                                              @Nullable SortAndFormats sortAndFormats,
                                              int trackTotalHitsUpTo,
-                                             boolean hasFilterCollector) throws IOException {
+                                             boolean hasFilterCollector,
+                                             @Nullable IndicesSegmentCountCache segmentCountCache) throws IOException {
             super(REASON_SEARCH_COUNT, 0);
             this.sort = sortAndFormats == null ? null : sortAndFormats.sort;
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
@@ -115,7 +122,13 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 int hitCount =  hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
-                    if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
+                    if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE && segmentCountCache != null) {
+                        assert hasFilterCollector == false;
+                        CachingTotalHitCountCollector countCollector = new CachingTotalHitCountCollector(segmentCountCache, query);
+                        this.cachingCollector = countCollector;
+                        this.collector = countCollector;
+                        this.hitCountSupplier = () -> new TotalHits(countCollector.getTotalHits(), TotalHits.Relation.EQUAL_TO);
+                    } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
                         this.collector = hitCountCollector;
                         this.hitCountSupplier = () -> new TotalHits(hitCountCollector.getTotalHits(), TotalHits.Relation.EQUAL_TO);
                     } else {
@@ -140,6 +153,10 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
 
         @Override
         void postProcess(QuerySearchResult result) {
+            if (cachingCollector != null && result.searchTimedOut() == false) {
+                // the search wasn't interrupted so the last segment was fully collected
+                cachingCollector.finish();
+            }
             final TotalHits totalHitCount = hitCountSupplier.get();
             final TopDocs topDocs;
             if (sort != null) {
@@ -421,8 +438,14 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         final int totalNumDocs = Math.max(1, reader.numDocs());
         if (searchContext.size() == 0) {
             // no matter what the value of from is
+            // the hit counts of segments can only be cached if they are counted on their own
+            final IndicesSegmentCountCache segmentCountCache = searchContext.segmentCountCache() != null
+                && hasFilterCollector == false
+                && searchContext.queryCollectors().isEmpty()
+                && searchContext.scrollContext() == null
+                && searchContext.getSearchExecutionContext().isCacheable() ? searchContext.segmentCountCache() : null;
             return new EmptyTopDocsCollectorContext(reader, query, searchContext.sort(),
-                searchContext.trackTotalHitsUpTo(), hasFilterCollector);
+                searchContext.trackTotalHitsUpTo(), hasFilterCollector, segmentCountCache);
         } else if (searchContext.scrollContext() != null) {
             // we can disable the tracking of total hits after the initial scroll query
             // since the total hits is preserved in the scroll context.
@@ -456,6 +479,90 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
     }
 
+    /**
+     * Creates a {@link CollectorManager} that collects the top docs of each slice of leaves that the {@link ContextIndexSearcher}
+     * searches concurrently, and merges them into the top docs of the shard. Only simple top docs requests are supported:
+     * scroll, collapsing, a size of 0 and tracking scores when sorting by field must use {@link #createTopDocsCollectorContext}.
+     */
+    static CollectorManager<TopDocsCollector<?>, TopDocsAndMaxScore> createTopDocsCollectorManager(SearchContext searchContext)
+            throws IOException {
+        assert searchContext.size() > 0;
+        assert searchContext.scrollContext() == null;
+        assert searchContext.collapse() == null;
+        assert searchContext.sort() == null || searchContext.trackScores() == false;
+        final IndexReader reader = searchContext.searcher().getIndexReader();
+        final Query query = searchContext.query();
+        final SortAndFormats sortAndFormats = searchContext.sort();
+        final ScoreDoc searchAfter = searchContext.searchAfter();
+        int numDocs = Math.min(searchContext.from() + searchContext.size(), Math.max(1, reader.numDocs()));
+        for (RescoreContext rescoreContext : searchContext.rescore()) {
+            numDocs = Math.max(numDocs, rescoreContext.getWindowSize());
+        }
+        final int numHits = numDocs;
+
+        final int hitCountThreshold;
+        final TotalHits shortcutTotalHits;
+        if ((sortAndFormats == null || SortField.FIELD_SCORE.equals(sortAndFormats.sort.getSort()[0])) && hasInfMaxScore(query)) {
+            // disable max score optimization since we have a mandatory clause
+            // that doesn't track the maximum score
+            hitCountThreshold = Integer.MAX_VALUE;
+            shortcutTotalHits = null;
+        } else if (searchContext.trackTotalHitsUpTo() == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+            // don't compute hit counts via the collectors
+            hitCountThreshold = 1;
+            shortcutTotalHits = new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+        } else {
+            final int hitCount = shortcutTotalHitCount(reader, query);
+            if (hitCount == -1) {
+                hitCountThreshold = searchContext.trackTotalHitsUpTo();
+                shortcutTotalHits = null;
+            } else {
+                // don't compute hit counts via the collectors
+                hitCountThreshold = 1;
+                shortcutTotalHits = new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+            }
+        }
+
+        return new CollectorManager<>() {
+            @Override
+            public TopDocsCollector<?> newCollector() {
+                return SimpleTopDocsCollectorContext.createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            }
+
+            @Override
+            public TopDocsAndMaxScore reduce(Collection<TopDocsCollector<?>> collectors) {
+                final TopDocs merged;
+                if (sortAndFormats == null) {
+                    final TopDocs[] topDocs = new TopDocs[collectors.size()];
+                    int i = 0;
+                    for (TopDocsCollector<?> collector : collectors) {
+                        topDocs[i++] = collector.topDocs();
+                    }
+                    merged = TopDocs.merge(numHits, topDocs);
+                } else {
+                    final TopFieldDocs[] topDocs = new TopFieldDocs[collectors.size()];
+                    int i = 0;
+                    for (TopDocsCollector<?> collector : collectors) {
+                        topDocs[i++] = (TopFieldDocs) collector.topDocs();
+                    }
+                    merged = TopDocs.merge(sortAndFormats.sort, numHits, topDocs);
+                }
+                // Lucene sets shards indexes during merging of topDocs from different collectors
+                // We need to reset shard index; ES will set shard index later during reduce stage
+                for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                    scoreDoc.shardIndex = -1;
+                }
+                final TotalHits totalHits = shortcutTotalHits != null ? shortcutTotalHits : merged.totalHits;
+                if (merged instanceof TopFieldDocs) {
+                    return new TopDocsAndMaxScore(new TopFieldDocs(totalHits, merged.scoreDocs, ((TopFieldDocs) merged).fields), Float.NaN);
+                } else {
+                    final float maxScore = merged.scoreDocs.length == 0 ? Float.NaN : merged.scoreDocs[0].score;
+                    return new TopDocsAndMaxScore(new TopDocs(totalHits, merged.scoreDocs), maxScore);
+                }
+            }
+        };
+    }
+
     /**
      * Return true if the provided query contains a mandatory clauses (MUST)
      * that doesn't track the maximum scores per block
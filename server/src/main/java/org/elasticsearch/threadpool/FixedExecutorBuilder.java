@@ -11,6 +11,7 @@ package org.elasticsearch.threadpool;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.node.Node;
@@ -22,13 +23,20 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 /**
- * A builder for fixed executors.
+ * A builder for fixed executors. Executors that support it can be configured to hand out their tasks in weighted fair queuing order of
+ * the value of a request header, see {@link EsExecutors#newFairFixed}. The header has to be configured explicitly, and should carry a
+ * value that is stable across the requests of a user or an application.
  */
 public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBuilder.FixedExecutorSettings> {
 
     private final Setting<Integer> sizeSetting;
     private final Setting<Integer> queueSizeSetting;
     private final boolean trackEWMA;
+    // the settings of the fair queue, null if the executor doesn't support it
+    private final Setting<Boolean> fairQueueEnabledSetting;
+    private final Setting<String> fairQueueHeaderSetting;
+    private final Setting<TimeValue> fairQueueTargetDelaySetting;
+    private final Setting<TimeValue> fairQueueIntervalSetting;
 
     /**
      * Construct a fixed executor builder; the settings will have the key prefix "thread_pool." followed by the executor name.
@@ -40,7 +48,23 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
      * @param trackEWMA whether to track the exponentially weighted moving average of the task execution time
      */
     FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final boolean trackEWMA) {
-        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA);
+        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA, false);
+    }
+
+    /**
+     * Construct a fixed executor builder that supports a fair queue; the settings will have the key prefix "thread_pool." followed by
+     * the executor name.
+     *
+     * @param settings  the node-level settings
+     * @param name      the name of the executor
+     * @param size      the fixed number of threads
+     * @param queueSize the size of the backing queue, -1 for unbounded
+     * @param trackEWMA whether to track the exponentially weighted moving average of the task execution time
+     * @param fairQueue whether the queue can be configured to be fair between the values of a request header
+     */
+    FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final boolean trackEWMA,
+                         final boolean fairQueue) {
+        this(settings, name, size, queueSize, "thread_pool." + name, trackEWMA, fairQueue);
     }
 
     /**
@@ -55,6 +79,11 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
      */
     public FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix,
                                 final boolean trackEWMA) {
+        this(settings, name, size, queueSize, prefix, trackEWMA, false);
+    }
+
+    private FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix,
+                                 final boolean trackEWMA, final boolean fairQueue) {
         super(name);
         final String sizeKey = settingsKey(prefix, "size");
         this.sizeSetting =
@@ -66,10 +95,30 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String queueSizeKey = settingsKey(prefix, "queue_size");
         this.queueSizeSetting = Setting.intSetting(queueSizeKey, queueSize, Setting.Property.NodeScope);
         this.trackEWMA = trackEWMA;
+        if (fairQueue) {
+            this.fairQueueEnabledSetting =
+                Setting.boolSetting(settingsKey(prefix, "fair_queue.enabled"), false, Setting.Property.NodeScope);
+            // there is no default header: clients often send a unique X-Opaque-Id per request, which would give each request a
+            // queue of its own and make the queue neither fair nor able to tell which values to reject
+            this.fairQueueHeaderSetting = Setting.simpleString(settingsKey(prefix, "fair_queue.header"), Setting.Property.NodeScope);
+            this.fairQueueTargetDelaySetting = Setting.positiveTimeSetting(settingsKey(prefix, "fair_queue.target_delay"),
+                TimeValue.timeValueMillis(100), Setting.Property.NodeScope);
+            this.fairQueueIntervalSetting = Setting.positiveTimeSetting(settingsKey(prefix, "fair_queue.interval"),
+                TimeValue.timeValueSeconds(1), Setting.Property.NodeScope);
+        } else {
+            this.fairQueueEnabledSetting = null;
+            this.fairQueueHeaderSetting = null;
+            this.fairQueueTargetDelaySetting = null;
+            this.fairQueueIntervalSetting = null;
+        }
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
+        if (fairQueueEnabledSetting != null) {
+            return Arrays.asList(sizeSetting, queueSizeSetting, fairQueueEnabledSetting, fairQueueHeaderSetting,
+                fairQueueTargetDelaySetting, fairQueueIntervalSetting);
+        }
         return Arrays.asList(sizeSetting, queueSizeSetting);
     }
 
@@ -78,7 +127,16 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String nodeName = Node.NODE_NAME_SETTING.get(settings);
         final int size = sizeSetting.get(settings);
         final int queueSize = queueSizeSetting.get(settings);
-        return new FixedExecutorSettings(nodeName, size, queueSize);
+        if (fairQueueEnabledSetting != null && fairQueueEnabledSetting.get(settings)) {
+            final String fairQueueHeader = fairQueueHeaderSetting.get(settings);
+            if (fairQueueHeader.isEmpty()) {
+                throw new IllegalArgumentException("[" + fairQueueHeaderSetting.getKey() + "] must be set when ["
+                    + fairQueueEnabledSetting.getKey() + "] is true");
+            }
+            return new FixedExecutorSettings(nodeName, size, queueSize, fairQueueHeader,
+                fairQueueTargetDelaySetting.get(settings), fairQueueIntervalSetting.get(settings));
+        }
+        return new FixedExecutorSettings(nodeName, size, queueSize, null, null, null);
     }
 
     @Override
@@ -86,8 +144,14 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         int size = settings.size;
         int queueSize = settings.queueSize;
         final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
-        final ExecutorService executor =
-                EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory, threadContext, trackEWMA);
+        final ExecutorService executor;
+        if (settings.fairQueueHeader != null) {
+            final String header = settings.fairQueueHeader;
+            executor = EsExecutors.newFairFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory, threadContext,
+                () -> threadContext.getHeader(header), settings.fairQueueTargetDelay, settings.fairQueueInterval);
+        } else {
+            executor = EsExecutors.newFixed(settings.nodeName + "/" + name(), size, queueSize, threadFactory, threadContext, trackEWMA);
+        }
         final ThreadPool.Info info =
             new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.FIXED, size, size, null, queueSize < 0 ? null : new SizeValue(queueSize));
         return new ThreadPool.ExecutorHolder(executor, info);
@@ -107,11 +171,23 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
         private final int size;
         private final int queueSize;
+        // the header whose values the fair queue is fair between, null if the queue isn't fair
+        private final String fairQueueHeader;
+        private final TimeValue fairQueueTargetDelay;
+        private final TimeValue fairQueueInterval;
 
-        FixedExecutorSettings(final String nodeName, final int size, final int queueSize) {
+        FixedExecutorSettings(final String nodeName, final int size, final int queueSize, final String fairQueueHeader,
+                              final TimeValue fairQueueTargetDelay, final TimeValue fairQueueInterval) {
             super(nodeName);
             this.size = size;
             this.queueSize = queueSize;
+            this.fairQueueHeader = fairQueueHeader;
+            this.fairQueueTargetDelay = fairQueueTargetDelay;
+            this.fairQueueInterval = fairQueueInterval;
+        }
+
+        String fairQueueHeader() {
+            return fairQueueHeader;
         }
 
     }
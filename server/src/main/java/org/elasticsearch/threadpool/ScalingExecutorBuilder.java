@@ -23,13 +23,14 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
- * A builder for scaling executors.
+ * A builder for scaling executors. The threads of the executor can be virtual threads, which suits the pools whose tasks block on I/O.
  */
 public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecutorBuilder.ScalingExecutorSettings> {
 
     private final Setting<Integer> coreSetting;
     private final Setting<Integer> maxSetting;
     private final Setting<TimeValue> keepAliveSetting;
+    private final Setting<Boolean> virtualThreadsSetting;
 
     /**
      * Construct a scaling executor builder; the settings will have the
@@ -63,11 +64,13 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         this.maxSetting = Setting.intSetting(settingsKey(prefix, "max"), max, Setting.Property.NodeScope);
         this.keepAliveSetting =
             Setting.timeSetting(settingsKey(prefix, "keep_alive"), keepAlive, Setting.Property.NodeScope);
+        this.virtualThreadsSetting =
+            Setting.boolSetting(settingsKey(prefix, "virtual_threads"), false, Setting.Property.NodeScope);
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting);
+        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting, virtualThreadsSetting);
     }
 
     @Override
@@ -76,15 +79,23 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         final int coreThreads = coreSetting.get(settings);
         final int maxThreads = maxSetting.get(settings);
         final TimeValue keepAlive = keepAliveSetting.get(settings);
-        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive);
+        final boolean virtualThreads = virtualThreadsSetting.get(settings);
+        if (virtualThreads && EsExecutors.virtualThreadsSupported() == false) {
+            throw new IllegalArgumentException("[" + virtualThreadsSetting.getKey() + "] requires a JVM that supports virtual threads");
+        }
+        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive, virtualThreads);
     }
 
     ThreadPool.ExecutorHolder build(final ScalingExecutorSettings settings, final ThreadContext threadContext) {
         TimeValue keepAlive = settings.keepAlive;
         int core = settings.core;
         int max = settings.max;
-        final ThreadPool.Info info = new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.SCALING, core, max, keepAlive, null);
-        final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
+        final ThreadPool.ThreadPoolType type =
+            settings.virtualThreads ? ThreadPool.ThreadPoolType.VIRTUAL : ThreadPool.ThreadPoolType.SCALING;
+        final ThreadPool.Info info = new ThreadPool.Info(name(), type, core, max, keepAlive, null);
+        final String threadName = EsExecutors.threadName(settings.nodeName, name());
+        final ThreadFactory threadFactory =
+            settings.virtualThreads ? EsExecutors.virtualThreadFactory(threadName) : EsExecutors.daemonThreadFactory(threadName);
         final ExecutorService executor =
             EsExecutors.newScaling(
                     settings.nodeName + "/" + name(),
@@ -113,12 +124,15 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         private final int core;
         private final int max;
         private final TimeValue keepAlive;
+        private final boolean virtualThreads;
 
-        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive) {
+        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive,
+                                final boolean virtualThreads) {
             super(nodeName);
             this.core = core;
             this.max = max;
             this.keepAlive = keepAlive;
+            this.virtualThreads = virtualThreads;
         }
     }
 
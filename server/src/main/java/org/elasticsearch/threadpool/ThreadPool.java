@@ -11,6 +11,7 @@ package org.elasticsearch.threadpool;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -35,8 +36,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -62,6 +65,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         public static final String ANALYZE = "analyze";
         public static final String WRITE = "write";
         public static final String SEARCH = "search";
+        public static final String SEARCH_WORKER = "search_worker";
         public static final String AUTO_COMPLETE = "auto_complete";
         public static final String SEARCH_THROTTLED = "search_throttled";
         public static final String MANAGEMENT = "management";
@@ -81,7 +85,9 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         DIRECT("direct"),
         FIXED("fixed"),
         FIXED_AUTO_QUEUE_SIZE("fixed_auto_queue_size"), // TODO: remove in 9.0
-        SCALING("scaling");
+        SCALING("scaling"),
+        // a scaling pool of virtual threads, see ScalingExecutorBuilder
+        VIRTUAL("virtual");
 
         private final String type;
 
@@ -112,6 +118,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         entry(Names.ANALYZE, ThreadPoolType.FIXED),
         entry(Names.WRITE, ThreadPoolType.FIXED),
         entry(Names.SEARCH, ThreadPoolType.FIXED),
+        entry(Names.SEARCH_WORKER, ThreadPoolType.FIXED),
         entry(Names.MANAGEMENT, ThreadPoolType.SCALING),
         entry(Names.FLUSH, ThreadPoolType.SCALING),
         entry(Names.REFRESH, ThreadPoolType.SCALING),
@@ -133,6 +140,8 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
 
     private final ThreadContext threadContext;
 
+    private final Set<String> fairQueueHeaders;
+
     @SuppressWarnings("rawtypes")
     private final Map<String, ExecutorBuilder> builders;
 
@@ -179,7 +188,9 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         builders.put(Names.WRITE, new FixedExecutorBuilder(settings, Names.WRITE, allocatedProcessors, 10000, false));
         builders.put(Names.GET, new FixedExecutorBuilder(settings, Names.GET, allocatedProcessors, 1000, false));
         builders.put(Names.ANALYZE, new FixedExecutorBuilder(settings, Names.ANALYZE, 1, 16, false));
-        builders.put(Names.SEARCH, new FixedExecutorBuilder(settings, Names.SEARCH, searchThreadPoolSize(allocatedProcessors), 1000, true));
+        builders.put(Names.SEARCH,
+            new FixedExecutorBuilder(settings, Names.SEARCH, searchThreadPoolSize(allocatedProcessors), 1000, true, true));
+        builders.put(Names.SEARCH_WORKER, new FixedExecutorBuilder(settings, Names.SEARCH_WORKER, allocatedProcessors, 1000, false));
         builders.put(
             Names.AUTO_COMPLETE,
             new FixedExecutorBuilder(settings, Names.AUTO_COMPLETE, Math.max(allocatedProcessors / 4, 1), 100, true)
@@ -212,8 +223,15 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         threadContext = new ThreadContext(settings);
 
         final Map<String, ExecutorHolder> executors = new HashMap<>();
+        final Set<String> fairQueueHeaders = new HashSet<>();
         for (final Map.Entry<String, ExecutorBuilder> entry : builders.entrySet()) {
             final ExecutorBuilder.ExecutorSettings executorSettings = entry.getValue().getSettings(settings);
+            if (executorSettings instanceof FixedExecutorBuilder.FixedExecutorSettings) {
+                final String fairQueueHeader = ((FixedExecutorBuilder.FixedExecutorSettings) executorSettings).fairQueueHeader();
+                if (fairQueueHeader != null) {
+                    fairQueueHeaders.add(fairQueueHeader);
+                }
+            }
             final ExecutorHolder executorHolder = entry.getValue().build(executorSettings, threadContext);
             if (executors.containsKey(executorHolder.info.getName())) {
                 throw new IllegalStateException("duplicate executors with name [" + executorHolder.info.getName() + "] registered");
@@ -224,6 +242,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
 
         executors.put(Names.SAME, new ExecutorHolder(EsExecutors.DIRECT_EXECUTOR_SERVICE, new Info(Names.SAME, ThreadPoolType.DIRECT)));
         this.executors = unmodifiableMap(executors);
+        this.fairQueueHeaders = Collections.unmodifiableSet(fairQueueHeaders);
 
         final List<Info> infos =
                 executors
@@ -714,7 +733,12 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             out.writeString(name);
-            out.writeString(type.getType());
+            if (type == ThreadPoolType.VIRTUAL && out.getVersion().before(Version.V_8_0_0)) {
+                // older nodes don't know about pools of virtual threads, which are scaling pools otherwise
+                out.writeString(ThreadPoolType.SCALING.getType());
+            } else {
+                out.writeString(type.getType());
+            }
             out.writeInt(min);
             out.writeInt(max);
             out.writeOptionalTimeValue(keepAlive);
@@ -752,7 +776,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
             builder.startObject(name);
             builder.field("type", type.getType());
 
-            if (type == ThreadPoolType.SCALING) {
+            if (type == ThreadPoolType.SCALING || type == ThreadPoolType.VIRTUAL) {
                 assert min != -1;
                 builder.field("core", min);
                 assert max != -1;
@@ -835,6 +859,14 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         return false;
     }
 
+    /**
+     * The request headers that the fair queues of the executors classify their tasks by. These headers must be copied from REST
+     * requests to the thread context, otherwise all the tasks of a fair queue would share a single value.
+     */
+    public Set<String> getFairQueueHeaders() {
+        return fairQueueHeaders;
+    }
+
     public ThreadContext getThreadContext() {
         return threadContext;
     }
@@ -21,7 +21,7 @@ import java.io.IOException;
  * A specialized, bytes only request, that can potentially be optimized on the network
  * layer, specifically for the same large buffer send to several nodes.
  */
-public class BytesTransportRequest extends TransportRequest implements RefCounted {
+public class BytesTransportRequest extends TransportRequest implements RefCounted, ZeroCopyWriteable {
 
     final ReleasableBytesReference bytes;
     private final Version version;
@@ -49,9 +49,11 @@ public class BytesTransportRequest extends TransportRequest implements RefCounte
      * Writes the data in a "thin" manner, without the actual bytes, assumes
      * the actual bytes will be appended right after this content.
      */
-    public void writeThin(StreamOutput out) throws IOException {
+    @Override
+    public BytesReference writeThin(StreamOutput out) throws IOException {
         super.writeTo(out);
         out.writeVInt(bytes.length());
+        return bytes;
     }
 
     @Override
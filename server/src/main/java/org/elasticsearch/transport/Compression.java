@@ -0,0 +1,54 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+
+import java.util.Locale;
+
+public class Compression {
+
+    public enum Scheme {
+        DEFLATE(CompressorFactory.COMPRESSOR),
+        LZ4(CompressorFactory.LZ4_COMPRESSOR);
+
+        static final Version LZ4_VERSION = Version.V_8_0_0;
+
+        private final Compressor compressor;
+
+        Scheme(Compressor compressor) {
+            this.compressor = compressor;
+        }
+
+        public Compressor compressor() {
+            return compressor;
+        }
+
+        /**
+         * Returns the scheme to use to compress messages that are sent to a node of the given version, which is this scheme if the
+         * node can decompress it and {@link #DEFLATE} otherwise.
+         */
+        public Scheme forVersion(Version version) {
+            if (this == LZ4 && version.before(LZ4_VERSION)) {
+                return DEFLATE;
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private Compression() {
+    }
+}
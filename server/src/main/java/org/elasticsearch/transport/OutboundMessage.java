@@ -8,11 +8,11 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
-import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
@@ -20,15 +20,26 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 abstract class OutboundMessage extends NetworkMessage {
 
     protected final Writeable message;
+    @Nullable
+    private final Compression.Scheme compressionScheme;
 
-    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Writeable message) {
+    // sizes and time spent compressing, only set once a compressed message has been serialized
+    private long uncompressedSize;
+    private long compressedSize;
+    private long compressionTimeNanos;
+
+    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId,
+                    @Nullable Compression.Scheme compressionScheme, Writeable message) {
         super(threadContext, version, status, requestId);
         this.message = message;
+        this.compressionScheme = TransportStatus.isCompress(status) ? compressionScheme.forVersion(version) : null;
     }
 
     BytesReference serialize(BytesStreamOutput bytesStream) throws IOException {
@@ -46,17 +57,18 @@ abstract class OutboundMessage extends NetworkMessage {
         }
 
         final boolean compress = TransportStatus.isCompress(status);
-        final StreamOutput stream = compress ? wrapCompressed(bytesStream) : bytesStream;
+        final long compressionStartTime = compress ? System.nanoTime() : 0L;
+        final long preCompressionPosition = bytesStream.position();
+        final CountingOutputStream uncompressedBytes = compress ? new CountingOutputStream(wrapCompressed(bytesStream)) : null;
+        final StreamOutput stream = compress ? new OutputStreamStreamOutput(uncompressedBytes) : bytesStream;
         final BytesReference zeroCopyBuffer;
         try {
             stream.setVersion(version);
             if (variableHeaderLength == -1) {
                 writeVariableHeader(stream);
             }
-            if (message instanceof BytesTransportRequest) {
-                BytesTransportRequest bRequest = (BytesTransportRequest) message;
-                bRequest.writeThin(stream);
-                zeroCopyBuffer = bRequest.bytes;
+            if (message instanceof ZeroCopyWriteable && compress == false) {
+                zeroCopyBuffer = ((ZeroCopyWriteable) message).writeThin(stream);
             } else if (message instanceof RemoteTransportException) {
                 stream.writeException((RemoteTransportException) message);
                 zeroCopyBuffer = BytesArray.EMPTY;
@@ -69,6 +81,9 @@ abstract class OutboundMessage extends NetworkMessage {
             // are written.
             if (compress) {
                 stream.close();
+                uncompressedSize = uncompressedBytes.count;
+                compressedSize = bytesStream.position() - preCompressionPosition;
+                compressionTimeNanos = System.nanoTime() - compressionStartTime;
             }
         }
         final BytesReference message = bytesStream.bytes();
@@ -86,8 +101,25 @@ abstract class OutboundMessage extends NetworkMessage {
 
     // compressed stream wrapped bytes must be no-close wrapped since we need to close the compressed wrapper below to release
     // resources and write EOS marker bytes but must not yet release the bytes themselves
-    private OutputStreamStreamOutput wrapCompressed(BytesStreamOutput bytesStream) throws IOException {
-        return new OutputStreamStreamOutput(CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.noCloseStream(bytesStream)));
+    private OutputStream wrapCompressed(BytesStreamOutput bytesStream) throws IOException {
+        return compressionScheme.compressor().threadLocalOutputStream(Streams.noCloseStream(bytesStream));
+    }
+
+    @Nullable
+    Compression.Scheme getCompressionScheme() {
+        return compressionScheme;
+    }
+
+    long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    long getCompressedSize() {
+        return compressedSize;
+    }
+
+    long getCompressionTimeNanos() {
+        return compressionTimeNanos;
     }
 
     protected void writeVariableHeader(StreamOutput stream) throws IOException {
@@ -99,8 +131,9 @@ abstract class OutboundMessage extends NetworkMessage {
         private final String action;
 
         Request(ThreadContext threadContext, Writeable message, Version version, String action, long requestId,
-                boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+                boolean isHandshake, @Nullable Compression.Scheme compressionScheme) {
+            super(threadContext, version, setStatus(compressionScheme != null, isHandshake, message), requestId, compressionScheme,
+                message);
             this.action = action;
         }
 
@@ -136,8 +169,10 @@ abstract class OutboundMessage extends NetworkMessage {
 
     static class Response extends OutboundMessage {
 
-        Response(ThreadContext threadContext, Writeable message, Version version, long requestId, boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+        Response(ThreadContext threadContext, Writeable message, Version version, long requestId, boolean isHandshake,
+                 @Nullable Compression.Scheme compressionScheme) {
+            super(threadContext, version, setStatus(compressionScheme != null, isHandshake, message), requestId, compressionScheme,
+                message);
         }
 
         private static byte setStatus(boolean compress, boolean isHandshake, Writeable message) {
@@ -166,4 +201,25 @@ abstract class OutboundMessage extends NetworkMessage {
     private static boolean canCompress(Writeable message) {
         return message instanceof BytesTransportRequest == false;
     }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
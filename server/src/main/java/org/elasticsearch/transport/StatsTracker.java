@@ -17,6 +17,9 @@ public class StatsTracker {
     private final LongAdder bytesRead = new LongAdder();
     private final LongAdder messagesReceived = new LongAdder();
     private final MeanMetric writeBytesMetric = new MeanMetric();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressionTimeNanos = new LongAdder();
 
     public void markBytesRead(long bytesReceived) {
         bytesRead.add(bytesReceived);
@@ -30,6 +33,12 @@ public class StatsTracker {
         writeBytesMetric.inc(bytesWritten);
     }
 
+    public void markCompressed(long uncompressedSize, long compressedSize, long compressionTimeInNanos) {
+        uncompressedBytes.add(uncompressedSize);
+        compressedBytes.add(compressedSize);
+        compressionTimeNanos.add(compressionTimeInNanos);
+    }
+
     public long getBytesRead() {
         return bytesRead.sum();
     }
@@ -50,4 +59,16 @@ public class StatsTracker {
     public long getMessagesSent() {
         return writeBytesMetric.count();
     }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getCompressionTimeNanos() {
+        return compressionTimeNanos.sum();
+    }
 }
@@ -136,7 +136,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         String nodeName = Node.NODE_NAME_SETTING.get(settings);
         BigArrays bigArrays = new BigArrays(pageCacheRecycler, circuitBreakerService, CircuitBreaker.IN_FLIGHT_REQUESTS);
 
-        this.outboundHandler = new OutboundHandler(nodeName, version, statsTracker, threadPool, bigArrays);
+        this.outboundHandler = new OutboundHandler(nodeName, version, statsTracker, threadPool, bigArrays,
+            TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings));
         this.handshaker = new TransportHandshaker(version, threadPool,
             (node, channel, requestId, v) -> outboundHandler.sendRequest(node, channel, requestId,
                 TransportHandshaker.HANDSHAKE_ACTION_NAME, new TransportHandshaker.HandshakeRequest(version),
@@ -832,7 +833,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         final long messagesReceived = statsTracker.getMessagesReceived();
         final long bytesRead = statsTracker.getBytesRead();
         return new TransportStats(acceptedChannels.size(), outboundConnectionCount.get(),
-                messagesReceived, bytesRead, messagesSent, bytesWritten);
+                messagesReceived, bytesRead, messagesSent, bytesWritten, statsTracker.getUncompressedBytes(),
+                statsTracker.getCompressedBytes(), TimeUnit.NANOSECONDS.toMillis(statsTracker.getCompressionTimeNanos()));
     }
 
     /**
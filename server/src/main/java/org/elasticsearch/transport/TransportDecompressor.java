@@ -14,6 +14,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.Lz4Compressor;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.util.PageCacheRecycler;
@@ -23,24 +24,43 @@ import java.util.ArrayDeque;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
+/**
+ * Decompresses the content of a compressed transport message into recycled pages. The compression scheme of the message is detected
+ * from the header of its content.
+ */
 public class TransportDecompressor implements Releasable {
 
-    private final Inflater inflater;
     private final PageCacheRecycler recycler;
     private final ArrayDeque<Recycler.V<byte[]>> pages;
     private int pageOffset = PageCacheRecycler.BYTE_PAGE_SIZE;
-    private boolean hasReadHeader = false;
+    private Compression.Scheme scheme;
+
+    // only set when the content is compressed with DEFLATE
+    private Inflater inflater;
+
+    // state of the LZ4 block that is being read, when the content is compressed with LZ4
+    private final byte[] lz4BlockHeader = new byte[Lz4Compressor.BLOCK_HEADER_LENGTH];
+    private int lz4BlockHeaderOffset;
+    private int lz4UncompressedLength;
+    private int lz4CompressedLength;
+    private Recycler.V<byte[]> lz4CompressedPage;
+    private int lz4CompressedOffset;
+    private boolean lz4Finished;
 
     public TransportDecompressor(PageCacheRecycler recycler) {
         this.recycler = recycler;
-        inflater = new Inflater(true);
         pages = new ArrayDeque<>(4);
     }
 
     public int decompress(BytesReference bytesReference) throws IOException {
         int bytesConsumed = 0;
-        if (hasReadHeader == false) {
-            if (CompressorFactory.COMPRESSOR.isCompressed(bytesReference) == false) {
+        if (scheme == null) {
+            if (CompressorFactory.COMPRESSOR.isCompressed(bytesReference)) {
+                scheme = Compression.Scheme.DEFLATE;
+                inflater = new Inflater(true);
+            } else if (CompressorFactory.LZ4_COMPRESSOR.isCompressed(bytesReference)) {
+                scheme = Compression.Scheme.LZ4;
+            } else {
                 int maxToRead = Math.min(bytesReference.length(), 10);
                 StringBuilder sb = new StringBuilder("stream marked as compressed, but no compressor found, first [")
                     .append(maxToRead).append("] content bytes out of [").append(bytesReference.length())
@@ -51,12 +71,21 @@ public class TransportDecompressor implements Releasable {
                 sb.append("]");
                 throw new IllegalStateException(sb.toString());
             }
-            hasReadHeader = true;
-            int headerLength = CompressorFactory.COMPRESSOR.headerLength();
+            int headerLength = scheme.compressor().headerLength();
             bytesReference = bytesReference.slice(headerLength, bytesReference.length() - headerLength);
             bytesConsumed += headerLength;
         }
 
+        if (scheme == Compression.Scheme.DEFLATE) {
+            bytesConsumed += inflate(bytesReference);
+        } else {
+            bytesConsumed += decompressLz4(bytesReference);
+        }
+        return bytesConsumed;
+    }
+
+    private int inflate(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
         BytesRefIterator refIterator = bytesReference.iterator();
         BytesRef ref;
         while ((ref = refIterator.next()) != null) {
@@ -101,12 +130,97 @@ public class TransportDecompressor implements Releasable {
         return bytesConsumed;
     }
 
+    private int decompressLz4(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
+        BytesRefIterator refIterator = bytesReference.iterator();
+        BytesRef ref;
+        while (lz4Finished == false && (ref = refIterator.next()) != null) {
+            int offset = ref.offset;
+            final int end = ref.offset + ref.length;
+            while (lz4Finished == false && offset < end) {
+                if (lz4BlockHeaderOffset < Lz4Compressor.BLOCK_HEADER_LENGTH) {
+                    offset += readLz4BlockHeader(ref.bytes, offset, end);
+                } else if (lz4CompressedOffset == 0 && end - offset >= lz4CompressedLength) {
+                    // the whole block is available, no need to copy it
+                    decompressLz4Block(ref.bytes, offset);
+                    offset += lz4CompressedLength;
+                } else {
+                    if (lz4CompressedPage == null) {
+                        lz4CompressedPage = recycler.bytePage(false);
+                    }
+                    final int toCopy = Math.min(end - offset, lz4CompressedLength - lz4CompressedOffset);
+                    System.arraycopy(ref.bytes, offset, lz4CompressedPage.v(), lz4CompressedOffset, toCopy);
+                    offset += toCopy;
+                    lz4CompressedOffset += toCopy;
+                    if (lz4CompressedOffset == lz4CompressedLength) {
+                        decompressLz4Block(lz4CompressedPage.v(), 0);
+                        lz4CompressedOffset = 0;
+                    }
+                }
+            }
+            bytesConsumed += offset - ref.offset;
+        }
+        return bytesConsumed;
+    }
+
+    private int readLz4BlockHeader(byte[] bytes, int offset, int end) throws IOException {
+        // the end of the stream is marked by an uncompressed length of zero, which is not followed by a compressed length
+        final int headerEnd = lz4BlockHeaderOffset < Integer.BYTES ? Integer.BYTES : Lz4Compressor.BLOCK_HEADER_LENGTH;
+        final int toCopy = Math.min(end - offset, headerEnd - lz4BlockHeaderOffset);
+        System.arraycopy(bytes, offset, lz4BlockHeader, lz4BlockHeaderOffset, toCopy);
+        lz4BlockHeaderOffset += toCopy;
+        if (lz4BlockHeaderOffset == Integer.BYTES) {
+            lz4UncompressedLength = Lz4Compressor.readBlockLength(lz4BlockHeader, 0);
+            if (lz4UncompressedLength == 0) {
+                lz4Finished = true;
+            } else if (lz4UncompressedLength < 0 || lz4UncompressedLength > Lz4Compressor.BLOCK_SIZE) {
+                throw new IOException("Corrupt LZ4 stream: invalid block length [" + lz4UncompressedLength + "]");
+            }
+        } else if (lz4BlockHeaderOffset == Lz4Compressor.BLOCK_HEADER_LENGTH) {
+            lz4CompressedLength = Lz4Compressor.readBlockLength(lz4BlockHeader, Integer.BYTES);
+            if (lz4CompressedLength <= 0 || lz4CompressedLength > lz4UncompressedLength) {
+                throw new IOException("Corrupt LZ4 stream: invalid compressed block length [" + lz4CompressedLength + "]");
+            }
+        }
+        return toCopy;
+    }
+
+    private void decompressLz4Block(byte[] bytes, int offset) throws IOException {
+        if (lz4CompressedLength == lz4UncompressedLength) {
+            // the block did not compress and was stored as-is
+            writeToPages(bytes, offset, lz4UncompressedLength);
+        } else {
+            try (Recycler.V<byte[]> block = recycler.bytePage(false)) {
+                Lz4Compressor.decompressBlock(bytes, offset, lz4CompressedLength, block.v(), 0, lz4UncompressedLength);
+                writeToPages(block.v(), 0, lz4UncompressedLength);
+            }
+        }
+        lz4BlockHeaderOffset = 0;
+    }
+
+    private void writeToPages(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (pageOffset == PageCacheRecycler.BYTE_PAGE_SIZE) {
+                pages.add(recycler.bytePage(false));
+                pageOffset = 0;
+            }
+            final int toCopy = Math.min(length, PageCacheRecycler.BYTE_PAGE_SIZE - pageOffset);
+            System.arraycopy(bytes, offset, pages.getLast().v(), pageOffset, toCopy);
+            pageOffset += toCopy;
+            offset += toCopy;
+            length -= toCopy;
+        }
+    }
+
     public boolean canDecompress(int bytesAvailable) {
-        return hasReadHeader || bytesAvailable >= CompressorFactory.COMPRESSOR.headerLength();
+        return scheme != null || bytesAvailable >= CompressorFactory.COMPRESSOR.headerLength();
     }
 
     public boolean isEOS() {
-        return inflater.finished();
+        if (scheme == Compression.Scheme.DEFLATE) {
+            return inflater.finished();
+        }
+        return lz4Finished;
     }
 
     public ReleasableBytesReference pollDecompressedPage() {
@@ -129,7 +243,12 @@ public class TransportDecompressor implements Releasable {
 
     @Override
     public void close() {
-        inflater.end();
+        if (inflater != null) {
+            inflater.end();
+        }
+        if (lz4CompressedPage != null) {
+            lz4CompressedPage.close();
+        }
         for (Recycler.V<byte[]> page : pages) {
             page.close();
         }
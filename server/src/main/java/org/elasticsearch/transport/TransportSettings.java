@@ -21,6 +21,7 @@ import java.util.function.Function;
 import static java.util.Collections.emptyList;
 import static org.elasticsearch.common.settings.Setting.affixKeySetting;
 import static org.elasticsearch.common.settings.Setting.boolSetting;
+import static org.elasticsearch.common.settings.Setting.enumSetting;
 import static org.elasticsearch.common.settings.Setting.intSetting;
 import static org.elasticsearch.common.settings.Setting.listSetting;
 import static org.elasticsearch.common.settings.Setting.timeSetting;
@@ -51,6 +52,8 @@ public final class TransportSettings {
         key -> intSetting(key, -1, -1, Setting.Property.NodeScope));
     public static final Setting<Boolean> TRANSPORT_COMPRESS =
         boolSetting("transport.compress", false, Setting.Property.NodeScope);
+    public static final Setting<Compression.Scheme> TRANSPORT_COMPRESSION_SCHEME =
+        enumSetting(Compression.Scheme.class, "transport.compression_scheme", Compression.Scheme.DEFLATE, Setting.Property.NodeScope);
     // the scheduled internal ping interval setting, defaults to disabled (-1)
     public static final Setting<TimeValue> PING_SCHEDULE =
         timeSetting("transport.ping_schedule", TimeValue.timeValueSeconds(-1), Setting.Property.NodeScope);
@@ -8,10 +8,12 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
@@ -25,14 +27,21 @@ public class TransportStats implements Writeable, ToXContentFragment {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txUncompressedSize;
+    private final long txCompressedSize;
+    private final long txCompressionTimeInMillis;
 
-    public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize) {
+    public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize,
+                          long txUncompressedSize, long txCompressedSize, long txCompressionTimeInMillis) {
         this.serverOpen = serverOpen;
         this.totalOutboundConnections = totalOutboundConnections;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txUncompressedSize = txUncompressedSize;
+        this.txCompressedSize = txCompressedSize;
+        this.txCompressionTimeInMillis = txCompressionTimeInMillis;
     }
 
     public TransportStats(StreamInput in) throws IOException {
@@ -42,6 +51,15 @@ public class TransportStats implements Writeable, ToXContentFragment {
         rxSize = in.readVLong();
         txCount = in.readVLong();
         txSize = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            txUncompressedSize = in.readVLong();
+            txCompressedSize = in.readVLong();
+            txCompressionTimeInMillis = in.readVLong();
+        } else {
+            txUncompressedSize = 0;
+            txCompressedSize = 0;
+            txCompressionTimeInMillis = 0;
+        }
     }
 
     @Override
@@ -52,6 +70,11 @@ public class TransportStats implements Writeable, ToXContentFragment {
         out.writeVLong(rxSize);
         out.writeVLong(txCount);
         out.writeVLong(txSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(txUncompressedSize);
+            out.writeVLong(txCompressedSize);
+            out.writeVLong(txCompressionTimeInMillis);
+        }
     }
 
     public long serverOpen() {
@@ -94,6 +117,27 @@ public class TransportStats implements Writeable, ToXContentFragment {
         return txSize();
     }
 
+    /**
+     * The size of compressed messages that were sent, before compression.
+     */
+    public ByteSizeValue getTxUncompressedSize() {
+        return new ByteSizeValue(txUncompressedSize);
+    }
+
+    /**
+     * The size of compressed messages that were sent, after compression.
+     */
+    public ByteSizeValue getTxCompressedSize() {
+        return new ByteSizeValue(txCompressedSize);
+    }
+
+    /**
+     * The time spent serializing and compressing compressed messages that were sent.
+     */
+    public TimeValue getTxCompressionTime() {
+        return new TimeValue(txCompressionTimeInMillis);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.TRANSPORT);
@@ -103,6 +147,11 @@ public class TransportStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.RX_SIZE_IN_BYTES, Fields.RX_SIZE, new ByteSizeValue(rxSize));
         builder.field(Fields.TX_COUNT, txCount);
         builder.humanReadableField(Fields.TX_SIZE_IN_BYTES, Fields.TX_SIZE, new ByteSizeValue(txSize));
+        builder.humanReadableField(Fields.TX_UNCOMPRESSED_SIZE_IN_BYTES, Fields.TX_UNCOMPRESSED_SIZE,
+            new ByteSizeValue(txUncompressedSize));
+        builder.humanReadableField(Fields.TX_COMPRESSED_SIZE_IN_BYTES, Fields.TX_COMPRESSED_SIZE, new ByteSizeValue(txCompressedSize));
+        builder.humanReadableField(Fields.TX_COMPRESSION_TIME_IN_MILLIS, Fields.TX_COMPRESSION_TIME,
+            new TimeValue(txCompressionTimeInMillis));
         builder.endObject();
         return builder;
     }
@@ -117,5 +166,11 @@ public class TransportStats implements Writeable, ToXContentFragment {
         static final String TX_COUNT = "tx_count";
         static final String TX_SIZE = "tx_size";
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
+        static final String TX_UNCOMPRESSED_SIZE = "tx_uncompressed_size";
+        static final String TX_UNCOMPRESSED_SIZE_IN_BYTES = "tx_uncompressed_size_in_bytes";
+        static final String TX_COMPRESSED_SIZE = "tx_compressed_size";
+        static final String TX_COMPRESSED_SIZE_IN_BYTES = "tx_compressed_size_in_bytes";
+        static final String TX_COMPRESSION_TIME = "tx_compression_time";
+        static final String TX_COMPRESSION_TIME_IN_MILLIS = "tx_compression_time_in_millis";
     }
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * A message whose serialized form may end with a large blob of bytes, like the content of a file. The transport appends these bytes to
+ * the serialized message by reference instead of copying them into its buffers, unless the message is compressed.
+ */
+public interface ZeroCopyWriteable extends Writeable {
+
+    /**
+     * Writes the message in a "thin" manner, without the trailing bytes but with their length, and returns the trailing bytes that must
+     * be appended right after this content, which must not be released before the message is sent. Returns an empty reference if the
+     * whole message was written, for instance because the receiving node expects the bytes elsewhere in the message.
+     */
+    BytesReference writeThin(StreamOutput out) throws IOException;
+}
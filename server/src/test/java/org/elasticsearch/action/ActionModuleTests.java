@@ -96,25 +96,30 @@ public class ActionModuleTests extends ESTestCase {
 
     public void testSetupRestHandlerContainsKnownBuiltin() {
         SettingsModule settings = new SettingsModule(Settings.EMPTY);
-        UsageService usageService = new UsageService();
-        ActionModule actionModule = new ActionModule(settings.getSettings(),
-            TestIndexNameExpressionResolver.newInstance(),
-            settings.getIndexScopedSettings(), settings.getClusterSettings(), settings.getSettingsFilter(), null, emptyList(), null,
-            null, usageService, null);
-        actionModule.initRestHandlers(null);
-        // At this point the easiest way to confirm that a handler is loaded is to try to register another one on top of it and to fail
-        Exception e = expectThrows(IllegalArgumentException.class, () ->
-            actionModule.getRestController().registerHandler(new RestHandler() {
-                @Override
-                public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
-                }
-
-                @Override
-                public List<Route> routes() {
-                    return List.of(new Route(GET, "/"));
-                }
-            }));
-        assertThat(e.getMessage(), startsWith("Cannot replace existing handler for [/] for method: GET"));
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            UsageService usageService = new UsageService();
+            ActionModule actionModule = new ActionModule(settings.getSettings(),
+                TestIndexNameExpressionResolver.newInstance(),
+                settings.getIndexScopedSettings(), settings.getClusterSettings(), settings.getSettingsFilter(), threadPool, emptyList(),
+                null, null, usageService, null);
+            actionModule.initRestHandlers(null);
+            // At this point the easiest way to confirm that a handler is loaded is to try to register another one on top of it and to fail
+            Exception e = expectThrows(IllegalArgumentException.class, () ->
+                actionModule.getRestController().registerHandler(new RestHandler() {
+                    @Override
+                    public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+                    }
+
+                    @Override
+                    public List<Route> routes() {
+                        return List.of(new Route(GET, "/"));
+                    }
+                }));
+            assertThat(e.getMessage(), startsWith("Cannot replace existing handler for [/] for method: GET"));
+        } finally {
+            threadPool.shutdown();
+        }
     }
 
     public void testPluginCantOverwriteBuiltinRestHandler() throws IOException {
@@ -8,11 +8,20 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.apache.lucene.util.TestUtil.randomSimpleString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BulkShardRequestTests extends ESTestCase {
     public void testToString() {
@@ -31,4 +40,37 @@ public class BulkShardRequestTests extends ESTestCase {
         assertEquals("BulkShardRequest [" + shardId + "] containing [" + count + "] requests blocking until refresh", r.toString());
         assertEquals("requests[" + count + "], index[" + index + "][0], refresh[WAIT_UNTIL]", r.getDescription());
     }
+
+    public void testSourcesReferenceTransportMessage() throws Exception {
+        final ShardId shardId = new ShardId(randomSimpleString(random(), 1, 10), "ignored", 0);
+        final BulkItemRequest[] items = new BulkItemRequest[between(1, 10)];
+        for (int i = 0; i < items.length; i++) {
+            final IndexRequest request = new IndexRequest(shardId.getIndexName()).id(Integer.toString(i))
+                .source(XContentType.JSON, "field", randomAlphaOfLength(10));
+            items[i] = new BulkItemRequest(i, request);
+        }
+        final BulkShardRequest outRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final AtomicBoolean released = new AtomicBoolean();
+        final BulkShardRequest inRequest;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            outRequest.writeTo(out);
+            try (ReleasableBytesReference message = new ReleasableBytesReference(out.bytes(), () -> released.set(true));
+                 StreamInput in = message.streamInput()) {
+                inRequest = new BulkShardRequest(in);
+            }
+        }
+        assertFalse("the sources still reference the message", released.get());
+        for (int i = 0; i < items.length; i++) {
+            final IndexRequest request = (IndexRequest) inRequest.items()[i].request();
+            assertThat(request.source(), instanceOf(ReleasableBytesReference.class));
+            assertThat(request.source(), equalTo(((IndexRequest) items[i].request()).source()));
+        }
+
+        inRequest.incRef();
+        assertFalse(inRequest.decRef());
+        assertFalse(released.get());
+        assertTrue(inRequest.decRef());
+        assertTrue(released.get());
+    }
 }
@@ -11,6 +11,9 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.bulk.TransportBulkActionTookTests.Resolver;
@@ -19,6 +22,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.ActionTestUtils;
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.DataStream;
@@ -28,6 +32,7 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
+import org.elasticsearch.cluster.routing.OperationRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -38,8 +43,10 @@ import org.elasticsearch.index.VersionType;
 import org.elasticsearch.indices.EmptySystemIndices;
 import org.elasticsearch.indices.SystemIndexDescriptor;
 import org.elasticsearch.indices.SystemIndices;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.VersionUtils;
+import org.elasticsearch.test.client.NoOpNodeClient;
 import org.elasticsearch.test.transport.CapturingTransport;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -47,9 +54,13 @@ import org.elasticsearch.transport.TransportService;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
@@ -57,8 +68,11 @@ import java.util.concurrent.TimeUnit;
 import static org.elasticsearch.action.bulk.TransportBulkAction.prohibitCustomRoutingOnDataStream;
 import static org.elasticsearch.cluster.metadata.MetadataCreateDataStreamServiceTests.createDataStream;
 import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.elasticsearch.test.ClusterServiceUtils.setState;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TransportBulkActionTests extends ESTestCase {
 
@@ -67,6 +81,7 @@ public class TransportBulkActionTests extends ESTestCase {
     private ClusterService clusterService;
     private TestThreadPool threadPool;
 
+    private List<BulkShardRequest> shardRequests;
     private TestTransportBulkAction bulkAction;
 
     class TestTransportBulkAction extends TransportBulkAction {
@@ -74,9 +89,10 @@ public class TransportBulkActionTests extends ESTestCase {
         volatile boolean failIndexCreation = false;
         boolean indexCreated = false; // set when the "real" index is created
 
-        TestTransportBulkAction() {
+        TestTransportBulkAction(List<BulkShardRequest> shardRequests) {
             super(TransportBulkActionTests.this.threadPool, transportService, clusterService, null,
-                    null, new ActionFilters(Collections.emptySet()), new Resolver(),
+                    new CapturingShardRequestsClient(TransportBulkActionTests.this.threadPool, shardRequests),
+                    new ActionFilters(Collections.emptySet()), new Resolver(),
                     new IndexingPressure(Settings.EMPTY), EmptySystemIndices.INSTANCE);
         }
 
@@ -91,6 +107,36 @@ public class TransportBulkActionTests extends ESTestCase {
         }
     }
 
+    /**
+     * Captures the shard level bulk requests and fails all of their items.
+     */
+    static class CapturingShardRequestsClient extends NoOpNodeClient {
+
+        private final List<BulkShardRequest> shardRequests;
+
+        CapturingShardRequestsClient(ThreadPool threadPool, List<BulkShardRequest> shardRequests) {
+            super(threadPool);
+            this.shardRequests = shardRequests;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <Request extends ActionRequest, Response extends ActionResponse>
+        Task executeLocally(ActionType<Response> action, Request request, ActionListener<Response> listener) {
+            assertThat(action, equalTo(TransportShardBulkAction.TYPE));
+            BulkShardRequest shardRequest = (BulkShardRequest) request;
+            shardRequests.add(shardRequest);
+            BulkItemResponse[] responses = new BulkItemResponse[shardRequest.items().length];
+            for (int i = 0; i < responses.length; i++) {
+                BulkItemRequest item = shardRequest.items()[i];
+                responses[i] = new BulkItemResponse(item.id(), item.request().opType(),
+                    new BulkItemResponse.Failure(item.index(), item.request().id(), new IllegalStateException("captured")));
+            }
+            ((ActionListener<BulkShardResponse>) listener).onResponse(new BulkShardResponse(shardRequest.shardId(), responses));
+            return null;
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         super.setUp();
@@ -104,7 +150,8 @@ public class TransportBulkActionTests extends ESTestCase {
             boundAddress -> clusterService.localNode(), null, Collections.emptySet());
         transportService.start();
         transportService.acceptIncomingRequests();
-        bulkAction = new TestTransportBulkAction();
+        shardRequests = Collections.synchronizedList(new ArrayList<>());
+        bulkAction = new TestTransportBulkAction(shardRequests);
     }
 
     @After
@@ -259,6 +306,125 @@ public class TransportBulkActionTests extends ESTestCase {
         assertFalse(bulkAction.isOnlySystem(buildBulkRequest(mixed), indicesLookup, systemIndices));
     }
 
+    public void testSplitIntoChunks() {
+        int numItems = randomIntBetween(1, 500);
+        int numIds = randomIntBetween(1, numItems);
+        List<BulkItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < numItems; i++) {
+            String id = rarely() ? null : Integer.toString(randomIntBetween(0, numIds - 1));
+            requests.add(new BulkItemRequest(i, new IndexRequest("index").id(id)));
+        }
+        int chunkSize = randomIntBetween(0, 50);
+        List<List<BulkItemRequest>> chunks = TransportBulkAction.splitIntoChunks(requests, chunkSize);
+        if (chunkSize == 0 || numItems <= chunkSize) {
+            assertThat(chunks, equalTo(List.of(requests)));
+            return;
+        }
+        Map<String, Integer> chunkById = new HashMap<>();
+        Set<Integer> seenItems = new HashSet<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            int previousItem = -1;
+            int itemsWithoutRepeatedIds = 0;
+            for (BulkItemRequest request : chunks.get(c)) {
+                // the items keep their order within a chunk
+                assertThat(request.id(), greaterThan(previousItem));
+                previousItem = request.id();
+                assertTrue(seenItems.add(request.id()));
+                String id = request.request().id();
+                if (id == null) {
+                    itemsWithoutRepeatedIds++;
+                } else {
+                    // all the operations on a document are in the same chunk
+                    Integer previousChunk = chunkById.putIfAbsent(id, c);
+                    if (previousChunk == null) {
+                        itemsWithoutRepeatedIds++;
+                    } else {
+                        assertThat(previousChunk, equalTo(c));
+                    }
+                }
+            }
+            assertThat(itemsWithoutRepeatedIds, lessThanOrEqualTo(chunkSize));
+        }
+        assertThat(seenItems.size(), equalTo(numItems));
+    }
+
+    public void testDoesNotSplitShardRequestsThatRefresh() throws Exception {
+        createIndex("index", 1);
+        setShardRequestChunkSize(2);
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < 20; i++) {
+            bulkRequest.add(new IndexRequest("index").id("id" + i).source(Collections.emptyMap()));
+        }
+        ActionTestUtils.executeBlocking(bulkAction, bulkRequest);
+        assertThat(shardRequests.size(), greaterThan(1));
+        for (BulkShardRequest shardRequest : shardRequests) {
+            assertThat(shardRequest.getRefreshPolicy(), equalTo(WriteRequest.RefreshPolicy.NONE));
+        }
+
+        shardRequests.clear();
+        WriteRequest.RefreshPolicy refreshPolicy = randomFrom(WriteRequest.RefreshPolicy.IMMEDIATE, WriteRequest.RefreshPolicy.WAIT_UNTIL);
+        bulkRequest = new BulkRequest().setRefreshPolicy(refreshPolicy);
+        for (int i = 0; i < 20; i++) {
+            bulkRequest.add(new IndexRequest("index").id("id" + i).source(Collections.emptyMap()));
+        }
+        ActionTestUtils.executeBlocking(bulkAction, bulkRequest);
+        assertThat(shardRequests.size(), equalTo(1));
+        assertThat(shardRequests.get(0).getRefreshPolicy(), equalTo(refreshPolicy));
+        assertThat(shardRequests.get(0).items().length, equalTo(20));
+    }
+
+    public void testGroupsItemsByShard() throws Exception {
+        int numberOfShards = randomIntBetween(1, 5);
+        createIndex("index", numberOfShards);
+        setShardRequestChunkSize(randomIntBetween(0, 5));
+        BulkRequest bulkRequest = new BulkRequest();
+        int numItems = randomIntBetween(1, 200);
+        for (int i = 0; i < numItems; i++) {
+            String id = Integer.toString(randomIntBetween(0, numItems));
+            if (randomBoolean()) {
+                bulkRequest.add(new IndexRequest("index").id(id).source(Collections.emptyMap()));
+            } else {
+                bulkRequest.add(new DeleteRequest("index").id(id));
+            }
+        }
+        BulkResponse response = ActionTestUtils.executeBlocking(bulkAction, bulkRequest);
+
+        IndexMetadata indexMetadata = clusterService.state().metadata().index("index");
+        Set<Integer> seenItems = new HashSet<>();
+        for (BulkShardRequest shardRequest : shardRequests) {
+            int previousItem = -1;
+            for (BulkItemRequest item : shardRequest.items()) {
+                // the items keep their order within a shard request
+                assertThat(item.id(), greaterThan(previousItem));
+                previousItem = item.id();
+                assertTrue(seenItems.add(item.id()));
+                // each item is in the slot of its request and sent to the shard of its document
+                assertSame(bulkRequest.requests().get(item.id()), item.request());
+                int shardId = OperationRouting.generateShardId(indexMetadata, item.request().id(), item.request().routing());
+                assertThat(shardRequest.shardId().id(), equalTo(shardId));
+            }
+        }
+        assertThat(seenItems.size(), equalTo(numItems));
+        assertThat(response.getItems().length, equalTo(numItems));
+        for (int i = 0; i < numItems; i++) {
+            assertThat(response.getItems()[i].getItemId(), equalTo(i));
+            assertThat(response.getItems()[i].getId(), equalTo(bulkRequest.requests().get(i).id()));
+        }
+    }
+
+    private void createIndex(String index, int numberOfShards) {
+        IndexMetadata.Builder indexMetadata = IndexMetadata.builder(index)
+            .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT))
+            .numberOfShards(numberOfShards)
+            .numberOfReplicas(0);
+        setState(clusterService, ClusterState.builder(clusterService.state()).metadata(Metadata.builder().put(indexMetadata)));
+    }
+
+    private void setShardRequestChunkSize(int chunkSize) {
+        clusterService.getClusterSettings().applySettings(
+            Settings.builder().put(TransportBulkAction.SHARD_REQUEST_CHUNK_SIZE_SETTING.getKey(), chunkSize).build());
+    }
+
     public void testRejectionAfterCreateIndexIsPropagated() throws Exception {
         BulkRequest bulkRequest = new BulkRequest().add(new IndexRequest("index").id("id").source(Collections.emptyMap()));
         bulkAction.failIndexCreation = randomBoolean();
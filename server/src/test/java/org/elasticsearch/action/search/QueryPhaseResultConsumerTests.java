@@ -11,19 +11,30 @@ package org.elasticsearch.action.search;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.BucketOrder;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.elasticsearch.search.aggregations.metrics.InternalMax;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
@@ -34,11 +45,17 @@ import org.junit.Before;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
 public class QueryPhaseResultConsumerTests extends ESTestCase {
 
     private SearchPhaseController searchPhaseController;
@@ -113,6 +130,113 @@ public class QueryPhaseResultConsumerTests extends ESTestCase {
         assertEquals(1, searchProgressListener.onFinalReduce.get());
     }
 
+    public void testStreamingReduce() throws Exception {
+        int batchedReduceSize = randomIntBetween(2, 10);
+        int numShards = randomIntBetween(batchedReduceSize + 1, 50);
+        List<InternalAggregations> shardAggs = new ArrayList<>();
+        Map<String, Long> expectedCounts = new TreeMap<>();
+        double expectedMax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numShards; i++) {
+            List<StringTerms.Bucket> buckets = new ArrayList<>();
+            for (int term = 0; term < 10; term++) {
+                if (randomBoolean()) {
+                    long docCount = randomLongBetween(1, 100);
+                    String key = "term" + term;
+                    expectedCounts.merge(key, docCount, Long::sum);
+                    buckets.add(new StringTerms.Bucket(new BytesRef(key), docCount, InternalAggregations.EMPTY, false, 0,
+                        DocValueFormat.RAW));
+                }
+            }
+            double max = randomDouble();
+            expectedMax = Math.max(expectedMax, max);
+            StringTerms terms = new StringTerms("terms", BucketOrder.key(true), BucketOrder.count(false), 10, 1, null,
+                DocValueFormat.RAW, 10, false, 0, buckets, 0);
+            shardAggs.add(InternalAggregations.from(List.of(terms, new InternalMax("max", max, DocValueFormat.RAW, null))));
+        }
+
+        SearchRequest searchRequest = new SearchRequest("index");
+        searchRequest.source(new SearchSourceBuilder().size(0)
+            .aggregation(AggregationBuilders.terms("terms").field("field"))
+            .aggregation(AggregationBuilders.max("max").field("field")));
+        searchRequest.setStreamingReduce(true);
+        searchRequest.setBatchedReduceSize(batchedReduceSize);
+        AtomicReference<Exception> onPartialMergeFailure = new AtomicReference<>();
+        QueryPhaseResultConsumer consumer = new QueryPhaseResultConsumer(searchRequest, executor,
+            new NoopCircuitBreaker(CircuitBreaker.REQUEST), searchPhaseController, SearchProgressListener.NOOP,
+            writableRegistry(), numShards, onPartialMergeFailure::set);
+        CountDownLatch latch = new CountDownLatch(numShards);
+        for (int i = 0; i < numShards; i++) {
+            QuerySearchResult result = new QuerySearchResult();
+            TopDocs topDocs = new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+            result.topDocs(new TopDocsAndMaxScore(topDocs, Float.NaN), new DocValueFormat[0]);
+            result.setSearchShardTarget(new SearchShardTarget("node", new ShardId("index", "uuid", i), null, OriginalIndices.NONE));
+            result.setShardIndex(i);
+            result.aggregations(shardAggs.get(i));
+            consumer.consumeResult(result, latch::countDown);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNull(onPartialMergeFailure.get());
+        SearchPhaseController.ReducedQueryPhase reduced = consumer.reduce();
+        // partial reduces only run every batched_reduce_size results
+        assertThat(reduced.numReducePhases, greaterThan(1));
+        assertThat(reduced.numReducePhases, lessThanOrEqualTo(numShards / (batchedReduceSize - 1) + 1));
+        StringTerms terms = reduced.aggregations.get("terms");
+        Map<String, Long> actualCounts = new TreeMap<>();
+        for (StringTerms.Bucket bucket : terms.getBuckets()) {
+            actualCounts.put(bucket.getKeyAsString(), bucket.getDocCount());
+        }
+        assertEquals(expectedCounts, actualCounts);
+        assertEquals(0, terms.getSumOfOtherDocCounts());
+        InternalMax max = reduced.aggregations.get("max");
+        assertEquals(expectedMax, max.getValue(), 0d);
+        consumer.close();
+    }
+
+    public void testStreamingReduceIsAccountedInTheRequestCircuitBreaker() throws Exception {
+        BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), ByteSizeValue.ofBytes(1));
+        SearchPhaseController controller = new SearchPhaseController(writableRegistry(),
+            s -> new InternalAggregation.ReduceContextBuilder() {
+                @Override
+                public InternalAggregation.ReduceContext forPartialReduction() {
+                    return InternalAggregation.ReduceContext.forPartialReduction(
+                        bigArrays, null, () -> PipelineAggregator.PipelineTree.EMPTY);
+                }
+
+                public InternalAggregation.ReduceContext forFinalReduction() {
+                    return InternalAggregation.ReduceContext.forFinalReduction(
+                        bigArrays, null, b -> {}, PipelineAggregator.PipelineTree.EMPTY);
+                };
+            });
+        int numShards = randomIntBetween(3, 10);
+        SearchRequest searchRequest = new SearchRequest("index");
+        searchRequest.source(new SearchSourceBuilder().size(0).aggregation(AggregationBuilders.terms("terms").field("field")));
+        searchRequest.setStreamingReduce(true);
+        searchRequest.setBatchedReduceSize(2);
+        AtomicReference<Exception> onPartialMergeFailure = new AtomicReference<>();
+        QueryPhaseResultConsumer consumer = new QueryPhaseResultConsumer(searchRequest, executor,
+            new NoopCircuitBreaker(CircuitBreaker.REQUEST), controller, SearchProgressListener.NOOP,
+            writableRegistry(), numShards, onPartialMergeFailure::set);
+        CountDownLatch latch = new CountDownLatch(numShards);
+        for (int i = 0; i < numShards; i++) {
+            StringTerms.Bucket bucket = new StringTerms.Bucket(new BytesRef("term"), 1, InternalAggregations.EMPTY, false, 0,
+                DocValueFormat.RAW);
+            StringTerms terms = new StringTerms("terms", BucketOrder.key(true), BucketOrder.count(false), 10, 1, null,
+                DocValueFormat.RAW, 10, false, 0, List.of(bucket), 0);
+            QuerySearchResult result = new QuerySearchResult();
+            TopDocs topDocs = new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+            result.topDocs(new TopDocsAndMaxScore(topDocs, Float.NaN), new DocValueFormat[0]);
+            result.setSearchShardTarget(new SearchShardTarget("node", new ShardId("index", "uuid", i), null, OriginalIndices.NONE));
+            result.setShardIndex(i);
+            result.aggregations(InternalAggregations.from(List.of(terms)));
+            consumer.consumeResult(result, latch::countDown);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        // the reducer cannot allocate its arrays without tripping the breaker of the reduce context
+        assertThat(onPartialMergeFailure.get(), instanceOf(CircuitBreakingException.class));
+        expectThrows(CircuitBreakingException.class, consumer::reduce);
+        consumer.close();
+    }
+
     private static class ThrowingSearchProgressListener extends SearchProgressListener {
         private final AtomicInteger onQueryResult = new AtomicInteger(0);
         private final AtomicInteger onPartialReduce = new AtomicInteger(0);
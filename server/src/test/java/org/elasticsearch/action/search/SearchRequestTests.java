@@ -76,11 +76,17 @@ public class SearchRequestTests extends AbstractSearchTestCase {
             // Versions before 7.11.0 don't support runtime mappings
             searchRequest.source().runtimeMappings(emptyMap());
         }
+        searchRequest.setStreamingReduce(randomBoolean());
         SearchRequest deserializedRequest = copyWriteable(searchRequest, namedWriteableRegistry, SearchRequest::new, version);
         assertEquals(searchRequest.isCcsMinimizeRoundtrips(), deserializedRequest.isCcsMinimizeRoundtrips());
         assertEquals(searchRequest.getLocalClusterAlias(), deserializedRequest.getLocalClusterAlias());
         assertEquals(searchRequest.getAbsoluteStartMillis(), deserializedRequest.getAbsoluteStartMillis());
         assertEquals(searchRequest.isFinalReduce(), deserializedRequest.isFinalReduce());
+        if (version.onOrAfter(Version.V_8_0_0)) {
+            assertEquals(searchRequest.isStreamingReduce(), deserializedRequest.isStreamingReduce());
+        } else {
+            assertFalse(deserializedRequest.isStreamingReduce());
+        }
     }
 
     public void testIllegalArguments() {
@@ -224,6 +230,7 @@ public class SearchRequestTests extends AbstractSearchTestCase {
             () -> randomFrom(SearchType.DFS_QUERY_THEN_FETCH, SearchType.QUERY_THEN_FETCH))));
         mutators.add(() -> mutation.source(randomValueOtherThan(searchRequest.source(), this::createSearchSourceBuilder)));
         mutators.add(() -> mutation.setCcsMinimizeRoundtrips(searchRequest.isCcsMinimizeRoundtrips() == false));
+        mutators.add(() -> mutation.setStreamingReduce(searchRequest.isStreamingReduce() == false));
         randomFrom(mutators).run();
         return mutation;
     }
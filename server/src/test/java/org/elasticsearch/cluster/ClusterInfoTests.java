@@ -20,7 +20,7 @@ public class ClusterInfoTests extends ESTestCase {
     public void testSerialization() throws Exception {
         ClusterInfo clusterInfo = new ClusterInfo(
                 randomDiskUsage(), randomDiskUsage(), randomShardSizes(), randomDataSetSizes(), randomRoutingToDataPath(),
-                randomReservedSpace());
+                randomReservedSpace(), randomShardLoads(), randomShardLoads());
         BytesStreamOutput output = new BytesStreamOutput();
         clusterInfo.writeTo(output);
 
@@ -31,6 +31,8 @@ public class ClusterInfoTests extends ESTestCase {
         assertEquals(clusterInfo.shardDataSetSizes, result.shardDataSetSizes);
         assertEquals(clusterInfo.routingToDataPath, result.routingToDataPath);
         assertEquals(clusterInfo.reservedSpace, result.reservedSpace);
+        assertEquals(clusterInfo.shardWriteLoads, result.shardWriteLoads);
+        assertEquals(clusterInfo.shardSearchLoads, result.shardSearchLoads);
     }
 
     private static ImmutableOpenMap<String, DiskUsage> randomDiskUsage() {
@@ -69,6 +71,16 @@ public class ClusterInfoTests extends ESTestCase {
         return builder.build();
     }
 
+    private static ImmutableOpenMap<ShardId, Double> randomShardLoads() {
+        int numEntries = randomIntBetween(0, 128);
+        ImmutableOpenMap.Builder<ShardId, Double> builder = ImmutableOpenMap.builder(numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            ShardId key = new ShardId(randomAlphaOfLength(10), randomAlphaOfLength(10), between(0, Integer.MAX_VALUE));
+            builder.put(key, randomDoubleBetween(0, 64, true));
+        }
+        return builder.build();
+    }
+
     private static ImmutableOpenMap<ShardRouting, String> randomRoutingToDataPath() {
         int numEntries = randomIntBetween(0, 128);
         ImmutableOpenMap.Builder<ShardRouting, String> builder = ImmutableOpenMap.builder(numEntries);
@@ -19,6 +19,8 @@ import org.elasticsearch.cluster.routing.ShardRoutingHelper;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.search.stats.SearchStats;
+import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.store.StoreStats;
@@ -29,6 +31,7 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -133,6 +136,49 @@ public class DiskUsageTests extends ESTestCase {
         assertEquals(test1Path.getParent().getParent().getParent().toAbsolutePath().toString(), routingToPath.get(test_1));
     }
 
+    public void testBuildShardLoads() {
+        final Index index = new Index("test", "0xdeadbeef");
+        ShardRouting primary = ShardRouting.newUnassigned(new ShardId(index, 0), true, PeerRecoverySource.INSTANCE,
+            new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
+        primary = ShardRoutingHelper.moveToStarted(ShardRoutingHelper.initialize(primary, "node1"));
+        ShardRouting replica = ShardRouting.newUnassigned(new ShardId(index, 0), false, PeerRecoverySource.INSTANCE,
+            new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, "foo"));
+        replica = ShardRoutingHelper.moveToStarted(ShardRoutingHelper.initialize(replica, "node2"));
+        Path path = createTempDir().resolve("indices").resolve(index.getUUID()).resolve("0");
+        ShardPath shardPath = new ShardPath(false, path, path, primary.shardId());
+
+        Map<String, InternalClusterInfoService.ShardLoadSample> samples = new HashMap<>();
+        ImmutableOpenMap.Builder<ShardId, Double> writeLoads = ImmutableOpenMap.builder();
+        ImmutableOpenMap.Builder<ShardId, Double> searchLoads = ImmutableOpenMap.builder();
+        ShardStats[] stats = new ShardStats[] {
+            new ShardStats(primary, shardPath, loadStats(1000, 500), null, null, null),
+            new ShardStats(replica, shardPath, loadStats(800, 100), null, null, null)
+        };
+        InternalClusterInfoService.buildShardLoads(stats, 10_000, Map.of(), samples, writeLoads, searchLoads);
+        // there is no previous sample to compute a load from
+        assertEquals(2, samples.size());
+        assertEquals(0, writeLoads.size());
+        assertEquals(0, searchLoads.size());
+
+        Map<String, InternalClusterInfoService.ShardLoadSample> newSamples = new HashMap<>();
+        stats = new ShardStats[] {
+            new ShardStats(primary, shardPath, loadStats(21_000, 2500), null, null, null),
+            new ShardStats(replica, shardPath, loadStats(10_800, 12_100), null, null, null)
+        };
+        InternalClusterInfoService.buildShardLoads(stats, 20_000, samples, newSamples, writeLoads, searchLoads);
+        assertEquals(2, newSamples.size());
+        // the load of a shard is the load of its most loaded copy
+        assertEquals(2.0, writeLoads.get(primary.shardId()), 0.0);
+        assertEquals(1.2, searchLoads.get(primary.shardId()), 0.0001);
+    }
+
+    private static CommonStats loadStats(long indexTimeInMillis, long queryTimeInMillis) {
+        CommonStats commonStats = new CommonStats();
+        commonStats.indexing = new IndexingStats(new IndexingStats.Stats(0, indexTimeInMillis, 0, 0, 0, 0, 0, 0, false, 0));
+        commonStats.search = new SearchStats(new SearchStats.Stats(0, queryTimeInMillis, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0), 0, null);
+        return commonStats;
+    }
+
     public void testFillDiskUsage() {
         ImmutableOpenMap.Builder<String, DiskUsage> newLeastAvaiableUsages = ImmutableOpenMap.builder();
         ImmutableOpenMap.Builder<String, DiskUsage> newMostAvaiableUsages = ImmutableOpenMap.builder();
@@ -151,11 +197,11 @@ public class DiskUsageTests extends ESTestCase {
         };
         List<NodeStats> nodeStats = Arrays.asList(
                 new NodeStats(new DiscoveryNode("node_1", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null, null),
+                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null, null, null),
                 new NodeStats(new DiscoveryNode("node_2", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null, null),
+                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null, null, null),
                 new NodeStats(new DiscoveryNode("node_3", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null, null)
+                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null, null, null)
         );
         InternalClusterInfoService.fillDiskUsagePerNode(nodeStats, newLeastAvaiableUsages, newMostAvaiableUsages);
         DiskUsage leastNode_1 = newLeastAvaiableUsages.get("node_1");
@@ -192,11 +238,11 @@ public class DiskUsageTests extends ESTestCase {
         };
         List<NodeStats> nodeStats = Arrays.asList(
                 new NodeStats(new DiscoveryNode("node_1", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null, null),
+                        null,null,null,null,null,new FsInfo(0, null, node1FSInfo), null,null,null,null,null, null, null, null, null),
                 new NodeStats(new DiscoveryNode("node_2", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null, null),
+                        null,null,null,null,null, new FsInfo(0, null, node2FSInfo), null,null,null,null,null, null, null, null, null),
                 new NodeStats(new DiscoveryNode("node_3", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT), 0,
-                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null, null)
+                        null,null,null,null,null, new FsInfo(0, null, node3FSInfo), null,null,null,null,null, null, null, null, null)
         );
         InternalClusterInfoService.fillDiskUsagePerNode(nodeStats, newLeastAvailableUsages, newMostAvailableUsages);
         DiskUsage leastNode_1 = newLeastAvailableUsages.get("node_1");
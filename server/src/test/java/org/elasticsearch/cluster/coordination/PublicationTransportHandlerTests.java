@@ -9,25 +9,46 @@ package org.elasticsearch.cluster.coordination;
 
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.Diff;
+import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
 import org.elasticsearch.cluster.coordination.CoordinationMetadata.VotingConfiguration;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.CapturingTransport;
+import org.elasticsearch.transport.BytesTransportRequest;
+import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class PublicationTransportHandlerTests extends ESTestCase {
 
@@ -41,8 +62,8 @@ public class PublicationTransportHandlerTests extends ESTestCase {
             TransportService.NOOP_TRANSPORT_INTERCEPTOR,
             x -> localNode,
             clusterSettings, Collections.emptySet());
-        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService,
-            writableRegistry(), pu -> null, (pu, l) -> {});
+        final PublicationTransportHandler handler = new PublicationTransportHandler(Settings.EMPTY, transportService,
+            new NoneCircuitBreakerService(), writableRegistry(), pu -> null, (pu, l) -> {});
         transportService.start();
         transportService.acceptIncomingRequests();
 
@@ -76,4 +97,187 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         assertThat(e.getCause(), instanceOf(IOException.class));
         assertThat(e.getCause().getMessage(), containsString("Simulated failure of diff serialization"));
     }
+
+    public void testSplitIntoChunks() {
+        final BytesReference bytes = new BytesArray(randomByteArrayOfLength(between(1, 1024)));
+        final int chunkSize = between(1, bytes.length() + 10);
+        final List<BytesReference> chunks = PublicationTransportHandler.splitIntoChunks(bytes, chunkSize);
+        assertThat(CompositeBytesReference.of(chunks.toArray(new BytesReference[0])), equalTo(bytes));
+        assertThat(chunks.size(), equalTo((bytes.length() + chunkSize - 1) / chunkSize));
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            assertThat(chunks.get(i).length(), equalTo(chunkSize));
+        }
+        assertThat(PublicationTransportHandler.splitIntoChunks(bytes, 0), equalTo(List.of(bytes)));
+    }
+
+    public void testReceiveChunkedClusterState() throws IOException {
+        final DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final CircuitBreakerService circuitBreakerService = newCircuitBreakerService(Settings.EMPTY);
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final AtomicReference<PublishRequest> receivedRequest = new AtomicReference<>();
+        final PublicationTransportHandler handler = newHandler(deterministicTaskQueue, localNode, circuitBreakerService,
+            publishRequest -> {
+                assertTrue(receivedRequest.compareAndSet(null, publishRequest));
+                return new PublishWithJoinResponse(new PublishResponse(publishRequest.getAcceptedState().term(),
+                    publishRequest.getAcceptedState().version()), Optional.empty());
+            });
+
+        final DiscoveryNode masterNode = new DiscoveryNode("masterNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode otherMasterNode = new DiscoveryNode("otherMasterNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final ClusterState clusterState = CoordinationStateTests.clusterState(2L, 1L,
+            DiscoveryNodes.builder().add(localNode).add(masterNode).localNodeId(masterNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final List<PublishStateChunkRequest> chunks = chunkRequests(masterNode, clusterState);
+
+        // a chunk without the chunks that precede it is rejected
+        expectThrows(IllegalStateException.class, () -> handler.handleIncomingPublishChunk(chunks.get(chunks.size() - 1)));
+        assertThat(handler.pendingPublicationChunks(), equalTo(0));
+
+        // the chunks of another master are kept apart
+        final List<PublishStateChunkRequest> otherChunks = chunkRequests(otherMasterNode, clusterState);
+        handler.handleIncomingPublishChunk(otherChunks.get(0));
+
+        // the chunks of a publication that didn't complete are released when the same master starts another one
+        final int incompleteChunks = between(1, chunks.size() - 1);
+        for (int i = 0; i < incompleteChunks; i++) {
+            handler.handleIncomingPublishChunk(chunks.get(i));
+        }
+        assertThat(handler.pendingPublicationChunks(), equalTo(1 + incompleteChunks));
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            assertThat(handler.handleIncomingPublishChunk(chunks.get(i)), sameInstance(TransportResponse.Empty.INSTANCE));
+        }
+        assertThat(handler.pendingPublicationChunks(), equalTo(chunks.size()));
+        assertThat(inFlightRequestsBytes(circuitBreakerService), greaterThan(0L));
+
+        final TransportResponse response = handler.handleIncomingPublishChunk(chunks.get(chunks.size() - 1));
+        assertThat(response, instanceOf(PublishWithJoinResponse.class));
+        assertThat(receivedRequest.get().getAcceptedState().stateUUID(), equalTo(clusterState.stateUUID()));
+        assertThat(handler.stats().getFullClusterStateReceivedCount(), equalTo(1L));
+
+        // only the chunk of the other master is still pending
+        assertThat(handler.pendingPublicationChunks(), equalTo(1));
+        assertThat(inFlightRequestsBytes(circuitBreakerService), equalTo((long) otherChunks.get(0).bytes().length()));
+
+        // and it is released once the publish timeout elapsed
+        deterministicTaskQueue.advanceTime();
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertThat(handler.pendingPublicationChunks(), equalTo(0));
+        assertThat(inFlightRequestsBytes(circuitBreakerService), equalTo(0L));
+    }
+
+    public void testPendingChunksAreAccountedInTheInFlightRequestsBreaker() throws IOException {
+        final DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final DiscoveryNode masterNode = new DiscoveryNode("masterNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final ClusterState clusterState = CoordinationStateTests.clusterState(2L, 1L,
+            DiscoveryNodes.builder().add(localNode).add(masterNode).localNodeId(masterNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final List<PublishStateChunkRequest> chunks = chunkRequests(masterNode, clusterState);
+        final int limit = chunks.get(0).bytes().length() + between(0, chunks.get(1).bytes().length() - 1);
+        final CircuitBreakerService circuitBreakerService = newCircuitBreakerService(Settings.builder()
+            .put(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), limit + "b").build());
+        final PublicationTransportHandler handler = newHandler(deterministicTaskQueue, localNode, circuitBreakerService,
+            publishRequest -> {
+                throw new AssertionError("the cluster state should not be received");
+            });
+
+        handler.handleIncomingPublishChunk(chunks.get(0));
+        expectThrows(CircuitBreakingException.class, () -> handler.handleIncomingPublishChunk(chunks.get(1)));
+        assertThat(handler.pendingPublicationChunks(), equalTo(0));
+        assertThat(inFlightRequestsBytes(circuitBreakerService), equalTo(0L));
+    }
+
+    public void testStatsAreCountedOnceWhenTheFullStateIsSentInsteadOfADiff() {
+        final DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final CapturingTransport capturingTransport = new CapturingTransport();
+        final TransportService transportService = capturingTransport.createTransportService(Settings.EMPTY,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            clusterSettings, Collections.emptySet());
+        final PublicationTransportHandler handler = new PublicationTransportHandler(Settings.EMPTY, transportService,
+            new NoneCircuitBreakerService(), writableRegistry(), pu -> null, (pu, l) -> {});
+        transportService.start();
+        transportService.acceptIncomingRequests();
+
+        final DiscoveryNode otherNode = new DiscoveryNode("otherNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final ClusterState previousState = CoordinationStateTests.clusterState(2L, 1L,
+            DiscoveryNodes.builder().add(localNode).add(otherNode).localNodeId(localNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final ClusterState newState = ClusterState.builder(previousState).incrementVersion().build();
+        final PublicationTransportHandler.PublicationContext context =
+            handler.newPublicationContext(new ClusterChangedEvent("test", newState, previousState));
+
+        final AtomicReference<PublishWithJoinResponse> response = new AtomicReference<>();
+        final ThreadContext threadContext = deterministicTaskQueue.getThreadPool().getThreadContext();
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.markAsSystemContext();
+            context.sendPublishRequest(otherNode, new PublishRequest(newState), ActionListener.wrap(response::set, e -> {
+                throw new AssertionError(e);
+            }));
+        }
+
+        // the node can't apply the diff, so the full cluster state is sent instead
+        final CapturingTransport.CapturedRequest[] diffRequests = capturingTransport.getCapturedRequestsAndClear();
+        assertThat(diffRequests.length, equalTo(1));
+        capturingTransport.handleRemoteError(diffRequests[0].requestId, new IncompatibleClusterStateVersionException("test"));
+        deterministicTaskQueue.runAllRunnableTasks();
+        final CapturingTransport.CapturedRequest[] fullStateRequests = capturingTransport.getCapturedRequestsAndClear();
+        assertThat(fullStateRequests.length, equalTo(1));
+        capturingTransport.handleResponse(fullStateRequests[0].requestId,
+            new PublishWithJoinResponse(new PublishResponse(newState.term(), newState.version()), Optional.empty()));
+        deterministicTaskQueue.runAllRunnableTasks();
+        assertNotNull(response.get());
+
+        final PublishClusterStateStats.NodePublicationStats stats = handler.stats().getNodePublicationStats().get(otherNode.getId());
+        assertThat(stats.getCount(), equalTo(1L));
+        assertThat(stats.getChunkCount(), equalTo(1L));
+        assertThat(stats.getSizeInBytes(), equalTo((long) ((BytesTransportRequest) fullStateRequests[0].request).bytes().length()));
+    }
+
+    private static List<PublishStateChunkRequest> chunkRequests(DiscoveryNode sourceNode, ClusterState clusterState)
+        throws IOException {
+        final BytesReference bytes = PublicationTransportHandler.serializeFullClusterState(clusterState, Version.CURRENT);
+        final List<BytesReference> chunks = PublicationTransportHandler.splitIntoChunks(bytes, between(1, bytes.length() / 2));
+        assertThat(chunks.size(), greaterThan(1));
+        final List<PublishStateChunkRequest> requests = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            requests.add(new PublishStateChunkRequest(sourceNode, clusterState.term(), clusterState.version(), clusterState.stateUUID(),
+                i, chunks.size(), chunks.get(i), Version.CURRENT));
+        }
+        return requests;
+    }
+
+    private static CircuitBreakerService newCircuitBreakerService(Settings settings) {
+        return new HierarchyCircuitBreakerService(Settings.builder()
+            .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+            .put(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_OVERHEAD_SETTING.getKey(), 1.0)
+            .put(settings).build(),
+            Collections.emptyList(), new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+    }
+
+    private static long inFlightRequestsBytes(CircuitBreakerService circuitBreakerService) {
+        return circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS).getUsed();
+    }
+
+    private PublicationTransportHandler newHandler(DeterministicTaskQueue deterministicTaskQueue, DiscoveryNode localNode,
+                                                   CircuitBreakerService circuitBreakerService,
+                                                   Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest) {
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final TransportService transportService = new CapturingTransport().createTransportService(Settings.EMPTY,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            clusterSettings, Collections.emptySet());
+        final PublicationTransportHandler handler = new PublicationTransportHandler(Settings.EMPTY, transportService,
+            circuitBreakerService, writableRegistry(), handlePublishRequest, (pu, l) -> {});
+        transportService.start();
+        transportService.acceptIncomingRequests();
+        return handler;
+    }
 }
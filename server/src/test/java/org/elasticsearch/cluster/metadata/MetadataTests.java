@@ -558,6 +558,36 @@ public class MetadataTests extends ESTestCase {
         assertThat(fromStreamMeta.indexGraveyard(), equalTo(fromStreamMeta.indexGraveyard()));
     }
 
+    public void testDedupeMappings() throws IOException {
+        final String mapping = "{\"_doc\":{\"properties\":{\"field\":{\"type\":\"keyword\"}}}}";
+        final Settings.Builder settings = Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0);
+        final Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("index1").settings(settings).putMapping(mapping))
+            .put(IndexMetadata.builder("index2").settings(settings).putMapping(mapping))
+            .put(IndexMetadata.builder("index3").settings(settings).putMapping("{\"_doc\":{\"properties\":{}}}"))
+            .put(IndexMetadata.builder("index4").settings(settings))
+            .build();
+        assertSame(metadata.index("index1").mapping(), metadata.index("index2").mapping());
+        assertNotSame(metadata.index("index1").mapping(), metadata.index("index3").mapping());
+        assertNull(metadata.index("index4").mapping());
+
+        final BytesStreamOutput out = new BytesStreamOutput();
+        metadata.writeTo(out);
+        final Metadata fromStreamMeta = Metadata.readFrom(new NamedWriteableAwareStreamInput(out.bytes().streamInput(),
+            new NamedWriteableRegistry(ClusterModule.getNamedWriteables())));
+        assertSame(fromStreamMeta.index("index1").mapping(), fromStreamMeta.index("index2").mapping());
+        assertThat(fromStreamMeta.index("index2").mapping(), equalTo(metadata.index("index2").mapping()));
+
+        // the instances are kept when the metadata is rebuilt
+        final Metadata rebuiltMeta = Metadata.builder(metadata)
+            .put(IndexMetadata.builder("index5").settings(settings).putMapping(mapping))
+            .build();
+        assertSame(metadata.index("index1"), rebuiltMeta.index("index1"));
+        assertSame(metadata.index("index2"), rebuiltMeta.index("index2"));
+        assertSame(metadata.index("index1").mapping(), rebuiltMeta.index("index5").mapping());
+    }
+
     public void testFindMappings() throws IOException {
         Metadata metadata = Metadata.builder()
                 .put(IndexMetadata.builder("index1")
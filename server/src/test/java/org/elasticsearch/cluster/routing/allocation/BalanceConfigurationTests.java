@@ -13,6 +13,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterInfoService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.EmptyClusterInfoService;
@@ -28,12 +30,15 @@ import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.snapshots.EmptySnapshotsInfoService;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 import org.hamcrest.Matchers;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
@@ -261,6 +266,89 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
     }
 
+    public void testIncrementalReroute() {
+        Settings.Builder settings = Settings.builder();
+        settings.put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+            ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString());
+        AllocationService strategy = createAllocationService(settings.build(), new TestGatewayAllocator());
+        settings.put(BalancedShardsAllocator.INCREMENTAL_REROUTE_SETTING.getKey(), true);
+        AllocationService incrementalStrategy = createAllocationService(settings.build(), new TestGatewayAllocator());
+
+        ClusterState clusterState = initCluster(incrementalStrategy);
+        assertThat(placements(incrementalStrategy.reroute(clusterState, "reroute").routingTable()),
+            Matchers.equalTo(placements(strategy.reroute(clusterState, "reroute").routingTable())));
+
+        // the shards of the nodes whose index settings changed are checked again even though the nodes still have the same shards
+        String nodeId = clusterState.routingTable().index("test0").shard(0).primaryShard().currentNodeId();
+        IndexMetadata indexMetadata = clusterState.metadata().index("test0");
+        clusterState = ClusterState.builder(clusterState).metadata(Metadata.builder(clusterState.metadata())
+            .put(IndexMetadata.builder(indexMetadata)
+                .settings(Settings.builder().put(indexMetadata.getSettings()).put("index.routing.allocation.exclude._id", nodeId))
+                .settingsVersion(indexMetadata.getSettingsVersion() + 1))).build();
+        RoutingTable routingTable = incrementalStrategy.reroute(clusterState, "reroute").routingTable();
+        assertThat(placements(routingTable), Matchers.equalTo(placements(strategy.reroute(clusterState, "reroute").routingTable())));
+        for (ShardRouting shard : routingTable.allShards("test0")) {
+            assertFalse(shard.started() && shard.currentNodeId().equals(nodeId));
+        }
+    }
+
+    /**
+     * Returns where the shards of the given routing table are, ignoring the allocation ids that are random for new copies.
+     */
+    private static List<String> placements(RoutingTable routingTable) {
+        return routingTable.allShards().stream()
+            .map(shard -> shard.shardId() + "[" + shard.primary() + "][" + shard.currentNodeId() + "][" + shard.relocatingNodeId() + "]["
+                + shard.state() + "]")
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    public void testWriteLoadBalance() {
+        // balancing by shard counts puts a cold shard next to the hot shard
+        assertThat(numberOfShardsOnHotNode(0.0f), Matchers.equalTo(2));
+        // the hot shard has as much load as the average node, so it gets a node of its own
+        assertThat(numberOfShardsOnHotNode(1.0f), Matchers.equalTo(1));
+    }
+
+    /**
+     * Allocates an index with a single hot shard and an index with three cold shards on two nodes and returns the number of shards
+     * on the node that holds the hot shard.
+     */
+    private int numberOfShardsOnHotNode(float writeLoadBalance) {
+        Settings.Builder settings = Settings.builder();
+        settings.put(ClusterRebalanceAllocationDecider.CLUSTER_ROUTING_ALLOCATION_ALLOW_REBALANCE_SETTING.getKey(),
+            ClusterRebalanceAllocationDecider.ClusterRebalanceType.ALWAYS.toString());
+        settings.put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), 0.0f);
+        settings.put(BalancedShardsAllocator.SHARD_BALANCE_FACTOR_SETTING.getKey(), 0.1f);
+        settings.put(BalancedShardsAllocator.WRITE_LOAD_BALANCE_FACTOR_SETTING.getKey(), writeLoadBalance);
+
+        Metadata metadata = Metadata.builder()
+            .put(IndexMetadata.builder("hot").settings(settings(Version.CURRENT)).numberOfShards(1).numberOfReplicas(0))
+            .put(IndexMetadata.builder("cold").settings(settings(Version.CURRENT)).numberOfShards(3).numberOfReplicas(0))
+            .build();
+        RoutingTable routingTable = RoutingTable.builder()
+            .addAsNew(metadata.index("hot"))
+            .addAsNew(metadata.index("cold"))
+            .build();
+        ShardId hotShardId = new ShardId(metadata.index("hot").getIndex(), 0);
+        ImmutableOpenMap.Builder<ShardId, Double> writeLoads = ImmutableOpenMap.builder();
+        writeLoads.put(hotShardId, 10.0d);
+        ClusterInfo clusterInfo = new ClusterInfo(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(),
+            ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), writeLoads.build(), ImmutableOpenMap.of());
+        ClusterInfoService clusterInfoService = () -> clusterInfo;
+        AllocationService strategy = createAllocationService(settings.build(), clusterInfoService);
+
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY)).nodes(DiscoveryNodes.builder().add(newNode("node0")).add(newNode("node1")))
+            .metadata(metadata).routingTable(routingTable).build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+
+        assertThat(clusterState.getRoutingNodes().shardsWithState(STARTED).size(), Matchers.equalTo(4));
+        ShardRouting hotShard = clusterState.getRoutingTable().shardRoutingTable(hotShardId).primaryShard();
+        return clusterState.getRoutingNodes().node(hotShard.currentNodeId()).numberOfOwningShards();
+    }
+
     public void testNoRebalanceOnPrimaryOverload() {
         Settings.Builder settings = Settings.builder();
         AllocationService strategy = new AllocationService(randomAllocationDeciders(settings.build(),
@@ -0,0 +1,391 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TinyLfuCacheTests extends ESTestCase {
+    private int numberOfEntries;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        numberOfEntries = randomIntBetween(1000, 10000);
+        logger.debug("numberOfEntries: {}", numberOfEntries);
+    }
+
+    public void testBuilder() {
+        assertNotNull(CacheBuilder.<Integer, String>builder().setTinyLfu(true).build().getTinyLfuCache());
+        assertNull(CacheBuilder.<Integer, String>builder().build().getTinyLfuCache());
+    }
+
+    public void testCacheStats() {
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setTinyLfu(true).build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        long hits = 0;
+        long misses = 0;
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                misses++;
+                assertNull(cache.get(-1 - i));
+            } else {
+                hits++;
+                assertEquals(Integer.toString(i), cache.get(i));
+            }
+        }
+        assertEquals(hits, cache.stats().getHits());
+        assertEquals(misses, cache.stats().getMisses());
+        assertEquals(0, cache.stats().getEvictions());
+        assertEquals(numberOfEntries, cache.count());
+        assertEquals(numberOfEntries, cache.weight());
+    }
+
+    // exceed the maximum weight and check that the cache fits it and that every eviction was notified
+    public void testEvictions() {
+        int maximumWeight = randomIntBetween(1, numberOfEntries);
+        int weight = randomIntBetween(1, 10);
+        Set<Integer> evictedKeys = new HashSet<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setTinyLfu(true)
+            .setMaximumWeight(maximumWeight)
+            .weigher((k, v) -> weight)
+            .removalListener(notification -> {
+                assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+                assertTrue(evictedKeys.add(notification.getKey()));
+            })
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+            if (randomBoolean()) {
+                cache.get(randomIntBetween(0, i));
+            }
+        }
+        assertThat(cache.weight(), lessThanOrEqualTo((long) maximumWeight));
+        assertEquals(maximumWeight / weight, cache.count());
+        assertEquals(numberOfEntries - cache.count(), evictedKeys.size());
+        assertEquals(evictedKeys.size(), cache.stats().getEvictions());
+        for (Integer key : cache.keys()) {
+            assertFalse(evictedKeys.contains(key));
+        }
+    }
+
+    // access a set of keys frequently while scanning through many other keys, the frequently accessed keys should survive the scan
+    // while they would be evicted by an LRU cache
+    public void testScanResistance() {
+        int maximumWeight = randomIntBetween(500, 1000);
+        int hotKeys = maximumWeight / 10;
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setTinyLfu(true).setMaximumWeight(maximumWeight).build();
+        // fill the cache first, so that hot keys have to be accessed more than once to be admitted
+        for (int key = hotKeys; key < hotKeys + maximumWeight; key++) {
+            cache.put(key, Integer.toString(key));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < hotKeys; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, Integer.toString(key));
+                }
+            }
+            cache.refresh();
+        }
+        for (int key = hotKeys + maximumWeight; key < hotKeys + 11 * maximumWeight; key++) {
+            cache.put(key, Integer.toString(key));
+        }
+        int hits = 0;
+        for (int key = 0; key < hotKeys; key++) {
+            if (cache.get(key) != null) {
+                hits++;
+            }
+        }
+        assertThat(hits, greaterThanOrEqualTo(hotKeys * 9 / 10));
+        assertThat(cache.weight(), lessThanOrEqualTo((long) maximumWeight));
+    }
+
+    public void testExpirationAfterAccess() {
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<Integer, String> tinyLfuCache = new TinyLfuCache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        tinyLfuCache.setExpireAfterAccessNanos(1);
+        List<Integer> evictedKeys = new ArrayList<>();
+        tinyLfuCache.setRemovalListener(notification -> {
+            assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+            evictedKeys.add(notification.getKey());
+        });
+        Cache<Integer, String> cache = new Cache<>(tinyLfuCache);
+        now.set(0);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(1);
+        for (int i = numberOfEntries; i < 2 * numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(2);
+        cache.refresh();
+        assertEquals(numberOfEntries, cache.count());
+        assertEquals(numberOfEntries, evictedKeys.size());
+        for (int i = 0; i < evictedKeys.size(); i++) {
+            assertEquals(i, (int) evictedKeys.get(i));
+        }
+    }
+
+    public void testExpirationAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<Integer, String> tinyLfuCache = new TinyLfuCache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        tinyLfuCache.setExpireAfterWriteNanos(1);
+        Cache<Integer, String> cache = new Cache<>(tinyLfuCache);
+        now.set(0);
+        cache.put(0, "0");
+        now.set(1);
+        assertEquals("0", cache.get(0));
+        now.set(2);
+        assertNull(cache.get(0));
+        assertEquals("1", computeIfAbsent(cache, 0, k -> "1"));
+        assertEquals("1", cache.get(0));
+        assertEquals(1, cache.count());
+    }
+
+    public void testInvalidate() {
+        List<RemovalNotification<Integer, String>> notifications = new ArrayList<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setTinyLfu(true)
+            .removalListener(notifications::add)
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        Set<Integer> invalidated = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                cache.invalidate(i);
+                invalidated.add(i);
+            } else if (rarely()) {
+                // the value does not match so this is a no-op
+                cache.invalidate(i, "wrong");
+            } else if (rarely()) {
+                cache.invalidate(i, Integer.toString(i));
+                invalidated.add(i);
+            }
+        }
+        assertEquals(invalidated.size(), notifications.size());
+        for (RemovalNotification<Integer, String> notification : notifications) {
+            assertEquals(RemovalNotification.RemovalReason.INVALIDATED, notification.getRemovalReason());
+            assertTrue(invalidated.contains(notification.getKey()));
+        }
+        assertEquals(numberOfEntries - invalidated.size(), cache.count());
+        for (int i = 0; i < numberOfEntries; i++) {
+            assertEquals(invalidated.contains(i) ? null : Integer.toString(i), cache.get(i));
+        }
+    }
+
+    public void testInvalidateAll() {
+        Set<Integer> notifications = new HashSet<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setTinyLfu(true)
+            .setMaximumWeight(randomIntBetween(1, numberOfEntries))
+            .removalListener(notification -> {
+                if (notification.getRemovalReason() == RemovalNotification.RemovalReason.INVALIDATED) {
+                    assertTrue(notifications.add(notification.getKey()));
+                }
+            })
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        Set<Integer> keys = new HashSet<>();
+        cache.keys().forEach(keys::add);
+        cache.invalidateAll();
+        assertEquals(keys, notifications);
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.weight());
+        assertFalse(cache.keys().iterator().hasNext());
+    }
+
+    public void testReplace() {
+        List<RemovalNotification<Integer, String>> notifications = new ArrayList<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setTinyLfu(true)
+            .weigher((k, v) -> v.length())
+            .removalListener(notifications::add)
+            .build();
+        cache.put(1, "a");
+        cache.put(1, "bb");
+        assertEquals("bb", cache.get(1));
+        assertEquals(1, cache.count());
+        assertEquals(2, cache.weight());
+        assertEquals(1, notifications.size());
+        assertEquals(RemovalNotification.RemovalReason.REPLACED, notifications.get(0).getRemovalReason());
+        assertEquals("a", notifications.get(0).getValue());
+    }
+
+    public void testRemoveUsingKeysIterator() {
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setTinyLfu(true).build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        int removed = 0;
+        for (Iterator<Integer> iterator = cache.keys().iterator(); iterator.hasNext(); ) {
+            Integer key = iterator.next();
+            if (key % 2 == 0) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        assertEquals(numberOfEntries - removed, cache.count());
+        cache.forEach((k, v) -> assertEquals(1, k % 2));
+    }
+
+    public void testComputeIfAbsentThrowsExceptionIfLoaderReturnsANullValue() {
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setTinyLfu(true).build();
+        ExecutionException e = expectThrows(ExecutionException.class, () -> cache.computeIfAbsent(1, k -> null));
+        assertThat(e.getCause(), instanceOf(NullPointerException.class));
+        assertEquals(0, cache.count());
+        assertEquals("1", computeIfAbsent(cache, 1, Object::toString));
+    }
+
+    public void testComputeIfAbsentCallsOnce() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setTinyLfu(true).build();
+        AtomicInteger loads = new AtomicInteger();
+        CopyOnWriteArrayList<Exception> failures = new CopyOnWriteArrayList<>();
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        String value = cache.computeIfAbsent(j, key -> {
+                            loads.incrementAndGet();
+                            return Integer.toString(key);
+                        });
+                        assertEquals(Integer.toString(j), value);
+                        // reads are recorded concurrently with the loads of other threads
+                        assertEquals(Integer.toString(j), cache.get(j));
+                    }
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        barrier.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures, is(empty()));
+        assertEquals(numberOfEntries, loads.get());
+        assertEquals(numberOfEntries, cache.count());
+    }
+
+    // concurrently read and write a bounded cache, then check that the eviction policy is consistent with the map
+    public void testTorture() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        int maximumWeight = randomIntBetween(1, 1000);
+        AtomicLong removals = new AtomicLong();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setTinyLfu(true)
+            .setMaximumWeight(maximumWeight)
+            .removalListener(notification -> removals.incrementAndGet())
+            .build();
+        AtomicLong puts = new AtomicLong();
+        CopyOnWriteArrayList<Exception> failures = new CopyOnWriteArrayList<>();
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            int seed = randomInt();
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        int key = (seed + j * 31) % (2 * maximumWeight);
+                        key = key < 0 ? -key : key;
+                        if (j % 4 == 0) {
+                            cache.put(key, Integer.toString(key));
+                            puts.incrementAndGet();
+                        } else if (j % 17 == 0) {
+                            cache.invalidate(key);
+                        } else {
+                            String value = cache.get(key);
+                            assertTrue(value == null || value.equals(Integer.toString(key)));
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        barrier.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        cache.refresh();
+        assertThat(failures, is(empty()));
+        assertThat(cache.weight(), lessThanOrEqualTo((long) maximumWeight));
+        int count = 0;
+        for (Integer ignored : cache.keys()) {
+            count++;
+        }
+        assertThat(cache.count(), equalTo(count));
+        assertEquals(puts.get() - cache.count(), removals.get());
+    }
+
+    public void testFrequencySketch() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(randomIntBetween(1, 1000));
+        int hashCode = randomInt();
+        assertEquals(0, sketch.frequency(hashCode));
+        int increments = randomIntBetween(1, 20);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(hashCode);
+        }
+        assertEquals(Math.min(increments, FrequencySketch.MAX_FREQUENCY), sketch.frequency(hashCode));
+    }
+
+    private static <K, V> V computeIfAbsent(Cache<K, V> cache, K key, CacheLoader<K, V> loader) {
+        try {
+            return cache.computeIfAbsent(key, loader);
+        } catch (ExecutionException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.util.LineFileDocs;
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
+
+public class Lz4CompressTests extends ESTestCase {
+
+    private final Compressor compressor = new Lz4Compressor();
+
+    public void testRandom() throws IOException {
+        Random r = random();
+        for (int i = 0; i < 10; i++) {
+            byte[] bytes = new byte[TestUtil.nextInt(r, 1, 100000)];
+            r.nextBytes(bytes);
+            doTest(bytes);
+        }
+    }
+
+    public void testLineDocs() throws IOException {
+        Random r = random();
+        LineFileDocs lineFileDocs = new LineFileDocs(r);
+        for (int i = 0; i < 10; i++) {
+            int numDocs = TestUtil.nextInt(r, 1, 200);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            for (int j = 0; j < numDocs; j++) {
+                String s = lineFileDocs.nextDoc().get("body");
+                bos.write(s.getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] bytes = bos.toByteArray();
+            doTest(bytes);
+            if (bytes.length > 1000) {
+                assertThat(compressor.compress(new BytesArray(bytes)).length(), lessThan(bytes.length));
+            }
+        }
+        lineFileDocs.close();
+    }
+
+    public void testRepetitions() throws IOException {
+        Random r = random();
+        for (int i = 0; i < 10; i++) {
+            int numInts = TestUtil.nextInt(r, 1, 20000);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            int theValue = r.nextInt();
+            for (int j = 0; j < numInts; j++) {
+                if (r.nextInt(10) == 0) {
+                    theValue = r.nextInt();
+                }
+                bos.write((byte) (theValue >>> 24));
+                bos.write((byte) (theValue >>> 16));
+                bos.write((byte) (theValue >>> 8));
+                bos.write((byte) theValue);
+            }
+            doTest(bos.toByteArray());
+        }
+    }
+
+    public void testLongRuns() throws IOException {
+        // exercises literal and match lengths that need extra length bytes, and overlapping matches
+        byte[] bytes = new byte[randomIntBetween(1, 100000)];
+        int i = 0;
+        while (i < bytes.length) {
+            int runLength = Math.min(bytes.length - i, randomIntBetween(1, 2000));
+            if (randomBoolean()) {
+                Arrays.fill(bytes, i, i + runLength, randomByte());
+            } else {
+                for (int j = i; j < i + runLength; j++) {
+                    bytes[j] = randomByte();
+                }
+            }
+            i += runLength;
+        }
+        doTest(bytes);
+    }
+
+    public void testCompressUncompress() throws IOException {
+        byte[] bytes = randomAlphaOfLength(between(0, 100000)).getBytes(StandardCharsets.UTF_8);
+        BytesReference compressed = compressor.compress(new BytesArray(bytes));
+        assertTrue(compressor.isCompressed(compressed));
+        assertArrayEquals(bytes, BytesReference.toBytes(compressor.uncompress(compressed)));
+        // LZ4 is only used for transport messages, compressed xcontent must stay readable by nodes that only know DEFLATE
+        expectThrows(NotXContentException.class, () -> CompressorFactory.compressor(compressed));
+    }
+
+    public void testNestedStreams() throws IOException {
+        byte[] outer = randomAlphaOfLength(between(1, 50000)).getBytes(StandardCharsets.UTF_8);
+        byte[] inner = randomAlphaOfLength(between(1, 50000)).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream outerBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream innerBytes = new ByteArrayOutputStream();
+        try (OutputStream outerStream = compressor.threadLocalOutputStream(outerBytes)) {
+            outerStream.write(outer, 0, outer.length / 2);
+            try (OutputStream innerStream = compressor.threadLocalOutputStream(innerBytes)) {
+                innerStream.write(inner);
+            }
+            outerStream.write(outer, outer.length / 2, outer.length - outer.length / 2);
+        }
+        try (InputStream outerStream = compressor.threadLocalInputStream(new ByteArrayInputStream(outerBytes.toByteArray()));
+             InputStream innerStream = compressor.threadLocalInputStream(new ByteArrayInputStream(innerBytes.toByteArray()))) {
+            assertArrayEquals(inner, innerStream.readAllBytes());
+            assertArrayEquals(outer, outerStream.readAllBytes());
+        }
+    }
+
+    public void testSingleByteReadsAndWrites() throws IOException {
+        byte[] bytes = randomAlphaOfLength(between(1, 40000)).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream os = compressor.threadLocalOutputStream(bos)) {
+            for (byte b : bytes) {
+                os.write(b);
+                if (rarely()) {
+                    os.flush();
+                }
+            }
+        }
+        try (InputStream in = compressor.threadLocalInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            for (byte b : bytes) {
+                assertEquals(b & 0xFF, in.read());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    public void testNotCompressed() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> compressor.threadLocalInputStream(new ByteArrayInputStream(new byte[] { 'D', 'F', 'L', '\0' })));
+        assertThat(e.getMessage(), containsString("not compressed with LZ4"));
+    }
+
+    public void testTruncated() throws IOException {
+        byte[] bytes = randomAlphaOfLength(between(100, 50000)).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = BytesReference.toBytes(compressor.compress(new BytesArray(bytes)));
+        byte[] truncated = Arrays.copyOf(compressed, randomIntBetween(compressor.headerLength(), compressed.length - 1));
+        expectThrows(IOException.class, () -> compressor.uncompress(new BytesArray(truncated)));
+    }
+
+    public void testCorruptBlock() {
+        byte[] dest = new byte[100];
+        // a literal run that is longer than the block
+        byte[] src = new byte[] { (byte) 0x50, 'a', 'b' };
+        IOException e = expectThrows(IOException.class, () -> Lz4Compressor.decompressBlock(src, 0, src.length, dest, 0, 5));
+        assertThat(e.getMessage(), containsString("Corrupt LZ4 block"));
+        // a match that points before the start of the block
+        byte[] badOffset = new byte[] { (byte) 0x10, 'a', 0x02, 0x00 };
+        e = expectThrows(IOException.class, () -> Lz4Compressor.decompressBlock(badOffset, 0, badOffset.length, dest, 0, 10));
+        assertThat(e.getMessage(), containsString("invalid match offset"));
+    }
+
+    private void doTest(byte[] bytes) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        int bufferSize = TestUtil.nextInt(random(), 1, 70000);
+        try (OutputStream os = compressor.threadLocalOutputStream(bos)) {
+            for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+                os.write(bytes, offset, Math.min(bufferSize, bytes.length - offset));
+            }
+        }
+
+        bufferSize = TestUtil.nextInt(random(), 1, 70000);
+        byte[] buffer = new byte[bufferSize];
+        ByteArrayOutputStream uncompressedOut = new ByteArrayOutputStream();
+        try (InputStream in = compressor.threadLocalInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            int len;
+            while ((len = in.read(buffer, 0, bufferSize)) != -1) {
+                uncompressedOut.write(buffer, 0, len);
+            }
+        }
+        assertArrayEquals(bytes, uncompressedOut.toByteArray());
+    }
+}
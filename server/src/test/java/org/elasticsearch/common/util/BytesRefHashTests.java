@@ -205,6 +205,7 @@ public class BytesRefHashTests extends ESTestCase {
                 ref.copyChars(str);
                 long count = hash.size();
                 long key = hash.find(ref.get()); //hash.add(ref);
+                assertEquals(key, hash.findConcurrently(ref.get(), ref.get().hashCode()));
                 if (key >= 0) { // string found in hash
                     assertFalse(strings.add(str));
                     assertTrue(key < count);
@@ -0,0 +1,78 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ConcurrentTasksTests extends ESTestCase {
+
+    public void testRunsAllTasks() throws InterruptedException {
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final AtomicInteger counter = new AtomicInteger();
+            final int taskCount = between(0, 100);
+            final List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i < taskCount; i++) {
+                tasks.add(counter::incrementAndGet);
+            }
+            ConcurrentTasks.run(threadPool.generic(), between(1, 8), tasks);
+            assertThat(counter.get(), equalTo(taskCount));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testRunsAllTasksIfForkedThreadsDoNotRun() {
+        final boolean reject = randomBoolean();
+        final Executor executor = r -> {
+            if (reject) {
+                throw new EsRejectedExecutionException("rejected", randomBoolean());
+            }
+        };
+        final AtomicInteger counter = new AtomicInteger();
+        final int taskCount = between(1, 100);
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(counter::incrementAndGet);
+        }
+        ConcurrentTasks.run(executor, between(1, 8), tasks);
+        assertThat(counter.get(), equalTo(taskCount));
+    }
+
+    public void testRethrowsFailuresOnceAllTasksAreComplete() {
+        final AtomicInteger counter = new AtomicInteger();
+        final int taskCount = between(1, 100);
+        final int failureCount = between(1, taskCount);
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            final boolean fail = i < failureCount;
+            tasks.add(() -> {
+                counter.incrementAndGet();
+                if (fail) {
+                    throw new IllegalArgumentException("simulated");
+                }
+            });
+        }
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> ConcurrentTasks.run(EsExecutors.DIRECT_EXECUTOR_SERVICE, between(1, 8), tasks));
+        assertThat(e.getMessage(), equalTo("simulated"));
+        assertThat(e.getSuppressed(), arrayWithSize(failureCount - 1));
+        assertThat(counter.get(), equalTo(taskCount));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class FairBlockingQueueTests extends ESTestCase {
+
+    private final AtomicReference<String> taskClass = new AtomicReference<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    public void testCheapClassGoesFirst() {
+        FairBlockingQueue queue = new FairBlockingQueue(taskClass::get, Long.MAX_VALUE, Long.MAX_VALUE, nanoTime::get);
+        // learn the costs of the classes, the execution time of a task is measured when the thread takes the next one
+        offer(queue, "heavy", task("heavy"));
+        queue.poll();
+        nanoTime.addAndGet(1000);
+        offer(queue, "light", task("light"));
+        queue.poll();
+        nanoTime.addAndGet(1);
+        assertNull(queue.poll());
+        assertThat(queue.getTaskClassCost("heavy"), greaterThan(queue.getTaskClassCost("light")));
+
+        for (int i = 0; i < 3; i++) {
+            offer(queue, "heavy", task("heavy-" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            offer(queue, "light", task("light-" + i));
+        }
+        List<String> order = new ArrayList<>();
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            order.add(task.toString());
+        }
+        assertThat(order, equalTo(List.of("light-0", "light-1", "light-2", "heavy-0", "heavy-1", "heavy-2")));
+    }
+
+    public void testRejectsBusiestClassesOnceLate() {
+        FairBlockingQueue queue = new FairBlockingQueue(taskClass::get, 10, 100, nanoTime::get);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(offer(queue, "busy", task("busy-" + i)));
+        }
+        assertTrue(offer(queue, "quiet", task("quiet-0")));
+
+        nanoTime.set(50);
+        assertNotNull(queue.poll());
+        assertFalse("late for less than an interval", queue.isDropping());
+        nanoTime.set(200);
+        assertNotNull(queue.poll());
+        assertTrue(queue.isDropping());
+
+        // three busy tasks and one quiet task are queued
+        assertFalse(offer(queue, "busy", task("busy-5")));
+        assertTrue(offer(queue, "quiet", task("quiet-1")));
+        assertTrue(offer(queue, "new", task("new-0")));
+        // forced tasks are never rejected
+        queue.put(task("busy-6"));
+        assertThat(queue.size(), equalTo(7));
+
+        // a task that didn't wait longer than the target delay ends the rejections
+        assertTrue(offer(queue, "new", task("new-1")));
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            if (task.toString().equals("new-1")) {
+                break;
+            }
+        }
+        assertNull(queue.poll());
+        assertFalse(queue.isDropping());
+        assertTrue(offer(queue, "busy", task("busy-7")));
+    }
+
+    public void testRemove() {
+        FairBlockingQueue queue = new FairBlockingQueue(taskClass::get, Long.MAX_VALUE, Long.MAX_VALUE, nanoTime::get);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(task(Integer.toString(i)));
+            offer(queue, randomFrom("a", "b", "c"), tasks.get(i));
+        }
+        Runnable removed = randomFrom(tasks);
+        assertTrue(queue.remove(removed));
+        assertFalse(queue.remove(removed));
+        assertThat(queue.size(), equalTo(9));
+        List<Runnable> drained = new ArrayList<>();
+        assertThat(queue.drainTo(drained), equalTo(9));
+        assertFalse(drained.contains(removed));
+        assertThat(queue.size(), equalTo(0));
+    }
+
+    public void testFairFixedExecutor() throws InterruptedException {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        EsThreadPoolExecutor executor = EsExecutors.newFairFixed(getTestName(), 1, 10, EsExecutors.daemonThreadFactory("test"),
+            threadContext, () -> threadContext.getHeader("tenant"), TimeValue.timeValueSeconds(1), TimeValue.timeValueSeconds(10));
+        try {
+            int numTasks = randomIntBetween(1, 10);
+            CountDownLatch latch = new CountDownLatch(numTasks);
+            for (int i = 0; i < numTasks; i++) {
+                try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                    threadContext.putHeader("tenant", randomFrom("a", "b"));
+                    executor.execute(latch::countDown);
+                }
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    private boolean offer(FairBlockingQueue queue, String key, Runnable task) {
+        taskClass.set(key);
+        return queue.offer(task);
+    }
+
+    private static Runnable task(String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+}
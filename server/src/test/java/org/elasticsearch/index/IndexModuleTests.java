@@ -172,7 +172,7 @@ public class IndexModuleTests extends ESTestCase {
         return module.newIndexService(CREATE_INDEX, nodeEnvironment, xContentRegistry(), deleter, circuitBreakerService, bigArrays,
                 threadPool, scriptService, clusterService, null, indicesQueryCache, mapperRegistry,
                 new IndicesFieldDataCache(settings, listener), writableRegistry(), () -> false, null, indexDeletionListener,
-                emptyMap());
+                emptyMap(), null);
     }
 
     public void testWrapperIsBound() throws IOException {
@@ -14,6 +14,11 @@ import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.RamUsageTester;
 import org.apache.lucene.util.TestUtil;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.test.ESTestCase;
 
@@ -101,8 +106,42 @@ public class LiveVersionMapTests extends ESTestCase {
         return BytesRef.deepCopyOf(builder.get());
     }
 
+    public void testPagedVersionsAreReleased() throws IOException {
+        MockBigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        LiveVersionMap map = new LiveVersionMap(bigArrays);
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        int numKeys = randomIntBetween(1, 1000);
+        for (int i = 0; i < numKeys; i++) {
+            BytesRef uid = uid(TestUtil.randomSimpleString(random(), 10, 20));
+            try (Releasable r = map.acquireLock(uid)) {
+                IndexVersionValue version = randomIndexVersionValue();
+                map.putIndexUnderLock(uid, version);
+                expected.put(uid, version);
+                if (rarely()) {
+                    DeleteVersionValue delete = new DeleteVersionValue(randomNonNegativeLong(), randomNonNegativeLong(),
+                        randomNonNegativeLong(), randomNonNegativeLong());
+                    map.putDeleteUnderLock(uid, delete);
+                    expected.remove(uid);
+                }
+            }
+        }
+        assertThat(map.getAllCurrent(), equalTo(expected));
+        assertThat(map.ramBytesUsedForRefresh(), greaterThan(0L));
+        map.beforeRefresh();
+        for (Map.Entry<BytesRef, VersionValue> entry : expected.entrySet()) {
+            try (Releasable r = map.acquireLock(entry.getKey())) {
+                assertThat(map.getUnderLock(entry.getKey()), equalTo(entry.getValue()));
+            }
+        }
+        map.afterRefresh(randomBoolean());
+        assertThat(map.getRefreshingBytes(), equalTo(0L));
+        assertThat(map.getAllCurrent().size(), equalTo(0));
+        // closing the engine releases the pages of the current map
+        map.clear();
+    }
+
     public void testBasics() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         try (Releasable r = map.acquireLock(uid("test"))) {
             Translog.Location tlogLoc = randomTranslogLocation();
             map.putIndexUnderLock(uid("test"), new IndexVersionValue(tlogLoc, 1, 1, 1));
@@ -134,7 +173,7 @@ public class LiveVersionMapTests extends ESTestCase {
         List<BytesRef> keyList = new ArrayList<>(keySet);
         ConcurrentHashMap<BytesRef, VersionValue> values = new ConcurrentHashMap<>();
         ConcurrentHashMap<BytesRef, DeleteVersionValue> deletes = new ConcurrentHashMap<>();
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         int numThreads = randomIntBetween(2, 5);
 
         Thread[] threads = new Thread[numThreads];
@@ -262,7 +301,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testCarryOnSafeAccess() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         assertFalse(map.isUnsafe());
         assertFalse(map.isSafeAccessRequired());
         map.enforceSafeAccess();
@@ -294,7 +333,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testRefreshTransition() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         try (Releasable r = map.acquireLock(uid("1"))) {
             map.maybePutIndexUnderLock(uid("1"), randomIndexVersionValue());
             assertTrue(map.isUnsafe());
@@ -322,7 +361,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testAddAndDeleteRefreshConcurrently() throws IOException, InterruptedException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         int numIters = randomIntBetween(1000, 5000);
         AtomicBoolean done = new AtomicBoolean(false);
         AtomicLong version = new AtomicLong();
@@ -379,7 +418,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testPruneTombstonesWhileLocked() throws InterruptedException, IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = newLiveVersionMap();
         BytesRef uid = uid("1");
 
         try (Releasable ignore = map.acquireLock(uid)) {
@@ -402,7 +441,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testRandomlyIndexDeleteAndRefresh() throws Exception {
-        final LiveVersionMap versionMap = new LiveVersionMap();
+        final LiveVersionMap versionMap = newLiveVersionMap();
         final BytesRef uid = uid("1");
         final long versions = between(10, 1000);
         VersionValue latestVersion = null;
@@ -435,6 +474,13 @@ public class LiveVersionMapTests extends ESTestCase {
         }
     }
 
+    /**
+     * Creates a version map that randomly keeps its versions in paged storage.
+     */
+    private static LiveVersionMap newLiveVersionMap() {
+        return randomBoolean() ? new LiveVersionMap() : new LiveVersionMap(BigArrays.NON_RECYCLING_INSTANCE);
+    }
+
     IndexVersionValue randomIndexVersionValue() {
         return new IndexVersionValue(randomTranslogLocation(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
     }
@@ -0,0 +1,176 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+
+    private TranslogSyncCoordinator newCoordinator(Settings settings) {
+        return new TranslogSyncCoordinator(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            new ThreadContext(Settings.EMPTY));
+    }
+
+    public void testSyncsEveryTargetUpToItsHighestLocation() throws Exception {
+        Settings settings = Settings.builder()
+            .put(TranslogSyncCoordinator.MAX_WAIT_SETTING.getKey(), randomFrom("0s", "1ms", "5ms"))
+            .build();
+        TranslogSyncCoordinator coordinator = newCoordinator(settings);
+        Path[] dataPaths = new Path[] { createTempDir(), createTempDir() };
+        int numTargets = randomIntBetween(1, 10);
+        AtomicLong[] syncedUpTo = new AtomicLong[numTargets];
+        TranslogSyncCoordinator.SyncTarget[] targets = new TranslogSyncCoordinator.SyncTarget[numTargets];
+        for (int i = 0; i < numTargets; i++) {
+            AtomicLong synced = new AtomicLong(-1);
+            syncedUpTo[i] = synced;
+            targets[i] = locations -> locations.forEach(location -> synced.accumulateAndGet(location.translogLocation, Math::max));
+        }
+        int numThreads = randomIntBetween(2, 8);
+        int numRequests = randomIntBetween(100, 500);
+        AtomicLong[] requestedUpTo = new AtomicLong[numTargets];
+        for (int i = 0; i < numTargets; i++) {
+            requestedUpTo[i] = new AtomicLong(-1);
+        }
+        CountDownLatch notified = new CountDownLatch(numThreads * numRequests);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int r = 0; r < numRequests; r++) {
+                    int target = randomIntBetween(0, numTargets - 1);
+                    long position = randomIntBetween(0, 10000);
+                    requestedUpTo[target].accumulateAndGet(position, Math::max);
+                    coordinator.sync(dataPaths[target % dataPaths.length], targets[target], new Translog.Location(1, position, 1), e -> {
+                        if (e != null) {
+                            failure.set(e);
+                        }
+                        notified.countDown();
+                    });
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(notified.await(10, TimeUnit.SECONDS));
+        assertThat(failure.get(), nullValue());
+        for (int i = 0; i < numTargets; i++) {
+            assertThat(syncedUpTo[i].get(), equalTo(requestedUpTo[i].get()));
+        }
+        TranslogSyncStats stats = coordinator.stats();
+        assertThat(stats.getRequests(), equalTo((long) numThreads * numRequests));
+        assertThat(stats.getSyncs(), lessThanOrEqualTo(stats.getRequests()));
+        assertThat(stats.getSyncs(), greaterThanOrEqualTo(stats.getBatches()));
+        assertThat(stats.getMaxBatchSize(), lessThanOrEqualTo(stats.getRequests()));
+        assertThat(stats.getMaxBatchSize(), greaterThanOrEqualTo(1L));
+        assertThat(stats.getMaxSyncTime().nanos(), lessThanOrEqualTo(stats.getSyncTime().nanos()));
+        coordinator.close();
+    }
+
+    public void testFailureOnlyFailsRequestsOfTheSameTarget() throws Exception {
+        TranslogSyncCoordinator coordinator = newCoordinator(Settings.EMPTY);
+        Path dataPath = createTempDir();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        TranslogSyncCoordinator.SyncTarget blocking = locations -> {
+            blocked.countDown();
+            try {
+                assertTrue(unblock.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        };
+        AtomicInteger synced = new AtomicInteger();
+        TranslogSyncCoordinator.SyncTarget failing = locations -> {
+            throw new IOException("simulated");
+        };
+        TranslogSyncCoordinator.SyncTarget succeeding = locations -> synced.incrementAndGet();
+
+        coordinator.sync(dataPath, blocking, new Translog.Location(1, 1, 1), e -> {});
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        // these requests are queued while the first group commit is running and are processed together by the next one
+        AtomicReference<Exception> failed = new AtomicReference<>();
+        AtomicReference<Exception> succeeded = new AtomicReference<>();
+        CountDownLatch notified = new CountDownLatch(3);
+        coordinator.sync(dataPath, failing, new Translog.Location(1, 1, 1), e -> {
+            failed.set(e);
+            notified.countDown();
+        });
+        coordinator.sync(dataPath, succeeding, new Translog.Location(1, 1, 1), e -> {
+            succeeded.set(e);
+            notified.countDown();
+        });
+        coordinator.sync(dataPath, succeeding, new Translog.Location(1, 2, 1), e -> notified.countDown());
+        unblock.countDown();
+        assertTrue(notified.await(10, TimeUnit.SECONDS));
+
+        assertThat(failed.get(), instanceOf(IOException.class));
+        assertThat(succeeded.get(), nullValue());
+        assertThat(synced.get(), equalTo(1));
+        TranslogSyncStats stats = coordinator.stats();
+        assertThat(stats.getBatches(), equalTo(2L));
+        assertThat(stats.getRequests(), equalTo(4L));
+        assertThat(stats.getSyncs(), equalTo(3L));
+        assertThat(stats.getMaxBatchSize(), equalTo(3L));
+        coordinator.close();
+    }
+
+    public void testCloseProcessesPendingRequests() throws Exception {
+        TranslogSyncCoordinator coordinator = newCoordinator(Settings.EMPTY);
+        Path dataPath = createTempDir();
+        AtomicInteger synced = new AtomicInteger();
+        TranslogSyncCoordinator.SyncTarget target = locations -> synced.incrementAndGet();
+        int numRequests = randomIntBetween(1, 100);
+        AtomicInteger notified = new AtomicInteger();
+        for (int i = 0; i < numRequests; i++) {
+            coordinator.sync(dataPath, target, new Translog.Location(1, i, 1), e -> {
+                assertThat(e, nullValue());
+                notified.incrementAndGet();
+            });
+        }
+        coordinator.close();
+        // closing waits for the sync threads to process the pending requests and to stop
+        assertThat(notified.get(), equalTo(numRequests));
+        assertThat(synced.get(), greaterThanOrEqualTo(1));
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        coordinator.sync(dataPath, target, new Translog.Location(1, numRequests, 1), failure::set);
+        assertThat(failure.get(), instanceOf(AlreadyClosedException.class));
+        assertThat(coordinator.stats().getRequests(), equalTo((long) numRequests));
+    }
+}
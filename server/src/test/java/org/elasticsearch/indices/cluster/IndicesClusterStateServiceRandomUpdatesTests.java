@@ -504,7 +504,8 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
                 null,
                 primaryReplicaSyncer,
                 RetentionLeaseSyncer.EMPTY,
-                client) {
+                client,
+                new IndexCreationStatsTracker()) {
             @Override
             protected void updateGlobalCheckpointForShard(final ShardId shardId) {}
         };
@@ -0,0 +1,81 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RecoveryFileChunkRequestTests extends ESTestCase {
+
+    public void testSerialization() throws Exception {
+        final org.elasticsearch.Version version = VersionUtils.randomVersion(random());
+        final RecoveryFileChunkRequest outRequest = randomRequest();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            outRequest.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                in.setVersion(version);
+                assertEqualRequests(outRequest, new RecoveryFileChunkRequest(in));
+            }
+        }
+    }
+
+    public void testContentIsNotCopied() throws Exception {
+        final RecoveryFileChunkRequest outRequest = randomRequest();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(RecoveryFileChunkRequest.CONTENT_LAST_VERSION);
+            final BytesReference trailingBytes = outRequest.writeThin(out);
+            assertThat(trailingBytes, sameInstance(outRequest.content()));
+            try (StreamInput in = CompositeBytesReference.of(out.bytes(), trailingBytes).streamInput()) {
+                in.setVersion(RecoveryFileChunkRequest.CONTENT_LAST_VERSION);
+                assertEqualRequests(outRequest, new RecoveryFileChunkRequest(in));
+            }
+        }
+
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(VersionUtils.getPreviousVersion(RecoveryFileChunkRequest.CONTENT_LAST_VERSION));
+            assertThat(outRequest.writeThin(out).length(), equalTo(0));
+        }
+    }
+
+    private static RecoveryFileChunkRequest randomRequest() {
+        final BytesArray content = new BytesArray(randomByteArrayOfLength(randomIntBetween(0, 1024)));
+        final StoreFileMetadata metadata = new StoreFileMetadata(randomAlphaOfLength(10), randomLongBetween(content.length(), 1 << 20),
+            randomAlphaOfLength(10), Version.LATEST);
+        return new RecoveryFileChunkRequest(randomNonNegativeLong(), randomNonNegativeLong(), new ShardId("test", "_na_", 0), metadata,
+            randomNonNegativeLong(), ReleasableBytesReference.wrap(content), randomBoolean(), randomInt(100), randomNonNegativeLong());
+    }
+
+    private static void assertEqualRequests(RecoveryFileChunkRequest expected, RecoveryFileChunkRequest actual) {
+        assertThat(actual.recoveryId(), equalTo(expected.recoveryId()));
+        assertThat(actual.requestSeqNo(), equalTo(expected.requestSeqNo()));
+        assertThat(actual.shardId(), equalTo(expected.shardId()));
+        assertThat(actual.name(), equalTo(expected.name()));
+        assertThat(actual.length(), equalTo(expected.length()));
+        assertThat(actual.metadata().checksum(), equalTo(expected.metadata().checksum()));
+        assertThat(actual.metadata().writtenBy(), equalTo(expected.metadata().writtenBy()));
+        assertThat(actual.position(), equalTo(expected.position()));
+        assertThat(actual.content(), equalTo(expected.content()));
+        assertThat(actual.lastChunk(), equalTo(expected.lastChunk()));
+        assertThat(actual.totalTranslogOps(), equalTo(expected.totalTranslogOps()));
+        assertThat(actual.sourceThrottleTimeInNanos(), equalTo(expected.sourceThrottleTimeInNanos()));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.ingest;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.Matchers.is;
+
+public class AbstractProcessorTests extends ESTestCase {
+
+    public void testSynchronousProcessorSupportsBatchExecution() {
+        Processor processor = new SynchronousProcessor();
+        assertThat(processor.supportsBatchExecution(), is(true));
+
+        IngestDocument[] ingestDocuments = new IngestDocument[] {
+            new IngestDocument(new HashMap<>(), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()) };
+        Exception[] failures = new Exception[ingestDocuments.length];
+        processor.executeBatch(ingestDocuments, failures);
+        for (int i = 0; i < ingestDocuments.length; i++) {
+            assertNull(failures[i]);
+            assertThat(ingestDocuments[i].getFieldValue("processed", Boolean.class), is(true));
+        }
+    }
+
+    public void testAsynchronousProcessorDoesNotSupportBatchExecution() {
+        assertThat(new AsynchronousProcessor().supportsBatchExecution(), is(false));
+        // subclasses of an asynchronous processor are asynchronous too
+        assertThat(new AsynchronousProcessor() {}.supportsBatchExecution(), is(false));
+    }
+
+    private static class SynchronousProcessor extends AbstractProcessor {
+
+        SynchronousProcessor() {
+            super(null, null);
+        }
+
+        @Override
+        public IngestDocument execute(IngestDocument ingestDocument) {
+            ingestDocument.setFieldValue("processed", true);
+            return ingestDocument;
+        }
+
+        @Override
+        public String getType() {
+            return "synchronous";
+        }
+    }
+
+    private static class AsynchronousProcessor extends AbstractProcessor {
+
+        AsynchronousProcessor() {
+            super(null, null);
+        }
+
+        @Override
+        public void execute(IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
+            handler.accept(ingestDocument, null);
+        }
+
+        @Override
+        public IngestDocument execute(IngestDocument ingestDocument) {
+            throw new UnsupportedOperationException("this method should not get executed");
+        }
+
+        @Override
+        public String getType() {
+            return "asynchronous";
+        }
+    }
+}
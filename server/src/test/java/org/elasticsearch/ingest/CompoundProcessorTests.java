@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.LongSupplier;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -353,6 +354,131 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(ingestProcessorException.getHeader("pipeline_origin"), equalTo(List.of("2", "1")));
     }
 
+    public void testSupportsBatchExecution() {
+        assertThat(new CompoundProcessor(batchProcessor(doc -> {}), batchProcessor(doc -> {})).supportsBatchExecution(), is(true));
+        assertThat(new CompoundProcessor(batchProcessor(doc -> {}), new TestProcessor(doc -> {})).supportsBatchExecution(), is(false));
+        assertThat(new CompoundProcessor(false, List.of(batchProcessor(doc -> {})), List.of(new TestProcessor(doc -> {})))
+            .supportsBatchExecution(), is(false));
+    }
+
+    public void testExecuteBatch() {
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(2), 0L, TimeUnit.MILLISECONDS.toNanos(1));
+        TestProcessor processor1 = batchProcessor(doc -> {
+            if (doc.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+            doc.setFieldValue("first", true);
+        });
+        TestProcessor processor2 = batchMapper(doc -> doc.hasField("drop") ? null : doc);
+        TestProcessor processor3 = batchProcessor(doc -> doc.setFieldValue("second", true));
+        CompoundProcessor compoundProcessor = new CompoundProcessor(relativeTimeProvider, processor1, processor2, processor3);
+
+        IngestDocument[] ingestDocuments = new IngestDocument[] {
+            new IngestDocument(new HashMap<>(), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of("fail", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of("drop", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()) };
+        IngestDocument[] originals = ingestDocuments.clone();
+        Exception[] failures = new Exception[ingestDocuments.length];
+        compoundProcessor.executeBatch(ingestDocuments, failures);
+
+        assertThat(ingestDocuments[0], sameInstance(originals[0]));
+        assertThat(ingestDocuments[0].getFieldValue("first", Boolean.class), is(true));
+        assertThat(ingestDocuments[0].getFieldValue("second", Boolean.class), is(true));
+        assertThat(failures[0], nullValue());
+        assertThat(ingestDocuments[1], nullValue());
+        assertThat(((ElasticsearchException) failures[1]).getRootCause().getMessage(), equalTo("error"));
+        assertThat(ingestDocuments[2], nullValue());
+        assertThat(failures[2], nullValue());
+        assertThat(ingestDocuments[3], sameInstance(originals[3]));
+        assertThat(failures[3], nullValue());
+
+        assertThat(processor1.getInvokedCounter(), equalTo(4));
+        assertThat(processor2.getInvokedCounter(), equalTo(3));
+        assertThat(processor3.getInvokedCounter(), equalTo(2));
+        assertStats(0, compoundProcessor, 0, 4, 1, 2);
+        assertStats(1, compoundProcessor, 0, 3, 0, 1);
+    }
+
+    public void testExecuteBatchWithIgnoreFailure() {
+        TestProcessor processor1 = batchProcessor(doc -> {
+            if (doc.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+        });
+        TestProcessor processor2 = batchProcessor(doc -> doc.setFieldValue("field", "value"));
+        CompoundProcessor compoundProcessor = new CompoundProcessor(true, List.of(processor1, processor2), List.of());
+
+        IngestDocument[] ingestDocuments = new IngestDocument[] {
+            new IngestDocument(new HashMap<>(Map.of("fail", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()) };
+        Exception[] failures = new Exception[ingestDocuments.length];
+        compoundProcessor.executeBatch(ingestDocuments, failures);
+
+        for (int i = 0; i < ingestDocuments.length; i++) {
+            assertThat(failures[i], nullValue());
+            assertThat(ingestDocuments[i].getFieldValue("field", String.class), equalTo("value"));
+        }
+        assertThat(processor2.getInvokedCounter(), equalTo(2));
+    }
+
+    public void testExecuteBatchWithOnFailureProcessor() {
+        TestProcessor processor1 = new TestProcessor("id", "first", null, doc -> {
+            if (doc.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+        }) {
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+        };
+        TestProcessor processor2 = batchProcessor(doc -> doc.setFieldValue("second", true));
+        TestProcessor onFailureProcessor = batchProcessor(doc -> {
+            assertThat(doc.getIngestMetadata().get(CompoundProcessor.ON_FAILURE_MESSAGE_FIELD), equalTo("error"));
+            assertThat(doc.getIngestMetadata().get(CompoundProcessor.ON_FAILURE_PROCESSOR_TAG_FIELD), equalTo("id"));
+            doc.setFieldValue("handled", true);
+        });
+        CompoundProcessor compoundProcessor =
+            new CompoundProcessor(false, List.of(processor1, processor2), List.of(onFailureProcessor));
+
+        IngestDocument[] ingestDocuments = new IngestDocument[] {
+            new IngestDocument(new HashMap<>(Map.of("fail", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()) };
+        Exception[] failures = new Exception[ingestDocuments.length];
+        compoundProcessor.executeBatch(ingestDocuments, failures);
+
+        // a document that is handled by the on failure processors is not processed by the remaining processors
+        assertThat(failures[0], nullValue());
+        assertThat(ingestDocuments[0].getFieldValue("handled", Boolean.class), is(true));
+        assertThat(ingestDocuments[0].hasField("second"), is(false));
+        assertThat(ingestDocuments[0].getIngestMetadata().containsKey(CompoundProcessor.ON_FAILURE_MESSAGE_FIELD), is(false));
+        assertThat(failures[1], nullValue());
+        assertThat(ingestDocuments[1].getFieldValue("second", Boolean.class), is(true));
+        assertThat(ingestDocuments[1].hasField("handled"), is(false));
+        assertThat(processor2.getInvokedCounter(), equalTo(1));
+        assertThat(onFailureProcessor.getInvokedCounter(), equalTo(1));
+    }
+
+    private static TestProcessor batchProcessor(Consumer<IngestDocument> ingestDocumentConsumer) {
+        return new TestProcessor(ingestDocumentConsumer) {
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+        };
+    }
+
+    private static TestProcessor batchMapper(Function<IngestDocument, IngestDocument> ingestDocumentMapper) {
+        return new TestProcessor(null, "test-processor", null, ingestDocumentMapper) {
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+        };
+    }
+
     private void assertStats(CompoundProcessor compoundProcessor, long count,  long failed, long time) {
         assertStats(0, compoundProcessor, 0L, count, failed, time);
     }
@@ -37,6 +37,7 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -286,6 +287,59 @@ public class ConditionalProcessorTests extends ESTestCase {
         assertStats(processor, 0, 0, 0);
     }
 
+    public void testExecuteBatch() {
+        String conditionalField = "field1";
+        ScriptService scriptService = new ScriptService(Settings.builder().build(),
+            Collections.singletonMap(
+                Script.DEFAULT_SCRIPT_LANG,
+                new MockScriptEngine(
+                    Script.DEFAULT_SCRIPT_LANG,
+                    Collections.singletonMap(
+                        scriptName, ctx -> "truthy".equals(ctx.get(conditionalField))
+                    ),
+                    Collections.emptyMap()
+                )
+            ),
+            new HashMap<>(ScriptModule.CORE_CONTEXTS)
+        );
+        TestProcessor innerProcessor = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.hasField("error")) {
+                throw new RuntimeException("error");
+            }
+            ingestDocument.setFieldValue("foo", "bar");
+        }) {
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+        };
+        ConditionalProcessor processor = new ConditionalProcessor(
+            randomAlphaOfLength(10),
+            "description",
+            new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, scriptName, Collections.emptyMap()),
+            scriptService,
+            innerProcessor
+        );
+        assertThat(processor.supportsBatchExecution(), is(true));
+
+        IngestDocument[] ingestDocuments = new IngestDocument[] {
+            new IngestDocument(new HashMap<>(Map.of(conditionalField, "falsy")), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of(conditionalField, "truthy")), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of(conditionalField, "truthy", "error", true)), new HashMap<>()) };
+        IngestDocument[] originals = ingestDocuments.clone();
+        Exception[] failures = new Exception[ingestDocuments.length];
+        processor.executeBatch(ingestDocuments, failures);
+
+        assertThat(ingestDocuments[0], is(originals[0]));
+        assertThat(ingestDocuments[0].getSourceAndMetadata(), not(hasKey("foo")));
+        assertThat(ingestDocuments[1], is(originals[1]));
+        assertThat(ingestDocuments[1].getSourceAndMetadata().get("foo"), is("bar"));
+        assertThat(ingestDocuments[2], nullValue());
+        assertThat(failures[2].getMessage(), equalTo("error"));
+        assertThat(innerProcessor.getInvokedCounter(), equalTo(2));
+        assertStats(processor, 2, 1, 0);
+    }
+
     private static void assertStats(ConditionalProcessor conditionalProcessor, long count, long failed, long time) {
         IngestStats.Stats stats = conditionalProcessor.getMetric().createStats();
         assertThat(stats.getIngestCount(), equalTo(count));
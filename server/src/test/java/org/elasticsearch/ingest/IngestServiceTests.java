@@ -1239,6 +1239,127 @@ public class IngestServiceTests extends ESTestCase {
         verify(dropHandler, times(1)).accept(1);
     }
 
+    public void testExecuteBulkRequestInBatches() {
+        Map<String, Processor.Factory> factories = new HashMap<>();
+        factories.put("batch", (processorFactories, tag, description, config) -> {
+            String field = (String) config.remove("field");
+            return new TestProcessor(tag, "batch", description, ingestDocument -> {
+                if (ingestDocument.hasField("fail")) {
+                    throw new IllegalArgumentException("failed");
+                }
+                if (ingestDocument.hasField("drop")) {
+                    return null;
+                }
+                ingestDocument.setFieldValue(field, true);
+                return ingestDocument;
+            }) {
+                @Override
+                public boolean supportsBatchExecution() {
+                    return true;
+                }
+            };
+        });
+        IngestService ingestService = createWithProcessors(factories);
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"batch\" : {\"field\": \"first\"}}, {\"batch\" : {\"field\": \"second\"}}]}"),
+            XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build(); // Start empty
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        int numRequest = scaledRandomIntBetween(8, 64);
+        int failedSlot = randomIntBetween(0, numRequest - 1);
+        int droppedSlot = randomValueOtherThan(failedSlot, () -> randomIntBetween(0, numRequest - 1));
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < numRequest; i++) {
+            Map<String, Object> source = new HashMap<>();
+            if (i == failedSlot) {
+                source.put("fail", true);
+            } else if (i == droppedSlot) {
+                source.put("drop", true);
+            }
+            bulkRequest.add(new IndexRequest("_index").id("_id" + i).source(source).setPipeline("_id").setFinalPipeline("_none"));
+        }
+
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final IntConsumer dropHandler = mock(IntConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), failureHandler, completionHandler, dropHandler,
+            Names.WRITE);
+
+        verify(failureHandler, times(1)).accept(eq(failedSlot), any(IngestProcessorException.class));
+        verify(dropHandler, times(1)).accept(droppedSlot);
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(i);
+            if (i != failedSlot && i != droppedSlot) {
+                assertThat(indexRequest.sourceAsMap(), equalTo(Map.of("first", true, "second", true)));
+            }
+        }
+
+        IngestStats stats = ingestService.stats();
+        assertThat(stats.getTotalStats().getIngestCount(), equalTo((long) numRequest));
+        assertThat(stats.getTotalStats().getIngestCurrent(), equalTo(0L));
+        assertThat(stats.getTotalStats().getIngestFailedCount(), equalTo(1L));
+        IngestStats.Stats pipelineStats = getPipelineStats(stats.getPipelineStats(), "_id");
+        assertThat(pipelineStats.getIngestCount(), equalTo((long) numRequest));
+        assertThat(pipelineStats.getIngestFailedCount(), equalTo(1L));
+        List<IngestStats.ProcessorStat> processorStats = stats.getProcessorStats().get("_id");
+        assertThat(processorStats.get(0).getStats().getIngestCount(), equalTo((long) numRequest));
+        assertThat(processorStats.get(0).getStats().getIngestFailedCount(), equalTo(1L));
+        assertThat(processorStats.get(1).getStats().getIngestCount(), equalTo((long) numRequest - 2));
+        assertThat(processorStats.get(1).getStats().getIngestFailedCount(), equalTo(0L));
+    }
+
+    public void testExecuteBulkRequestInBatchesWithReplacedDocuments() {
+        Map<String, Processor.Factory> factories = new HashMap<>();
+        factories.put("replace", (processorFactories, tag, description, config) ->
+            new TestProcessor(tag, "replace", description, ingestDocument -> {
+                Map<String, Object> sourceAndMetadata = new HashMap<>(ingestDocument.getSourceAndMetadata());
+                sourceAndMetadata.put("replaced", true);
+                return new IngestDocument(sourceAndMetadata, new HashMap<>(ingestDocument.getIngestMetadata()));
+            }) {
+                @Override
+                public boolean supportsBatchExecution() {
+                    return true;
+                }
+            });
+        IngestService ingestService = createWithProcessors(factories);
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"replace\" : {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build(); // Start empty
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        int numRequest = scaledRandomIntBetween(2, 16);
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < numRequest; i++) {
+            bulkRequest.add(new IndexRequest("_index").id("_id" + i).source(Map.of("field", i)).setPipeline("_id")
+                .setFinalPipeline("_none"));
+        }
+
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final IntConsumer dropHandler = mock(IntConsumer.class);
+        ingestService.executeBulkRequest(numRequest, bulkRequest.requests(), failureHandler, completionHandler, dropHandler,
+            Names.WRITE);
+
+        verify(failureHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(i);
+            assertThat(indexRequest.sourceAsMap(), equalTo(Map.of("field", i, "replaced", true)));
+        }
+    }
+
     public void testIngestClusterStateListeners_orderOfExecution() {
         final AtomicInteger counter = new AtomicInteger(0);
 
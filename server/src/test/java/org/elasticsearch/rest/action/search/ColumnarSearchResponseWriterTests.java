@@ -0,0 +1,207 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.rest.action.search;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.InternalMax;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ColumnarSearchResponseWriterTests extends ESTestCase {
+
+    public void testHits() throws IOException {
+        int numHits = randomIntBetween(0, 50);
+        SearchHit[] hits = new SearchHit[numHits];
+        List<Map<String, List<Object>>> expected = new ArrayList<>();
+        for (int i = 0; i < numHits; i++) {
+            Map<String, DocumentField> fields = new HashMap<>();
+            Map<String, List<Object>> expectedRow = new HashMap<>();
+            expectedRow.put("_id", List.of(Integer.toString(i)));
+            List<Object> longs = new ArrayList<>();
+            List<Object> doubles = new ArrayList<>();
+            List<Object> strings = new ArrayList<>();
+            for (int j = randomIntBetween(0, 2); j > 0; j--) {
+                longs.add(randomLong());
+                strings.add(randomAlphaOfLengthBetween(0, 10));
+                // mixes longs and doubles, which are written as doubles in the batches that have both
+                double value = randomIntBetween(-100, 100);
+                doubles.add(randomBoolean() ? Long.valueOf((long) value) : Double.valueOf(value));
+                expectedRow.computeIfAbsent("double", k -> new ArrayList<>()).add(value);
+            }
+            fields.put("long", new DocumentField("long", longs));
+            fields.put("double", new DocumentField("double", doubles));
+            if (randomBoolean()) {
+                fields.put("keyword", new DocumentField("keyword", strings));
+            }
+            for (DocumentField field : fields.values()) {
+                if (field.getValues().isEmpty() == false && field.getName().equals("double") == false) {
+                    expectedRow.put(field.getName(), field.getValues());
+                }
+            }
+            hits[i] = new SearchHit(i, Integer.toString(i), fields, Map.of());
+            if (randomBoolean()) {
+                float score = randomFloat();
+                hits[i].score(score);
+                expectedRow.put("_score", List.of((double) score));
+            }
+            expected.add(expectedRow);
+        }
+        SearchResponse response = newResponse(hits, null);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        ColumnarSearchResponseWriter.writeTo(response, randomIntBetween(1, 10), out);
+        StreamInput in = out.bytes().streamInput();
+        readHeader(in);
+        assertTrue(in.readBoolean());
+        assertThat(in.readString(), equalTo("hits"));
+        List<Map<String, List<Object>>> rows = readTable(in);
+        for (Map<String, List<Object>> row : rows) {
+            // a batch in which all the values are longs writes them as longs
+            row.computeIfPresent("double", (k, values) -> {
+                List<Object> doubleValues = new ArrayList<>();
+                for (Object value : values) {
+                    doubleValues.add(((Number) value).doubleValue());
+                }
+                return doubleValues;
+            });
+        }
+        assertThat(rows, equalTo(expected));
+        assertFalse(in.readBoolean());
+        assertThat(in.available(), equalTo(0));
+    }
+
+    public void testRejectsUnsupportedAggregations() {
+        InternalAggregations aggregations = InternalAggregations.from(List.of(new InternalMax("max", 1, DocValueFormat.RAW, null)));
+        SearchResponse response = newResponse(new SearchHit[0], aggregations);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> ColumnarSearchResponseWriter.writeTo(response, new BytesStreamOutput()));
+        assertThat(e.getMessage(), containsString("aggregation [max] of type [max] isn't supported by the [columnar] format"));
+    }
+
+    public void testValidate() {
+        ColumnarSearchResponseWriter.validate(null);
+        CompositeAggregationBuilder composite = new CompositeAggregationBuilder("c",
+            List.of(new TermsValuesSourceBuilder("t").field("t"))).subAggregation(new MaxAggregationBuilder("max").field("n"));
+        ColumnarSearchResponseWriter.validate(new SearchSourceBuilder().aggregation(composite));
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> ColumnarSearchResponseWriter.validate(new SearchSourceBuilder().aggregation(new MaxAggregationBuilder("max"))));
+        assertThat(e.getMessage(), containsString("aggregation [max] of type [max] isn't supported by the [columnar] format"));
+
+        CompositeAggregationBuilder withTerms = new CompositeAggregationBuilder("c",
+            List.of(new TermsValuesSourceBuilder("t").field("t"))).subAggregation(new TermsAggregationBuilder("terms").field("t"));
+        e = expectThrows(IllegalArgumentException.class,
+            () -> ColumnarSearchResponseWriter.validate(new SearchSourceBuilder().aggregation(withTerms)));
+        assertThat(e.getMessage(), containsString("sub-aggregation [terms] of type [terms] isn't supported by the [columnar] format"));
+
+        e = expectThrows(IllegalArgumentException.class,
+            () -> ColumnarSearchResponseWriter.validate(new SearchSourceBuilder().suggest(new SuggestBuilder())));
+        assertThat(e.getMessage(), equalTo("the [columnar] format doesn't support suggestions"));
+
+        e = expectThrows(IllegalArgumentException.class,
+            () -> ColumnarSearchResponseWriter.validate(new SearchSourceBuilder().profile(true)));
+        assertThat(e.getMessage(), equalTo("the [columnar] format doesn't support profiling"));
+    }
+
+    private static SearchResponse newResponse(SearchHit[] hits, InternalAggregations aggregations) {
+        SearchHits searchHits = new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), Float.NaN);
+        InternalSearchResponse internalResponse = new InternalSearchResponse(searchHits, aggregations, null, null, false, null, 1);
+        return new SearchResponse(internalResponse, null, 1, 1, 0, 10, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+    private static void readHeader(StreamInput in) throws IOException {
+        byte[] magic = new byte[4];
+        in.readBytes(magic, 0, magic.length);
+        assertThat(new String(magic, StandardCharsets.US_ASCII), equalTo("ESCR"));
+        assertThat(in.readVInt(), equalTo(ColumnarSearchResponseWriter.VERSION));
+        assertThat(in.readVLong(), equalTo(10L));
+        assertFalse(in.readBoolean());
+        assertThat(in.readVInt(), equalTo(1));
+        assertThat(in.readVInt(), equalTo(1));
+        assertThat(in.readVInt(), equalTo(0));
+        assertThat(in.readVInt(), equalTo(0));
+        assertNull(in.readOptionalString());
+        assertTrue(in.readBoolean());
+        in.readVLong();
+        assertThat(in.readByte(), equalTo((byte) TotalHits.Relation.EQUAL_TO.ordinal()));
+    }
+
+    /**
+     * Reads the batches of a table into one map per row, from column name to the values of the column, leaving out the columns
+     * without values and dropping the {@code _index} column since the hits of these tests have no index.
+     */
+    private static List<Map<String, List<Object>>> readTable(StreamInput in) throws IOException {
+        List<Map<String, List<Object>>> rows = new ArrayList<>();
+        int numRows;
+        while ((numRows = in.readVInt()) > 0) {
+            List<Map<String, List<Object>>> batch = new ArrayList<>();
+            for (int i = 0; i < numRows; i++) {
+                batch.add(new HashMap<>());
+            }
+            int numColumns = in.readVInt();
+            for (int c = 0; c < numColumns; c++) {
+                String name = in.readString();
+                ColumnarSearchResponseWriter.ColumnType type = ColumnarSearchResponseWriter.ColumnType.values()[in.readByte()];
+                int[] counts = new int[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    counts[i] = in.readVInt();
+                }
+                for (int i = 0; i < numRows; i++) {
+                    for (int j = 0; j < counts[i]; j++) {
+                        Object value;
+                        switch (type) {
+                            case LONG:
+                                value = in.readLong();
+                                break;
+                            case DOUBLE:
+                                value = in.readDouble();
+                                break;
+                            case BOOLEAN:
+                                value = in.readBoolean();
+                                break;
+                            default:
+                                value = in.readBytesRef().utf8ToString();
+                                break;
+                        }
+                        batch.get(i).computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+                    }
+                }
+            }
+            for (Map<String, List<Object>> row : batch) {
+                assertNull(row.get("_index"));
+            }
+            rows.addAll(batch);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.metrics.InternalMax;
+import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class StreamingTermsReducerTests extends ESTestCase {
+
+    private final MockBigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+
+    public void testStringTermsMatchPartialReduce() {
+        int numShards = randomIntBetween(1, 20);
+        int shardSize = randomIntBetween(1, 20);
+        // no more than twice the shard size distinct terms so that none of them gets pruned
+        List<Map<Long, Long>> shards = randomShards(numShards, randomIntBetween(1, 2 * shardSize), 2 * shardSize);
+        assertMatchesPartialReduce(() -> {
+            List<InternalAggregation> aggs = new ArrayList<>();
+            for (Map<Long, Long> shard : shards) {
+                aggs.add(stringTerms(shard, shardSize));
+            }
+            return aggs;
+        });
+    }
+
+    public void testLongTermsMatchPartialReduce() {
+        int numShards = randomIntBetween(1, 20);
+        int shardSize = randomIntBetween(1, 20);
+        // no more than twice the shard size distinct terms so that none of them gets pruned
+        List<Map<Long, Long>> shards = randomShards(numShards, randomIntBetween(1, 2 * shardSize), 2 * shardSize);
+        assertMatchesPartialReduce(() -> {
+            List<InternalAggregation> aggs = new ArrayList<>();
+            for (Map<Long, Long> shard : shards) {
+                aggs.add(longTerms(shard, shardSize));
+            }
+            return aggs;
+        });
+    }
+
+    /**
+     * Builds the shard aggregations twice since the partial reduce modifies the doc count errors of the reduced buckets.
+     */
+    private void assertMatchesPartialReduce(Supplier<List<InternalAggregation>> shardAggs) {
+        List<InternalAggregation> aggs = shardAggs.get();
+        InternalAggregation actual;
+        try (StreamingTermsReducer<?, ?> reducer = StreamingTermsReducer.create(aggs.get(0), bigArrays)) {
+            assertNotNull(reducer);
+            for (int i = 1; i < aggs.size(); i++) {
+                assertTrue(reducer.accept(aggs.get(i)));
+            }
+            actual = reducer.build();
+        }
+        List<InternalAggregation> toReduce = shardAggs.get();
+        InternalAggregation expected = toReduce.get(0).reduce(toReduce, partialReduceContext());
+        assertThat(actual, equalTo(expected));
+    }
+
+    public void testPrunedTermsAreAccountedInErrors() {
+        int numShards = randomIntBetween(10, 50);
+        int shardSize = randomIntBetween(1, 10);
+        List<Map<Long, Long>> shards = randomShards(numShards, randomIntBetween(5 * shardSize, 10 * shardSize), 20 * shardSize);
+        Map<Long, Long> totalCounts = new HashMap<>();
+        long totalDocCount = 0;
+        StringTerms reduced;
+        try (StreamingTermsReducer<?, ?> reducer = StreamingTermsReducer.create(stringTerms(shards.get(0), shardSize), bigArrays)) {
+            for (int i = 1; i < shards.size(); i++) {
+                assertTrue(reducer.accept(stringTerms(shards.get(i), shardSize)));
+            }
+            reduced = (StringTerms) reducer.build();
+        }
+        for (Map<Long, Long> shard : shards) {
+            for (Map.Entry<Long, Long> entry : shard.entrySet()) {
+                totalCounts.merge(entry.getKey(), entry.getValue(), Long::sum);
+                totalDocCount += entry.getValue();
+            }
+        }
+        // pruned terms are kept in memory until there are more than twice as many terms as the shard size
+        assertThat(reduced.getBuckets().size(), lessThanOrEqualTo(2 * shardSize));
+        long docCount = reduced.getSumOfOtherDocCounts();
+        for (StringTerms.Bucket bucket : reduced.getBuckets()) {
+            docCount += bucket.getDocCount();
+            long actualCount = totalCounts.remove(Long.parseLong(bucket.getKeyAsString()));
+            assertThat(bucket.getDocCount(), lessThanOrEqualTo(actualCount));
+            assertThat(actualCount - bucket.getDocCount(), lessThanOrEqualTo(bucket.getDocCountError()));
+        }
+        assertThat(docCount, equalTo(totalDocCount));
+        for (long missingCount : totalCounts.values()) {
+            assertThat(missingCount, lessThanOrEqualTo(reduced.getDocCountError()));
+        }
+    }
+
+    public void testRejectsOtherAggregations() {
+        Map<Long, Long> shard = randomShards(1, 10, 40).get(0);
+        try (StreamingTermsReducer<?, ?> reducer = StreamingTermsReducer.create(stringTerms(shard, 10), bigArrays)) {
+            assertFalse(reducer.accept(longTerms(shard, 10)));
+            assertFalse(reducer.accept(new InternalMax("terms", 1, DocValueFormat.RAW, null)));
+            StringTerms withSubAggs = stringTerms(shard, 10);
+            List<StringTerms.Bucket> buckets = new ArrayList<>();
+            for (StringTerms.Bucket bucket : withSubAggs.getBuckets()) {
+                InternalAggregations subAggs = InternalAggregations.from(
+                    Collections.singletonList(new InternalMax("max", 1, DocValueFormat.RAW, null)));
+                buckets.add(new StringTerms.Bucket(bucket.termBytes, bucket.docCount, subAggs, true, 0, DocValueFormat.RAW));
+            }
+            assertFalse(reducer.accept(withSubAggs.create(buckets)));
+            assertTrue(reducer.accept(new UnmappedTerms("terms", BucketOrder.count(false), 10, 1, null)));
+            assertThat(((StringTerms) reducer.build()).getBuckets().size(), equalTo(shard.size()));
+        }
+        assertNull(StreamingTermsReducer.create(new UnmappedTerms("terms", BucketOrder.count(false), 10, 1, null), bigArrays));
+    }
+
+    private static InternalAggregation.ReduceContext partialReduceContext() {
+        return InternalAggregation.ReduceContext.forPartialReduction(BigArrays.NON_RECYCLING_INSTANCE, null,
+            () -> PipelineAggregator.PipelineTree.EMPTY);
+    }
+
+    /**
+     * Random doc counts per term for each shard. Counts start at 2 so that no bucket gets a doc count error of -1, which
+     * the reduce would confuse with an unbounded error.
+     */
+    private static List<Map<Long, Long>> randomShards(int numShards, int numTermsPerShard, int numTerms) {
+        List<Map<Long, Long>> shards = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            Map<Long, Long> shard = new HashMap<>();
+            for (int j = 0; j < numTermsPerShard; j++) {
+                shard.put((long) randomIntBetween(0, numTerms - 1), (long) randomIntBetween(2, 1000));
+            }
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    /**
+     * Sorts the terms of a shard by descending count, the same way a shard does, and only keeps the top {@code shardSize}.
+     */
+    private static List<Map.Entry<Long, Long>> topTerms(Map<Long, Long> shard, int shardSize, List<Long> others) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(shard.entrySet());
+        entries.sort((a, b) -> {
+            int cmp = Long.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : Long.compare(a.getKey(), b.getKey());
+        });
+        for (Map.Entry<Long, Long> entry : entries.subList(Math.min(shardSize, entries.size()), entries.size())) {
+            others.add(entry.getValue());
+        }
+        return new ArrayList<>(entries.subList(0, Math.min(shardSize, entries.size())));
+    }
+
+    private static StringTerms stringTerms(Map<Long, Long> shard, int shardSize) {
+        List<Long> others = new ArrayList<>();
+        List<StringTerms.Bucket> buckets = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : topTerms(shard, shardSize, others)) {
+            buckets.add(new StringTerms.Bucket(new BytesRef(Long.toString(entry.getKey())), entry.getValue(),
+                InternalAggregations.EMPTY, true, 0, DocValueFormat.RAW));
+        }
+        buckets.sort(StringTerms.Bucket::compareKey);
+        return new StringTerms("terms", BucketOrder.key(true), BucketOrder.count(false), shardSize, 1, null, DocValueFormat.RAW,
+            shardSize, true, others.stream().mapToLong(Long::longValue).sum(), buckets, 0);
+    }
+
+    private static LongTerms longTerms(Map<Long, Long> shard, int shardSize) {
+        List<Long> others = new ArrayList<>();
+        List<LongTerms.Bucket> buckets = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : topTerms(shard, shardSize, others)) {
+            buckets.add(new LongTerms.Bucket(entry.getKey(), entry.getValue(), InternalAggregations.EMPTY, true, 0, DocValueFormat.RAW));
+        }
+        buckets.sort(LongTerms.Bucket::compareKey);
+        return new LongTerms("terms", BucketOrder.key(true), BucketOrder.count(false), shardSize, 1, null, DocValueFormat.RAW,
+            shardSize, true, others.stream().mapToLong(Long::longValue).sum(), buckets, 0);
+    }
+}
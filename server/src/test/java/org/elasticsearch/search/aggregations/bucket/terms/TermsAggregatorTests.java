@@ -21,9 +21,15 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermInSetQuery;
@@ -34,6 +40,7 @@ import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.common.CheckedConsumer;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.lucene.MinimumScoreCollector;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.network.InetAddresses;
 import org.elasticsearch.common.settings.Settings;
@@ -79,7 +86,10 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
 import org.elasticsearch.search.aggregations.bucket.filter.Filter;
 import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregator.KeyedFilter;
 import org.elasticsearch.search.aggregations.bucket.filter.InternalFilter;
+import org.elasticsearch.search.aggregations.bucket.filter.InternalFilters;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.global.InternalGlobal;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
@@ -133,6 +143,7 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 
 public class TermsAggregatorTests extends AggregatorTestCase {
 
@@ -1421,6 +1432,148 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         ));
     }
 
+    public void testLowCardinalityUnderParent() throws IOException {
+        randomizeAggregatorImpl = false;
+        KeywordFieldType parentFt = new KeywordFieldType("p", true, true, Collections.emptyMap());
+        KeywordFieldType termsFt = new KeywordFieldType("t", true, true, Collections.emptyMap());
+        AggregationBuilder builder = new FiltersAggregationBuilder(
+            "f",
+            new KeyedFilter("a", QueryBuilders.termQuery("p", "a")),
+            new KeyedFilter("b", QueryBuilders.termQuery("p", "b"))
+        ).subAggregation(new TermsAggregationBuilder("t").field("t"));
+        String[] values = new String[] { "x", "y", "z" };
+        Map<String, Map<String, Long>> expected = new HashMap<>();
+        debugTestCase(builder, new MatchAllDocsQuery(), iw -> {
+            for (int d = 0; d < 100; d++) {
+                String parentValue = d % 2 == 0 ? "a" : "b";
+                String value = values[d % values.length];
+                expected.computeIfAbsent(parentValue, k -> new HashMap<>()).merge(value, 1L, Long::sum);
+                iw.addDocument(
+                    List.of(
+                        new Field("p", new BytesRef(parentValue), KeywordFieldMapper.Defaults.FIELD_TYPE),
+                        new SortedSetDocValuesField("p", new BytesRef(parentValue)),
+                        new Field("t", new BytesRef(value), KeywordFieldMapper.Defaults.FIELD_TYPE),
+                        new SortedSetDocValuesField("t", new BytesRef(value))
+                    )
+                );
+            }
+        }, (InternalFilters result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+            for (String key : List.of("a", "b")) {
+                StringTerms terms = result.getBucketByKey(key).getAggregations().get("t");
+                Map<String, Long> counts = new HashMap<>();
+                for (StringTerms.Bucket bucket : terms.getBuckets()) {
+                    counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+                }
+                assertThat(counts, equalTo(expected.get(key)));
+            }
+            Map<String, Object> termsDebug = debug.get("f.t");
+            assertThat((String) termsDebug.get("collection_strategy"), startsWith("remap"));
+            assertThat((int) termsDebug.get("segments_collected"), greaterThan(0));
+            assertThat(termsDebug, hasEntry("segments_counted", 0));
+            assertThat(termsDebug, hasKey("mapping_cost_ratio"));
+        }, parentFt, termsFt);
+    }
+
+    public void testLowCardinalityCountsFromPostings() throws IOException {
+        randomizeAggregatorImpl = false;
+        KeywordFieldType ft = new KeywordFieldType("t", true, true, Collections.emptyMap());
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex = TermsAggregatorTests::buildLowCardinalityIndex;
+        debugTestCase(new TermsAggregationBuilder("t").field("t"), new MatchAllDocsQuery(), buildIndex,
+            (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertThat(impl, equalTo(GlobalOrdinalsStringTermsAggregator.LowCardinality.class));
+                assertThat(result.getBuckets().size(), equalTo(10));
+                for (StringTerms.Bucket bucket : result.getBuckets()) {
+                    assertThat(bucket.getDocCount(), equalTo(3L));
+                }
+                assertThat((int) debug.get("t").get("segments_counted"), greaterThan(0));
+                assertThat(debug.get("t"), hasEntry("segments_collected", 0));
+            }, ft);
+
+        Query topLevel = new TermInSetQuery("t", new BytesRef("10000"), new BytesRef("10001"));
+        debugTestCase(new TermsAggregationBuilder("t").field("t"), topLevel, buildIndex,
+            (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertThat(impl, equalTo(GlobalOrdinalsStringTermsAggregator.LowCardinality.class));
+                List<String> keys = result.getBuckets().stream().map(StringTerms.Bucket::getKeyAsString).collect(toList());
+                assertThat(keys, equalTo(List.of("10000", "10001")));
+                List<Long> docCounts = result.getBuckets().stream().map(StringTerms.Bucket::getDocCount).collect(toList());
+                assertThat(docCounts, equalTo(List.of(3L, 3L)));
+                assertThat(debug.get("t"), hasEntry("segments_counted", 0));
+                assertThat((int) debug.get("t").get("segments_collected"), greaterThan(0));
+            }, ft);
+    }
+
+    public void testLowCardinalityDoesNotCountFromPostingsWithTerminateAfter() throws IOException {
+        int terminateAfter = between(1, 100);
+        // Mirrors the collector that terminate_after adds in the query phase
+        Function<Collector, Collector> earlyTerminating = aggregator -> new FilterCollector(aggregator) {
+            private int count;
+
+            @Override
+            public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+                if (count >= terminateAfter) {
+                    throw new CollectionTerminatedException();
+                }
+                return new FilterLeafCollector(super.getLeafCollector(context)) {
+                    @Override
+                    public void collect(int doc) throws IOException {
+                        if (count >= terminateAfter) {
+                            throw new CollectionTerminatedException();
+                        }
+                        count++;
+                        super.collect(doc);
+                    }
+                };
+            }
+        };
+        assertLowCardinalityCollectsWithFilterCollector(earlyTerminating, terminateAfter);
+    }
+
+    public void testLowCardinalityDoesNotCountFromPostingsWithMinScore() throws IOException {
+        // match_all scores every document 1.0 so none of them make the cut
+        assertLowCardinalityCollectsWithFilterCollector(aggregator -> new MinimumScoreCollector(aggregator, 2f), 0);
+    }
+
+    private void assertLowCardinalityCollectsWithFilterCollector(Function<Collector, Collector> filterCollector, long expectedDocCount)
+        throws IOException {
+        randomizeAggregatorImpl = false;
+        KeywordFieldType ft = new KeywordFieldType("t", true, true, Collections.emptyMap());
+        TermsAggregationBuilder builder = new TermsAggregationBuilder("t").field("t").size(Integer.MAX_VALUE);
+        withIndex(TermsAggregatorTests::buildLowCardinalityIndex, searcher -> {
+            AggregationContext context = createAggregationContext(
+                searcher,
+                createIndexSettings(),
+                new MatchAllDocsQuery(),
+                true,
+                new NoneCircuitBreakerService(),
+                builder.bytesToPreallocate(),
+                DEFAULT_MAX_BUCKETS,
+                ft
+            );
+            Aggregator aggregator = createAggregator(builder, context);
+            assertThat(aggregator, instanceOf(GlobalOrdinalsStringTermsAggregator.LowCardinality.class));
+            aggregator.preCollection();
+            searcher.search(context.query(), filterCollector.apply(aggregator));
+            aggregator.postCollection();
+            StringTerms result = (StringTerms) aggregator.buildTopLevel();
+            assertThat(result.getBuckets().stream().mapToLong(StringTerms.Bucket::getDocCount).sum(), equalTo(expectedDocCount));
+            Map<String, Object> debug = new HashMap<>();
+            aggregator.collectDebugInfo(debug::put);
+            assertThat(debug, hasEntry("segments_counted", 0));
+        });
+    }
+
+    /**
+     * Index more values than we'd try filter by filter for but still few
+     * enough to count segment ordinals, each in three documents.
+     */
+    private static void buildLowCardinalityIndex(RandomIndexWriter iw) throws IOException {
+        int valueCount = (int) TermsAggregatorFactory.MAX_ORDS_TO_TRY_FILTERS + 100;
+        for (int d = 0; d < valueCount * 3; d++) {
+            BytesRef value = new BytesRef(Integer.toString(10000 + d % valueCount));
+            iw.addDocument(List.of(new Field("t", value, KeywordFieldMapper.Defaults.FIELD_TYPE), new SortedSetDocValuesField("t", value)));
+        }
+    }
+
     public void testNumberToStringValueScript() throws IOException {
         MappedFieldType fieldType
             = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.INTEGER);
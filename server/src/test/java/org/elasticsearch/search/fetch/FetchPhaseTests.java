@@ -18,14 +18,30 @@ public class FetchPhaseTests extends ESTestCase {
             docs[i] = new FetchPhase.DocIdToIndex(start, i);
             ++ start;
         }
-        assertTrue(FetchPhase.hasSequentialDocs(docs));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 0, docs.length));
+        assertFalse(FetchPhase.hasDenseDocs(docs, 1, docs.length));
 
         int from = randomIntBetween(0, 9);
         start = docs[from].docId;
         for (int i = from; i < 10; i++) {
-            start += randomIntBetween(2, 10);
+            start += randomIntBetween(40, 100);
             docs[i] = new FetchPhase.DocIdToIndex(start, i);
         }
-        assertFalse(FetchPhase.hasSequentialDocs(docs));
+        assertFalse(FetchPhase.hasDenseDocs(docs, 0, docs.length));
+    }
+
+    public void testDenseDocs() {
+        FetchPhase.DocIdToIndex[] docs = new FetchPhase.DocIdToIndex[20];
+        int start = randomIntBetween(0, Short.MAX_VALUE);
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = new FetchPhase.DocIdToIndex(start, i);
+            start += randomIntBetween(1, FetchPhase.MAX_AVERAGE_GAP_FOR_SEQUENTIAL_ACCESS);
+        }
+        assertTrue(FetchPhase.hasDenseDocs(docs, 0, docs.length));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 5, 15));
+
+        docs[docs.length - 1] = new FetchPhase.DocIdToIndex(start + docs.length * FetchPhase.MAX_AVERAGE_GAP_FOR_SEQUENTIAL_ACCESS, 0);
+        assertFalse(FetchPhase.hasDenseDocs(docs, 0, docs.length));
+        assertTrue(FetchPhase.hasDenseDocs(docs, 0, docs.length - 1));
     }
 }
@@ -35,6 +35,7 @@ import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
@@ -52,19 +53,24 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.internal.ContextIndexSearcher.intersectScorerAndBitSet;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitableLeafReader;
@@ -266,6 +272,61 @@ public class ContextIndexSearcherTests extends ESTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testConcurrentSearch() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE));
+        int numSegments = randomIntBetween(6, 20);
+        int numDocs = 0;
+        for (int i = 0; i < numSegments; i++) {
+            for (int j = randomIntBetween(1, 50); j > 0; j--) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", Field.Store.NO));
+                doc.add(new StringField("id", Integer.toString(numDocs++), Field.Store.NO));
+                w.addDocument(doc);
+            }
+            w.flush();
+        }
+        if (randomBoolean()) {
+            w.deleteDocuments(new Term("id", Integer.toString(randomIntBetween(0, numDocs - 1))));
+        }
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(w), new ShardId("_index", "_na_", 0));
+        ExecutorService executor = EsExecutors.newFixed("test", 4, -1, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY), false);
+        try {
+            ContextIndexSearcher sequentialSearcher = new ContextIndexSearcher(reader, IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(), IndexSearcher.getDefaultQueryCachingPolicy(), true);
+            ContextIndexSearcher concurrentSearcher = new ContextIndexSearcher(reader, IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(), IndexSearcher.getDefaultQueryCachingPolicy(), true, executor);
+            assertFalse(sequentialSearcher.isConcurrentSearchEnabled());
+            assertTrue(concurrentSearcher.isConcurrentSearchEnabled());
+
+            Query query = new TermQuery(new Term("foo", "bar"));
+            assertEquals(sequentialSearcher.count(query), concurrentSearcher.count(query));
+            // all hits have the same score and ties are broken differently across slices, so collect all of them
+            TopDocs expected = sequentialSearcher.search(query, numDocs);
+            TopDocs actual = concurrentSearcher.search(query, numDocs);
+            assertEquals(expected.totalHits, actual.totalHits);
+            Set<Integer> expectedDocs = new HashSet<>();
+            for (ScoreDoc scoreDoc : expected.scoreDocs) {
+                expectedDocs.add(scoreDoc.doc);
+            }
+            Set<Integer> actualDocs = new HashSet<>();
+            for (ScoreDoc scoreDoc : actual.scoreDocs) {
+                actualDocs.add(scoreDoc.doc);
+            }
+            assertEquals(expectedDocs, actualDocs);
+
+            // cancellation is checked by every slice, and the failure is propagated to the caller
+            concurrentSearcher.addQueryCancellation(() -> {
+                throw new TaskCancelledException("cancelled");
+            });
+            expectThrows(TaskCancelledException.class, () -> concurrentSearcher.search(query, 10));
+        } finally {
+            terminate(executor);
+            IOUtils.close(reader, w, dir);
+        }
+    }
+
     private SparseFixedBitSet query(LeafReaderContext leaf, String field, String value) throws IOException {
         SparseFixedBitSet sparseFixedBitSet = new SparseFixedBitSet(leaf.reader().maxDoc());
         TermsEnum tenum = leaf.reader().terms(field).iterator();
@@ -66,6 +66,9 @@ import org.apache.lucene.util.bkd.BKDConfig;
 import org.apache.lucene.util.bkd.BKDReader;
 import org.apache.lucene.util.bkd.BKDWriter;
 import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
@@ -74,6 +77,7 @@ import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
@@ -86,13 +90,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.query.QueryPhase.pointsHaveDuplicateData;
 import static org.elasticsearch.search.query.TopDocsCollectorContext.hasInfMaxScore;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -192,6 +199,79 @@ public class QueryPhaseTests extends IndexShardTestCase {
         countTestCase(true);
     }
 
+    public void testCountWithSegmentCountCache() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter w = new IndexWriter(dir, iwc);
+        final int numSegments = randomIntBetween(2, 5);
+        for (int i = 0; i < numSegments; i++) {
+            for (int j = randomIntBetween(1, 20); j > 0; j--) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomFrom("bar", "baz"), Store.NO));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        // a query that can't be counted without collecting it
+        Query query = new BooleanQuery.Builder()
+            .add(new MatchAllDocsQuery(), Occur.SHOULD)
+            .add(new TermQuery(new Term("foo", "bar")), Occur.MUST)
+            .build();
+        SearchExecutionContext searchExecutionContext = mock(SearchExecutionContext.class);
+        when(searchExecutionContext.isCacheable()).thenReturn(true);
+        IndicesSegmentCountCache cache = new IndicesSegmentCountCache(Settings.EMPTY);
+
+        DirectoryReader reader = DirectoryReader.open(w);
+        ContextIndexSearcher searcher = newContextSearcher(reader);
+        assertEquals(searcher.count(query), countWithCache(searchExecutionContext, searcher, query, cache));
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            assertEquals(new IndexSearcher(leaf.reader()).count(query), cache.get(query, leaf.reader()));
+        }
+        // cached counts are read from the cache
+        assertEquals(searcher.count(query), countWithCache(searchExecutionContext, searcher, query, cache));
+
+        // only the new segment and the segments with new deletes are collected after a refresh
+        w.deleteDocuments(new Term("foo", "baz"));
+        Document doc = new Document();
+        doc.add(new StringField("foo", "bar", Store.NO));
+        w.addDocument(doc);
+        DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+        assertNotNull(newReader);
+        reader.close();
+        searcher = newContextSearcher(newReader);
+        assertEquals(searcher.count(query), countWithCache(searchExecutionContext, searcher, query, cache));
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            assertEquals(new IndexSearcher(leaf.reader()).count(query), cache.get(query, leaf.reader()));
+        }
+
+        // requests that collect more than the hit count don't use the cache
+        TestSearchContext context = new TestSearchContext(searchExecutionContext, indexShard, searcher);
+        context.parsedQuery(new ParsedQuery(new TermQuery(new Term("foo", "bar"))));
+        context.setSize(0);
+        context.segmentCountCache(cache);
+        context.parsedPostFilter(new ParsedQuery(new MatchAllDocsQuery()));
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.executeInternal(context);
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            assertEquals(-1, cache.get(new TermQuery(new Term("foo", "bar")), leaf.reader()));
+        }
+        newReader.close();
+        cache.close();
+        w.close();
+        dir.close();
+    }
+
+    private long countWithCache(SearchExecutionContext searchExecutionContext, ContextIndexSearcher searcher,
+                                Query query, IndicesSegmentCountCache cache) throws Exception {
+        TestSearchContext context = new TestSearchContext(searchExecutionContext, indexShard, searcher);
+        context.parsedQuery(new ParsedQuery(query));
+        context.setSize(0);
+        context.segmentCountCache(cache);
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        QueryPhase.executeInternal(context);
+        return context.queryResult().topDocs().topDocs.totalHits.value;
+    }
+
     public void testPostFilterDisablesCountOptimization() throws Exception {
         Directory dir = newDirectory();
         final Sort sort = new Sort(new SortField("rank", SortField.Type.INT));
@@ -946,6 +1026,53 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testConcurrentSearchTimeoutKeepsCompletedSlices() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE));
+        int numSegments = randomIntBetween(6, 20);
+        int numDocs = 0;
+        for (int i = 0; i < numSegments; i++) {
+            for (int j = randomIntBetween(1, 20); j > 0; j--) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", "bar", Store.NO));
+                w.addDocument(doc);
+                numDocs++;
+            }
+            w.flush();
+        }
+        w.close();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        ExecutorService executor = EsExecutors.newFixed("test", 4, -1, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY), false);
+        try {
+            ContextIndexSearcher searcher = new ContextIndexSearcher(reader, IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(), IndexSearcher.getDefaultQueryCachingPolicy(), false, executor);
+            assertTrue(searcher.isConcurrentSearchEnabled());
+            // only the slice that is searched on the calling thread times out, the others complete on the executor
+            Thread searchThread = Thread.currentThread();
+            searcher.addQueryCancellation(() -> {
+                if (Thread.currentThread() == searchThread) {
+                    throw new QueryPhase.TimeExceededException();
+                }
+            });
+            TestSearchContext context = new TestSearchContext(null, indexShard, searcher);
+            context.parsedQuery(new ParsedQuery(new TermQuery(new Term("foo", "bar"))));
+            context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+            context.setSize(numDocs);
+
+            QueryPhase.executeInternal(context);
+            assertTrue(context.queryResult().searchTimedOut());
+            ScoreDoc[] scoreDocs = context.queryResult().topDocs().topDocs.scoreDocs;
+            assertThat(scoreDocs.length, greaterThan(0));
+            assertThat(scoreDocs.length, lessThan(numDocs));
+        } finally {
+            terminate(executor);
+            reader.close();
+            dir.close();
+        }
+    }
+
     public void testCancellationDuringPreprocess() throws IOException {
         try (Directory dir = newDirectory();
              RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig())) {
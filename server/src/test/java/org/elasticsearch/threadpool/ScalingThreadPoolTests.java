@@ -10,7 +10,9 @@ package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +23,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 
 public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
@@ -133,6 +136,38 @@ public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
         });
     }
 
+    public void testVirtualThreads() throws InterruptedException {
+        final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.SCALING);
+        final Settings settings = Settings.builder().put("thread_pool." + threadPoolName + ".virtual_threads", true).build();
+        if (EsExecutors.virtualThreadsSupported() == false) {
+            final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ThreadPool(settings));
+            assertThat(e.getMessage(), containsString("[thread_pool." + threadPoolName + ".virtual_threads] requires a JVM"));
+            return;
+        }
+        runScalingThreadPoolTest(settings, (clusterSettings, threadPool) -> {
+            assertThat(info(threadPool, threadPoolName).getThreadPoolType(), equalTo(ThreadPool.ThreadPoolType.VIRTUAL));
+            final int numberOfTasks = randomIntBetween(1, 64);
+            final CountDownLatch latch = new CountDownLatch(numberOfTasks);
+            final ThreadContext threadContext = threadPool.getThreadContext();
+            for (int i = 0; i < numberOfTasks; i++) {
+                final String header = Integer.toString(i);
+                try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                    threadContext.putHeader("header", header);
+                    threadPool.executor(threadPoolName).execute(() -> {
+                        assertThat(threadContext.getHeader("header"), equalTo(header));
+                        assertThat(Thread.currentThread().getName(), containsString("[" + threadPoolName + "]"));
+                        latch.countDown();
+                    });
+                }
+            }
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     public void testScalingThreadPoolThreadsAreTerminatedAfterKeepAlive() throws InterruptedException {
         final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.SCALING);
         final int min = "generic".equals(threadPoolName) ? 4 : 1;
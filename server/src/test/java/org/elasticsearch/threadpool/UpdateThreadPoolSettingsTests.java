@@ -109,6 +109,34 @@ public class UpdateThreadPoolSettingsTests extends ESThreadPoolTestCase {
         }
     }
 
+    public void testFairQueueRequiresHeader() throws InterruptedException {
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> {
+            ThreadPool tp = null;
+            try {
+                tp = new ThreadPool(Settings.builder()
+                    .put("node.name", "testFairQueueRequiresHeader")
+                    .put("thread_pool." + Names.SEARCH + ".fair_queue.enabled", true)
+                    .build());
+            } finally {
+                terminateThreadPoolIfNeeded(tp);
+            }
+        });
+        assertThat(e.getMessage(), equalTo("[thread_pool.search.fair_queue.header] must be set when [thread_pool.search.fair_queue.enabled]"
+            + " is true"));
+
+        ThreadPool threadPool = null;
+        try {
+            threadPool = new ThreadPool(Settings.builder()
+                .put("node.name", "testFairQueueRequiresHeader")
+                .put("thread_pool." + Names.SEARCH + ".fair_queue.enabled", true)
+                .put("thread_pool." + Names.SEARCH + ".fair_queue.header", "X-Tenant-Id")
+                .build());
+            assertThat(threadPool.getFairQueueHeaders(), equalTo(Set.of("X-Tenant-Id")));
+        } finally {
+            terminateThreadPoolIfNeeded(threadPool);
+        }
+    }
+
     public void testScalingExecutorType() throws InterruptedException {
         String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.SCALING);
         ThreadPool threadPool = null;
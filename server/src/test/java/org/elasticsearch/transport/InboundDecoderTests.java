@@ -47,10 +47,10 @@ public class InboundDecoderTests extends ESTestCase {
         OutboundMessage message;
         if (isRequest) {
             message = new OutboundMessage.Request(threadContext, new TestRequest(randomAlphaOfLength(100)),
-                Version.CURRENT, action, requestId, false, false);
+                Version.CURRENT, action, requestId, false, null);
         } else {
             message = new OutboundMessage.Response(threadContext, new TestResponse(randomAlphaOfLength(100)),
-                Version.CURRENT, requestId, false, false);
+                Version.CURRENT, requestId, false, null);
         }
 
         final BytesReference totalBytes = message.serialize(new BytesStreamOutput());
@@ -103,7 +103,7 @@ public class InboundDecoderTests extends ESTestCase {
         final String contentValue = randomAlphaOfLength(100);
         // 8.0 is only compatible with handshakes on a pre-variable int version
         final OutboundMessage message = new OutboundMessage.Request(threadContext, new TestRequest(contentValue),
-            preHeaderVariableInt, action, requestId, true, isCompressed);
+            preHeaderVariableInt, action, requestId, true, isCompressed ? Compression.Scheme.DEFLATE : null);
 
         final BytesReference totalBytes = message.serialize(new BytesStreamOutput());
         int partialHeaderSize = TcpHeader.headerSize(preHeaderVariableInt);
@@ -140,7 +140,7 @@ public class InboundDecoderTests extends ESTestCase {
         threadContext.putHeader(headerKey, headerValue);
         Version handshakeCompat = Version.CURRENT.minimumCompatibilityVersion().minimumCompatibilityVersion();
         OutboundMessage message = new OutboundMessage.Request(threadContext, new TestRequest(randomAlphaOfLength(100)),
-            handshakeCompat, action, requestId, true, false);
+            handshakeCompat, action, requestId, true, null);
 
         final BytesReference bytes = message.serialize(new BytesStreamOutput());
         int totalHeaderSize = TcpHeader.headerSize(handshakeCompat);
@@ -165,6 +165,7 @@ public class InboundDecoderTests extends ESTestCase {
 
     public void testCompressedDecode() throws IOException {
         boolean isRequest = randomBoolean();
+        Compression.Scheme compressionScheme = randomFrom(Compression.Scheme.values());
         String action = "test-request";
         long requestId = randomNonNegativeLong();
         final String headerKey = randomAlphaOfLength(10);
@@ -178,10 +179,12 @@ public class InboundDecoderTests extends ESTestCase {
         TransportMessage transportMessage;
         if (isRequest) {
             transportMessage = new TestRequest(randomAlphaOfLength(100));
-            message = new OutboundMessage.Request(threadContext, transportMessage, Version.CURRENT, action, requestId, false, true);
+            message = new OutboundMessage.Request(threadContext, transportMessage, Version.CURRENT, action, requestId, false,
+                compressionScheme);
         } else {
             transportMessage = new TestResponse(randomAlphaOfLength(100));
-            message = new OutboundMessage.Response(threadContext, transportMessage, Version.CURRENT, requestId, false, true);
+            message = new OutboundMessage.Response(threadContext, transportMessage, Version.CURRENT, requestId, false,
+                compressionScheme);
         }
 
         final BytesReference totalBytes = message.serialize(new BytesStreamOutput());
@@ -235,7 +238,7 @@ public class InboundDecoderTests extends ESTestCase {
         threadContext.putHeader(headerKey, headerValue);
         Version handshakeCompat = Version.CURRENT.minimumCompatibilityVersion().minimumCompatibilityVersion();
         OutboundMessage message = new OutboundMessage.Request(threadContext, new TestRequest(randomAlphaOfLength(100)),
-            handshakeCompat, action, requestId, true, true);
+            handshakeCompat, action, requestId, true, Compression.Scheme.DEFLATE);
 
         final BytesReference bytes = message.serialize(new BytesStreamOutput());
         int totalHeaderSize = TcpHeader.headerSize(handshakeCompat);
@@ -263,7 +266,7 @@ public class InboundDecoderTests extends ESTestCase {
         long requestId = randomNonNegativeLong();
         Version incompatibleVersion = Version.CURRENT.minimumCompatibilityVersion().minimumCompatibilityVersion();
         OutboundMessage message = new OutboundMessage.Request(threadContext, new TestRequest(randomAlphaOfLength(100)),
-            incompatibleVersion, action, requestId, false, true);
+            incompatibleVersion, action, requestId, false, Compression.Scheme.DEFLATE);
 
         final BytesReference bytes = message.serialize(new BytesStreamOutput());
 
@@ -47,6 +47,7 @@ import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class OutboundHandlerTests extends ESTestCase {
@@ -56,6 +57,7 @@ public class OutboundHandlerTests extends ESTestCase {
     private final AtomicReference<Tuple<Header, BytesReference>> message = new AtomicReference<>();
     private InboundPipeline pipeline;
     private OutboundHandler handler;
+    private StatsTracker statsTracker;
     private FakeTcpChannel channel;
     private DiscoveryNode node;
 
@@ -65,8 +67,9 @@ public class OutboundHandlerTests extends ESTestCase {
         channel = new FakeTcpChannel(randomBoolean(), buildNewFakeTransportAddress().address(), buildNewFakeTransportAddress().address());
         TransportAddress transportAddress = buildNewFakeTransportAddress();
         node = new DiscoveryNode("", transportAddress, Version.CURRENT);
-        StatsTracker statsTracker = new StatsTracker();
-        handler = new OutboundHandler("node", Version.CURRENT, statsTracker, threadPool, BigArrays.NON_RECYCLING_INSTANCE);
+        statsTracker = new StatsTracker();
+        handler = new OutboundHandler("node", Version.CURRENT, statsTracker, threadPool, BigArrays.NON_RECYCLING_INSTANCE,
+            randomFrom(Compression.Scheme.values()));
 
         final LongSupplier millisSupplier = () -> TimeValue.nsecToMSec(System.nanoTime());
         final InboundDecoder decoder = new InboundDecoder(Version.CURRENT, PageCacheRecycler.NON_RECYCLING_INSTANCE);
@@ -168,8 +171,12 @@ public class OutboundHandlerTests extends ESTestCase {
         }
         if (compress) {
             assertTrue(header.isCompressed());
+            assertThat(statsTracker.getUncompressedBytes(), greaterThan(0L));
+            assertThat(statsTracker.getCompressedBytes(), greaterThan(0L));
         } else {
             assertFalse(header.isCompressed());
+            assertEquals(0L, statsTracker.getUncompressedBytes());
+            assertEquals(0L, statsTracker.getCompressedBytes());
         }
 
         assertEquals(value, message.value);
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
@@ -23,6 +24,10 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
 
 public class TransportDecompressorTests extends ESTestCase {
 
@@ -118,4 +123,88 @@ public class TransportDecompressorTests extends ESTestCase {
         }
     }
 
+    public void testSimpleLz4Compression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            byte randomByte = randomByte();
+            try (OutputStream lz4Stream = CompressorFactory.LZ4_COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(output))) {
+                lz4Stream.write(randomByte);
+            }
+
+            BytesReference bytes = output.bytes();
+
+            TransportDecompressor decompressor = new TransportDecompressor(PageCacheRecycler.NON_RECYCLING_INSTANCE);
+            int bytesConsumed = decompressor.decompress(bytes);
+            assertEquals(bytes.length(), bytesConsumed);
+            assertTrue(decompressor.isEOS());
+            ReleasableBytesReference releasableBytesReference = decompressor.pollDecompressedPage();
+            assertEquals(1, releasableBytesReference.length());
+            assertEquals(randomByte, releasableBytesReference.get(0));
+            releasableBytesReference.close();
+            assertNull(decompressor.pollDecompressedPage());
+            decompressor.close();
+        }
+    }
+
+    public void testIncrementalMultiPageLz4Compression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            final int numInts = randomIntBetween(1, 50000);
+            try (StreamOutput lz4Stream = new OutputStreamStreamOutput(
+                    CompressorFactory.LZ4_COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(output)))) {
+                for (int i = 0; i < numInts; ++i) {
+                    // mix compressible and incompressible blocks
+                    lz4Stream.writeInt(rarely() ? randomInt() : i);
+                }
+            }
+
+            BytesReference bytes = output.bytes();
+
+            TransportDecompressor decompressor = new TransportDecompressor(PageCacheRecycler.NON_RECYCLING_INSTANCE);
+            List<ReleasableBytesReference> references = new ArrayList<>();
+            int offset = 0;
+            while (offset < bytes.length()) {
+                // the header must be read at once
+                int length = Math.min(bytes.length() - offset, offset == 0 ? randomIntBetween(4, 100) : randomIntBetween(1, 20000));
+                assertFalse(decompressor.isEOS());
+                assertEquals(length, decompressor.decompress(bytes.slice(offset, length)));
+                offset += length;
+                ReleasableBytesReference reference;
+                while ((reference = decompressor.pollDecompressedPage()) != null) {
+                    references.add(reference);
+                }
+            }
+            assertTrue(decompressor.isEOS());
+            BytesReference composite = CompositeBytesReference.of(references.toArray(new BytesReference[0]));
+            assertEquals(4 * numInts, composite.length());
+            for (int i = 0; i < references.size() - 1; i++) {
+                assertEquals(PageCacheRecycler.BYTE_PAGE_SIZE, references.get(i).length());
+            }
+            StreamInput streamInput = composite.streamInput();
+            StreamInput expected = CompressorFactory.LZ4_COMPRESSOR.uncompress(bytes).streamInput();
+            for (int i = 0; i < numInts; ++i) {
+                assertEquals(expected.readInt(), streamInput.readInt());
+            }
+            Releasables.close(references);
+            decompressor.close();
+        }
+    }
+
+    public void testCorruptLz4Compression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (StreamOutput lz4Stream = new OutputStreamStreamOutput(
+                    CompressorFactory.LZ4_COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(output)))) {
+                for (int i = 0; i < 10000; ++i) {
+                    lz4Stream.writeInt(i);
+                }
+            }
+
+            byte[] bytes = BytesReference.toBytes(output.bytes());
+            // corrupt the uncompressed length of the first block
+            bytes[CompressorFactory.LZ4_COMPRESSOR.headerLength()] = (byte) 0x7F;
+
+            TransportDecompressor decompressor = new TransportDecompressor(PageCacheRecycler.NON_RECYCLING_INSTANCE);
+            IOException e = expectThrows(IOException.class, () -> decompressor.decompress(new BytesArray(bytes)));
+            assertThat(e.getMessage(), containsString("invalid block length"));
+            decompressor.close();
+        }
+    }
 }
@@ -476,6 +476,11 @@ public abstract class MapperServiceTestCase extends ESTestCase {
                 throw new UnsupportedOperationException();
             }
 
+            @Override
+            public boolean hasFilterCollector() {
+                return false;
+            }
+
             @Override
             public void close() {
                 throw new UnsupportedOperationException();
@@ -236,6 +236,23 @@ public abstract class AggregatorTestCase extends ESTestCase {
                                                 long bytesToPreallocate,
                                                 int maxBucket,
                                                 MappedFieldType... fieldTypes) throws IOException {
+        return createAggregationContext(indexSearcher, indexSettings, query, false, breakerService, bytesToPreallocate, maxBucket,
+            fieldTypes);
+    }
+
+    /**
+     * Create a {@linkplain AggregationContext} for testing an {@link Aggregator}
+     * that runs with a collector chain that may filter the documents that
+     * match the {@code query} if {@code hasFilterCollector} is {@code true}.
+     */
+    protected AggregationContext createAggregationContext(IndexSearcher indexSearcher,
+                                                IndexSettings indexSettings,
+                                                Query query,
+                                                boolean hasFilterCollector,
+                                                CircuitBreakerService breakerService,
+                                                long bytesToPreallocate,
+                                                int maxBucket,
+                                                MappedFieldType... fieldTypes) throws IOException {
         MappingLookup mappingLookup = MappingLookup.fromMappers(
             Mapping.EMPTY,
             Arrays.stream(fieldTypes).map(this::buildMockFieldMapper).collect(toList()),
@@ -285,6 +302,7 @@ public abstract class AggregatorTestCase extends ESTestCase {
             new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService),
             bytesToPreallocate,
             () -> query,
+            hasFilterCollector,
             null,
             consumer,
             () -> buildSubSearchContext(indexSettings, searchExecutionContext, bitsetFilterCache),
@@ -20,6 +20,7 @@ import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesSegmentCountCache;
 import org.elasticsearch.search.SearchExtBuilder;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
@@ -76,6 +77,7 @@ public class TestSearchContext extends SearchContext {
     int from;
     int size;
     private int terminateAfter = DEFAULT_TERMINATE_AFTER;
+    private IndicesSegmentCountCache segmentCountCache;
     private SearchContextAggregations aggregations;
     private ScrollContext scrollContext;
     private final ShardSearchRequest request;
@@ -286,6 +288,16 @@ public class TestSearchContext extends SearchContext {
         this.terminateAfter = terminateAfter;
     }
 
+    @Override
+    public IndicesSegmentCountCache segmentCountCache() {
+        return segmentCountCache;
+    }
+
+    @Override
+    public void segmentCountCache(IndicesSegmentCountCache segmentCountCache) {
+        this.segmentCountCache = segmentCountCache;
+    }
+
     @Override
     public boolean lowLevelCancellation() {
         return false;
@@ -17,7 +17,8 @@ public class TestTransportChannels {
     public static TcpTransportChannel newFakeTcpTransportChannel(String nodeName, TcpChannel channel, ThreadPool threadPool,
                                                                  String action, long requestId, Version version) {
         return new TcpTransportChannel(
-            new OutboundHandler(nodeName, version, new StatsTracker(), threadPool, BigArrays.NON_RECYCLING_INSTANCE),
+            new OutboundHandler(nodeName, version, new StatsTracker(), threadPool, BigArrays.NON_RECYCLING_INSTANCE,
+                Compression.Scheme.DEFLATE),
             channel, action, requestId, version, false, false, () -> {});
     }
 }
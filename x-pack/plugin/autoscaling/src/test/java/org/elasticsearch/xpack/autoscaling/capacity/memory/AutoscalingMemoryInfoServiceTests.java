@@ -368,7 +368,7 @@ public class AutoscalingMemoryInfoServiceTests extends AutoscalingTestCase {
             null,
             null,
             null
-        );
+        , null);
     }
 
     private class NodeStatsClient extends NoOpClient {
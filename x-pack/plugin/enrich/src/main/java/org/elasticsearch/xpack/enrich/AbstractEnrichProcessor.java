@@ -12,6 +12,7 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.OriginSettingClient;
 import org.elasticsearch.cluster.routing.Preference;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.query.ConstantScoreQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.ingest.AbstractProcessor;
@@ -33,6 +34,7 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
 
     private final String policyName;
     private final BiConsumer<SearchRequest, BiConsumer<SearchResponse, Exception>> searchRunner;
+    private final EnrichCache enrichCache;
     private final TemplateScript.Factory field;
     private final TemplateScript.Factory targetField;
     private final boolean ignoreMissing;
@@ -44,6 +46,7 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         String tag,
         String description,
         Client client,
+        EnrichCache enrichCache,
         String policyName,
         TemplateScript.Factory field,
         TemplateScript.Factory targetField,
@@ -56,6 +59,7 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
             tag,
             description,
             createSearchRunner(client),
+            enrichCache,
             policyName,
             field,
             targetField,
@@ -70,6 +74,7 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         String tag,
         String description,
         BiConsumer<SearchRequest, BiConsumer<SearchResponse, Exception>> searchRunner,
+        EnrichCache enrichCache,
         String policyName,
         TemplateScript.Factory field,
         TemplateScript.Factory targetField,
@@ -81,6 +86,7 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         super(tag, description);
         this.policyName = policyName;
         this.searchRunner = searchRunner;
+        this.enrichCache = enrichCache;
         this.field = field;
         this.targetField = targetField;
         this.ignoreMissing = ignoreMissing;
@@ -115,6 +121,13 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
             req.preference(Preference.LOCAL.type());
             req.source(searchBuilder);
 
+            List<Map<String, Object>> cachedDocuments = enrichCache.get(req);
+            if (cachedDocuments != null) {
+                enrich(ingestDocument, cachedDocuments);
+                handler.accept(ingestDocument, null);
+                return;
+            }
+
             searchRunner.accept(req, (searchResponse, e) -> {
                 if (e != null) {
                     handler.accept(null, e);
@@ -125,25 +138,14 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
                 // If the enrich key does not exist in the index, throw an error
                 // If no documents match the key, return the unchanged document
                 SearchHit[] searchHits = searchResponse.getHits().getHits();
-                if (searchHits.length < 1) {
-                    handler.accept(ingestDocument, null);
-                    return;
-                }
-
-                String targetField = ingestDocument.renderTemplate(this.targetField);
-                if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
-                    if (maxMatches == 1) {
-                        Map<String, Object> firstDocument = searchHits[0].getSourceAsMap();
-                        ingestDocument.setFieldValue(targetField, firstDocument);
-                    } else {
-                        List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
-                        for (SearchHit searchHit : searchHits) {
-                            Map<String, Object> enrichDocument = searchHit.getSourceAsMap();
-                            enrichDocuments.add(enrichDocument);
-                        }
-                        ingestDocument.setFieldValue(targetField, enrichDocuments);
-                    }
+                List<Map<String, Object>> enrichDocuments = new ArrayList<>(searchHits.length);
+                List<BytesReference> sources = new ArrayList<>(searchHits.length);
+                for (SearchHit searchHit : searchHits) {
+                    enrichDocuments.add(searchHit.getSourceAsMap());
+                    sources.add(searchHit.getSourceRef());
                 }
+                enrichCache.put(req, sources);
+                enrich(ingestDocument, enrichDocuments);
                 handler.accept(ingestDocument, null);
             });
         } catch (Exception e) {
@@ -151,6 +153,20 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         }
     }
 
+    private void enrich(IngestDocument ingestDocument, List<Map<String, Object>> enrichDocuments) {
+        if (enrichDocuments.isEmpty()) {
+            return;
+        }
+        String targetField = ingestDocument.renderTemplate(this.targetField);
+        if (overrideEnabled || ingestDocument.hasField(targetField) == false) {
+            if (maxMatches == 1) {
+                ingestDocument.setFieldValue(targetField, enrichDocuments.get(0));
+            } else {
+                ingestDocument.setFieldValue(targetField, enrichDocuments);
+            }
+        }
+    }
+
     @Override
     public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
         throw new UnsupportedOperationException("this method should not get executed");
@@ -0,0 +1,192 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.enrich;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.cluster.metadata.IndexAbstraction;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.lookup.SourceLookup;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A node local cache of the sources of the documents that the enrich processors looked up, keyed by the concrete enrich index that was
+ * searched and the search that was executed, which holds the value to match. The sources are kept as bytes, which take far less memory
+ * than the parsed maps, and are parsed again on every hit, which also hands each processor its own copy of the documents.
+ * <p>
+ * Each execution of a policy creates a new enrich index, so a cached lookup can never be returned for another generation of the
+ * policy than the one it was read from. The cache is cleared when the enrich index of a policy changes, so that the lookups on the
+ * previous generations do not linger until they are evicted. The size of the cached sources is accounted for in the
+ * {@link #CIRCUIT_BREAKER_NAME} circuit breaker, and lookups that would trip it are not cached.
+ */
+public final class EnrichCache {
+
+    public static final String CIRCUIT_BREAKER_NAME = "enrich_cache";
+
+    private final Cache<CacheKey, CacheValue> cache;
+    private final boolean enabled;
+    private volatile CircuitBreaker circuitBreaker = new NoopCircuitBreaker(CIRCUIT_BREAKER_NAME);
+    private volatile Metadata metadata;
+
+    EnrichCache(long maxSize) {
+        this.enabled = maxSize > 0;
+        this.cache = CacheBuilder.<CacheKey, CacheValue>builder()
+            .setMaximumWeight(maxSize)
+            .removalListener(notification -> circuitBreaker.addWithoutBreaking(-notification.getValue().sizeInBytes))
+            .build();
+    }
+
+    void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Returns the parsed sources of the documents that were cached for the given lookup, or {@code null} if the lookup is not cached.
+     */
+    List<Map<String, Object>> get(SearchRequest searchRequest) {
+        final CacheKey cacheKey = toKey(searchRequest);
+        if (cacheKey == null) {
+            return null;
+        }
+        final CacheValue cacheValue = cache.get(cacheKey);
+        if (cacheValue == null) {
+            return null;
+        }
+        final List<Map<String, Object>> documents = new ArrayList<>(cacheValue.sources.size());
+        for (BytesReference source : cacheValue.sources) {
+            documents.add(SourceLookup.sourceAsMap(source));
+        }
+        return documents;
+    }
+
+    /**
+     * Caches a copy of the sources of the documents that the given lookup returned, unless a document has no source or they would
+     * trip the circuit breaker.
+     */
+    void put(SearchRequest searchRequest, List<BytesReference> sources) {
+        final CacheKey cacheKey = toKey(searchRequest);
+        if (cacheKey == null) {
+            return;
+        }
+        final List<BytesReference> copies = new ArrayList<>(sources.size());
+        long sizeInBytes = 0;
+        for (BytesReference source : sources) {
+            if (source == null) {
+                return;
+            }
+            // copy the source so that we don't hold on to the buffer of the whole search response
+            final BytesReference copy = new BytesArray(BytesRef.deepCopyOf(source.toBytesRef()));
+            copies.add(copy);
+            sizeInBytes += copy.ramBytesUsed();
+        }
+        try {
+            circuitBreaker.addEstimateBytesAndMaybeBreak(sizeInBytes, "enrich lookup");
+        } catch (CircuitBreakingException e) {
+            return;
+        }
+        cache.put(cacheKey, new CacheValue(copies, sizeInBytes));
+    }
+
+    void setMetadata(Metadata metadata) {
+        final Metadata previous = this.metadata;
+        this.metadata = metadata;
+        if (previous != null && previous.indices() != metadata.indices() && enrichIndicesChanged(previous, metadata)) {
+            cache.invalidateAll();
+        }
+    }
+
+    public EnrichStatsAction.Response.CacheStats getStats(String localNodeId) {
+        final Cache.CacheStats stats = cache.stats();
+        return new EnrichStatsAction.Response.CacheStats(localNodeId, cache.count(), stats.getHits(), stats.getMisses(),
+            stats.getEvictions());
+    }
+
+    private CacheKey toKey(SearchRequest searchRequest) {
+        final Metadata metadata = this.metadata;
+        if (enabled == false || metadata == null) {
+            return null;
+        }
+        final String enrichIndex = resolveEnrichIndex(metadata, searchRequest.indices()[0]);
+        return enrichIndex == null ? null : new CacheKey(enrichIndex, searchRequest.source());
+    }
+
+    private static String resolveEnrichIndex(Metadata metadata, String alias) {
+        final IndexAbstraction indexAbstraction = metadata.getIndicesLookup().get(alias);
+        if (indexAbstraction == null || indexAbstraction.getIndices().size() != 1) {
+            return null;
+        }
+        return indexAbstraction.getIndices().get(0).getIndex().getName();
+    }
+
+    private static boolean enrichIndicesChanged(Metadata previous, Metadata current) {
+        final Set<String> policyNames = new HashSet<>();
+        for (Metadata metadata : List.of(previous, current)) {
+            final EnrichMetadata enrichMetadata = metadata.custom(EnrichMetadata.TYPE);
+            if (enrichMetadata != null) {
+                policyNames.addAll(enrichMetadata.getPolicies().keySet());
+            }
+        }
+        for (String policyName : policyNames) {
+            final String alias = EnrichPolicy.getBaseName(policyName);
+            if (Objects.equals(resolveEnrichIndex(previous, alias), resolveEnrichIndex(current, alias)) == false) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CacheKey {
+
+        private final String enrichIndex;
+        private final SearchSourceBuilder search;
+
+        private CacheKey(String enrichIndex, SearchSourceBuilder search) {
+            this.enrichIndex = enrichIndex;
+            this.search = search;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return enrichIndex.equals(cacheKey.enrichIndex) && search.equals(cacheKey.search);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(enrichIndex, search);
+        }
+    }
+
+    private static final class CacheValue {
+
+        private final List<BytesReference> sources;
+        private final long sizeInBytes;
+
+        private CacheValue(List<BytesReference> sources, long sizeInBytes) {
+            this.sources = sources;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
@@ -28,12 +28,14 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
     static final String TYPE = "enrich";
     private final Client client;
     private final ScriptService scriptService;
+    private final EnrichCache enrichCache;
 
     volatile Metadata metadata;
 
-    EnrichProcessorFactory(Client client, ScriptService scriptService) {
+    EnrichProcessorFactory(Client client, ScriptService scriptService, EnrichCache enrichCache) {
         this.client = client;
         this.scriptService = scriptService;
+        this.enrichCache = enrichCache;
     }
 
     @Override
@@ -74,6 +76,7 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
                     tag,
                     description,
                     client,
+                    enrichCache,
                     policyName,
                     field,
                     targetField,
@@ -91,6 +94,7 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
                     tag,
                     description,
                     client,
+                    enrichCache,
                     policyName,
                     field,
                     targetField,
@@ -109,6 +113,7 @@ final class EnrichProcessorFactory implements Processor.Factory, Consumer<Cluste
     @Override
     public void accept(ClusterState state) {
         metadata = state.getMetadata();
+        enrichCache.setMetadata(metadata);
     }
 
 }
@@ -28,6 +28,7 @@ public final class GeoMatchProcessor extends AbstractEnrichProcessor {
         String tag,
         String description,
         Client client,
+        EnrichCache enrichCache,
         String policyName,
         TemplateScript.Factory field,
         TemplateScript.Factory targetField,
@@ -38,7 +39,19 @@ public final class GeoMatchProcessor extends AbstractEnrichProcessor {
         ShapeRelation shapeRelation,
         ShapeBuilder.Orientation orientation
     ) {
-        super(tag, description, client, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        super(
+            tag,
+            description,
+            client,
+            enrichCache,
+            policyName,
+            field,
+            targetField,
+            ignoreMissing,
+            overrideEnabled,
+            matchField,
+            maxMatches
+        );
         this.shapeRelation = shapeRelation;
         parser = new GeometryParser(orientation.getAsBoolean(), true, true);
     }
@@ -58,7 +71,19 @@ public final class GeoMatchProcessor extends AbstractEnrichProcessor {
         ShapeRelation shapeRelation,
         ShapeBuilder.Orientation orientation
     ) {
-        super(tag, description, searchRunner, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        super(
+            tag,
+            description,
+            searchRunner,
+            new EnrichCache(0),
+            policyName,
+            field,
+            targetField,
+            ignoreMissing,
+            overrideEnabled,
+            matchField,
+            maxMatches
+        );
         this.shapeRelation = shapeRelation;
         parser = new GeometryParser(orientation.getAsBoolean(), true, true);
     }
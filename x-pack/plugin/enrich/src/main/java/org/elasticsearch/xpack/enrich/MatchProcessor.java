@@ -23,6 +23,7 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         String tag,
         String description,
         Client client,
+        EnrichCache enrichCache,
         String policyName,
         TemplateScript.Factory field,
         TemplateScript.Factory targetField,
@@ -31,7 +32,19 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         String matchField,
         int maxMatches
     ) {
-        super(tag, description, client, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        super(
+            tag,
+            description,
+            client,
+            enrichCache,
+            policyName,
+            field,
+            targetField,
+            ignoreMissing,
+            overrideEnabled,
+            matchField,
+            maxMatches
+        );
     }
 
     /** used in tests **/
@@ -47,7 +60,19 @@ public final class MatchProcessor extends AbstractEnrichProcessor {
         String matchField,
         int maxMatches
     ) {
-        super(tag, description, searchRunner, policyName, field, targetField, ignoreMissing, overrideEnabled, matchField, maxMatches);
+        super(
+            tag,
+            description,
+            searchRunner,
+            new EnrichCache(0),
+            policyName,
+            field,
+            targetField,
+            ignoreMissing,
+            overrideEnabled,
+            matchField,
+            maxMatches
+        );
     }
 
     @Override
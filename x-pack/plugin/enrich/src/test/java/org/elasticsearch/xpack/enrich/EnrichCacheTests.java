@@ -0,0 +1,198 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+package org.elasticsearch.xpack.enrich;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.cluster.metadata.AliasMetadata;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.query.ConstantScoreQueryBuilder;
+import org.elasticsearch.index.query.MatchQueryBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
+import org.elasticsearch.xpack.core.enrich.action.EnrichStatsAction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EnrichCacheTests extends ESTestCase {
+
+    public void testCaching() throws IOException {
+        final EnrichCache enrichCache = new EnrichCache(3);
+        enrichCache.setMetadata(createMetadata(1L));
+
+        final SearchRequest searchRequest1 = createSearchRequest("policy1", "1");
+        final SearchRequest searchRequest2 = createSearchRequest("policy1", "2");
+        final SearchRequest searchRequest3 = createSearchRequest("policy2", "1");
+        final SearchRequest searchRequest4 = createSearchRequest("policy2", "2");
+        final List<Map<String, Object>> documents = List.of(Map.of("key1", "value1", "key2", "value2"));
+        final List<BytesReference> sources = toSources(documents);
+
+        enrichCache.put(searchRequest1, sources);
+        enrichCache.put(searchRequest2, sources);
+        enrichCache.put(searchRequest3, sources);
+        EnrichStatsAction.Response.CacheStats cacheStats = enrichCache.getStats("_id");
+        assertThat(cacheStats.getCount(), equalTo(3L));
+        assertThat(cacheStats.getHits(), equalTo(0L));
+        assertThat(cacheStats.getMisses(), equalTo(0L));
+        assertThat(cacheStats.getEvictions(), equalTo(0L));
+
+        assertThat(enrichCache.get(searchRequest1), equalTo(documents));
+        assertThat(enrichCache.get(createSearchRequest("policy1", "1")), equalTo(documents));
+        assertThat(enrichCache.get(searchRequest4), nullValue());
+        cacheStats = enrichCache.getStats("_id");
+        assertThat(cacheStats.getHits(), equalTo(2L));
+        assertThat(cacheStats.getMisses(), equalTo(1L));
+
+        enrichCache.put(searchRequest4, sources);
+        cacheStats = enrichCache.getStats("_id");
+        assertThat(cacheStats.getCount(), equalTo(3L));
+        assertThat(cacheStats.getEvictions(), equalTo(1L));
+
+        // executing a policy again clears the cache, and lookups on its new enrich index miss
+        enrichCache.setMetadata(createMetadata(2L));
+        assertThat(enrichCache.getStats("_id").getCount(), equalTo(0L));
+        assertThat(enrichCache.get(searchRequest1), nullValue());
+        enrichCache.put(searchRequest1, sources);
+        assertThat(enrichCache.get(searchRequest1), equalTo(documents));
+    }
+
+    public void testReturnsCopies() {
+        final EnrichCache enrichCache = new EnrichCache(randomIntBetween(1, 10));
+        enrichCache.setMetadata(createMetadata(1L));
+        final SearchRequest searchRequest = createSearchRequest("policy1", "1");
+        final BytesArray source = new BytesArray("{\"key\":{\"nested\":\"value\"}}");
+
+        enrichCache.put(searchRequest, List.of(source));
+        // the cache must not hold on to the bytes it was given
+        source.array()[source.offset() + 2] = 'x';
+
+        final List<Map<String, Object>> cached = enrichCache.get(searchRequest);
+        assertThat(cached, equalTo(List.of(Map.of("key", Map.of("nested", "value")))));
+        cached.get(0).put("other", "value");
+        assertThat(enrichCache.get(searchRequest), equalTo(List.of(Map.of("key", Map.of("nested", "value")))));
+    }
+
+    public void testDoesNotCacheWithoutEnrichIndexOrWhenDisabled() throws IOException {
+        final SearchRequest searchRequest = createSearchRequest("policy1", "1");
+        final List<BytesReference> sources = toSources(List.of(Map.of("key", "value")));
+
+        final EnrichCache withoutMetadata = new EnrichCache(10);
+        withoutMetadata.put(searchRequest, sources);
+        assertThat(withoutMetadata.get(searchRequest), nullValue());
+
+        final EnrichCache disabled = new EnrichCache(0);
+        disabled.setMetadata(createMetadata(1L));
+        disabled.put(searchRequest, sources);
+        assertThat(disabled.get(searchRequest), nullValue());
+
+        final EnrichCache enrichCache = new EnrichCache(10);
+        enrichCache.setMetadata(createMetadata(1L));
+        final SearchRequest unknownPolicy = createSearchRequest("policy3", "1");
+        enrichCache.put(unknownPolicy, sources);
+        assertThat(enrichCache.get(unknownPolicy), nullValue());
+        assertThat(enrichCache.getStats("_id").getCount(), equalTo(0L));
+
+        final List<BytesReference> withoutSource = new ArrayList<>(sources);
+        withoutSource.add(null);
+        enrichCache.put(searchRequest, withoutSource);
+        assertThat(enrichCache.get(searchRequest), nullValue());
+    }
+
+    public void testCircuitBreaker() throws IOException {
+        final List<BytesReference> sources = toSources(List.of(Map.of("key", "value")));
+        final long size = sources.get(0).length();
+        final AtomicLong used = new AtomicLong();
+        final long limit = 2 * size + size / 2;
+        final EnrichCache enrichCache = new EnrichCache(10);
+        enrichCache.setCircuitBreaker(new NoopCircuitBreaker(EnrichCache.CIRCUIT_BREAKER_NAME) {
+            @Override
+            public void addEstimateBytesAndMaybeBreak(long bytes, String label) {
+                if (used.addAndGet(bytes) > limit) {
+                    used.addAndGet(-bytes);
+                    throw new CircuitBreakingException("tripped", bytes, limit, Durability.PERMANENT);
+                }
+            }
+
+            @Override
+            public void addWithoutBreaking(long bytes) {
+                used.addAndGet(bytes);
+            }
+        });
+        enrichCache.setMetadata(createMetadata(1L));
+
+        enrichCache.put(createSearchRequest("policy1", "1"), sources);
+        enrichCache.put(createSearchRequest("policy1", "2"), sources);
+        assertThat(used.get(), equalTo(2 * size));
+
+        // a lookup that does not fit is not cached
+        enrichCache.put(createSearchRequest("policy1", "3"), sources);
+        assertThat(used.get(), equalTo(2 * size));
+        assertThat(enrichCache.get(createSearchRequest("policy1", "3")), nullValue());
+        assertThat(enrichCache.get(createSearchRequest("policy1", "1")), notNullValue());
+
+        // replacing and clearing entries releases their bytes
+        enrichCache.put(createSearchRequest("policy1", "1"), List.of());
+        assertThat(used.get(), equalTo(size));
+        enrichCache.setMetadata(createMetadata(2L));
+        assertThat(used.get(), equalTo(0L));
+    }
+
+    private static List<BytesReference> toSources(List<Map<String, Object>> documents) throws IOException {
+        final List<BytesReference> sources = new ArrayList<>(documents.size());
+        for (Map<String, Object> document : documents) {
+            sources.add(BytesReference.bytes(JsonXContent.contentBuilder().map(document)));
+        }
+        return sources;
+    }
+
+    private static SearchRequest createSearchRequest(String policyName, String value) {
+        return new SearchRequest(EnrichPolicy.getBaseName(policyName)).source(
+            new SearchSourceBuilder().query(new ConstantScoreQueryBuilder(new MatchQueryBuilder("match_field", value)))
+        );
+    }
+
+    private static Metadata createMetadata(long policy1Generation) {
+        final Map<String, EnrichPolicy> policies = Map.of(
+            "policy1",
+            new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("index"), "match_field", List.of("key")),
+            "policy2",
+            new EnrichPolicy(EnrichPolicy.MATCH_TYPE, null, List.of("index"), "match_field", List.of("key"))
+        );
+        return Metadata.builder()
+            .put(createEnrichIndex("policy1", policy1Generation))
+            .put(createEnrichIndex("policy2", 1L))
+            .putCustom(EnrichMetadata.TYPE, new EnrichMetadata(policies))
+            .build();
+    }
+
+    private static IndexMetadata.Builder createEnrichIndex(String policyName, long generation) {
+        return IndexMetadata.builder(EnrichPolicy.getBaseName(policyName) + "-" + generation)
+            .settings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+            )
+            .putAlias(AliasMetadata.builder(EnrichPolicy.getBaseName(policyName)).build());
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.xcontent.XContentParser.Token;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.fielddata.IndexFieldData;
@@ -27,6 +28,7 @@ import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.xpack.vectors.query.KnnVectorQuery;
 import org.elasticsearch.xpack.vectors.query.VectorIndexFieldData;
 
 import java.io.IOException;
@@ -64,6 +66,9 @@ public class DenseVectorFieldMapper extends FieldMapper {
                         "] should be in the range [1, " + MAX_DIMS_COUNT + "] but was [" + dims + "]");
                 }
             });
+        Parameter<Boolean> indexed = Parameter.indexParam(m -> toType(m).indexed, false);
+        Parameter<String> similarity = Parameter.restrictedStringParam("similarity", false,
+            m -> toType(m).similarity.toString(), VectorSimilarity.L2_NORM.toString(), VectorSimilarity.COSINE.toString());
         Parameter<Map<String, String>> meta = Parameter.metaParam();
 
         final Version indexVersionCreated;
@@ -75,15 +80,23 @@ public class DenseVectorFieldMapper extends FieldMapper {
 
         @Override
         protected List<Parameter<?>> getParameters() {
-            return List.of(dims, meta);
+            if (indexVersionCreated.before(Version.V_8_0_0)) {
+                // indices created before indexed vectors were supported can't use [index] and [similarity]
+                return List.of(dims, meta);
+            }
+            return List.of(dims, indexed, similarity, meta);
         }
 
         @Override
         public DenseVectorFieldMapper build(ContentPath contentPath) {
+            VectorSimilarity vectorSimilarity = VectorSimilarity.fromString(similarity.getValue());
             return new DenseVectorFieldMapper(
                 name,
-                new DenseVectorFieldType(buildFullName(contentPath), indexVersionCreated, dims.getValue(), meta.getValue()),
+                new DenseVectorFieldType(buildFullName(contentPath), indexVersionCreated, dims.getValue(), indexed.getValue(),
+                    vectorSimilarity, meta.getValue()),
                 dims.getValue(),
+                indexed.getValue(),
+                vectorSimilarity,
                 indexVersionCreated,
                 multiFieldsBuilder.build(this, contentPath),
                 copyTo.build());
@@ -95,11 +108,18 @@ public class DenseVectorFieldMapper extends FieldMapper {
 
     public static final class DenseVectorFieldType extends MappedFieldType {
         private final int dims;
+        private final VectorSimilarity similarity;
         private final Version indexVersionCreated;
 
         public DenseVectorFieldType(String name, Version indexVersionCreated, int dims, Map<String, String> meta) {
-            super(name, false, false, true, TextSearchInfo.NONE, meta);
+            this(name, indexVersionCreated, dims, false, VectorSimilarity.L2_NORM, meta);
+        }
+
+        public DenseVectorFieldType(String name, Version indexVersionCreated, int dims, boolean indexed,
+                                    VectorSimilarity similarity, Map<String, String> meta) {
+            super(name, indexed, false, true, TextSearchInfo.NONE, meta);
             this.dims = dims;
+            this.similarity = similarity;
             this.indexVersionCreated = indexVersionCreated;
         }
 
@@ -138,7 +158,17 @@ public class DenseVectorFieldMapper extends FieldMapper {
 
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName, Supplier<SearchLookup> searchLookup) {
-            return new VectorIndexFieldData.Builder(name(), CoreValuesSourceType.KEYWORD, indexVersionCreated, dims);
+            return new VectorIndexFieldData.Builder(name(), CoreValuesSourceType.KEYWORD, indexVersionCreated, dims,
+                isSearchable() ? similarity : null);
+        }
+
+        /**
+         * The graphs of indexed vectors are loaded by the field data warmer when a shard is refreshed, like eager global ordinals,
+         * so that searches don't have to build them.
+         */
+        @Override
+        public boolean eagerGlobalOrdinals() {
+            return isSearchable();
         }
 
         @Override
@@ -146,16 +176,42 @@ public class DenseVectorFieldMapper extends FieldMapper {
             throw new IllegalArgumentException(
                 "Field [" + name() + "] of type [" + typeName() + "] doesn't support queries");
         }
+
+        /**
+         * Creates a query that matches the <code>k</code> documents whose vectors are the most similar to the query vector.
+         *
+         * @param numCandidates the number of candidates considered per segment, higher values improve recall
+         * @param filter an optional filter that documents must match, or <code>null</code>
+         */
+        public Query createKnnQuery(SearchExecutionContext context, float[] queryVector, int k, int numCandidates,
+                                    @Nullable Query filter) {
+            if (isSearchable() == false) {
+                throw new IllegalArgumentException(
+                    "to perform knn search on field [" + name() + "], its mapping must have [index] set to [true]");
+            }
+            if (queryVector.length != dims) {
+                throw new IllegalArgumentException("the query vector has a different number of dimensions [" + queryVector.length +
+                    "] than the document vectors [" + dims + "]");
+            }
+            float[] vector = queryVector.clone();
+            similarity.normalize(vector);
+            VectorIndexFieldData fieldData = context.getForField(this);
+            return new KnnVectorQuery(fieldData, vector, k, numCandidates, filter);
+        }
     }
 
     private final Version indexCreatedVersion;
     private final int dims;
+    private final boolean indexed;
+    private final VectorSimilarity similarity;
 
-    private DenseVectorFieldMapper(String simpleName, MappedFieldType mappedFieldType, int dims,
-                                   Version indexCreatedVersion, MultiFields multiFields, CopyTo copyTo) {
+    private DenseVectorFieldMapper(String simpleName, MappedFieldType mappedFieldType, int dims, boolean indexed,
+                                   VectorSimilarity similarity, Version indexCreatedVersion, MultiFields multiFields, CopyTo copyTo) {
         super(simpleName, mappedFieldType, multiFields, copyTo);
         this.indexCreatedVersion = indexCreatedVersion;
         this.dims = dims;
+        this.indexed = indexed;
+        this.similarity = similarity;
     }
 
     @Override
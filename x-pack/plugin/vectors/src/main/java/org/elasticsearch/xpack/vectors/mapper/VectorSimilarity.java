@@ -0,0 +1,81 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.mapper;
+
+import java.util.Locale;
+
+/**
+ * The similarity used to compare dense vectors when searching for nearest neighbors. Scores are always positive and
+ * higher scores mean more similar vectors.
+ */
+public enum VectorSimilarity {
+
+    /**
+     * Similarity based on the euclidean distance between vectors, scored as <code>1 / (1 + l2_norm^2)</code>.
+     */
+    L2_NORM {
+        @Override
+        public float compare(float[] a, float[] b) {
+            double squaredDistance = 0;
+            for (int i = 0; i < a.length; i++) {
+                double diff = a[i] - b[i];
+                squaredDistance += diff * diff;
+            }
+            return (float) (1 / (1 + squaredDistance));
+        }
+    },
+
+    /**
+     * Similarity based on the cosine of the angle between vectors, scored as <code>(1 + cosine) / 2</code>.
+     * Vectors must be {@link #normalize normalized} before being compared.
+     */
+    COSINE {
+        @Override
+        public float compare(float[] a, float[] b) {
+            double dotProduct = 0;
+            for (int i = 0; i < a.length; i++) {
+                dotProduct += a[i] * b[i];
+            }
+            return (float) ((1 + dotProduct) / 2);
+        }
+
+        @Override
+        public void normalize(float[] vector) {
+            double magnitude = 0;
+            for (float value : vector) {
+                magnitude += value * value;
+            }
+            magnitude = Math.sqrt(magnitude);
+            if (magnitude > 0) {
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] /= magnitude;
+                }
+            }
+        }
+    };
+
+    /**
+     * Compares two vectors of the same number of dimensions, higher scores mean more similar vectors.
+     */
+    public abstract float compare(float[] a, float[] b);
+
+    /**
+     * Transforms the provided vector in place so that it can be {@link #compare compared} with this similarity.
+     */
+    public void normalize(float[] vector) {
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static VectorSimilarity fromString(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.xpack.vectors.mapper.VectorEncoderDecoder;
+import org.elasticsearch.xpack.vectors.mapper.VectorSimilarity;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * A hierarchical navigable small world graph over the dense vectors of a single segment, as described in
+ * "Efficient and robust approximate nearest neighbor search using Hierarchical Navigable Small World graphs"
+ * by Malkov and Yashunin. The graph is immutable once built and can be searched concurrently.
+ */
+public final class HnswGraph implements Accountable {
+
+    static final int DEFAULT_MAX_CONNECTIONS = 16;
+    static final int DEFAULT_BEAM_WIDTH = 100;
+    // graphs are built with a fixed seed so that the same segment always produces the same graph
+    private static final long SEED = 0x5EED;
+
+    private final VectorSimilarity similarity;
+    private final float[][] vectors;
+    private final int[] docs;
+    private final int maxConnections;
+    // neighbors[node][level] holds the neighbors of a node on a level, counts[node][level] how many of them are set
+    private final int[][][] neighbors;
+    private final int[][] counts;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    private HnswGraph(VectorSimilarity similarity, float[][] vectors, int[] docs, int maxConnections) {
+        this.similarity = similarity;
+        this.vectors = vectors;
+        this.docs = docs;
+        this.maxConnections = maxConnections;
+        this.neighbors = new int[docs.length][][];
+        this.counts = new int[docs.length][];
+    }
+
+    /**
+     * Builds a graph over the vectors of the provided field, vectors are normalized for the provided similarity.
+     */
+    public static HnswGraph build(LeafReader reader, String field, int dims, VectorSimilarity similarity) throws IOException {
+        BinaryDocValues values = DocValues.getBinary(reader, field);
+        float[][] vectors = new float[0][];
+        int[] docs = new int[0];
+        int size = 0;
+        for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+            if (size == docs.length) {
+                docs = ArrayUtil.grow(docs, size + 1);
+                vectors = ArrayUtil.grow(vectors, size + 1);
+            }
+            float[] vector = new float[dims];
+            VectorEncoderDecoder.decodeDenseVector(values.binaryValue(), vector);
+            similarity.normalize(vector);
+            vectors[size] = vector;
+            docs[size] = doc;
+            size++;
+        }
+        return build(similarity, ArrayUtil.copyOfSubArray(vectors, 0, size), ArrayUtil.copyOfSubArray(docs, 0, size),
+            DEFAULT_MAX_CONNECTIONS, DEFAULT_BEAM_WIDTH);
+    }
+
+    /**
+     * Builds a graph over the provided vectors, <code>docs[i]</code> is the document of <code>vectors[i]</code>.
+     *
+     * @param maxConnections the maximum number of neighbors of a node on the upper levels, twice as many on the bottom level
+     * @param beamWidth the number of candidates considered when looking for the neighbors of a new node
+     */
+    static HnswGraph build(VectorSimilarity similarity, float[][] vectors, int[] docs, int maxConnections, int beamWidth) {
+        assert vectors.length == docs.length;
+        HnswGraph graph = new HnswGraph(similarity, vectors, docs, maxConnections);
+        double levelMultiplier = 1 / Math.log(maxConnections);
+        SplittableRandom random = new SplittableRandom(SEED);
+        FixedBitSet visited = new FixedBitSet(Math.max(1, docs.length));
+        for (int node = 0; node < docs.length; node++) {
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            graph.neighbors[node] = new int[level + 1][];
+            graph.counts[node] = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                // one extra slot so that a neighbor can be added before the worst one gets evicted
+                graph.neighbors[node][l] = new int[graph.maxConnections(l) + 1];
+            }
+            graph.insert(node, level, beamWidth, visited);
+        }
+        return graph;
+    }
+
+    private void insert(int node, int level, int beamWidth, FixedBitSet visited) {
+        if (entryPoint == -1) {
+            entryPoint = node;
+            topLevel = level;
+            return;
+        }
+        float[] vector = vectors[node];
+        int[] entryPoints = new int[] { entryPoint };
+        for (int l = topLevel; l > level; l--) {
+            entryPoints = new int[] { searchLevel(vector, entryPoints, 1, l, null, visited).topNode() };
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            NeighborQueue candidates = searchLevel(vector, entryPoints, beamWidth, l, null, visited);
+            entryPoints = new int[candidates.size()];
+            for (int i = entryPoints.length - 1; i >= 0; i--) {
+                // pop from worst to best
+                float score = candidates.topScore();
+                int candidate = candidates.pop();
+                entryPoints[i] = candidate;
+                if (i < maxConnections) {
+                    addNeighbor(node, candidate, l, score);
+                    addNeighbor(candidate, node, l, score);
+                }
+            }
+        }
+        if (level > topLevel) {
+            entryPoint = node;
+            topLevel = level;
+        }
+    }
+
+    private void addNeighbor(int node, int neighbor, int level, float score) {
+        int[] nodeNeighbors = neighbors[node][level];
+        int count = counts[node][level];
+        nodeNeighbors[count++] = neighbor;
+        if (count > maxConnections(level)) {
+            // evict the neighbor that is the least similar to the node
+            int worst = count - 1;
+            float worstScore = score;
+            for (int i = 0; i < count - 1; i++) {
+                float s = similarity.compare(vectors[node], vectors[nodeNeighbors[i]]);
+                if (s < worstScore) {
+                    worst = i;
+                    worstScore = s;
+                }
+            }
+            nodeNeighbors[worst] = nodeNeighbors[--count];
+        }
+        counts[node][level] = count;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxConnections * 2 : maxConnections;
+    }
+
+    /**
+     * Searches a level of the graph starting from the provided entry points.
+     *
+     * @param acceptDocs the documents that may be returned, or <code>null</code> if all documents may be returned
+     * @return a min-heap of at most <code>topK</code> accepted nodes
+     */
+    private NeighborQueue searchLevel(float[] query, int[] entryPoints, int topK, int level, Bits acceptDocs, FixedBitSet visited) {
+        NeighborQueue candidates = new NeighborQueue(topK, true);
+        NeighborQueue results = new NeighborQueue(topK, false);
+        visited.clear(0, visited.length());
+        for (int entry : entryPoints) {
+            if (visited.getAndSet(entry) == false) {
+                float score = similarity.compare(query, vectors[entry]);
+                candidates.add(entry, score);
+                if (acceptDocs == null || acceptDocs.get(docs[entry])) {
+                    results.insertWithOverflow(entry, score, topK);
+                }
+            }
+        }
+        while (candidates.size() > 0) {
+            if (results.size() >= topK && candidates.topScore() < results.topScore()) {
+                // the best remaining candidate is worse than all the results we have
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] candidateNeighbors = neighbors[candidate][level];
+            int count = counts[candidate][level];
+            for (int i = 0; i < count; i++) {
+                int neighbor = candidateNeighbors[i];
+                if (visited.getAndSet(neighbor)) {
+                    continue;
+                }
+                float score = similarity.compare(query, vectors[neighbor]);
+                if (results.size() < topK || score > results.topScore()) {
+                    candidates.add(neighbor, score);
+                    if (acceptDocs == null || acceptDocs.get(docs[neighbor])) {
+                        results.insertWithOverflow(neighbor, score, topK);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the <code>k</code> accepted documents whose vectors are the most similar to the provided query vector, best first.
+     *
+     * @param query the query vector, normalized for the similarity of this graph
+     * @param numCandidates the number of candidates to consider on the bottom level, higher values improve recall
+     * @param acceptDocs the documents that may be returned, or <code>null</code> if all documents may be returned
+     */
+    public ScoreDoc[] search(float[] query, int k, int numCandidates, Bits acceptDocs) {
+        if (entryPoint == -1) {
+            return new ScoreDoc[0];
+        }
+        FixedBitSet visited = new FixedBitSet(docs.length);
+        int[] entryPoints = new int[] { entryPoint };
+        for (int l = topLevel; l > 0; l--) {
+            entryPoints = new int[] { searchLevel(query, entryPoints, 1, l, null, visited).topNode() };
+        }
+        NeighborQueue results = searchLevel(query, entryPoints, Math.max(k, numCandidates), 0, acceptDocs, visited);
+        while (results.size() > k) {
+            results.pop();
+        }
+        ScoreDoc[] scoreDocs = new ScoreDoc[results.size()];
+        for (int i = scoreDocs.length - 1; i >= 0; i--) {
+            float score = results.topScore();
+            scoreDocs[i] = new ScoreDoc(docs[results.pop()], score);
+        }
+        return scoreDocs;
+    }
+
+    /**
+     * Estimates the memory used by a graph over the provided number of vectors before it is built. Only the bottom level is taken
+     * into account since the upper levels hold a small fraction of the nodes.
+     */
+    static long ramBytesEstimate(int numVectors, int dims) {
+        long bytesPerNode = RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Float.BYTES * dims)
+            + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) Integer.BYTES * (DEFAULT_MAX_CONNECTIONS * 2 + 1))
+            + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + Integer.BYTES)
+            + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + RamUsageEstimator.NUM_BYTES_OBJECT_REF)
+            + Integer.BYTES + 3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+        return numVectors * bytesPerNode;
+    }
+
+    /**
+     * The number of vectors in this graph.
+     */
+    public int size() {
+        return docs.length;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long bytes = RamUsageEstimator.sizeOf(docs) + RamUsageEstimator.shallowSizeOf(vectors) + RamUsageEstimator.shallowSizeOf(counts);
+        for (int node = 0; node < docs.length; node++) {
+            bytes += RamUsageEstimator.sizeOf(vectors[node]) + RamUsageEstimator.sizeOf(counts[node])
+                + RamUsageEstimator.shallowSizeOf(neighbors[node]);
+            for (int[] levelNeighbors : neighbors[node]) {
+                bytes += RamUsageEstimator.sizeOf(levelNeighbors);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.common.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A query that matches the <code>k</code> documents whose vectors are the most similar to a query vector, optionally
+ * restricted to the documents that match a filter. Nearest neighbors are found through the {@link HnswGraph} of each
+ * segment, which {@link VectorIndexFieldData} loads through the field data cache.
+ * The nearest neighbors are computed when the query is rewritten, the rewritten query only holds their doc ids and scores.
+ */
+public class KnnVectorQuery extends Query {
+
+    private final VectorIndexFieldData fieldData;
+    private final float[] queryVector;
+    private final int k;
+    private final int numCandidates;
+    @Nullable
+    private final Query filter;
+
+    /**
+     * @param fieldData the field data of an indexed <code>dense_vector</code> field
+     * @param queryVector the query vector, normalized for the similarity of the field
+     */
+    public KnnVectorQuery(VectorIndexFieldData fieldData, float[] queryVector, int k, int numCandidates, @Nullable Query filter) {
+        this.fieldData = Objects.requireNonNull(fieldData);
+        this.queryVector = Objects.requireNonNull(queryVector);
+        this.k = k;
+        this.numCandidates = numCandidates;
+        this.filter = filter;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        Weight filterWeight = null;
+        if (filter != null) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            searcher.setQueryCache(null);
+            filterWeight = searcher.createWeight(searcher.rewrite(filter), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        }
+        TopDocs[] perLeafTopDocs = new TopDocs[reader.leaves().size()];
+        for (LeafReaderContext ctx : reader.leaves()) {
+            ScoreDoc[] scoreDocs = searchLeaf(ctx, filterWeight);
+            for (ScoreDoc scoreDoc : scoreDocs) {
+                scoreDoc.doc += ctx.docBase;
+            }
+            perLeafTopDocs[ctx.ord] = new TopDocs(new TotalHits(scoreDocs.length, TotalHits.Relation.EQUAL_TO), scoreDocs);
+        }
+        TopDocs topDocs = TopDocs.merge(k, perLeafTopDocs);
+        if (topDocs.scoreDocs.length == 0) {
+            return new MatchNoDocsQuery("no nearest neighbors found");
+        }
+        return KnnScoreDocQuery.create(topDocs.scoreDocs);
+    }
+
+    private ScoreDoc[] searchLeaf(LeafReaderContext ctx, @Nullable Weight filterWeight) throws IOException {
+        HnswGraph graph = fieldData.loadGraph(ctx);
+        if (graph == null) {
+            return new ScoreDoc[0];
+        }
+        LeafReader reader = ctx.reader();
+        Bits liveDocs = reader.getLiveDocs();
+        Bits acceptDocs = liveDocs;
+        if (filterWeight != null) {
+            Scorer scorer = filterWeight.scorer(ctx);
+            if (scorer == null) {
+                return new ScoreDoc[0];
+            }
+            FixedBitSet filterDocs = new FixedBitSet(reader.maxDoc());
+            filterDocs.or(scorer.iterator());
+            acceptDocs = liveDocs == null ? filterDocs : new Bits() {
+                @Override
+                public boolean get(int index) {
+                    return filterDocs.get(index) && liveDocs.get(index);
+                }
+
+                @Override
+                public int length() {
+                    return filterDocs.length();
+                }
+            };
+        }
+        return graph.search(queryVector, k, numCandidates, acceptDocs);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        throw new IllegalStateException("[" + getClass().getSimpleName() + "] must be rewritten before it is executed");
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(fieldData.getFieldName())) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public String toString(String field) {
+        return "KnnVectorQuery{field=" + fieldData.getFieldName() + ", k=" + k + ", num_candidates=" + numCandidates
+            + (filter == null ? "" : ", filter=" + filter) + "}";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        KnnVectorQuery other = (KnnVectorQuery) obj;
+        return fieldData.getFieldName().equals(other.fieldData.getFieldName())
+            && Arrays.equals(queryVector, other.queryVector)
+            && k == other.k
+            && numCandidates == other.numCandidates
+            && Objects.equals(filter, other.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), fieldData.getFieldName(), Arrays.hashCode(queryVector), k, numCandidates, filter);
+    }
+
+    /**
+     * The rewritten form of a {@link KnnVectorQuery}: matches a fixed set of documents with fixed scores.
+     */
+    static final class KnnScoreDocQuery extends Query {
+        // global doc ids, sorted
+        private final int[] docs;
+        private final float[] scores;
+
+        private KnnScoreDocQuery(int[] docs, float[] scores) {
+            this.docs = docs;
+            this.scores = scores;
+        }
+
+        static KnnScoreDocQuery create(ScoreDoc[] scoreDocs) {
+            ScoreDoc[] sorted = scoreDocs.clone();
+            Arrays.sort(sorted, (a, b) -> Integer.compare(a.doc, b.doc));
+            int[] docs = new int[sorted.length];
+            float[] scores = new float[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                docs[i] = sorted[i].doc;
+                scores[i] = sorted[i].score;
+            }
+            return new KnnScoreDocQuery(docs, scores);
+        }
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+            return new Weight(this) {
+                @Override
+                public void extractTerms(Set<Term> terms) {
+                }
+
+                @Override
+                public Explanation explain(LeafReaderContext context, int doc) {
+                    int index = Arrays.binarySearch(docs, context.docBase + doc);
+                    if (index < 0) {
+                        return Explanation.noMatch("not a nearest neighbor");
+                    }
+                    return Explanation.match(scores[index] * boost, "nearest neighbor similarity");
+                }
+
+                @Override
+                public Scorer scorer(LeafReaderContext context) {
+                    int from = lowerBound(context.docBase);
+                    int to = lowerBound(context.docBase + context.reader().maxDoc());
+                    if (from == to) {
+                        return null;
+                    }
+                    return new KnnScorer(this, context.docBase, from, to, boost);
+                }
+
+                @Override
+                public boolean isCacheable(LeafReaderContext ctx) {
+                    // the doc ids and scores were computed for the top-level reader that rewrote the query, they must not be
+                    // reused for the same segment within another reader
+                    return false;
+                }
+            };
+        }
+
+        private int lowerBound(int doc) {
+            int index = Arrays.binarySearch(docs, doc);
+            return index < 0 ? -1 - index : index;
+        }
+
+        private final class KnnScorer extends Scorer {
+            private final int docBase;
+            private final int from;
+            private final int to;
+            private final float boost;
+            private int index;
+
+            KnnScorer(Weight weight, int docBase, int from, int to, float boost) {
+                super(weight);
+                this.docBase = docBase;
+                this.from = from;
+                this.to = to;
+                this.boost = boost;
+                this.index = from - 1;
+            }
+
+            @Override
+            public DocIdSetIterator iterator() {
+                return new DocIdSetIterator() {
+                    @Override
+                    public int docID() {
+                        return KnnScorer.this.docID();
+                    }
+
+                    @Override
+                    public int nextDoc() {
+                        index++;
+                        return docID();
+                    }
+
+                    @Override
+                    public int advance(int target) {
+                        index = Math.max(index + 1, lowerBound(docBase + target));
+                        return docID();
+                    }
+
+                    @Override
+                    public long cost() {
+                        return to - from;
+                    }
+                };
+            }
+
+            @Override
+            public int docID() {
+                if (index < from) {
+                    return -1;
+                } else if (index >= to) {
+                    return DocIdSetIterator.NO_MORE_DOCS;
+                }
+                return docs[index] - docBase;
+            }
+
+            @Override
+            public float getMaxScore(int upTo) {
+                float maxScore = 0;
+                for (int i = from; i < to; i++) {
+                    maxScore = Math.max(maxScore, scores[i]);
+                }
+                return maxScore * boost;
+            }
+
+            @Override
+            public float score() {
+                return scores[index] * boost;
+            }
+        }
+
+        @Override
+        public String toString(String field) {
+            return "KnnScoreDocQuery{docs=" + docs.length + "}";
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (sameClassAs(obj) == false) {
+                return false;
+            }
+            KnnScoreDocQuery other = (KnnScoreDocQuery) obj;
+            return Arrays.equals(docs, other.docs) && Arrays.equals(scores, other.scores);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classHash(), Arrays.hashCode(docs), Arrays.hashCode(scores));
+        }
+    }
+}
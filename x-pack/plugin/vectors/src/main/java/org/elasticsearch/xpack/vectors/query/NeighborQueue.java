@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * A binary heap of graph nodes ordered by their score. Each entry is encoded into a single long, the score in the high
+ * bits and the node in the low bits, so that the queue doesn't allocate an object per entry.
+ */
+final class NeighborQueue {
+
+    private final boolean maxHeap;
+    private long[] heap;
+    private int size;
+
+    /**
+     * @param initialSize the initial capacity of the queue
+     * @param maxHeap whether the best scoring node (<code>true</code>) or the worst scoring node (<code>false</code>) is on top
+     */
+    NeighborQueue(int initialSize, boolean maxHeap) {
+        this.maxHeap = maxHeap;
+        this.heap = new long[Math.max(1, initialSize)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int node, float score) {
+        if (size == heap.length) {
+            heap = ArrayUtil.grow(heap, size + 1);
+        }
+        heap[size] = encode(node, score);
+        upHeap(size++);
+    }
+
+    /**
+     * Adds the node if the queue holds less than <code>maxSize</code> entries, or replaces the top entry if the queue is full
+     * and the node is better than the top entry. Only meaningful for min-heaps that keep the best <code>maxSize</code> nodes.
+     */
+    void insertWithOverflow(int node, float score, int maxSize) {
+        assert maxHeap == false;
+        if (size < maxSize) {
+            add(node, score);
+        } else {
+            long encoded = encode(node, score);
+            if (encoded > heap[0]) {
+                heap[0] = encoded;
+                downHeap(0);
+            }
+        }
+    }
+
+    int topNode() {
+        return decodeNode(heap[0]);
+    }
+
+    float topScore() {
+        return decodeScore(heap[0]);
+    }
+
+    /**
+     * Removes the top entry and returns its node.
+     */
+    int pop() {
+        assert size > 0;
+        long top = heap[0];
+        heap[0] = heap[--size];
+        if (size > 0) {
+            downHeap(0);
+        }
+        return decodeNode(top);
+    }
+
+    private boolean lessThan(long a, long b) {
+        return maxHeap ? a > b : a < b;
+    }
+
+    private void upHeap(int i) {
+        long value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (lessThan(value, heap[parent]) == false) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private void downHeap(int i) {
+        long value = heap[i];
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && lessThan(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (lessThan(heap[child], value) == false) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    private static long encode(int node, float score) {
+        return (((long) NumericUtils.floatToSortableInt(score)) << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private static int decodeNode(long encoded) {
+        return (int) encoded;
+    }
+
+    private static float decodeScore(long encoded) {
+        return NumericUtils.sortableIntToFloat((int) (encoded >> 32));
+    }
+}
@@ -8,14 +8,21 @@
 
 package org.elasticsearch.xpack.vectors.query;
 
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.SortField;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.MultiValueMode;
@@ -23,20 +30,40 @@ import org.elasticsearch.search.aggregations.support.ValuesSourceType;
 import org.elasticsearch.search.sort.BucketedSort;
 import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.xpack.vectors.mapper.DenseVectorFieldMapper;
+import org.elasticsearch.xpack.vectors.mapper.VectorSimilarity;
 
+import java.io.IOException;
 
-public class VectorIndexFieldData implements IndexFieldData<VectorDVLeafFieldData> {
+/**
+ * Field data of a <code>dense_vector</code> field. Scripts read the vectors from doc values. If the vectors are indexed, the
+ * {@link HnswGraph} of each segment is loaded through the field data cache, which bounds the memory used by graphs and accounts
+ * for them in the field data circuit breaker. Graphs are loaded by the field data warmer when a shard is refreshed, see
+ * {@link #loadGlobal(DirectoryReader)}, so that searches do not have to build them.
+ */
+public class VectorIndexFieldData implements IndexFieldData.Global<VectorDVLeafFieldData> {
 
     protected final String fieldName;
     protected final ValuesSourceType valuesSourceType;
     private final Version indexVersion;
     private final int dims;
-
-    public VectorIndexFieldData(String fieldName, ValuesSourceType valuesSourceType, Version indexVersion, int dims) {
+    @Nullable
+    private final VectorSimilarity similarity;
+    private final IndexFieldDataCache cache;
+    private final CircuitBreakerService breakerService;
+    private final GraphFieldData graphFieldData = new GraphFieldData();
+
+    /**
+     * @param similarity the similarity of the indexed vectors, or <code>null</code> if the vectors are not indexed
+     */
+    public VectorIndexFieldData(String fieldName, ValuesSourceType valuesSourceType, Version indexVersion, int dims,
+                                @Nullable VectorSimilarity similarity, IndexFieldDataCache cache, CircuitBreakerService breakerService) {
         this.fieldName = fieldName;
         this.valuesSourceType = valuesSourceType;
         this.indexVersion = indexVersion;
         this.dims = dims;
+        this.similarity = similarity;
+        this.cache = cache;
+        this.breakerService = breakerService;
     }
 
     @Override
@@ -71,22 +98,149 @@ public class VectorIndexFieldData implements IndexFieldData<VectorDVLeafFieldDat
         return load(context);
     }
 
+    /**
+     * Loads the graphs of all segments of the provided reader.
+     */
+    @Override
+    public VectorIndexFieldData loadGlobal(DirectoryReader indexReader) {
+        if (similarity != null) {
+            for (LeafReaderContext context : indexReader.leaves()) {
+                loadGraph(context);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public VectorIndexFieldData loadGlobalDirect(DirectoryReader indexReader) {
+        return loadGlobal(indexReader);
+    }
+
+    /**
+     * Returns the graph of the indexed vectors of the provided segment, or <code>null</code> if the segment has no vectors.
+     */
+    public HnswGraph loadGraph(LeafReaderContext context) {
+        if (similarity == null) {
+            throw new IllegalStateException("field [" + fieldName + "] is not indexed");
+        }
+        if (context.reader().getFieldInfos().fieldInfo(fieldName) == null) {
+            return null;
+        }
+        try {
+            return cache.load(context, graphFieldData).graph;
+        } catch (Exception e) {
+            if (e instanceof ElasticsearchException) {
+                throw (ElasticsearchException) e;
+            } else {
+                throw new ElasticsearchException(e);
+            }
+        }
+    }
+
+    private HnswGraph buildGraph(LeafReaderContext context) throws IOException {
+        // account for the graph before building it since it holds a copy of all vectors of the segment
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        final int numVectors = Math.toIntExact(DocValues.getBinary(context.reader(), fieldName).cost());
+        final long estimate = HnswGraph.ramBytesEstimate(numVectors, dims);
+        breaker.addEstimateBytesAndMaybeBreak(estimate, "knn graph [" + fieldName + "]");
+        HnswGraph graph = null;
+        try {
+            graph = HnswGraph.build(context.reader(), fieldName, dims, similarity);
+            return graph;
+        } finally {
+            // adjust the breaker to the actual size of the graph, or release the estimate if the graph could not be built
+            breaker.addWithoutBreaking((graph == null ? 0 : graph.ramBytesUsed()) - estimate);
+        }
+    }
+
+    /**
+     * The per-segment graphs of an indexed field, as they are stored in the field data cache.
+     */
+    private class GraphFieldData implements IndexFieldData<GraphLeafFieldData> {
+
+        @Override
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        @Override
+        public ValuesSourceType getValuesSourceType() {
+            return valuesSourceType;
+        }
+
+        @Override
+        public GraphLeafFieldData load(LeafReaderContext context) {
+            throw new UnsupportedOperationException("graphs must be loaded with VectorIndexFieldData#loadGraph");
+        }
+
+        @Override
+        public GraphLeafFieldData loadDirect(LeafReaderContext context) throws Exception {
+            return new GraphLeafFieldData(buildGraph(context));
+        }
+
+        @Override
+        public SortField sortField(@Nullable Object missingValue, MultiValueMode sortMode, Nested nested, boolean reverse) {
+            return VectorIndexFieldData.this.sortField(missingValue, sortMode, nested, reverse);
+        }
+
+        @Override
+        public BucketedSort newBucketedSort(BigArrays bigArrays, Object missingValue, MultiValueMode sortMode, Nested nested,
+                SortOrder sortOrder, DocValueFormat format, int bucketSize, BucketedSort.ExtraData extra) {
+            return VectorIndexFieldData.this.newBucketedSort(bigArrays, missingValue, sortMode, nested, sortOrder, format,
+                bucketSize, extra);
+        }
+    }
+
+    private static class GraphLeafFieldData implements LeafFieldData {
+        private final HnswGraph graph;
+
+        GraphLeafFieldData(HnswGraph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return graph.ramBytesUsed();
+        }
+
+        @Override
+        public ScriptDocValues<?> getScriptValues() {
+            throw new UnsupportedOperationException("graphs don't support scripts");
+        }
+
+        @Override
+        public SortedBinaryDocValues getBytesValues() {
+            throw new UnsupportedOperationException("graphs don't support bytes values");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
     public static class Builder implements IndexFieldData.Builder {
         private final String name;
         private final ValuesSourceType valuesSourceType;
         private final Version indexVersion;
         private final int dims;
-
-        public Builder(String name, ValuesSourceType valuesSourceType, Version indexVersion, int dims) {
+        @Nullable
+        private final VectorSimilarity similarity;
+
+        /**
+         * @param similarity the similarity of the indexed vectors, or <code>null</code> if the vectors are not indexed
+         */
+        public Builder(String name, ValuesSourceType valuesSourceType, Version indexVersion, int dims,
+                       @Nullable VectorSimilarity similarity) {
             this.name = name;
             this.valuesSourceType = valuesSourceType;
             this.indexVersion = indexVersion;
             this.dims = dims;
+            this.similarity = similarity;
         }
 
         @Override
         public IndexFieldData<?> build(IndexFieldDataCache cache, CircuitBreakerService breakerService) {
-            return new VectorIndexFieldData(name, valuesSourceType, indexVersion, dims);
+            return new VectorIndexFieldData(name, valuesSourceType, indexVersion, dims, similarity, cache, breakerService);
         }
 
     }
@@ -12,13 +12,18 @@ import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MapperTestCase;
 import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.xpack.vectors.Vectors;
+import org.elasticsearch.xpack.vectors.query.KnnVectorQuery;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -28,6 +33,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Mockito.when;
 
 public class DenseVectorFieldMapperTests extends MapperTestCase {
 
@@ -51,6 +57,46 @@ public class DenseVectorFieldMapperTests extends MapperTestCase {
         checker.registerConflictCheck("dims",
             fieldMapping(b -> b.field("type", "dense_vector").field("dims", 4)),
             fieldMapping(b -> b.field("type", "dense_vector").field("dims", 5)));
+        checker.registerConflictCheck("index",
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 4).field("index", false)),
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 4).field("index", true)));
+        checker.registerConflictCheck("similarity",
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 4).field("index", true).field("similarity", "l2_norm")),
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 4).field("index", true).field("similarity", "cosine")));
+    }
+
+    public void testKnnQuery() throws IOException {
+        MapperService mapperService = createMapperService(
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 3).field("index", true).field("similarity", "cosine")));
+        DenseVectorFieldMapper.DenseVectorFieldType fieldType =
+            (DenseVectorFieldMapper.DenseVectorFieldType) mapperService.fieldType("field");
+        assertTrue(fieldType.isSearchable());
+        assertTrue(fieldType.eagerGlobalOrdinals());
+        SearchExecutionContext context = createSearchExecutionContext(mapperService);
+        when(context.getForField(fieldType)).thenAnswer(
+            inv -> fieldType.fielddataBuilder("test", null).build(new IndexFieldDataCache.None(), new NoneCircuitBreakerService()));
+        assertThat(fieldType.createKnnQuery(context, new float[] { 1, 2, 3 }, 10, 100, null), instanceOf(KnnVectorQuery.class));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> fieldType.createKnnQuery(context, new float[] { 1, 2 }, 10, 100, null));
+        assertThat(e.getMessage(), containsString("the query vector has a different number of dimensions [2]"));
+
+        MapperService notIndexed = createMapperService(fieldMapping(b -> b.field("type", "dense_vector").field("dims", 3)));
+        DenseVectorFieldMapper.DenseVectorFieldType notIndexedType =
+            (DenseVectorFieldMapper.DenseVectorFieldType) notIndexed.fieldType("field");
+        assertFalse(notIndexedType.eagerGlobalOrdinals());
+        e = expectThrows(IllegalArgumentException.class,
+            () -> notIndexedType.createKnnQuery(createSearchExecutionContext(notIndexed), new float[] { 1, 2, 3 }, 10, 100, null));
+        assertThat(e.getMessage(), containsString("its mapping must have [index] set to [true]"));
+    }
+
+    public void testIndexAndSimilarityRequireCurrentIndexVersion() {
+        Version indexVersion = Version.V_7_10_0;
+        Exception e = expectThrows(MapperParsingException.class, () -> createMapperService(indexVersion,
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 3).field("index", true))));
+        assertThat(e.getMessage(), containsString("unknown parameter [index] on mapper [field] of type [dense_vector]"));
+        e = expectThrows(MapperParsingException.class, () -> createMapperService(indexVersion,
+            fieldMapping(b -> b.field("type", "dense_vector").field("dims", 3).field("similarity", "cosine"))));
+        assertThat(e.getMessage(), containsString("unknown parameter [similarity] on mapper [field] of type [dense_vector]"));
     }
 
     @Override
@@ -0,0 +1,123 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.vectors.mapper.VectorSimilarity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class HnswGraphTests extends ESTestCase {
+
+    public void testRecall() {
+        VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        int dims = randomIntBetween(2, 16);
+        float[][] vectors = randomVectors(randomIntBetween(500, 2000), dims, similarity);
+        int[] docs = new int[vectors.length];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = i;
+        }
+        HnswGraph graph = HnswGraph.build(similarity, vectors, docs, HnswGraph.DEFAULT_MAX_CONNECTIONS, HnswGraph.DEFAULT_BEAM_WIDTH);
+        assertEquals(vectors.length, graph.size());
+
+        int k = 10;
+        int found = 0;
+        int numQueries = 20;
+        for (int i = 0; i < numQueries; i++) {
+            float[] query = randomVector(dims, similarity);
+            ScoreDoc[] actual = graph.search(query, k, 100, null);
+            assertEquals(k, actual.length);
+            for (int j = 1; j < actual.length; j++) {
+                assertThat(actual[j].score, lessThanOrEqualTo(actual[j - 1].score));
+            }
+            Set<Integer> expected = bruteForce(vectors, query, similarity, k, null);
+            for (ScoreDoc scoreDoc : actual) {
+                if (expected.contains(scoreDoc.doc)) {
+                    found++;
+                }
+            }
+        }
+        assertThat((double) found / (numQueries * k), greaterThanOrEqualTo(0.9));
+    }
+
+    public void testAcceptDocs() {
+        VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        int dims = randomIntBetween(2, 8);
+        float[][] vectors = randomVectors(randomIntBetween(50, 200), dims, similarity);
+        int[] docs = new int[vectors.length];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = i;
+        }
+        FixedBitSet acceptDocs = new FixedBitSet(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            if (rarely()) {
+                acceptDocs.set(i);
+            }
+        }
+        HnswGraph graph = HnswGraph.build(similarity, vectors, docs, HnswGraph.DEFAULT_MAX_CONNECTIONS, HnswGraph.DEFAULT_BEAM_WIDTH);
+        float[] query = randomVector(dims, similarity);
+        // with as many candidates as vectors the search is exhaustive
+        ScoreDoc[] actual = graph.search(query, 5, vectors.length, acceptDocs);
+        Set<Integer> expected = bruteForce(vectors, query, similarity, 5, acceptDocs);
+        assertEquals(expected.size(), actual.length);
+        for (ScoreDoc scoreDoc : actual) {
+            assertTrue(acceptDocs.get(scoreDoc.doc));
+            assertTrue(expected.contains(scoreDoc.doc));
+        }
+    }
+
+    public void testEmptyGraph() {
+        HnswGraph graph = HnswGraph.build(VectorSimilarity.L2_NORM, new float[0][], new int[0],
+            HnswGraph.DEFAULT_MAX_CONNECTIONS, HnswGraph.DEFAULT_BEAM_WIDTH);
+        assertEquals(0, graph.size());
+        assertEquals(0, graph.search(new float[] { 1f }, 10, 100, null).length);
+    }
+
+    private static float[][] randomVectors(int size, int dims, VectorSimilarity similarity) {
+        float[][] vectors = new float[size][];
+        for (int i = 0; i < size; i++) {
+            vectors[i] = randomVector(dims, similarity);
+        }
+        return vectors;
+    }
+
+    private static float[] randomVector(int dims, VectorSimilarity similarity) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = randomFloat() * 2 - 1;
+        }
+        similarity.normalize(vector);
+        return vector;
+    }
+
+    private static Set<Integer> bruteForce(float[][] vectors, float[] query, VectorSimilarity similarity, int k, Bits acceptDocs) {
+        Integer[] nodes = new Integer[vectors.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        Arrays.sort(nodes, (a, b) -> Float.compare(similarity.compare(query, vectors[b]), similarity.compare(query, vectors[a])));
+        Set<Integer> topK = new HashSet<>();
+        for (Integer node : nodes) {
+            if (topK.size() == k) {
+                break;
+            }
+            if (acceptDocs == null || acceptDocs.get(node)) {
+                topK.add(node);
+            }
+        }
+        return topK;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.vectors.mapper.VectorSimilarity;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class KnnVectorQueryTests extends ESTestCase {
+
+    public void testNearestNeighbors() throws IOException {
+        int dims = randomIntBetween(2, 8);
+        VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        int numDocs = randomIntBetween(10, 100);
+        float[][] vectors = new float[numDocs][];
+        VectorIndexFieldData fieldData = fieldData(dims, similarity, new IndexFieldDataCache.None(), new NoneCircuitBreakerService());
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            for (int i = 0; i < numDocs; i++) {
+                vectors[i] = new float[dims];
+                for (int d = 0; d < dims; d++) {
+                    vectors[i][d] = randomFloat();
+                }
+                Document doc = new Document();
+                doc.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+                doc.add(new StringField("even", Boolean.toString(i % 2 == 0), Field.Store.NO));
+                doc.add(new BinaryDocValuesField("vector", DenseVectorFunctionTests.mockEncodeDenseVector(vectors[i], Version.CURRENT)));
+                writer.addDocument(doc);
+                if (rarely()) {
+                    writer.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                float[] queryVector = new float[dims];
+                for (int d = 0; d < dims; d++) {
+                    queryVector[d] = randomFloat();
+                }
+                similarity.normalize(queryVector);
+                int k = randomIntBetween(1, 5);
+
+                // with as many candidates as documents, the search is exact
+                Query query = new KnnVectorQuery(fieldData, queryVector, k, numDocs, null);
+                TopDocs topDocs = searcher.search(query, numDocs);
+                assertThat(topDocs.scoreDocs.length, equalTo(k));
+                assertNearest(searcher, topDocs, vectors, queryVector, similarity, null);
+
+                Query filter = new TermQuery(new Term("even", "true"));
+                query = new KnnVectorQuery(fieldData, queryVector, k, numDocs, filter);
+                topDocs = searcher.search(query, numDocs);
+                assertThat(topDocs.scoreDocs.length, equalTo(Math.min(k, (numDocs + 1) / 2)));
+                assertNearest(searcher, topDocs, vectors, queryVector, similarity, filter);
+
+                // the rewritten query holds doc ids of this reader, it must not be cached per segment
+                Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1f);
+                for (LeafReaderContext ctx : reader.leaves()) {
+                    assertFalse(weight.isCacheable(ctx));
+                }
+            }
+        }
+    }
+
+    public void testGraphsAreCachedAndAccounted() throws IOException {
+        int dims = randomIntBetween(2, 8);
+        VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        Settings settings = Settings.builder()
+            .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+            .build();
+        CircuitBreakerService breakerService = new HierarchyCircuitBreakerService(settings, Collections.emptyList(),
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        IndicesFieldDataCache indicesCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+            @Override
+            public void onRemoval(ShardId shardId, String fieldName, boolean wasEvicted, long sizeInBytes) {
+                breaker.addWithoutBreaking(-sizeInBytes);
+            }
+        });
+        IndexFieldDataCache cache = indicesCache.buildIndexFieldDataCache(new IndexFieldDataCache.Listener() {},
+            new Index("test", "_na_"), "vector");
+        VectorIndexFieldData fieldData = fieldData(dims, similarity, cache, breakerService);
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+                int numDocs = randomIntBetween(10, 100);
+                for (int i = 0; i < numDocs; i++) {
+                    float[] vector = new float[dims];
+                    for (int d = 0; d < dims; d++) {
+                        vector[d] = randomFloat();
+                    }
+                    Document doc = new Document();
+                    doc.add(new BinaryDocValuesField("vector", DenseVectorFunctionTests.mockEncodeDenseVector(vector, Version.CURRENT)));
+                    writer.addDocument(doc);
+                    if (rarely()) {
+                        writer.commit();
+                    }
+                }
+            }
+            try (DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(dir), new ShardId("test", "_na_", 0))) {
+                // warming loads the graphs of all segments
+                assertThat(fieldData.loadGlobal(reader), sameInstance(fieldData));
+                long used = 0;
+                for (LeafReaderContext ctx : reader.leaves()) {
+                    HnswGraph graph = fieldData.loadGraph(ctx);
+                    assertThat(fieldData.loadGraph(ctx), sameInstance(graph));
+                    used += graph.ramBytesUsed();
+                }
+                assertThat(indicesCache.getCache().count(), equalTo(reader.leaves().size()));
+                assertThat(breaker.getUsed(), equalTo(used));
+            }
+            // closing the segments evicts their graphs
+            assertThat(indicesCache.getCache().count(), equalTo(0));
+            assertThat(breaker.getUsed(), equalTo(0L));
+        } finally {
+            indicesCache.close();
+        }
+    }
+
+    public void testGraphsTripTheBreaker() throws IOException {
+        Settings settings = Settings.builder()
+            .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+            .put(HierarchyCircuitBreakerService.FIELDDATA_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "1b")
+            .build();
+        CircuitBreakerService breakerService = new HierarchyCircuitBreakerService(settings, Collections.emptyList(),
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        VectorIndexFieldData fieldData = fieldData(2, VectorSimilarity.L2_NORM, new IndexFieldDataCache.None(), breakerService);
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            Document doc = new Document();
+            doc.add(new BinaryDocValuesField("vector",
+                DenseVectorFunctionTests.mockEncodeDenseVector(new float[] { 1, 2 }, Version.CURRENT)));
+            writer.addDocument(doc);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                expectThrows(CircuitBreakingException.class, () -> fieldData.loadGraph(reader.leaves().get(0)));
+                assertThat(breakerService.getBreaker(CircuitBreaker.FIELDDATA).getUsed(), equalTo(0L));
+            }
+        }
+    }
+
+    private static VectorIndexFieldData fieldData(int dims, VectorSimilarity similarity, IndexFieldDataCache cache,
+                                                  CircuitBreakerService breakerService) {
+        return new VectorIndexFieldData("vector", CoreValuesSourceType.KEYWORD, Version.CURRENT, dims, similarity, cache,
+            breakerService);
+    }
+
+    /**
+     * Checks that no document that matches the filter is more similar to the query vector than the returned documents.
+     */
+    private static void assertNearest(IndexSearcher searcher, TopDocs topDocs, float[][] vectors, float[] queryVector,
+                                      VectorSimilarity similarity, Query filter) throws IOException {
+        float minScore = Float.POSITIVE_INFINITY;
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+            minScore = Math.min(minScore, scoreDoc.score);
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            Query idQuery = new TermQuery(new Term("id", Integer.toString(i)));
+            TopDocs idTopDocs = searcher.search(idQuery, 1);
+            int doc = idTopDocs.scoreDocs[0].doc;
+            boolean returned = false;
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                returned |= scoreDoc.doc == doc;
+            }
+            if (returned == false && (filter == null || searcher.count(filterAndId(filter, idQuery)) == 1)) {
+                float[] vector = vectors[i].clone();
+                similarity.normalize(vector);
+                assertThat(similarity.compare(queryVector, vector), lessThanOrEqualTo(minScore));
+            }
+        }
+    }
+
+    private static Query filterAndId(Query filter, Query idQuery) {
+        return new BooleanQuery.Builder()
+            .add(filter, BooleanClause.Occur.FILTER)
+            .add(idQuery, BooleanClause.Occur.FILTER)
+            .build();
+    }
+}
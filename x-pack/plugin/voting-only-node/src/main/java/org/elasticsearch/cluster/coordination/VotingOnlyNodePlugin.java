@@ -193,7 +193,7 @@ public class VotingOnlyNodePlugin extends Plugin implements DiscoveryPlugin, Net
             TransportRequestOptions options,
             TransportResponseHandler<T> handler
         ) {
-            if (action.equals(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME)) {
+            if (action.equals(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME) || isLastPublishStateChunk(action, request)) {
                 final DiscoveryNode destinationNode = connection.getNode();
                 if (isFullMasterNode(destinationNode)) {
                     sender.sendRequest(connection, action, request, options, new TransportResponseHandler<>() {
@@ -234,9 +234,26 @@ public class VotingOnlyNodePlugin extends Plugin implements DiscoveryPlugin, Net
                             )
                         );
                 }
+            } else if (action.equals(PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME)
+                && isFullMasterNode(connection.getNode()) == false) {
+                // the last chunk of the cluster state isn't sent to this node either, so the other ones aren't needed
+                threadPoolSupplier.get()
+                    .generic()
+                    .execute(
+                        () -> handler.handleException(
+                            new TransportException(
+                                new ElasticsearchException("voting-only node skipping publication to " + connection.getNode())
+                            )
+                        )
+                    );
             } else {
                 sender.sendRequest(connection, action, request, options, handler);
             }
         }
+
+        private static boolean isLastPublishStateChunk(String action, TransportRequest request) {
+            return action.equals(PublicationTransportHandler.PUBLISH_STATE_CHUNK_ACTION_NAME)
+                && ((PublishStateChunkRequest) request).isLastChunk();
+        }
     }
 }